@@ -662,10 +662,10 @@ public class HomeXMLExporter extends ObjectXMLExporter<Home> {
           writeTextStyle(writer, room.getAreaStyle(), "areaStyle");
           writeTexture(writer, room.getFloorTexture(), "floorTexture");
           writeTexture(writer, room.getCeilingTexture(), "ceilingTexture");
-          for (float [] point : room.getPoints()) {
+          for (int i = 0, n = room.getPointCount(); i < n; i++) {
             writer.writeStartElement("point");
-            writer.writeFloatAttribute("x", point [0]);
-            writer.writeFloatAttribute("y", point [1]);
+            writer.writeFloatAttribute("x", room.getPointX(i));
+            writer.writeFloatAttribute("y", room.getPointY(i));
             writer.writeEndElement();
           }
         }
@@ -709,10 +709,10 @@ public class HomeXMLExporter extends ObjectXMLExporter<Home> {
         @Override
         protected void writeChildren(XMLWriter writer, Polyline polyline) throws IOException {
           writeProperties(writer, polyline);
-          for (float [] point : polyline.getPoints()) {
+          for (int i = 0, n = polyline.getPointCount(); i < n; i++) {
             writer.writeStartElement("point");
-            writer.writeFloatAttribute("x", point [0]);
-            writer.writeFloatAttribute("y", point [1]);
+            writer.writeFloatAttribute("x", polyline.getPointX(i));
+            writer.writeFloatAttribute("y", polyline.getPointY(i));
             writer.writeEndElement();
           }
         }
@@ -0,0 +1,1437 @@
+/*
+ * BinaryModelCache.java 19 oct. 2026
+ *
+ * Sweet Home 3D, Copyright (c) 2024 Space Mushrooms <info@sweethome3d.com>
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package com.eteks.sweethome3d.j3d;
+
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import javax.media.j3d.Appearance;
+import javax.media.j3d.BranchGroup;
+import javax.media.j3d.ColoringAttributes;
+import javax.media.j3d.Geometry;
+import javax.media.j3d.GeometryArray;
+import javax.media.j3d.GeometryStripArray;
+import javax.media.j3d.Group;
+import javax.media.j3d.ImageComponent;
+import javax.media.j3d.ImageComponent2D;
+import javax.media.j3d.IndexedGeometryArray;
+import javax.media.j3d.IndexedGeometryStripArray;
+import javax.media.j3d.IndexedLineArray;
+import javax.media.j3d.IndexedLineStripArray;
+import javax.media.j3d.IndexedPointArray;
+import javax.media.j3d.IndexedQuadArray;
+import javax.media.j3d.IndexedTriangleArray;
+import javax.media.j3d.IndexedTriangleFanArray;
+import javax.media.j3d.IndexedTriangleStripArray;
+import javax.media.j3d.LineArray;
+import javax.media.j3d.LineAttributes;
+import javax.media.j3d.LineStripArray;
+import javax.media.j3d.Link;
+import javax.media.j3d.Material;
+import javax.media.j3d.Node;
+import javax.media.j3d.PointArray;
+import javax.media.j3d.PointAttributes;
+import javax.media.j3d.PolygonAttributes;
+import javax.media.j3d.QuadArray;
+import javax.media.j3d.RenderingAttributes;
+import javax.media.j3d.SceneGraphObject;
+import javax.media.j3d.Shape3D;
+import javax.media.j3d.SharedGroup;
+import javax.media.j3d.TexCoordGeneration;
+import javax.media.j3d.Texture;
+import javax.media.j3d.Texture2D;
+import javax.media.j3d.TextureAttributes;
+import javax.media.j3d.Transform3D;
+import javax.media.j3d.TransformGroup;
+import javax.media.j3d.TransparencyAttributes;
+import javax.media.j3d.TriangleArray;
+import javax.media.j3d.TriangleFanArray;
+import javax.media.j3d.TriangleStripArray;
+import javax.vecmath.Color3f;
+import javax.vecmath.Color4f;
+import javax.vecmath.Vector4f;
+
+import com.eteks.sweethome3d.tools.HexEncoder;
+import com.eteks.sweethome3d.tools.URLContent;
+
+/**
+ * A cache storing on disk the 3D models built by {@link ModelManager} in a binary format,
+ * to avoid parsing again the same model files from one session to the other.
+ * Cached files are named after a digest computed from the zip entry of a model, store the size
+ * and the CRC of the resources referenced by the model to check they didn't change, and are
+ * read back with bulk reads of their vertex and index arrays. Least recently used files are deleted
+ * once the cache folder gets bigger than its maximum size.
+ * @author Emmanuel Puybaret
+ */
+class BinaryModelCache {
+  // Increment this version each time the format of cached files or models post-processing in ModelManager change.
+  // Changes in loaders are taken into account by the loaders version given to the constructor
+  private static final int    CACHE_VERSION = 2;
+  private static final int    MAGIC_NUMBER  = 0x53483344; // SH3D
+  private static final String CACHE_FILE_EXTENSION = ".model";
+
+  private static final byte   NULL_OBJECT      = 0;
+  private static final byte   NEW_OBJECT       = 1;
+  private static final byte   REFERENCE_OBJECT = 2;
+
+  private static final byte   BRANCH_GROUP     = 1;
+  private static final byte   TRANSFORM_GROUP  = 2;
+  private static final byte   GROUP            = 3;
+  private static final byte   LINK             = 4;
+  private static final byte   SHAPE            = 5;
+
+  private static final Class<?> [] GEOMETRY_CLASSES = {
+      TriangleArray.class, QuadArray.class, LineArray.class, PointArray.class,
+      TriangleStripArray.class, TriangleFanArray.class, LineStripArray.class,
+      IndexedTriangleArray.class, IndexedQuadArray.class, IndexedLineArray.class, IndexedPointArray.class,
+      IndexedTriangleStripArray.class, IndexedTriangleFanArray.class, IndexedLineStripArray.class};
+
+  private static final int    UNSUPPORTED_VERTEX_FORMAT =
+      GeometryArray.USE_NIO_BUFFER | GeometryArray.VERTEX_ATTRIBUTES;
+
+  private final File   cacheFolder;
+  private final String loadersVersion;
+  private final long   maximumSize;
+  private long         cacheSize = -1;
+
+  /**
+   * Creates a cache storing its files in the given folder.
+   * @param cacheFolder     the folder where cached models are stored
+   * @param loadersVersion  a string identifying the loaders used to build models
+   * @param maximumSize     the size in bytes above which least recently used files are deleted
+   */
+  public BinaryModelCache(File cacheFolder, String loadersVersion, long maximumSize) {
+    this.cacheFolder = cacheFolder;
+    this.loadersVersion = loadersVersion;
+    this.maximumSize = maximumSize;
+  }
+
+  /**
+   * Returns the model cached for the given <code>content</code> or <code>null</code>
+   * if it's not cached or if its cached file can't be read.
+   */
+  public BranchGroup readModel(URLContent content) {
+    ZipFile zipFile = openZipFile(content);
+    if (zipFile == null) {
+      return null;
+    }
+    File cacheFile = null;
+    DataInputStream in = null;
+    try {
+      cacheFile = getCacheFile(zipFile, getEntryName(content));
+      if (cacheFile == null
+          || !cacheFile.exists()) {
+        return null;
+      }
+      in = new DataInputStream(new BufferedInputStream(new FileInputStream(cacheFile), 65536));
+      if (in.readInt() == MAGIC_NUMBER
+          && in.readInt() == CACHE_VERSION
+          && checkResourceEntries(in, zipFile)) {
+        Node node = readNode(in, new ArrayList<Object>());
+        if (node instanceof BranchGroup) {
+          // Keep track of the last use of the file
+          cacheFile.setLastModified(System.currentTimeMillis());
+          return (BranchGroup)node;
+        }
+      }
+    } catch (IOException ex) {
+      // Ignore invalid cache file
+    } catch (RuntimeException ex) {
+      // Ignore cache file containing invalid data
+    } finally {
+      closeStream(in);
+      closeZipFile(zipFile);
+    }
+    // Delete invalid cache file
+    if (cacheFile != null) {
+      cacheFile.delete();
+    }
+    return null;
+  }
+
+  /**
+   * Writes the given <code>model</code> loaded from <code>content</code> in cache.
+   * Models using nodes or geometries not supported by this cache are ignored.
+   */
+  public void writeModel(URLContent content, BranchGroup model) {
+    ZipFile zipFile = openZipFile(content);
+    if (zipFile == null) {
+      return;
+    }
+    File temporaryFile = null;
+    DataOutputStream out = null;
+    try {
+      String entryName = getEntryName(content);
+      File cacheFile = getCacheFile(zipFile, entryName);
+      if (cacheFile == null) {
+        return;
+      }
+      if (!this.cacheFolder.exists()) {
+        this.cacheFolder.mkdirs();
+      }
+      // Write to a temporary file renamed once complete to avoid other threads or applications reading a partial file
+      temporaryFile = File.createTempFile("model", ".tmp", this.cacheFolder);
+      out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporaryFile), 65536));
+      out.writeInt(MAGIC_NUMBER);
+      out.writeInt(CACHE_VERSION);
+      List<ZipEntry> resourceEntries = getResourceEntries(zipFile, zipFile.getEntry(entryName));
+      out.writeInt(resourceEntries.size());
+      for (ZipEntry entry : resourceEntries) {
+        out.writeUTF(entry.getName());
+        out.writeLong(entry.getSize());
+        out.writeLong(entry.getCrc());
+      }
+      writeNode(out, model, new IdentityHashMap<Object, Integer>());
+      out.close();
+      out = null;
+      if (temporaryFile.renameTo(cacheFile)) {
+        updateCacheSize(cacheFile.length());
+      } else {
+        temporaryFile.delete();
+      }
+    } catch (IOException ex) {
+      // Unsupported model or cache not writable
+      closeStream(out);
+      if (temporaryFile != null) {
+        temporaryFile.delete();
+      }
+    } catch (RuntimeException ex) {
+      closeStream(out);
+      if (temporaryFile != null) {
+        temporaryFile.delete();
+      }
+    } finally {
+      closeZipFile(zipFile);
+    }
+  }
+
+  /**
+   * Closes the given stream ignoring exceptions.
+   */
+  private void closeStream(Closeable stream) {
+    if (stream != null) {
+      try {
+        stream.close();
+      } catch (IOException ex) {
+        // Ignore close exception
+      }
+    }
+  }
+
+  /**
+   * Returns the local zip file containing the given <code>content</code>, or <code>null</code>
+   * if this content can't be cached.
+   */
+  private ZipFile openZipFile(URLContent content) {
+    if (!content.isJAREntry()) {
+      return null;
+    }
+    URL zipUrl = content.getJAREntryURL();
+    if (!"file".equals(zipUrl.getProtocol())) {
+      return null;
+    }
+    try {
+      return new ZipFile(new File(zipUrl.toURI()));
+    } catch (URISyntaxException ex) {
+      return null;
+    } catch (IllegalArgumentException ex) {
+      return null;
+    } catch (IOException ex) {
+      return null;
+    }
+  }
+
+  private void closeZipFile(ZipFile zipFile) {
+    try {
+      zipFile.close();
+    } catch (IOException ex) {
+      // Ignore close exception
+    }
+  }
+
+  private String getEntryName(URLContent content) throws UnsupportedEncodingException {
+    return URLDecoder.decode(content.getJAREntryName().replace("+", "%2B"), "UTF-8");
+  }
+
+  /**
+   * Returns the file where the model stored in the given entry is cached, or <code>null</code>
+   * if this entry doesn't exist. The key of the file is computed from the size and the CRC of the entry.
+   */
+  private File getCacheFile(ZipFile zipFile, String entryName) throws IOException {
+    ZipEntry modelEntry = zipFile.getEntry(entryName);
+    if (modelEntry == null) {
+      return null;
+    }
+    try {
+      MessageDigest messageDigest = MessageDigest.getInstance("SHA-1");
+      messageDigest.update(String.valueOf(CACHE_VERSION).getBytes("UTF-8"));
+      messageDigest.update(this.loadersVersion.getBytes("UTF-8"));
+      messageDigest.update((entryName + '\u0000' + modelEntry.getSize() + '\u0000' + modelEntry.getCrc()).getBytes("UTF-8"));
+      return new File(this.cacheFolder, HexEncoder.encode(messageDigest.digest()) + CACHE_FILE_EXTENSION);
+    } catch (NoSuchAlgorithmException ex) {
+      return null;
+    }
+  }
+
+  /**
+   * Returns the entries of <code>zipFile</code> placed in the folder of <code>modelEntry</code>
+   * and referenced by the model or by the material libraries it references, like MTL files and textures.
+   */
+  private List<ZipEntry> getResourceEntries(ZipFile zipFile, ZipEntry modelEntry) throws IOException {
+    String entryName = modelEntry.getName();
+    String entryDirectory = entryName.substring(0, entryName.lastIndexOf('/') + 1);
+    // Search entries with an extension in the folder of the model and its subfolders
+    List<ZipEntry> otherEntries = new ArrayList<ZipEntry>();
+    for (Enumeration<? extends ZipEntry> enumEntries = zipFile.entries(); enumEntries.hasMoreElements(); ) {
+      ZipEntry entry = enumEntries.nextElement();
+      String name = entry.getName();
+      if (!entry.isDirectory()
+          && !name.equals(entryName)
+          && name.startsWith(entryDirectory)
+          && (entryDirectory.length() > 0 || name.indexOf('/') == -1)
+          && name.lastIndexOf('.') > name.lastIndexOf('/')) {
+        otherEntries.add(entry);
+      }
+    }
+    List<ZipEntry> resourceEntries = new ArrayList<ZipEntry>();
+    List<ZipEntry> searchedEntries = new ArrayList<ZipEntry>();
+    searchedEntries.add(modelEntry);
+    for (int i = 0; i < searchedEntries.size() && !otherEntries.isEmpty(); i++) {
+      for (ZipEntry entry : getReferencedEntries(zipFile, searchedEntries.get(i), otherEntries)) {
+        otherEntries.remove(entry);
+        resourceEntries.add(entry);
+        if (entry.getName().toLowerCase().endsWith(".mtl")) {
+          searchedEntries.add(entry);
+        }
+      }
+    }
+    return resourceEntries;
+  }
+
+  /**
+   * Returns the entries among <code>candidateEntries</code> whose file name is found in the content
+   * of the given <code>entry</code>, written in UTF-8 or encoded in a URL.
+   * The content of the entry is scanned by blocks, without decoding it.
+   */
+  private List<ZipEntry> getReferencedEntries(ZipFile zipFile, ZipEntry entry,
+                                              List<ZipEntry> candidateEntries) throws IOException {
+    byte [][] searchedNames = new byte [candidateEntries.size() * 2][];
+    int maximumNameLength = 0;
+    for (int i = 0; i < candidateEntries.size(); i++) {
+      String name = candidateEntries.get(i).getName();
+      String fileName = name.substring(name.lastIndexOf('/') + 1);
+      searchedNames [i * 2] = fileName.getBytes("UTF-8");
+      searchedNames [i * 2 + 1] = URLEncoder.encode(fileName, "UTF-8").replace("+", "%20").getBytes("ISO-8859-1");
+      maximumNameLength = Math.max(maximumNameLength,
+          Math.max(searchedNames [i * 2].length, searchedNames [i * 2 + 1].length));
+    }
+    boolean [] foundEntries = new boolean [candidateEntries.size()];
+    int foundEntryCount = 0;
+    byte [] buffer = new byte [Math.max(65536, maximumNameLength * 2)];
+    int length = 0;
+    InputStream in = zipFile.getInputStream(entry);
+    try {
+      int size;
+      while (foundEntryCount < foundEntries.length
+          && (size = in.read(buffer, length, buffer.length - length)) != -1) {
+        length += size;
+        for (int i = 0; i < foundEntries.length; i++) {
+          if (!foundEntries [i]
+              && (indexOf(buffer, length, searchedNames [i * 2]) >= 0
+                  || indexOf(buffer, length, searchedNames [i * 2 + 1]) >= 0)) {
+            foundEntries [i] = true;
+            foundEntryCount++;
+          }
+        }
+        // Keep the last bytes of the buffer which may be the beginning of a name
+        int keptLength = Math.min(length, maximumNameLength - 1);
+        System.arraycopy(buffer, length - keptLength, buffer, 0, keptLength);
+        length = keptLength;
+      }
+    } finally {
+      in.close();
+    }
+    List<ZipEntry> referencedEntries = new ArrayList<ZipEntry>(foundEntryCount);
+    for (int i = 0; i < foundEntries.length; i++) {
+      if (foundEntries [i]) {
+        referencedEntries.add(candidateEntries.get(i));
+      }
+    }
+    return referencedEntries;
+  }
+
+  /**
+   * Returns the index of the first occurrence of <code>searchedBytes</code>
+   * in the <code>length</code> first bytes of <code>bytes</code>, or -1 if it's not found.
+   */
+  private static int indexOf(byte [] bytes, int length, byte [] searchedBytes) {
+    if (searchedBytes.length == 0) {
+      return 0;
+    }
+    byte firstByte = searchedBytes [0];
+    for (int i = 0, last = length - searchedBytes.length; i <= last; i++) {
+      if (bytes [i] == firstByte) {
+        int j = 1;
+        while (j < searchedBytes.length
+            && bytes [i + j] == searchedBytes [j]) {
+          j++;
+        }
+        if (j == searchedBytes.length) {
+          return i;
+        }
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Returns <code>true</code> if the resource entries written in the given stream
+   * didn't change in <code>zipFile</code>.
+   */
+  private boolean checkResourceEntries(DataInputStream in, ZipFile zipFile) throws IOException {
+    int entryCount = in.readInt();
+    for (int i = 0; i < entryCount; i++) {
+      ZipEntry entry = zipFile.getEntry(in.readUTF());
+      long size = in.readLong();
+      long crc = in.readLong();
+      if (entry == null
+          || entry.getSize() != size
+          || entry.getCrc() != crc) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Adds <code>addedSize</code> to the size of the cache folder, then deletes the least recently
+   * used files if the cache is bigger than its maximum size.
+   */
+  private synchronized void updateCacheSize(long addedSize) {
+    if (this.cacheSize < 0
+        || this.cacheSize + addedSize > this.maximumSize) {
+      File [] cacheFiles = this.cacheFolder.listFiles();
+      if (cacheFiles == null) {
+        return;
+      }
+      long size = 0;
+      for (File cacheFile : cacheFiles) {
+        size += cacheFile.length();
+      }
+      if (size > this.maximumSize) {
+        // Delete least recently used files until cache size is reduced to 3/4 of its maximum size
+        final Map<File, Long> lastModifiedDates = new HashMap<File, Long>();
+        for (File cacheFile : cacheFiles) {
+          lastModifiedDates.put(cacheFile, cacheFile.lastModified());
+        }
+        Arrays.sort(cacheFiles, new Comparator<File>() {
+            public int compare(File file1, File file2) {
+              return lastModifiedDates.get(file1).compareTo(lastModifiedDates.get(file2));
+            }
+          });
+        for (int i = 0; i < cacheFiles.length && size > this.maximumSize * 3 / 4; i++) {
+          long fileSize = cacheFiles [i].length();
+          if (cacheFiles [i].getName().endsWith(CACHE_FILE_EXTENSION)
+              && cacheFiles [i].delete()) {
+            size -= fileSize;
+          }
+        }
+      }
+      this.cacheSize = size;
+    } else {
+      this.cacheSize += addedSize;
+    }
+  }
+
+  /**
+   * Writes the given <code>node</code> and its children.
+   */
+  private void writeNode(DataOutputStream out, Node node,
+                         Map<Object, Integer> writtenObjects) throws IOException {
+    if (node.getClass() == BranchGroup.class) {
+      out.writeByte(BRANCH_GROUP);
+    } else if (node.getClass() == TransformGroup.class) {
+      out.writeByte(TRANSFORM_GROUP);
+    } else if (node.getClass() == Group.class) {
+      out.writeByte(GROUP);
+    } else if (node.getClass() == Link.class) {
+      out.writeByte(LINK);
+    } else if (node.getClass() == Shape3D.class) {
+      out.writeByte(SHAPE);
+    } else {
+      throw new IOException("Unsupported node " + node.getClass());
+    }
+    writeSceneGraphObject(out, node);
+    out.writeBoolean(node.getPickable());
+    Object userData = node.getUserData();
+    writeString(out, userData instanceof String ? (String)userData : null);
+    if (!node.getBoundsAutoCompute()) {
+      throw new IOException("Unsupported bounds");
+    }
+
+    if (node instanceof TransformGroup) {
+      Transform3D transform = new Transform3D();
+      ((TransformGroup)node).getTransform(transform);
+      double [] matrix = new double [16];
+      transform.get(matrix);
+      for (double value : matrix) {
+        out.writeDouble(value);
+      }
+    }
+    if (node instanceof Group) {
+      writeChildren(out, (Group)node, writtenObjects);
+    } else if (node instanceof Link) {
+      SharedGroup sharedGroup = ((Link)node).getSharedGroup();
+      if (writeObjectReference(out, sharedGroup, writtenObjects)) {
+        if (sharedGroup.getClass() != SharedGroup.class) {
+          throw new IOException("Unsupported shared group");
+        }
+        writeSceneGraphObject(out, sharedGroup);
+        writeChildren(out, sharedGroup, writtenObjects);
+      }
+    } else if (node instanceof Shape3D) {
+      Shape3D shape = (Shape3D)node;
+      out.writeInt(shape.numGeometries());
+      for (int i = 0, n = shape.numGeometries(); i < n; i++) {
+        Geometry geometry = shape.getGeometry(i);
+        if (writeObjectReference(out, geometry, writtenObjects)) {
+          writeGeometry(out, geometry);
+        }
+      }
+      Appearance appearance = shape.getAppearance();
+      if (writeObjectReference(out, appearance, writtenObjects)) {
+        writeAppearance(out, appearance, writtenObjects);
+      }
+    }
+  }
+
+  /**
+   * Writes the children of the given <code>group</code>.
+   */
+  private void writeChildren(DataOutputStream out, Group group,
+                             Map<Object, Integer> writtenObjects) throws IOException {
+    out.writeInt(group.numChildren());
+    for (int i = 0, n = group.numChildren(); i < n; i++) {
+      writeNode(out, group.getChild(i), writtenObjects);
+    }
+  }
+
+  /**
+   * Writes a reference to the given <code>object</code> and returns <code>true</code>
+   * if the object is written for the first time and its data should follow.
+   */
+  private boolean writeObjectReference(DataOutputStream out, Object object,
+                                       Map<Object, Integer> writtenObjects) throws IOException {
+    if (object == null) {
+      out.writeByte(NULL_OBJECT);
+      return false;
+    } else {
+      Integer index = writtenObjects.get(object);
+      if (index != null) {
+        out.writeByte(REFERENCE_OBJECT);
+        out.writeInt(index);
+        return false;
+      } else {
+        out.writeByte(NEW_OBJECT);
+        writtenObjects.put(object, writtenObjects.size());
+        return true;
+      }
+    }
+  }
+
+  /**
+   * Writes the capabilities and the name of the given <code>object</code>.
+   */
+  private void writeSceneGraphObject(DataOutputStream out, SceneGraphObject object) throws IOException {
+    long capabilities = 0;
+    for (int bit = 0; bit < 64; bit++) {
+      if (object.getCapability(bit)) {
+        capabilities |= 1L << bit;
+      }
+    }
+    out.writeLong(capabilities);
+    writeString(out, object.getName());
+  }
+
+  /**
+   * Writes the given <code>geometry</code> with its vertices and indices.
+   */
+  private void writeGeometry(DataOutputStream out, Geometry geometry) throws IOException {
+    int geometryType = -1;
+    for (int i = 0; i < GEOMETRY_CLASSES.length; i++) {
+      if (geometry.getClass() == GEOMETRY_CLASSES [i]) {
+        geometryType = i;
+        break;
+      }
+    }
+    if (geometryType == -1) {
+      throw new IOException("Unsupported geometry " + geometry.getClass());
+    }
+    GeometryArray geometryArray = (GeometryArray)geometry;
+    int vertexFormat = geometryArray.getVertexFormat();
+    if ((vertexFormat & UNSUPPORTED_VERTEX_FORMAT) != 0) {
+      throw new IOException("Unsupported vertex format");
+    }
+    int vertexCount = geometryArray.getVertexCount();
+    out.writeByte(geometryType);
+    writeSceneGraphObject(out, geometryArray);
+    out.writeInt(vertexFormat);
+    out.writeInt(vertexCount);
+    int texCoordSetCount = geometryArray.getTexCoordSetCount();
+    out.writeInt(texCoordSetCount);
+    int [] texCoordSetMap = new int [geometryArray.getTexCoordSetMapLength()];
+    geometryArray.getTexCoordSetMap(texCoordSetMap);
+    writeInts(out, texCoordSetMap);
+    if (geometryArray instanceof IndexedGeometryArray) {
+      IndexedGeometryArray indexedGeometryArray = (IndexedGeometryArray)geometryArray;
+      out.writeInt(indexedGeometryArray.getIndexCount());
+      if (geometryArray instanceof IndexedGeometryStripArray) {
+        IndexedGeometryStripArray stripArray = (IndexedGeometryStripArray)geometryArray;
+        int [] stripIndexCounts = new int [stripArray.getNumStrips()];
+        stripArray.getStripIndexCounts(stripIndexCounts);
+        writeInts(out, stripIndexCounts);
+      } else if (indexedGeometryArray.getValidIndexCount() != indexedGeometryArray.getIndexCount()) {
+        throw new IOException("Unsupported valid index count");
+      }
+    } else if (geometryArray instanceof GeometryStripArray) {
+      GeometryStripArray stripArray = (GeometryStripArray)geometryArray;
+      int [] stripVertexCounts = new int [stripArray.getNumStrips()];
+      stripArray.getStripVertexCounts(stripVertexCounts);
+      writeInts(out, stripVertexCounts);
+    } else if (geometryArray.getValidVertexCount() != vertexCount) {
+      throw new IOException("Unsupported valid vertex count");
+    }
+
+    int colorSize = getColorSize(vertexFormat);
+    int texCoordSize = getTextureCoordinateSize(vertexFormat);
+    if ((vertexFormat & GeometryArray.INTERLEAVED) != 0) {
+      // Geometries built by GeometryInfo in loaders store their vertices in one interleaved array
+      writeFloats(out, checkReference(geometryArray.getInterleavedVertices()));
+    } else if ((vertexFormat & GeometryArray.BY_REFERENCE) != 0) {
+      writeFloats(out, checkReference(geometryArray.getCoordRefFloat()));
+      if ((vertexFormat & GeometryArray.NORMALS) != 0) {
+        writeFloats(out, checkReference(geometryArray.getNormalRefFloat()));
+      }
+      if (colorSize > 0) {
+        writeFloats(out, checkReference(geometryArray.getColorRefFloat()));
+      }
+      for (int i = 0; texCoordSize > 0 && i < texCoordSetCount; i++) {
+        writeFloats(out, checkReference(geometryArray.getTexCoordRefFloat(i)));
+      }
+    } else {
+      float [] coordinates = new float [vertexCount * 3];
+      geometryArray.getCoordinates(0, coordinates);
+      writeFloats(out, coordinates);
+      if ((vertexFormat & GeometryArray.NORMALS) != 0) {
+        float [] normals = new float [vertexCount * 3];
+        geometryArray.getNormals(0, normals);
+        writeFloats(out, normals);
+      }
+      if (colorSize > 0) {
+        float [] colors = new float [vertexCount * colorSize];
+        geometryArray.getColors(0, colors);
+        writeFloats(out, colors);
+      }
+      for (int i = 0; texCoordSize > 0 && i < texCoordSetCount; i++) {
+        float [] textureCoordinates = new float [vertexCount * texCoordSize];
+        geometryArray.getTextureCoordinates(i, 0, textureCoordinates);
+        writeFloats(out, textureCoordinates);
+      }
+    }
+
+    if (geometryArray instanceof IndexedGeometryArray) {
+      IndexedGeometryArray indexedGeometryArray = (IndexedGeometryArray)geometryArray;
+      int indexCount = indexedGeometryArray.getIndexCount();
+      if ((vertexFormat & GeometryArray.BY_REFERENCE_INDICES) != 0) {
+        writeInts(out, checkReference(indexedGeometryArray.getCoordIndicesRef()));
+      } else {
+        int [] coordinateIndices = new int [indexCount];
+        indexedGeometryArray.getCoordinateIndices(0, coordinateIndices);
+        writeInts(out, coordinateIndices);
+      }
+      if ((vertexFormat & GeometryArray.USE_COORD_INDEX_ONLY) == 0) {
+        if ((vertexFormat & GeometryArray.NORMALS) != 0) {
+          int [] normalIndices = new int [indexCount];
+          indexedGeometryArray.getNormalIndices(0, normalIndices);
+          writeInts(out, normalIndices);
+        }
+        if (colorSize > 0) {
+          int [] colorIndices = new int [indexCount];
+          indexedGeometryArray.getColorIndices(0, colorIndices);
+          writeInts(out, colorIndices);
+        }
+        for (int i = 0; texCoordSize > 0 && i < texCoordSetCount; i++) {
+          int [] textureCoordinateIndices = new int [indexCount];
+          indexedGeometryArray.getTextureCoordinateIndices(i, 0, textureCoordinateIndices);
+          writeInts(out, textureCoordinateIndices);
+        }
+      }
+    }
+  }
+
+  /**
+   * Throws an exception if the given reference is <code>null</code>,
+   * meaning that the geometry uses an other type of array.
+   */
+  private <T> T checkReference(T reference) throws IOException {
+    if (reference == null) {
+      throw new IOException("Unsupported data reference");
+    }
+    return reference;
+  }
+
+  /**
+   * Returns the count of color components in the given vertex format.
+   */
+  private int getColorSize(int vertexFormat) {
+    if ((vertexFormat & GeometryArray.COLOR_4) == GeometryArray.COLOR_4) {
+      return 4;
+    } else if ((vertexFormat & GeometryArray.COLOR_3) != 0) {
+      return 3;
+    } else {
+      return 0;
+    }
+  }
+
+  /**
+   * Returns the count of texture coordinates in the given vertex format.
+   */
+  private int getTextureCoordinateSize(int vertexFormat) {
+    if ((vertexFormat & GeometryArray.TEXTURE_COORDINATE_4) == GeometryArray.TEXTURE_COORDINATE_4) {
+      return 4;
+    } else if ((vertexFormat & GeometryArray.TEXTURE_COORDINATE_3) != 0) {
+      return 3;
+    } else if ((vertexFormat & GeometryArray.TEXTURE_COORDINATE_2) != 0) {
+      return 2;
+    } else {
+      return 0;
+    }
+  }
+
+  /**
+   * Writes the given <code>appearance</code> and its attributes.
+   */
+  private void writeAppearance(DataOutputStream out, Appearance appearance,
+                               Map<Object, Integer> writtenObjects) throws IOException {
+    if (appearance.getClass() != Appearance.class
+        || appearance.getTextureUnitCount() > 0) {
+      throw new IOException("Unsupported appearance");
+    }
+    writeSceneGraphObject(out, appearance);
+    Material material = appearance.getMaterial();
+    if (writeObjectReference(out, material, writtenObjects)) {
+      writeSceneGraphObject(out, material);
+      Color3f color = new Color3f();
+      material.getAmbientColor(color);
+      writeColor(out, color);
+      material.getEmissiveColor(color);
+      writeColor(out, color);
+      material.getDiffuseColor(color);
+      writeColor(out, color);
+      material.getSpecularColor(color);
+      writeColor(out, color);
+      out.writeFloat(material.getShininess());
+      out.writeInt(material.getColorTarget());
+      out.writeBoolean(material.getLightingEnable());
+    }
+    ColoringAttributes coloringAttributes = appearance.getColoringAttributes();
+    if (writeObjectReference(out, coloringAttributes, writtenObjects)) {
+      writeSceneGraphObject(out, coloringAttributes);
+      Color3f color = new Color3f();
+      coloringAttributes.getColor(color);
+      writeColor(out, color);
+      out.writeInt(coloringAttributes.getShadeModel());
+    }
+    TransparencyAttributes transparencyAttributes = appearance.getTransparencyAttributes();
+    if (writeObjectReference(out, transparencyAttributes, writtenObjects)) {
+      writeSceneGraphObject(out, transparencyAttributes);
+      out.writeInt(transparencyAttributes.getTransparencyMode());
+      out.writeFloat(transparencyAttributes.getTransparency());
+      out.writeInt(transparencyAttributes.getSrcBlendFunction());
+      out.writeInt(transparencyAttributes.getDstBlendFunction());
+    }
+    PolygonAttributes polygonAttributes = appearance.getPolygonAttributes();
+    if (writeObjectReference(out, polygonAttributes, writtenObjects)) {
+      writeSceneGraphObject(out, polygonAttributes);
+      out.writeInt(polygonAttributes.getPolygonMode());
+      out.writeInt(polygonAttributes.getCullFace());
+      out.writeFloat(polygonAttributes.getPolygonOffset());
+      out.writeBoolean(polygonAttributes.getBackFaceNormalFlip());
+      out.writeFloat(polygonAttributes.getPolygonOffsetFactor());
+    }
+    LineAttributes lineAttributes = appearance.getLineAttributes();
+    if (writeObjectReference(out, lineAttributes, writtenObjects)) {
+      writeSceneGraphObject(out, lineAttributes);
+      out.writeFloat(lineAttributes.getLineWidth());
+      out.writeInt(lineAttributes.getLinePattern());
+      out.writeBoolean(lineAttributes.getLineAntialiasingEnable());
+    }
+    PointAttributes pointAttributes = appearance.getPointAttributes();
+    if (writeObjectReference(out, pointAttributes, writtenObjects)) {
+      writeSceneGraphObject(out, pointAttributes);
+      out.writeFloat(pointAttributes.getPointSize());
+      out.writeBoolean(pointAttributes.getPointAntialiasingEnable());
+    }
+    RenderingAttributes renderingAttributes = appearance.getRenderingAttributes();
+    if (writeObjectReference(out, renderingAttributes, writtenObjects)) {
+      writeSceneGraphObject(out, renderingAttributes);
+      out.writeBoolean(renderingAttributes.getDepthBufferEnable());
+      out.writeBoolean(renderingAttributes.getDepthBufferWriteEnable());
+      out.writeFloat(renderingAttributes.getAlphaTestValue());
+      out.writeInt(renderingAttributes.getAlphaTestFunction());
+      out.writeBoolean(renderingAttributes.getVisible());
+      out.writeBoolean(renderingAttributes.getIgnoreVertexColors());
+      out.writeBoolean(renderingAttributes.getRasterOpEnable());
+      out.writeInt(renderingAttributes.getRasterOp());
+    }
+    TextureAttributes textureAttributes = appearance.getTextureAttributes();
+    if (writeObjectReference(out, textureAttributes, writtenObjects)) {
+      writeSceneGraphObject(out, textureAttributes);
+      out.writeInt(textureAttributes.getTextureMode());
+      out.writeInt(textureAttributes.getPerspectiveCorrectionMode());
+      Color4f blendColor = new Color4f();
+      textureAttributes.getTextureBlendColor(blendColor);
+      out.writeFloat(blendColor.x);
+      out.writeFloat(blendColor.y);
+      out.writeFloat(blendColor.z);
+      out.writeFloat(blendColor.w);
+      Transform3D textureTransform = new Transform3D();
+      textureAttributes.getTextureTransform(textureTransform);
+      double [] matrix = new double [16];
+      textureTransform.get(matrix);
+      for (double value : matrix) {
+        out.writeDouble(value);
+      }
+    }
+    TexCoordGeneration texCoordGeneration = appearance.getTexCoordGeneration();
+    if (writeObjectReference(out, texCoordGeneration, writtenObjects)) {
+      writeSceneGraphObject(out, texCoordGeneration);
+      out.writeInt(texCoordGeneration.getGenMode());
+      out.writeInt(texCoordGeneration.getFormat());
+      out.writeBoolean(texCoordGeneration.getEnable());
+      Vector4f plane = new Vector4f();
+      texCoordGeneration.getPlaneS(plane);
+      writePlane(out, plane);
+      texCoordGeneration.getPlaneT(plane);
+      writePlane(out, plane);
+      texCoordGeneration.getPlaneR(plane);
+      writePlane(out, plane);
+      texCoordGeneration.getPlaneQ(plane);
+      writePlane(out, plane);
+    }
+    Texture texture = appearance.getTexture();
+    if (writeObjectReference(out, texture, writtenObjects)) {
+      writeTexture(out, texture);
+    }
+  }
+
+  /**
+   * Writes the given <code>texture</code> and its image pixels.
+   */
+  private void writeTexture(DataOutputStream out, Texture texture) throws IOException {
+    if (texture.getClass() != Texture2D.class
+        || texture.getMipMapMode() != Texture.BASE_LEVEL) {
+      throw new IOException("Unsupported texture");
+    }
+    ImageComponent image = texture.getImage(0);
+    if (!(image instanceof ImageComponent2D)) {
+      throw new IOException("Unsupported texture image");
+    }
+    BufferedImage bufferedImage = ((ImageComponent2D)image).getImage();
+    if (bufferedImage == null) {
+      throw new IOException("Unsupported texture image");
+    }
+    writeSceneGraphObject(out, texture);
+    out.writeInt(texture.getFormat());
+    out.writeInt(texture.getBoundaryModeS());
+    out.writeInt(texture.getBoundaryModeT());
+    out.writeInt(texture.getMinFilter());
+    out.writeInt(texture.getMagFilter());
+    out.writeBoolean(texture.getEnable());
+    writeSceneGraphObject(out, image);
+    out.writeInt(image.getFormat());
+    out.writeBoolean(image.isYUp());
+    out.writeBoolean(bufferedImage.getColorModel().hasAlpha());
+    int width = bufferedImage.getWidth();
+    int height = bufferedImage.getHeight();
+    out.writeInt(width);
+    out.writeInt(height);
+    writeInts(out, bufferedImage.getRGB(0, 0, width, height, null, 0, width));
+  }
+
+  private void writeColor(DataOutputStream out, Color3f color) throws IOException {
+    out.writeFloat(color.x);
+    out.writeFloat(color.y);
+    out.writeFloat(color.z);
+  }
+
+  private void writePlane(DataOutputStream out, Vector4f plane) throws IOException {
+    out.writeFloat(plane.x);
+    out.writeFloat(plane.y);
+    out.writeFloat(plane.z);
+    out.writeFloat(plane.w);
+  }
+
+  private void writeString(DataOutputStream out, String string) throws IOException {
+    out.writeBoolean(string != null);
+    if (string != null) {
+      out.writeUTF(string);
+    }
+  }
+
+  /**
+   * Writes the given array in one bulk write.
+   */
+  private void writeFloats(DataOutputStream out, float [] array) throws IOException {
+    out.writeInt(array.length);
+    ByteBuffer buffer = ByteBuffer.allocate(array.length * 4);
+    buffer.asFloatBuffer().put(array);
+    out.write(buffer.array());
+  }
+
+  /**
+   * Writes the given array in one bulk write.
+   */
+  private void writeInts(DataOutputStream out, int [] array) throws IOException {
+    out.writeInt(array.length);
+    ByteBuffer buffer = ByteBuffer.allocate(array.length * 4);
+    buffer.asIntBuffer().put(array);
+    out.write(buffer.array());
+  }
+
+  /**
+   * Reads a node and its children.
+   */
+  private Node readNode(DataInputStream in, List<Object> readObjects) throws IOException {
+    byte nodeType = in.readByte();
+    Node node;
+    switch (nodeType) {
+      case BRANCH_GROUP :
+        node = new BranchGroup();
+        break;
+      case TRANSFORM_GROUP :
+        node = new TransformGroup();
+        break;
+      case GROUP :
+        node = new Group();
+        break;
+      case LINK :
+        node = new Link();
+        break;
+      case SHAPE :
+        node = new Shape3D();
+        break;
+      default :
+        throw new IOException("Unknown node type " + nodeType);
+    }
+    readSceneGraphObject(in, node);
+    node.setPickable(in.readBoolean());
+    node.setUserData(readString(in));
+
+    if (node instanceof TransformGroup) {
+      ((TransformGroup)node).setTransform(new Transform3D(readMatrix(in)));
+    }
+    if (node instanceof Group) {
+      readChildren(in, (Group)node, readObjects);
+    } else if (node instanceof Link) {
+      SharedGroup sharedGroup;
+      switch (in.readByte()) {
+        case NEW_OBJECT :
+          sharedGroup = new SharedGroup();
+          readObjects.add(sharedGroup);
+          readSceneGraphObject(in, sharedGroup);
+          readChildren(in, sharedGroup, readObjects);
+          break;
+        case REFERENCE_OBJECT :
+          sharedGroup = (SharedGroup)readObjects.get(in.readInt());
+          break;
+        default :
+          sharedGroup = null;
+          break;
+      }
+      ((Link)node).setSharedGroup(sharedGroup);
+    } else if (node instanceof Shape3D) {
+      Shape3D shape = (Shape3D)node;
+      int geometryCount = in.readInt();
+      for (int i = 0; i < geometryCount; i++) {
+        Geometry geometry;
+        switch (in.readByte()) {
+          case NEW_OBJECT :
+            int index = readObjects.size();
+            readObjects.add(null);
+            geometry = readGeometry(in);
+            readObjects.set(index, geometry);
+            break;
+          case REFERENCE_OBJECT :
+            geometry = (Geometry)readObjects.get(in.readInt());
+            break;
+          default :
+            geometry = null;
+            break;
+        }
+        if (i == 0) {
+          shape.setGeometry(geometry);
+        } else {
+          shape.addGeometry(geometry);
+        }
+      }
+      switch (in.readByte()) {
+        case NEW_OBJECT :
+          Appearance appearance = new Appearance();
+          readObjects.add(appearance);
+          readAppearance(in, appearance, readObjects);
+          shape.setAppearance(appearance);
+          break;
+        case REFERENCE_OBJECT :
+          shape.setAppearance((Appearance)readObjects.get(in.readInt()));
+          break;
+      }
+    }
+    return node;
+  }
+
+  /**
+   * Reads the children of the given <code>group</code>.
+   */
+  private void readChildren(DataInputStream in, Group group, List<Object> readObjects) throws IOException {
+    int childrenCount = in.readInt();
+    for (int i = 0; i < childrenCount; i++) {
+      group.addChild(readNode(in, readObjects));
+    }
+  }
+
+  /**
+   * Reads the capabilities and the name of the given <code>object</code>.
+   */
+  private void readSceneGraphObject(DataInputStream in, SceneGraphObject object) throws IOException {
+    long capabilities = in.readLong();
+    for (int bit = 0; bit < 64; bit++) {
+      if ((capabilities & (1L << bit)) != 0) {
+        object.setCapability(bit);
+      }
+    }
+    object.setName(readString(in));
+  }
+
+  /**
+   * Reads a geometry with its vertices and indices.
+   */
+  private Geometry readGeometry(DataInputStream in) throws IOException {
+    int geometryType = in.readByte();
+    long capabilities = in.readLong();
+    String name = readString(in);
+    int vertexFormat = in.readInt();
+    int vertexCount = in.readInt();
+    int texCoordSetCount = in.readInt();
+    int [] texCoordSetMap = readInts(in);
+    int indexCount = 0;
+    int [] stripCounts = null;
+    if (geometryType >= 7) {
+      indexCount = in.readInt();
+    }
+    if (geometryType >= 11 || (geometryType >= 4 && geometryType <= 6)) {
+      stripCounts = readInts(in);
+    }
+
+    GeometryArray geometryArray;
+    switch (geometryType) {
+      case 0 :
+        geometryArray = new TriangleArray(vertexCount, vertexFormat, texCoordSetCount, texCoordSetMap);
+        break;
+      case 1 :
+        geometryArray = new QuadArray(vertexCount, vertexFormat, texCoordSetCount, texCoordSetMap);
+        break;
+      case 2 :
+        geometryArray = new LineArray(vertexCount, vertexFormat, texCoordSetCount, texCoordSetMap);
+        break;
+      case 3 :
+        geometryArray = new PointArray(vertexCount, vertexFormat, texCoordSetCount, texCoordSetMap);
+        break;
+      case 4 :
+        geometryArray = new TriangleStripArray(vertexCount, vertexFormat, texCoordSetCount, texCoordSetMap, stripCounts);
+        break;
+      case 5 :
+        geometryArray = new TriangleFanArray(vertexCount, vertexFormat, texCoordSetCount, texCoordSetMap, stripCounts);
+        break;
+      case 6 :
+        geometryArray = new LineStripArray(vertexCount, vertexFormat, texCoordSetCount, texCoordSetMap, stripCounts);
+        break;
+      case 7 :
+        geometryArray = new IndexedTriangleArray(vertexCount, vertexFormat, texCoordSetCount, texCoordSetMap, indexCount);
+        break;
+      case 8 :
+        geometryArray = new IndexedQuadArray(vertexCount, vertexFormat, texCoordSetCount, texCoordSetMap, indexCount);
+        break;
+      case 9 :
+        geometryArray = new IndexedLineArray(vertexCount, vertexFormat, texCoordSetCount, texCoordSetMap, indexCount);
+        break;
+      case 10 :
+        geometryArray = new IndexedPointArray(vertexCount, vertexFormat, texCoordSetCount, texCoordSetMap, indexCount);
+        break;
+      case 11 :
+        geometryArray = new IndexedTriangleStripArray(vertexCount, vertexFormat, texCoordSetCount, texCoordSetMap, indexCount, stripCounts);
+        break;
+      case 12 :
+        geometryArray = new IndexedTriangleFanArray(vertexCount, vertexFormat, texCoordSetCount, texCoordSetMap, indexCount, stripCounts);
+        break;
+      case 13 :
+        geometryArray = new IndexedLineStripArray(vertexCount, vertexFormat, texCoordSetCount, texCoordSetMap, indexCount, stripCounts);
+        break;
+      default :
+        throw new IOException("Unknown geometry type " + geometryType);
+    }
+
+    int colorSize = getColorSize(vertexFormat);
+    int texCoordSize = getTextureCoordinateSize(vertexFormat);
+    if ((vertexFormat & GeometryArray.INTERLEAVED) != 0) {
+      geometryArray.setInterleavedVertices(readFloats(in));
+    } else if ((vertexFormat & GeometryArray.BY_REFERENCE) != 0) {
+      geometryArray.setCoordRefFloat(readFloats(in));
+      if ((vertexFormat & GeometryArray.NORMALS) != 0) {
+        geometryArray.setNormalRefFloat(readFloats(in));
+      }
+      if (colorSize > 0) {
+        geometryArray.setColorRefFloat(readFloats(in));
+      }
+      for (int i = 0; texCoordSize > 0 && i < texCoordSetCount; i++) {
+        geometryArray.setTexCoordRefFloat(i, readFloats(in));
+      }
+    } else {
+      geometryArray.setCoordinates(0, readFloats(in));
+      if ((vertexFormat & GeometryArray.NORMALS) != 0) {
+        geometryArray.setNormals(0, readFloats(in));
+      }
+      if (colorSize > 0) {
+        geometryArray.setColors(0, readFloats(in));
+      }
+      for (int i = 0; texCoordSize > 0 && i < texCoordSetCount; i++) {
+        geometryArray.setTextureCoordinates(i, 0, readFloats(in));
+      }
+    }
+
+    if (geometryArray instanceof IndexedGeometryArray) {
+      IndexedGeometryArray indexedGeometryArray = (IndexedGeometryArray)geometryArray;
+      if ((vertexFormat & GeometryArray.BY_REFERENCE_INDICES) != 0) {
+        indexedGeometryArray.setCoordIndicesRef(readInts(in));
+      } else {
+        indexedGeometryArray.setCoordinateIndices(0, readInts(in));
+      }
+      if ((vertexFormat & GeometryArray.USE_COORD_INDEX_ONLY) == 0) {
+        if ((vertexFormat & GeometryArray.NORMALS) != 0) {
+          indexedGeometryArray.setNormalIndices(0, readInts(in));
+        }
+        if (colorSize > 0) {
+          indexedGeometryArray.setColorIndices(0, readInts(in));
+        }
+        for (int i = 0; texCoordSize > 0 && i < texCoordSetCount; i++) {
+          indexedGeometryArray.setTextureCoordinateIndices(i, 0, readInts(in));
+        }
+      }
+    }
+
+    for (int bit = 0; bit < 64; bit++) {
+      if ((capabilities & (1L << bit)) != 0) {
+        geometryArray.setCapability(bit);
+      }
+    }
+    geometryArray.setName(name);
+    return geometryArray;
+  }
+
+  /**
+   * Reads the attributes of the given <code>appearance</code>.
+   */
+  private void readAppearance(DataInputStream in, Appearance appearance,
+                              List<Object> readObjects) throws IOException {
+    readSceneGraphObject(in, appearance);
+    switch (in.readByte()) {
+      case NEW_OBJECT :
+        Material material = new Material();
+        readObjects.add(material);
+        readSceneGraphObject(in, material);
+        material.setAmbientColor(readColor(in));
+        material.setEmissiveColor(readColor(in));
+        material.setDiffuseColor(readColor(in));
+        material.setSpecularColor(readColor(in));
+        material.setShininess(in.readFloat());
+        material.setColorTarget(in.readInt());
+        material.setLightingEnable(in.readBoolean());
+        appearance.setMaterial(material);
+        break;
+      case REFERENCE_OBJECT :
+        appearance.setMaterial((Material)readObjects.get(in.readInt()));
+        break;
+    }
+    switch (in.readByte()) {
+      case NEW_OBJECT :
+        ColoringAttributes coloringAttributes = new ColoringAttributes();
+        readObjects.add(coloringAttributes);
+        readSceneGraphObject(in, coloringAttributes);
+        coloringAttributes.setColor(readColor(in));
+        coloringAttributes.setShadeModel(in.readInt());
+        appearance.setColoringAttributes(coloringAttributes);
+        break;
+      case REFERENCE_OBJECT :
+        appearance.setColoringAttributes((ColoringAttributes)readObjects.get(in.readInt()));
+        break;
+    }
+    switch (in.readByte()) {
+      case NEW_OBJECT :
+        TransparencyAttributes transparencyAttributes = new TransparencyAttributes();
+        readObjects.add(transparencyAttributes);
+        readSceneGraphObject(in, transparencyAttributes);
+        transparencyAttributes.setTransparencyMode(in.readInt());
+        transparencyAttributes.setTransparency(in.readFloat());
+        transparencyAttributes.setSrcBlendFunction(in.readInt());
+        transparencyAttributes.setDstBlendFunction(in.readInt());
+        appearance.setTransparencyAttributes(transparencyAttributes);
+        break;
+      case REFERENCE_OBJECT :
+        appearance.setTransparencyAttributes((TransparencyAttributes)readObjects.get(in.readInt()));
+        break;
+    }
+    switch (in.readByte()) {
+      case NEW_OBJECT :
+        PolygonAttributes polygonAttributes = new PolygonAttributes();
+        readObjects.add(polygonAttributes);
+        readSceneGraphObject(in, polygonAttributes);
+        polygonAttributes.setPolygonMode(in.readInt());
+        polygonAttributes.setCullFace(in.readInt());
+        polygonAttributes.setPolygonOffset(in.readFloat());
+        polygonAttributes.setBackFaceNormalFlip(in.readBoolean());
+        polygonAttributes.setPolygonOffsetFactor(in.readFloat());
+        appearance.setPolygonAttributes(polygonAttributes);
+        break;
+      case REFERENCE_OBJECT :
+        appearance.setPolygonAttributes((PolygonAttributes)readObjects.get(in.readInt()));
+        break;
+    }
+    switch (in.readByte()) {
+      case NEW_OBJECT :
+        LineAttributes lineAttributes = new LineAttributes();
+        readObjects.add(lineAttributes);
+        readSceneGraphObject(in, lineAttributes);
+        lineAttributes.setLineWidth(in.readFloat());
+        lineAttributes.setLinePattern(in.readInt());
+        lineAttributes.setLineAntialiasingEnable(in.readBoolean());
+        appearance.setLineAttributes(lineAttributes);
+        break;
+      case REFERENCE_OBJECT :
+        appearance.setLineAttributes((LineAttributes)readObjects.get(in.readInt()));
+        break;
+    }
+    switch (in.readByte()) {
+      case NEW_OBJECT :
+        PointAttributes pointAttributes = new PointAttributes();
+        readObjects.add(pointAttributes);
+        readSceneGraphObject(in, pointAttributes);
+        pointAttributes.setPointSize(in.readFloat());
+        pointAttributes.setPointAntialiasingEnable(in.readBoolean());
+        appearance.setPointAttributes(pointAttributes);
+        break;
+      case REFERENCE_OBJECT :
+        appearance.setPointAttributes((PointAttributes)readObjects.get(in.readInt()));
+        break;
+    }
+    switch (in.readByte()) {
+      case NEW_OBJECT :
+        RenderingAttributes renderingAttributes = new RenderingAttributes();
+        readObjects.add(renderingAttributes);
+        readSceneGraphObject(in, renderingAttributes);
+        renderingAttributes.setDepthBufferEnable(in.readBoolean());
+        renderingAttributes.setDepthBufferWriteEnable(in.readBoolean());
+        renderingAttributes.setAlphaTestValue(in.readFloat());
+        renderingAttributes.setAlphaTestFunction(in.readInt());
+        renderingAttributes.setVisible(in.readBoolean());
+        renderingAttributes.setIgnoreVertexColors(in.readBoolean());
+        renderingAttributes.setRasterOpEnable(in.readBoolean());
+        renderingAttributes.setRasterOp(in.readInt());
+        appearance.setRenderingAttributes(renderingAttributes);
+        break;
+      case REFERENCE_OBJECT :
+        appearance.setRenderingAttributes((RenderingAttributes)readObjects.get(in.readInt()));
+        break;
+    }
+    switch (in.readByte()) {
+      case NEW_OBJECT :
+        TextureAttributes textureAttributes = new TextureAttributes();
+        readObjects.add(textureAttributes);
+        readSceneGraphObject(in, textureAttributes);
+        textureAttributes.setTextureMode(in.readInt());
+        textureAttributes.setPerspectiveCorrectionMode(in.readInt());
+        textureAttributes.setTextureBlendColor(in.readFloat(), in.readFloat(), in.readFloat(), in.readFloat());
+        textureAttributes.setTextureTransform(new Transform3D(readMatrix(in)));
+        appearance.setTextureAttributes(textureAttributes);
+        break;
+      case REFERENCE_OBJECT :
+        appearance.setTextureAttributes((TextureAttributes)readObjects.get(in.readInt()));
+        break;
+    }
+    switch (in.readByte()) {
+      case NEW_OBJECT :
+        TexCoordGeneration texCoordGeneration = new TexCoordGeneration();
+        readObjects.add(texCoordGeneration);
+        readSceneGraphObject(in, texCoordGeneration);
+        texCoordGeneration.setGenMode(in.readInt());
+        texCoordGeneration.setFormat(in.readInt());
+        texCoordGeneration.setEnable(in.readBoolean());
+        texCoordGeneration.setPlaneS(readPlane(in));
+        texCoordGeneration.setPlaneT(readPlane(in));
+        texCoordGeneration.setPlaneR(readPlane(in));
+        texCoordGeneration.setPlaneQ(readPlane(in));
+        appearance.setTexCoordGeneration(texCoordGeneration);
+        break;
+      case REFERENCE_OBJECT :
+        appearance.setTexCoordGeneration((TexCoordGeneration)readObjects.get(in.readInt()));
+        break;
+    }
+    switch (in.readByte()) {
+      case NEW_OBJECT :
+        int index = readObjects.size();
+        readObjects.add(null);
+        Texture texture = readTexture(in);
+        readObjects.set(index, texture);
+        appearance.setTexture(texture);
+        break;
+      case REFERENCE_OBJECT :
+        appearance.setTexture((Texture)readObjects.get(in.readInt()));
+        break;
+    }
+  }
+
+  /**
+   * Reads a texture and its image, and returns the matching shared texture.
+   */
+  private Texture readTexture(DataInputStream in) throws IOException {
+    long capabilities = in.readLong();
+    String name = readString(in);
+    int format = in.readInt();
+    int boundaryModeS = in.readInt();
+    int boundaryModeT = in.readInt();
+    int minFilter = in.readInt();
+    int magFilter = in.readInt();
+    boolean enable = in.readBoolean();
+    long imageCapabilities = in.readLong();
+    String imageName = readString(in);
+    int imageFormat = in.readInt();
+    boolean yUp = in.readBoolean();
+    boolean alpha = in.readBoolean();
+    int width = in.readInt();
+    int height = in.readInt();
+    BufferedImage bufferedImage = new BufferedImage(width, height,
+        alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+    bufferedImage.setRGB(0, 0, width, height, readInts(in), 0, width);
+
+    ImageComponent2D image = new ImageComponent2D(imageFormat, bufferedImage, false, yUp);
+    for (int bit = 0; bit < 64; bit++) {
+      if ((imageCapabilities & (1L << bit)) != 0) {
+        image.setCapability(bit);
+      }
+    }
+    image.setName(imageName);
+    Texture2D texture = new Texture2D(Texture.BASE_LEVEL, format, width, height);
+    texture.setImage(0, image);
+    texture.setBoundaryModeS(boundaryModeS);
+    texture.setBoundaryModeT(boundaryModeT);
+    texture.setMinFilter(minFilter);
+    texture.setMagFilter(magFilter);
+    texture.setEnable(enable);
+    for (int bit = 0; bit < 64; bit++) {
+      if ((capabilities & (1L << bit)) != 0) {
+        texture.setCapability(bit);
+      }
+    }
+    texture.setName(name);
+    return TextureManager.getInstance().shareTexture(texture);
+  }
+
+  private Color3f readColor(DataInputStream in) throws IOException {
+    return new Color3f(in.readFloat(), in.readFloat(), in.readFloat());
+  }
+
+  private Vector4f readPlane(DataInputStream in) throws IOException {
+    return new Vector4f(in.readFloat(), in.readFloat(), in.readFloat(), in.readFloat());
+  }
+
+  private double [] readMatrix(DataInputStream in) throws IOException {
+    double [] matrix = new double [16];
+    for (int i = 0; i < matrix.length; i++) {
+      matrix [i] = in.readDouble();
+    }
+    return matrix;
+  }
+
+  private String readString(DataInputStream in) throws IOException {
+    if (in.readBoolean()) {
+      return in.readUTF();
+    } else {
+      return null;
+    }
+  }
+
+  /**
+   * Reads an array in one bulk read.
+   */
+  private float [] readFloats(DataInputStream in) throws IOException {
+    float [] array = new float [in.readInt()];
+    byte [] bytes = new byte [array.length * 4];
+    in.readFully(bytes);
+    ByteBuffer.wrap(bytes).asFloatBuffer().get(array);
+    return array;
+  }
+
+  /**
+   * Reads an array in one bulk read.
+   */
+  private int [] readInts(DataInputStream in) throws IOException {
+    int [] array = new int [in.readInt()];
+    byte [] bytes = new byte [array.length * 4];
+    in.readFully(bytes);
+    ByteBuffer.wrap(bytes).asIntBuffer().get(array);
+    return array;
+  }
+}
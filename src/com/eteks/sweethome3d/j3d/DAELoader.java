@@ -91,6 +91,9 @@ import com.sun.j3d.utils.image.TextureLoader;
  * @author apptaro (bug fixes)
  */
 public class DAELoader extends LoaderBase implements Loader {
+  // Version of this parser, to increment when the scenes it builds change
+  static final int VERSION = 2;
+
   private Boolean useCaches;
 
   /**
@@ -203,6 +206,9 @@ public class DAELoader extends LoaderBase implements Loader {
     private final Stack<Group>   parentGroups = new Stack<Group>();
     private final Stack<String>  parentElements = new Stack<String>();
     private final StringBuilder  buffer = new StringBuilder();
+    private final NumbersParser  floatsParser = new NumbersParser(false);
+    private final NumbersParser  integersParser = new NumbersParser(true);
+    private NumbersParser        numbersParser;
     private final List<Runnable> postProcessingBinders = new ArrayList<Runnable>();
 
     private final Map<String, Texture> textures = new HashMap<String, Texture>();
@@ -218,6 +224,7 @@ public class DAELoader extends LoaderBase implements Loader {
     private final Map<String, float []> textureCoordinates = new HashMap<String, float []>();
     private final Map<String, float []> floatArrays = new HashMap<String, float []>();
     private final Map<float [], Integer> sourceAccessorStrides = new HashMap<float [], Integer>();
+    private final Map<float [], float []> uvTextureCoordinates = new HashMap<float [], float []>();
     private final Map<Geometry, String> geometryAppearances = new HashMap<Geometry, String>();
     private final List<int []> facesAndLinesPrimitives = new ArrayList<int[]>();
     private final List<int []> polygonsPrimitives = new ArrayList<int[]>();
@@ -232,6 +239,7 @@ public class DAELoader extends LoaderBase implements Loader {
     private float [] geometryNormals;
     private float [] geometryTextureCoordinates;
     private int   [] vcount;
+    private int   [][] offsetIndices;
     private float [] transparentColor;
     private Float    transparency;
 
@@ -268,6 +276,24 @@ public class DAELoader extends LoaderBase implements Loader {
     @Override
     public void startElement(String uri, String localName, String name, Attributes attributes) throws SAXException {
       this.buffer.setLength(0);
+      // Parse numbers of large elements while their characters are received
+      if ("color".equals(name)
+          || "float_array".equals(name)
+          || "matrix".equals(name)
+          || "rotate".equals(name)
+          || "scale".equals(name)
+          || "translate".equals(name)) {
+        this.numbersParser = this.floatsParser;
+        this.numbersParser.reset();
+      } else if (this.geometryId != null
+                 && ("p".equals(name)
+                     || "h".equals(name)
+                     || "vcount".equals(name))) {
+        this.numbersParser = this.integersParser;
+        this.numbersParser.reset();
+      } else {
+        this.numbersParser = null;
+      }
       String parent = this.parentElements.isEmpty() ? null : this.parentElements.peek();
       if (parent == null && !"COLLADA".equals(name)) {
         throw new SAXException("Expected COLLADA element");
@@ -395,6 +421,7 @@ public class DAELoader extends LoaderBase implements Loader {
           this.polygonsPrimitives.clear();
           this.polygonsHoles.clear();
           this.vcount = null;
+          this.offsetIndices = null;
         }
       } else if ("controller".equals(name)) {
         this.controllerId = attributes.getValue("id");
@@ -529,7 +556,11 @@ public class DAELoader extends LoaderBase implements Loader {
 
     @Override
     public void characters(char [] ch, int start, int length) throws SAXException {
-      this.buffer.append(ch, start, length);
+      if (this.numbersParser != null) {
+        this.numbersParser.parse(ch, start, length);
+      } else {
+        this.buffer.append(ch, start, length);
+      }
     }
 
     @Override
@@ -538,6 +569,7 @@ public class DAELoader extends LoaderBase implements Loader {
       String parent = this.parentElements.isEmpty()
           ? null
           : this.parentElements.peek();
+      this.numbersParser = null;
 
       if ("color".equals(name)
           || "float_array".equals(name)
@@ -545,26 +577,7 @@ public class DAELoader extends LoaderBase implements Loader {
           || "rotate".equals(name)
           || "scale".equals(name)
           || "translate".equals(name)) {
-        String [] floatValues = getCharacters().split("\\s");
-        this.floats = new float [floatValues.length];
-        int floatCount = 0;
-        for (int i = 0; i < floatValues.length; i++) {
-          if (floatValues [i].length() > 0) {
-            float floatValue;
-            try {
-              floatValue = Float.parseFloat(floatValues [i]);
-            } catch (NumberFormatException ex) {
-              // This may happen with some bad DAE files
-              floatValue = 0f;
-            }
-            this.floats [floatCount++] = floatValue;
-          }
-        }
-        if (floatCount != floatValues.length) {
-          float [] floats = new float [floatCount];
-          System.arraycopy(this.floats, 0, floats, 0, floatCount);
-          this.floats = floats;
-        }
+        this.floats = this.floatsParser.getFloats();
         if (this.floatArrayId != null) {
           this.floatArrays.put(this.floatArrayId, this.floats);
           this.floatArrayId = null;
@@ -838,20 +851,7 @@ public class DAELoader extends LoaderBase implements Loader {
       } else if ("p".equals(name)
                  || "h".equals(name)
                  || "vcount".equals(name)) {
-        // Get integers
-        String [] intValues = getCharacters().split("\\s");
-        int [] integers = new int [intValues.length];
-        int intCount = 0;
-        for (int i = 0; i < intValues.length; i++) {
-          if (intValues [i].length() > 0) {
-            integers [intCount++] = Integer.parseInt(intValues [i]);
-          }
-        }
-        if (intCount != intValues.length) {
-          int [] ints = new int [intCount];
-          System.arraycopy(integers, 0, ints, 0, intCount);
-          integers = ints;
-        }
+        int [] integers = this.integersParser.getIntegers();
 
         if (!"ph".equals(parent) && "p".equals(name)) {
           this.facesAndLinesPrimitives.add(integers);
@@ -897,6 +897,7 @@ public class DAELoader extends LoaderBase implements Loader {
         this.polygonsPrimitives.clear();
         this.polygonsHoles.clear();
         this.vcount = null;
+        this.offsetIndices = null;
       }
     }
 
@@ -927,10 +928,15 @@ public class DAELoader extends LoaderBase implements Loader {
         // Support only UV texture coordinates
         float [] textureCoordinates;
         if (stride > 2) {
-          textureCoordinates = new float [this.geometryTextureCoordinates.length / stride * 2];
-          for (int i = 0, j = 0; j < this.geometryTextureCoordinates.length; j += stride) {
-            textureCoordinates [i++] = this.geometryTextureCoordinates [j];
-            textureCoordinates [i++] = this.geometryTextureCoordinates [j + 1];
+          // Share UV coordinates among the primitives using the same source
+          textureCoordinates = this.uvTextureCoordinates.get(this.geometryTextureCoordinates);
+          if (textureCoordinates == null) {
+            textureCoordinates = new float [this.geometryTextureCoordinates.length / stride * 2];
+            for (int i = 0, j = 0; j < this.geometryTextureCoordinates.length; j += stride) {
+              textureCoordinates [i++] = this.geometryTextureCoordinates [j];
+              textureCoordinates [i++] = this.geometryTextureCoordinates [j + 1];
+            }
+            this.uvTextureCoordinates.put(this.geometryTextureCoordinates, textureCoordinates);
           }
         } else {
           textureCoordinates = this.geometryTextureCoordinates;
@@ -1024,12 +1030,19 @@ public class DAELoader extends LoaderBase implements Loader {
     }
 
     /**
-     * Returns the indices at the given <code>indexOffset</code>.
+     * Returns the indices at the given <code>indexOffset</code>,
+     * shared by the vertices, normals and texture coordinates read at the same offset.
      */
     private int [] getIndices(int indexOffset) {
       if (this.facesAndLinesPrimitives.size() == 1 && this.polygonsPrimitives.size() == 1 && this.inputCount == 1) {
         return facesAndLinesPrimitives.get(0);
       } else {
+        if (this.offsetIndices == null) {
+          this.offsetIndices = new int [this.inputCount][];
+        } else if (this.offsetIndices [indexOffset] != null) {
+          return this.offsetIndices [indexOffset];
+        }
+
         int indexCount = getIndexCount(this.facesAndLinesPrimitives);
         indexCount += getIndexCount(this.polygonsPrimitives);
         for (List<int []> polygonHole : this.polygonsHoles) {
@@ -1054,6 +1067,7 @@ public class DAELoader extends LoaderBase implements Loader {
             }
           }
         }
+        this.offsetIndices [indexOffset] = indices;
         return indices;
       }
     }
@@ -1159,4 +1173,143 @@ public class DAELoader extends LoaderBase implements Loader {
       }
     }
   }
+
+  /**
+   * A parser of the numbers separated by white spaces in the text of an element,
+   * storing them in a primitive array as soon as their characters are received.
+   * Its buffers are reused from an element to the other.
+   */
+  private static class NumbersParser {
+    private final boolean integers;
+    private char []       token = new char [32];
+    private int           tokenLength;
+    private float []      floatValues;
+    private int []        integerValues;
+    private int           count;
+
+    public NumbersParser(boolean integers) {
+      this.integers = integers;
+      if (integers) {
+        this.integerValues = new int [1024];
+      } else {
+        this.floatValues = new float [1024];
+      }
+    }
+
+    /**
+     * Prepares this parser for the text of a new element.
+     */
+    public void reset() {
+      this.tokenLength = 0;
+      this.count = 0;
+    }
+
+    /**
+     * Parses the given characters, which may end or start in the middle of a number.
+     */
+    public void parse(char [] ch, int start, int length) {
+      for (int i = start, end = start + length; i < end; i++) {
+        char c = ch [i];
+        if (c <= ' ') {
+          if (this.tokenLength > 0) {
+            addToken();
+          }
+        } else {
+          if (this.tokenLength == this.token.length) {
+            char [] token = new char [this.tokenLength * 2];
+            System.arraycopy(this.token, 0, token, 0, this.tokenLength);
+            this.token = token;
+          }
+          this.token [this.tokenLength++] = c;
+        }
+      }
+    }
+
+    /**
+     * Returns the floats parsed in the text of the current element.
+     */
+    public float [] getFloats() {
+      if (this.tokenLength > 0) {
+        addToken();
+      }
+      float [] floats = new float [this.count];
+      System.arraycopy(this.floatValues, 0, floats, 0, this.count);
+      return floats;
+    }
+
+    /**
+     * Returns the integers parsed in the text of the current element.
+     */
+    public int [] getIntegers() {
+      if (this.tokenLength > 0) {
+        addToken();
+      }
+      int [] integers = new int [this.count];
+      System.arraycopy(this.integerValues, 0, integers, 0, this.count);
+      return integers;
+    }
+
+    /**
+     * Adds the number of the current token to parsed numbers.
+     */
+    private void addToken() {
+      if (this.integers) {
+        if (this.count == this.integerValues.length) {
+          int [] integerValues = new int [this.count * 2];
+          System.arraycopy(this.integerValues, 0, integerValues, 0, this.count);
+          this.integerValues = integerValues;
+        }
+        this.integerValues [this.count++] = parseInteger();
+      } else {
+        if (this.count == this.floatValues.length) {
+          float [] floatValues = new float [this.count * 2];
+          System.arraycopy(this.floatValues, 0, floatValues, 0, this.count);
+          this.floatValues = floatValues;
+        }
+        this.floatValues [this.count++] = parseFloat();
+      }
+      this.tokenLength = 0;
+    }
+
+    /**
+     * Returns the integer in the current token.
+     */
+    private int parseInteger() {
+      int i = 0;
+      boolean negative = this.token [i] == '-';
+      if (negative) {
+        i++;
+      }
+      if (i < this.tokenLength && this.tokenLength - i <= 9) {
+        int value = 0;
+        for ( ; i < this.tokenLength; i++) {
+          int digit = this.token [i] - '0';
+          if (digit < 0 || digit > 9) {
+            break;
+          }
+          value = value * 10 + digit;
+        }
+        if (i == this.tokenLength) {
+          return negative ? -value : value;
+        }
+      }
+      return Integer.parseInt(new String(this.token, 0, this.tokenLength));
+    }
+
+    /**
+     * Returns the float in the current token or 0 if it's not a number.
+     */
+    private float parseFloat() {
+      float value = FloatParser.parseFloat(this.token, 0, this.tokenLength);
+      if (!Float.isNaN(value)) {
+        return value;
+      }
+      try {
+        return Float.parseFloat(new String(this.token, 0, this.tokenLength));
+      } catch (NumberFormatException ex) {
+        // This may happen with some bad DAE files
+        return 0f;
+      }
+    }
+  }
 }
@@ -0,0 +1,110 @@
+/*
+ * FloatParser.java 19 oct. 2026
+ *
+ * Sweet Home 3D, Copyright (c) 2024 Space Mushrooms <info@sweethome3d.com>
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package com.eteks.sweethome3d.j3d;
+
+/**
+ * A parser of the decimal numbers found in model files, faster than <code>Float.parseFloat</code>
+ * for the numbers with a few significant digits.
+ * @author Emmanuel Puybaret
+ */
+final class FloatParser {
+  private static final double [] POWERS_OF_TEN = new double [23];
+
+  static {
+    POWERS_OF_TEN [0] = 1;
+    for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+      POWERS_OF_TEN [i] = POWERS_OF_TEN [i - 1] * 10;
+    }
+  }
+
+  private FloatParser() {
+    // This class contains only static methods
+  }
+
+  /**
+   * Returns the float written in the characters of <code>chars</code> between
+   * <code>start</code> and <code>end</code>, or <code>Float.NaN</code> if these characters
+   * can't be parsed exactly without <code>Float.parseFloat</code>.
+   */
+  public static float parseFloat(char [] chars, int start, int end) {
+    int i = start;
+    if (i >= end) {
+      return Float.NaN;
+    }
+    boolean negative = chars [i] == '-';
+    if (negative || chars [i] == '+') {
+      i++;
+    }
+    long mantissa = 0;
+    int digitCount = 0;
+    int exponent = 0;
+    boolean validNumber = false;
+    for ( ; i < end && chars [i] >= '0' && chars [i] <= '9'; i++) {
+      mantissa = mantissa * 10 + (chars [i] - '0');
+      if (mantissa != 0) {
+        digitCount++;
+      }
+      validNumber = true;
+    }
+    if (i < end && chars [i] == '.') {
+      for (i++; i < end && chars [i] >= '0' && chars [i] <= '9'; i++) {
+        mantissa = mantissa * 10 + (chars [i] - '0');
+        if (mantissa != 0) {
+          digitCount++;
+        }
+        exponent--;
+        validNumber = true;
+      }
+    }
+    if (validNumber
+        && i < end
+        && (chars [i] == 'e' || chars [i] == 'E')) {
+      i++;
+      boolean negativeExponent = i < end && chars [i] == '-';
+      if (negativeExponent || i < end && chars [i] == '+') {
+        i++;
+      }
+      int exponentValue = 0;
+      int exponentStart = i;
+      for ( ; i < end && i - exponentStart < 4 && chars [i] >= '0' && chars [i] <= '9'; i++) {
+        exponentValue = exponentValue * 10 + (chars [i] - '0');
+      }
+      validNumber = i > exponentStart;
+      exponent += negativeExponent ? -exponentValue : exponentValue;
+    }
+    // Compute number from exact mantissa and power of ten, when the division or
+    // the multiplication of these two doubles gives a correctly rounded result
+    if (validNumber
+        && i == end
+        && digitCount <= 15
+        && exponent >= -22 && exponent <= 22) {
+      double value = exponent >= 0
+          ? mantissa * POWERS_OF_TEN [exponent]
+          : mantissa / POWERS_OF_TEN [-exponent];
+      // Check the double value isn't a midpoint between two floats
+      // to avoid a different result caused by double rounding
+      if ((Double.doubleToRawLongBits(value) & 0x1FFFFFFFL) != 0x10000000L
+          || value == 0) {
+        return negative ? -(float)value : (float)value;
+      }
+    }
+    return Float.NaN;
+  }
+}
@@ -267,7 +267,23 @@ public class Ground3D extends Object3DBranch {
     }
     // Compute the union of the rooms, the underground walls and furniture areas
     Map<Level, LevelAreas> undergroundLevelAreas = new HashMap<Level, LevelAreas>();
-    for (Room room : home.getRooms()) {
+    // Search only items at levels which may change ground
+    List<Level> groundLevels = new ArrayList<Level>();
+    groundLevels.add(null);
+    for (Level level : home.getLevels()) {
+      if (level.getElevation() <= 0) {
+        groundLevels.add(level);
+      }
+    }
+    List<Room> rooms = new ArrayList<Room>();
+    for (Level level : groundLevels) {
+      for (Room room : home.getRoomsAtLevel(level)) {
+        if (room.getLevel() == level) {
+          rooms.add(room);
+        }
+      }
+    }
+    for (Room room : rooms) {
       Level roomLevel = room.getLevel();
       if ((roomLevel == null || roomLevel.isViewable())
           && room.isFloorVisible()) {
@@ -293,13 +309,28 @@ public class Ground3D extends Object3DBranch {
     }
 
     // Search all items at negative levels that could dig the ground
-    updateUndergroundAreasDugByFurniture(undergroundLevelAreas, home.getFurniture());
+    List<HomePieceOfFurniture> undergroundFurniture = new ArrayList<HomePieceOfFurniture>();
+    List<Wall> undergroundWalls = new ArrayList<Wall>();
+    for (Level level : groundLevels) {
+      if (level != null
+          && level.getElevation() < 0) {
+        for (HomePieceOfFurniture piece : home.getFurnitureAtLevel(level)) {
+          if (piece.getLevel() == level) {
+            undergroundFurniture.add(piece);
+          }
+        }
+        for (Wall wall : home.getWallsAtLevel(level)) {
+          if (wall.getLevel() == level) {
+            undergroundWalls.add(wall);
+          }
+        }
+      }
+    }
+    updateUndergroundAreasDugByFurniture(undergroundLevelAreas, undergroundFurniture);
 
-    for (Wall wall : home.getWalls()) {
+    for (Wall wall : undergroundWalls) {
       Level wallLevel = wall.getLevel();
-      if (wallLevel != null
-          && wallLevel.isViewable()
-          && wallLevel.getElevation() < 0) {
+      if (wallLevel.isViewable()) {
         LevelAreas levelAreas = getUndergroundAreas(undergroundLevelAreas, wallLevel);
         levelAreas.getWallArea().add(new Area(getShape(wall.getPoints())));
       }
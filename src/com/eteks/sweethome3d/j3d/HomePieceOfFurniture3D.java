@@ -198,8 +198,9 @@ public class HomePieceOfFurniture3D extends Object3DBranch {
     // Store 3D model for possible future changes
     Content model = piece.getModel();
     transformGroup.setUserData(model);
-    // Load piece 3D model
-    ModelManager.getInstance().loadModel(model, waitModelAndTextureLoadingEnd,
+    // Load piece 3D model sharing its geometries and the appearance components
+    // that are replaced rather than modified when piece color, texture or materials change
+    ModelManager.getInstance().loadModel(model, waitModelAndTextureLoadingEnd, true,
         new ModelManager.ModelObserver() {
           public void modelUpdated(BranchGroup modelRoot) {
             updateModelTransformations(modelRoot);
@@ -661,7 +662,8 @@ public class HomePieceOfFurniture3D extends Object3DBranch {
    * Returns a clone of the given node with an outline appearance on its shapes.
    */
   private Node createOutlineModelNode(Node modelNode) {
-    Node node = ModelManager.getInstance().cloneNode(modelNode);
+    // Share appearance components since appearances are replaced by outline appearance
+    Node node = ModelManager.getInstance().cloneNode(modelNode, true);
     setOutlineAppearance(node);
     return node;
   }
@@ -1185,7 +1187,10 @@ public class HomePieceOfFurniture3D extends Object3DBranch {
     appearance.setCapability(Appearance.ALLOW_MATERIAL_READ);
     appearance.setCapability(Appearance.ALLOW_MATERIAL_WRITE);
     Material material = appearance.getMaterial();
-    if (material != null) {
+    if (material != null
+        && !material.isLive()
+        && !material.isCompiled()) {
+      // Material may be shared with other pieces
       material.setCapability(Material.ALLOW_COMPONENT_READ);
     }
     appearance.setCapability(Appearance.ALLOW_RENDERING_ATTRIBUTES_READ);
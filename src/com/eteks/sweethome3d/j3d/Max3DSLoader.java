@@ -20,13 +20,10 @@
 package com.eteks.sweethome3d.j3d;
 
 import java.awt.image.BufferedImage;
-import java.io.BufferedInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.EOFException;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
-import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
@@ -34,6 +31,10 @@ import java.net.MalformedURLException;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
@@ -63,10 +64,8 @@ import javax.media.j3d.Transform3D;
 import javax.media.j3d.TransformGroup;
 import javax.media.j3d.TransparencyAttributes;
 import javax.vecmath.Color3f;
-import javax.vecmath.Point3f;
 import javax.vecmath.Quat4d;
 import javax.vecmath.SingularMatrixException;
-import javax.vecmath.TexCoord2f;
 import javax.vecmath.Vector3d;
 import javax.vecmath.Vector3f;
 
@@ -86,6 +85,9 @@ import com.sun.j3d.utils.image.TextureLoader;
  * @author Emmanuel Puybaret
  */
 public class Max3DSLoader extends LoaderBase implements Loader {
+  // Version of this parser, to increment when the scenes it builds change
+  static final int VERSION = 2;
+
   private enum ChunkID {
     NULL_CHUNK(0x0000),
     M3DMAGIC(0x4D4D),   // 3DS file
@@ -420,11 +422,8 @@ public class Max3DSLoader extends LoaderBase implements Loader {
    * Returns the scene described in the given 3DS file.
    */
   private Scene load(InputStream in, URL baseUrl) throws FileNotFoundException {
-    if (!(in instanceof BufferedInputStream)) {
-      in = new BufferedInputStream(in);
-    }
     try {
-      return parseStream(new ChunksInputStream(in, baseUrl));
+      return parseStream(new ChunksReader(readStream(in), baseUrl));
     } catch (IOException ex) {
       throw new ParsingErrorException(ex.getMessage());
     } finally {
@@ -437,9 +436,27 @@ public class Max3DSLoader extends LoaderBase implements Loader {
   }
 
   /**
-   * Returns the scene with data read from the given 3DS stream.
+   * Returns a buffer containing all the bytes of the given stream.
    */
-  private Scene parseStream(ChunksInputStream in) throws IOException {
+  private static ByteBuffer readStream(InputStream in) throws IOException {
+    byte [] bytes = new byte [Math.max(8192, in.available())];
+    int length = 0;
+    int readLength;
+    while ((readLength = in.read(bytes, length, bytes.length - length)) != -1) {
+      length += readLength;
+      if (length == bytes.length) {
+        byte [] largerBytes = new byte [bytes.length * 2];
+        System.arraycopy(bytes, 0, largerBytes, 0, length);
+        bytes = largerBytes;
+      }
+    }
+    return ByteBuffer.wrap(bytes, 0, length);
+  }
+
+  /**
+   * Returns the scene with data read from the given 3DS chunks.
+   */
+  private Scene parseStream(ChunksReader in) throws IOException {
     this.masterScale = 1;
     this.meshes = new ArrayList<Mesh3DS>();
     this.materials = new LinkedHashMap<String, Material3DS>();
@@ -561,9 +578,9 @@ public class Max3DSLoader extends LoaderBase implements Loader {
     for (Mesh3DS mesh : this.meshes) {
       Face3DS [] faces = mesh.getFaces();
       if (faces != null && faces.length > 0) {
-        Point3f [] vertices = mesh.getVertices();
+        float [] vertices = mesh.getVertices();
         // Compute default normals
-        Mesh3DSSharedVertex [] sharedVertices = new Mesh3DSSharedVertex [vertices.length];
+        Mesh3DSSharedVertex [] sharedVertices = new Mesh3DSSharedVertex [vertices.length / 3];
         Vector3f [] defaultNormals = new Vector3f [3 * faces.length];
         Vector3f vector1 = new Vector3f();
         Vector3f vector2 = new Vector3f();
@@ -572,8 +589,8 @@ public class Max3DSLoader extends LoaderBase implements Loader {
           int [] vertexIndices = face.getVertexIndices();
           for (int j = 0; j < 3; j++, k++) {
             int vertexIndex = vertexIndices [j];
-            vector1.sub(vertices [vertexIndices [j < 2 ? j + 1 : 0]], vertices [vertexIndex]);
-            vector2.sub(vertices [vertexIndices [j > 0 ? j - 1 : 2]], vertices [vertexIndex]);
+            subVertices(vector1, vertices, vertexIndices [j < 2 ? j + 1 : 0], vertexIndex);
+            subVertices(vector2, vertices, vertexIndices [j > 0 ? j - 1 : 2], vertexIndex);
             Vector3f normal = new Vector3f();
             normal.cross(vector1, vector2);
             float length = normal.length();
@@ -697,7 +714,7 @@ public class Max3DSLoader extends LoaderBase implements Loader {
           }
         }
 
-        TexCoord2f [] textureCoordinates = mesh.getTextureCoordinates();
+        float [] textureCoordinates = mesh.getTextureCoordinates();
         int i = 0;
         Shape3D shape = null;
         Material3DS material = null;
@@ -764,10 +781,22 @@ public class Max3DSLoader extends LoaderBase implements Loader {
     return scene;
   }
 
+  /**
+   * Sets <code>vector</code> to the difference between the vertices
+   * at the given indices in <code>vertices</code> coordinates.
+   */
+  private void subVertices(Vector3f vector, float [] vertices, int vertexIndex1, int vertexIndex2) {
+    vertexIndex1 *= 3;
+    vertexIndex2 *= 3;
+    vector.set(vertices [vertexIndex1] - vertices [vertexIndex2],
+        vertices [vertexIndex1 + 1] - vertices [vertexIndex2 + 1],
+        vertices [vertexIndex1 + 2] - vertices [vertexIndex2 + 2]);
+  }
+
   /**
    * Parses 3DS data in the current chunk.
    */
-  private void parseEditorData(ChunksInputStream in) throws IOException {
+  private void parseEditorData(ChunksReader in) throws IOException {
     while (!in.isChunckEndReached()) {
       switch (in.readChunkHeader().getID()) {
         case MESH_VERSION :
@@ -817,7 +846,7 @@ public class Max3DSLoader extends LoaderBase implements Loader {
   /**
    * Parses named objects like mesh in the current chunk.
    */
-  private void parseNamedObject(ChunksInputStream in) throws IOException {
+  private void parseNamedObject(ChunksReader in) throws IOException {
     String name = in.readString();
     while (!in.isChunckEndReached()) {
       switch (in.readChunkHeader().getID()) {
@@ -844,9 +873,9 @@ public class Max3DSLoader extends LoaderBase implements Loader {
   /**
    * Returns the mesh read from the current chunk.
    */
-  private Mesh3DS parseMeshData(ChunksInputStream in, String name) throws IOException {
-    Point3f [] vertices = null;
-    TexCoord2f [] textureCoordinates = null;
+  private Mesh3DS parseMeshData(ChunksReader in, String name) throws IOException {
+    float [] vertices = null;
+    float [] textureCoordinates = null;
     Transform3D transform = null;
     Short  color = null;
     Face3DS [] faces = null;
@@ -864,11 +893,8 @@ public class Max3DSLoader extends LoaderBase implements Loader {
           color = in.readUnsignedByte();
           break;
         case POINT_ARRAY :
-          vertices = new Point3f [in.readLittleEndianUnsignedShort()];
-          for (int i = 0; i < vertices.length; i++) {
-            vertices [i] = new Point3f(in.readLittleEndianFloat(),
-                in.readLittleEndianFloat(), in.readLittleEndianFloat());
-          }
+          vertices = new float [in.readLittleEndianUnsignedShort() * 3];
+          in.readLittleEndianFloats(vertices);
           break;
         case FACE_ARRAY :
           faces = parseFacesData(in);
@@ -880,16 +906,19 @@ public class Max3DSLoader extends LoaderBase implements Loader {
                 if (this.materials != null) {
                   material = this.materials.get(materialName);
                 }
-                for (int i = 0, n = in.readLittleEndianUnsignedShort(); i < n; i++) {
-                  int index = in.readLittleEndianUnsignedShort();
+                int [] faceIndices = new int [in.readLittleEndianUnsignedShort()];
+                in.readLittleEndianUnsignedShorts(faceIndices);
+                for (int index : faceIndices) {
                   if (index < faces.length) {
                     faces [index].setMaterial(material);
                   }
                 }
                 break;
               case SMOOTHING_GROUP :
+                long [] smoothingGroups = new long [faces.length];
+                in.readLittleEndianUnsignedInts(smoothingGroups);
                 for (int i = 0; i < faces.length; i++) {
-                  faces [i].setSmoothingGroup(in.readLittleEndianUnsignedInt());
+                  faces [i].setSmoothingGroup(smoothingGroups [i]);
                 }
                 break;
               case MESH_BOXMAP :
@@ -901,11 +930,8 @@ public class Max3DSLoader extends LoaderBase implements Loader {
           }
           break;
         case TEXTURE_COORDINATES :
-          textureCoordinates = new TexCoord2f [in.readLittleEndianUnsignedShort()];
-          for (int i = 0; i < textureCoordinates.length; i++) {
-            textureCoordinates [i] =
-                new TexCoord2f(in.readLittleEndianFloat(), in.readLittleEndianFloat());
-          }
+          textureCoordinates = new float [in.readLittleEndianUnsignedShort() * 2];
+          in.readLittleEndianFloats(textureCoordinates);
           break;
         case POINT_FLAG_ARRAY :
         case MESH_TEXTURE_INFO :
@@ -921,7 +947,7 @@ public class Max3DSLoader extends LoaderBase implements Loader {
   /**
    * Parses key framer data.
    */
-  private void parseKeyFramerData(ChunksInputStream in) throws IOException {
+  private void parseKeyFramerData(ChunksReader in) throws IOException {
     Map<Short, TransformGroup> transformGroups = new HashMap<Short, TransformGroup>();
     TransformGroup currentTransformGroup = null;
     while (!in.isChunckEndReached()) {
@@ -1043,7 +1069,7 @@ public class Max3DSLoader extends LoaderBase implements Loader {
   /**
    * Parses the start of a key framer track.
    */
-  private void parseKeyFramerTrackStart(ChunksInputStream in) throws IOException {
+  private void parseKeyFramerTrackStart(ChunksReader in) throws IOException {
     in.readLittleEndianUnsignedShort(); // Flags
     in.readLittleEndianUnsignedInt();
     in.readLittleEndianUnsignedInt();
@@ -1070,15 +1096,12 @@ public class Max3DSLoader extends LoaderBase implements Loader {
   /**
    * Returns the mesh faces read from the current chunk.
    */
-  private Face3DS [] parseFacesData(ChunksInputStream in) throws IOException {
+  private Face3DS [] parseFacesData(ChunksReader in) throws IOException {
     Face3DS [] faces = new Face3DS [in.readLittleEndianUnsignedShort()];
-    for (int i = 0; i < faces.length; i++) {
-      faces [i] = new Face3DS(
-        i,
-        in.readLittleEndianUnsignedShort(),
-        in.readLittleEndianUnsignedShort(),
-        in.readLittleEndianUnsignedShort(),
-        in.readLittleEndianUnsignedShort());
+    int [] facesData = new int [faces.length * 4];
+    in.readLittleEndianUnsignedShorts(facesData);
+    for (int i = 0, j = 0; i < faces.length; i++, j += 4) {
+      faces [i] = new Face3DS(i, facesData [j], facesData [j + 1], facesData [j + 2], facesData [j + 3]);
     }
     return faces;
   }
@@ -1086,7 +1109,7 @@ public class Max3DSLoader extends LoaderBase implements Loader {
   /**
    * Returns the 3DS material read from the current chunk.
    */
-  private Material3DS parseMaterial(ChunksInputStream in) throws IOException {
+  private Material3DS parseMaterial(ChunksReader in) throws IOException {
     String name = null;
     Color3f ambientColor = null;
     Color3f diffuseColor = null;
@@ -1166,7 +1189,7 @@ public class Max3DSLoader extends LoaderBase implements Loader {
   /**
    * Returns the color read from the current chunk.
    */
-  private Color3f parseColor(ChunksInputStream in) throws IOException {
+  private Color3f parseColor(ChunksReader in) throws IOException {
     boolean linearColor = false;
     Color3f color = null;
     while (!in.isChunckEndReached()) {
@@ -1211,7 +1234,7 @@ public class Max3DSLoader extends LoaderBase implements Loader {
   /**
    * Returns the percentage read from the current chunk.
    */
-  private Float parsePercentage(ChunksInputStream in) throws IOException {
+  private Float parsePercentage(ChunksReader in) throws IOException {
     Float percentage = null;
     while (!in.isChunckEndReached()) {
       switch (in.readChunkHeader().getID()) {
@@ -1237,7 +1260,7 @@ public class Max3DSLoader extends LoaderBase implements Loader {
   /**
    * Returns the texture read from the current chunk.
    */
-  private Texture parseTextureMap(ChunksInputStream in) throws IOException {
+  private Texture parseTextureMap(ChunksReader in) throws IOException {
     String mapName = null;
     while (!in.isChunckEndReached()) {
       switch (in.readChunkHeader().getID()) {
@@ -1350,7 +1373,7 @@ public class Max3DSLoader extends LoaderBase implements Loader {
   /**
    * Returns the texture read from the given file.
    */
-  private Texture readTexture(ChunksInputStream in, String fileName) throws IOException {
+  private Texture readTexture(ChunksReader in, String fileName) throws IOException {
     InputStream imageStream = null;
     try {
       URL baseUrl = in.getBaseURL();
@@ -1396,7 +1419,7 @@ public class Max3DSLoader extends LoaderBase implements Loader {
   /**
    * Returns the matrix read from the current chunk.
    */
-  private Transform3D parseMatrix(ChunksInputStream in) throws IOException {
+  private Transform3D parseMatrix(ChunksReader in) throws IOException {
     float [] matrix = {
         1, 0, 0, 0,
         0, 1, 0, 0,
@@ -1421,7 +1444,7 @@ public class Max3DSLoader extends LoaderBase implements Loader {
   /**
    * Returns the vector read from the current chunk.
    */
-  private Vector3f parseVector(ChunksInputStream in) throws IOException {
+  private Vector3f parseVector(ChunksReader in) throws IOException {
     return new Vector3f(in.readLittleEndianFloat(),
         in.readLittleEndianFloat(), in.readLittleEndianFloat());
   }
@@ -1466,14 +1489,16 @@ public class Max3DSLoader extends LoaderBase implements Loader {
   }
 
   /**
-   * An input stream storing chunks hierarchy and other data required during parsing.
+   * A reader of chunks stored in a little endian buffer,
+   * keeping the chunks hierarchy and other data required during parsing.
    */
-  private static class ChunksInputStream extends FilterInputStream {
+  private static class ChunksReader {
+    private ByteBuffer      buffer;
     private Stack<Chunk3DS> stack;
     private URL             baseUrl;
 
-    public ChunksInputStream(InputStream in, URL baseUrl) {
-      super(in);
+    public ChunksReader(ByteBuffer buffer, URL baseUrl) {
+      this.buffer = buffer.order(ByteOrder.LITTLE_ENDIAN);
       this.stack = new Stack<Chunk3DS>();
       this.baseUrl = baseUrl;
     }
@@ -1484,16 +1509,16 @@ public class Max3DSLoader extends LoaderBase implements Loader {
 
     /**
      * Reads the next chunk id and length, pushes it in the stack and returns it.
-     * <code>null</code> will be returned if the end of the stream is reached.
+     * <code>null</code> will be returned if the end of the buffer is reached.
      */
     public Chunk3DS readChunkHeader() throws IOException {
-      short chunkId;
-      try {
-        chunkId = readLittleEndianShort(false);
-      } catch (EOFException ex) {
+      if (!this.buffer.hasRemaining()) {
         return null;
+      } else if (this.buffer.remaining() < 6) {
+        throw new IncorrectFormatException("Can't read chunk header");
       }
-      Chunk3DS chunk = new Chunk3DS(chunkId, readLittleEndianUnsignedInt(false));
+      short chunkId = this.buffer.getShort();
+      Chunk3DS chunk = new Chunk3DS(chunkId, (long)this.buffer.getInt() & 0xFFFFFFFFL);
       this.stack.push(chunk);
       return chunk;
     }
@@ -1521,118 +1546,133 @@ public class Max3DSLoader extends LoaderBase implements Loader {
     }
 
     /**
-     * Reads the stream until the end of the current chunk.
+     * Skips the bytes until the end of the current chunk.
      */
     public void readUntilChunkEnd() throws IOException {
       Chunk3DS chunk = this.stack.peek();
       long remainingLength = chunk.getLength() - chunk.getReadLength();
-      for (long length = remainingLength; length > 0; length--) {
-        if (this.in.read() < 0) {
-          throw new IncorrectFormatException("Chunk " + chunk.getID() + " too short");
-        }
+      if (remainingLength > this.buffer.remaining()) {
+        throw new IncorrectFormatException("Chunk " + chunk.getID() + " too short");
+      }
+      if (remainingLength > 0) {
+        this.buffer.position(this.buffer.position() + (int)remainingLength);
       }
       chunk.incrementReadLength(remainingLength);
     }
 
     /**
-     * Returns the unsigned byte read from this stream.
+     * Checks the given count of bytes can be read and adds it to the read length of the current chunk.
      */
-    public short readUnsignedByte() throws IOException {
-      int b = this.in.read();
-      if (b == -1) {
-        throw new EOFException();
-      } else {
-        this.stack.peek().incrementReadLength(1);
-        return (short)(b & 0xFF);
+    private void checkRemaining(int length, String type) throws IOException {
+      if (this.buffer.remaining() < length) {
+        if (this.buffer.hasRemaining()) {
+          throw new IncorrectFormatException("Can't read " + type);
+        } else {
+          throw new EOFException();
+        }
       }
+      this.stack.peek().incrementReadLength(length);
     }
 
     /**
-     * Returns the unsigned short read from this stream.
+     * Returns the unsigned byte read from this buffer.
+     */
+    public short readUnsignedByte() throws IOException {
+      checkRemaining(1, "byte");
+      return (short)(this.buffer.get() & 0xFF);
+    }
+
+    /**
+     * Returns the unsigned short read from this buffer.
      */
     public int readLittleEndianUnsignedShort() throws IOException {
-      return (int)readLittleEndianShort(true) & 0xFFFF;
+      return readLittleEndianShort() & 0xFFFF;
     }
 
     /**
-     * Returns the short read from this stream.
+     * Returns the short read from this buffer.
      */
     public short readLittleEndianShort() throws IOException {
-      return readLittleEndianShort(true);
+      checkRemaining(2, "short");
+      return this.buffer.getShort();
     }
 
-    private short readLittleEndianShort(boolean incrementReadLength) throws IOException {
-      int b1 = this.in.read();
-      if (b1 == -1) {
-        throw new EOFException();
-      }
-      int b2 = this.in.read();
-      if (b2 == -1) {
-        throw new IncorrectFormatException("Can't read short");
-      }
-      if (incrementReadLength) {
-        this.stack.peek().incrementReadLength(2);
+    /**
+     * Reads unsigned shorts from this buffer to fill the given array.
+     */
+    public void readLittleEndianUnsignedShorts(int [] values) throws IOException {
+      checkRemaining(values.length * 2, "short");
+      ShortBuffer shortBuffer = this.buffer.asShortBuffer();
+      short [] shorts = new short [values.length];
+      shortBuffer.get(shorts);
+      for (int i = 0; i < shorts.length; i++) {
+        values [i] = shorts [i] & 0xFFFF;
       }
-      return (short)((b2 << 8) | b1);
+      this.buffer.position(this.buffer.position() + values.length * 2);
     }
 
     /**
-     * Returns the float read from this stream.
+     * Returns the float read from this buffer.
      */
     public float readLittleEndianFloat() throws IOException {
-      return Float.intBitsToFloat(readLittleEndianInt(true));
+      checkRemaining(4, "float");
+      return this.buffer.getFloat();
     }
 
     /**
-     * Returns the unsigned integer read from this stream.
+     * Reads floats from this buffer to fill the given array.
      */
-    public long readLittleEndianUnsignedInt() throws IOException {
-      return readLittleEndianUnsignedInt(true);
+    public void readLittleEndianFloats(float [] values) throws IOException {
+      checkRemaining(values.length * 4, "float");
+      this.buffer.asFloatBuffer().get(values);
+      this.buffer.position(this.buffer.position() + values.length * 4);
     }
 
-    private long readLittleEndianUnsignedInt(boolean incrementReadLength) throws IOException {
-      return (long)readLittleEndianInt(incrementReadLength) & 0xFFFFFFFFL;
+    /**
+     * Returns the unsigned integer read from this buffer.
+     */
+    public long readLittleEndianUnsignedInt() throws IOException {
+      return (long)readLittleEndianInt() & 0xFFFFFFFFL;
     }
 
     /**
-     * Returns the integer read from this stream.
+     * Reads unsigned integers from this buffer to fill the given array.
      */
-    public int readLittleEndianInt() throws IOException {
-      return readLittleEndianInt(true);
+    public void readLittleEndianUnsignedInts(long [] values) throws IOException {
+      checkRemaining(values.length * 4, "int");
+      IntBuffer intBuffer = this.buffer.asIntBuffer();
+      for (int i = 0; i < values.length; i++) {
+        values [i] = (long)intBuffer.get() & 0xFFFFFFFFL;
+      }
+      this.buffer.position(this.buffer.position() + values.length * 4);
     }
 
-    private int readLittleEndianInt(boolean incrementReadLength) throws IOException {
-      int b1 = this.in.read();
-      if (b1 == -1) {
-        throw new EOFException();
-      }
-      int b2 = this.in.read();
-      int b3 = this.in.read();
-      int b4 = this.in.read();
-      if (b2 == -1 || b3 == -1 || b4 == -1) {
-        throw new IncorrectFormatException("Can't read int");
-      }
-      if (incrementReadLength) {
-        this.stack.peek().incrementReadLength(4);
-      }
-      return (b4 << 24) | (b3 << 16) | (b2 << 8) | b1;
+    /**
+     * Returns the integer read from this buffer.
+     */
+    public int readLittleEndianInt() throws IOException {
+      checkRemaining(4, "int");
+      return this.buffer.getInt();
     }
 
     /**
-     * Returns the string read from this stream.
+     * Returns the string read from this buffer.
      */
     public String readString() throws IOException {
-      ByteArrayOutputStream stringBytes = new ByteArrayOutputStream(256);
-      int b;
-      // Read characters until terminal 0
-      while ((b = this.in.read()) != -1 && b != 0) {
-        stringBytes.write((byte)b);
+      int start = this.buffer.position();
+      int end = start;
+      // Search terminal 0
+      while (end < this.buffer.limit() && this.buffer.get(end) != 0) {
+        end++;
       }
-      if (b == -1) {
+      if (end == this.buffer.limit()) {
         throw new IncorrectFormatException("Unexpected end of file");
       }
-      this.stack.peek().incrementReadLength(stringBytes.size() + 1);
-      return stringBytes.toString("ISO-8859-1");
+      byte [] stringBytes = new byte [end - start];
+      this.buffer.get(stringBytes);
+      this.buffer.get();
+      this.stack.peek().incrementReadLength(stringBytes.length + 1);
+      return new String(stringBytes, "ISO-8859-1");
     }
   }
 
@@ -1641,14 +1681,14 @@ public class Max3DSLoader extends LoaderBase implements Loader {
    */
   private static class Mesh3DS {
     private String        name;
-    private Point3f []    vertices;
-    private TexCoord2f [] textureCoordinates;
+    private float []      vertices;
+    private float []      textureCoordinates;
     private Face3DS []    faces = null;
     private Short         color;
     private Transform3D   transform;
 
     public Mesh3DS(String name,
-                   Point3f [] vertices, TexCoord2f [] textureCoordinates, Face3DS [] faces,
+                   float [] vertices, float [] textureCoordinates, Face3DS [] faces,
                    Short color, Transform3D transform) {
       this.name = name;
       this.vertices = vertices;
@@ -1662,11 +1702,11 @@ public class Max3DSLoader extends LoaderBase implements Loader {
       return this.name;
     }
 
-    public Point3f [] getVertices() {
+    public float [] getVertices() {
       return this.vertices;
     }
 
-    public TexCoord2f [] getTextureCoordinates() {
+    public float [] getTextureCoordinates() {
       return this.textureCoordinates;
     }
 
@@ -43,6 +43,7 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -51,6 +52,10 @@ import java.util.TreeSet;
 import java.util.WeakHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import javax.media.j3d.Appearance;
 import javax.media.j3d.BoundingBox;
@@ -61,6 +66,7 @@ import javax.media.j3d.Geometry;
 import javax.media.j3d.GeometryArray;
 import javax.media.j3d.GeometryStripArray;
 import javax.media.j3d.Group;
+import javax.media.j3d.ImageComponent;
 import javax.media.j3d.IndexedGeometryArray;
 import javax.media.j3d.IndexedGeometryStripArray;
 import javax.media.j3d.IndexedLineArray;
@@ -121,6 +127,10 @@ import com.sun.j3d.loaders.lw3d.Lw3dLoader;
  * Additional classes implementing Java 3D <code>Loader</code> interface may be
  * specified in the <code>com.eteks.sweethome3d.j3d.additionalLoaderClasses</code>
  * (separated by a space or a colon :) to enable the support of other formats.<br>
+ * Models read from zipped files may be also stored in a binary format on disk
+ * if <code>com.eteks.sweethome3d.j3d.modelsFileCacheEnabled</code> System property is <code>true</code>,
+ * in the <code>models</code> subfolder of the application folder or in the folder given by
+ * <code>com.eteks.sweethome3d.j3d.modelsCacheFolder</code> System property.<br>
  * Note: this class is compatible with Java 3D 1.3.
  * @author Emmanuel Puybaret
  */
@@ -215,6 +225,10 @@ public class ModelManager {
   private static final float    MINIMUM_SIZE = 0.001f;
 
   private static final String   ADDITIONAL_LOADER_CLASSES = "com.eteks.sweethome3d.j3d.additionalLoaderClasses";
+  private static final String   MODELS_CACHE_MAXIMUM_SIZE = "com.eteks.sweethome3d.j3d.modelsCacheMaximumSize";
+  private static final String   MODELS_FILE_CACHE_ENABLED = "com.eteks.sweethome3d.j3d.modelsFileCacheEnabled";
+  private static final String   MODELS_CACHE_FOLDER = "com.eteks.sweethome3d.j3d.modelsCacheFolder";
+  private static final String   MODELS_CACHE_FOLDER_MAXIMUM_SIZE = "com.eteks.sweethome3d.j3d.modelsCacheFolderMaximumSize";
 
   private static ModelManager instance;
 
@@ -224,16 +238,45 @@ public class ModelManager {
   private Map<Content, List<ModelObserver>> loadingModelObservers;
   // Map storing the bounds of transformed model nodes
   private Map<Content, Map<Transform3D, BoundingBox>> transformedModelNodeBounds;
+  // Map storing the estimated size in bytes of loaded model nodes
+  private Map<Content, Long>        loadedModelSizes;
+  // Map keeping strong references to recently used model nodes in access order
+  private Map<Content, BranchGroup> recentlyUsedModelNodes;
+  private long                      recentlyUsedModelsSize;
+  private long                      modelsCacheMaximumSize;
+  private long                      modelsCacheHitCount;
+  private long                      modelsCacheMissCount;
+  private long                      modelsCacheEvictionCount;
+  // Map storing the locks used to clone each node
+  private Map<Node, Lock>           clonedNodeLocks;
+  private AtomicLong                clonedNodesCount;
+  private AtomicLong                clonedNodesContentionCount;
+  private AtomicLong                clonedNodesWaitTime;
   // Executor used to load models
   private ExecutorService           modelsLoader;
   // List of additional loader classes
   private Class<Loader> []          additionalLoaderClasses;
+  // Cache storing models on disk
+  private BinaryModelCache          modelsFileCache;
 
   private ModelManager() {
     // This class is a singleton
     this.loadedModelNodes = new WeakHashMap<Content, BranchGroup>();
     this.loadingModelObservers = new HashMap<Content, List<ModelObserver>>();
     this.transformedModelNodeBounds = new WeakHashMap<Content, Map<Transform3D, BoundingBox>>();
+    this.loadedModelSizes = new WeakHashMap<Content, Long>();
+    this.recentlyUsedModelNodes = new LinkedHashMap<Content, BranchGroup>(16, 0.75f, true);
+    this.clonedNodeLocks = new WeakHashMap<Node, Lock>();
+    this.clonedNodesCount = new AtomicLong();
+    this.clonedNodesContentionCount = new AtomicLong();
+    this.clonedNodesWaitTime = new AtomicLong();
+    try {
+      this.modelsCacheMaximumSize = Long.parseLong(System.getProperty(MODELS_CACHE_MAXIMUM_SIZE,
+          String.valueOf(Runtime.getRuntime().maxMemory() / 8)));
+    } catch (NumberFormatException ex) {
+      System.err.println("Invalid models cache maximum size " + System.getProperty(MODELS_CACHE_MAXIMUM_SIZE));
+      this.modelsCacheMaximumSize = Runtime.getRuntime().maxMemory() / 8;
+    }
     // Load other optional Loader classes
     List<Class<Loader>> loaderClasses = new ArrayList<Class<Loader>>();
     String loaderClassNames = System.getProperty(ADDITIONAL_LOADER_CLASSES);
@@ -247,6 +290,40 @@ public class ModelManager {
       }
     }
     this.additionalLoaderClasses = loaderClasses.toArray(new Class [loaderClasses.size()]);
+
+    // Store parsed models in a folder if requested
+    try {
+      if (Boolean.getBoolean(MODELS_FILE_CACHE_ENABLED)) {
+        String modelsCacheFolder = System.getProperty(MODELS_CACHE_FOLDER);
+        File cacheFolder = modelsCacheFolder != null
+            ? new File(modelsCacheFolder)
+            : new File(OperatingSystem.getApplicationFolder(), "models");
+        long cacheFolderMaximumSize;
+        try {
+          cacheFolderMaximumSize = Long.parseLong(System.getProperty(MODELS_CACHE_FOLDER_MAXIMUM_SIZE,
+              String.valueOf(500L << 20)));
+        } catch (NumberFormatException ex) {
+          System.err.println("Invalid models cache folder maximum size " + System.getProperty(MODELS_CACHE_FOLDER_MAXIMUM_SIZE));
+          cacheFolderMaximumSize = 500L << 20;
+        }
+        // Identify cached models with the version of each loader
+        StringBuilder loadersVersion = new StringBuilder();
+        loadersVersion.append("OBJLoader ").append(OBJLoader.VERSION)
+            .append(" DAELoader ").append(DAELoader.VERSION)
+            .append(" Max3DSLoader ").append(Max3DSLoader.VERSION)
+            .append(" Lw3dLoader ").append(Lw3dLoader.class.getPackage() != null
+                ? Lw3dLoader.class.getPackage().getImplementationVersion()
+                : null).append(' ');
+        for (Class<Loader> loaderClass : this.additionalLoaderClasses) {
+          loadersVersion.append(loaderClass.getName()).append(' ');
+        }
+        this.modelsFileCache = new BinaryModelCache(cacheFolder, loadersVersion.toString(), cacheFolderMaximumSize);
+      }
+    } catch (IOException ex) {
+      // No models file cache
+    } catch (SecurityException ex) {
+      // No models file cache in unsigned applets
+    }
   }
 
   /**
@@ -298,10 +375,214 @@ public class ModelManager {
     }
     synchronized (this.loadedModelNodes) {
       this.loadedModelNodes.clear();
+      this.loadedModelSizes.clear();
+      this.recentlyUsedModelNodes.clear();
+      this.recentlyUsedModelsSize = 0;
     }
     this.loadingModelObservers.clear();
   }
 
+  /**
+   * Sets the maximum size in bytes of the recently used models kept in cache.
+   * Models used by open homes remain in cache whatever this size is.
+   * @since 7.3
+   */
+  public void setModelsCacheMaximumSize(long modelsCacheMaximumSize) {
+    synchronized (this.loadedModelNodes) {
+      this.modelsCacheMaximumSize = modelsCacheMaximumSize;
+      evictLeastRecentlyUsedModels();
+    }
+  }
+
+  /**
+   * Returns the maximum size in bytes of the recently used models kept in cache.
+   * @since 7.3
+   */
+  public long getModelsCacheMaximumSize() {
+    synchronized (this.loadedModelNodes) {
+      return this.modelsCacheMaximumSize;
+    }
+  }
+
+  /**
+   * Returns the estimated size in bytes of all the models currently in cache.
+   * @since 7.3
+   */
+  public long getModelsCacheSize() {
+    synchronized (this.loadedModelNodes) {
+      long size = 0;
+      for (Long modelSize : this.loadedModelSizes.values()) {
+        size += modelSize;
+      }
+      return size;
+    }
+  }
+
+  /**
+   * Returns the count of model requests that were found in cache.
+   * @since 7.3
+   */
+  public long getModelsCacheHitCount() {
+    synchronized (this.loadedModelNodes) {
+      return this.modelsCacheHitCount;
+    }
+  }
+
+  /**
+   * Returns the count of model requests that required to load a model.
+   * @since 7.3
+   */
+  public long getModelsCacheMissCount() {
+    synchronized (this.loadedModelNodes) {
+      return this.modelsCacheMissCount;
+    }
+  }
+
+  /**
+   * Returns the count of models removed from recently used models to respect cache maximum size.
+   * @since 7.3
+   */
+  public long getModelsCacheEvictionCount() {
+    synchronized (this.loadedModelNodes) {
+      return this.modelsCacheEvictionCount;
+    }
+  }
+
+  /**
+   * Returns the count of nodes cloned with {@link #cloneNode(Node, boolean) cloneNode}.
+   * @since 7.3
+   */
+  public long getClonedNodesCount() {
+    return this.clonedNodesCount.get();
+  }
+
+  /**
+   * Returns the count of clones that had to wait for an other thread cloning the same node.
+   * @since 7.3
+   */
+  public long getClonedNodesContentionCount() {
+    return this.clonedNodesContentionCount.get();
+  }
+
+  /**
+   * Returns the total time in milliseconds spent by threads waiting for an other thread
+   * cloning the same node.
+   * @since 7.3
+   */
+  public long getClonedNodesWaitTime() {
+    return TimeUnit.NANOSECONDS.toMillis(this.clonedNodesWaitTime.get());
+  }
+
+  /**
+   * Stores the given loaded model in cache. Must be called in a block synchronized on loaded models.
+   */
+  private void storeLoadedModel(Content content, BranchGroup modelRoot) {
+    this.loadedModelNodes.put(content, modelRoot);
+    this.transformedModelNodeBounds.put(content, new WeakHashMap<Transform3D, BoundingBox>());
+    this.loadedModelSizes.put(content, getModelSize(modelRoot, new IdentityHashMap<Object, Object>()));
+    updateRecentlyUsedModel(content, modelRoot);
+  }
+
+  /**
+   * Keeps a strong reference to the given model as the most recently used one,
+   * then evicts least recently used models exceeding cache maximum size.
+   * Must be called in a block synchronized on loaded models.
+   */
+  private void updateRecentlyUsedModel(Content content, BranchGroup modelRoot) {
+    if (this.recentlyUsedModelNodes.get(content) == null) {
+      this.recentlyUsedModelNodes.put(content, modelRoot);
+      Long modelSize = this.loadedModelSizes.get(content);
+      if (modelSize != null) {
+        this.recentlyUsedModelsSize += modelSize;
+      }
+      evictLeastRecentlyUsedModels();
+    }
+  }
+
+  /**
+   * Removes the strong references to the least recently used models until cache maximum size is respected.
+   * Evicted models stay available in cache as long as their content is referenced elsewhere,
+   * typically by the pieces of an open home.
+   */
+  private void evictLeastRecentlyUsedModels() {
+    for (Iterator<Content> it = this.recentlyUsedModelNodes.keySet().iterator();
+         this.recentlyUsedModelsSize > this.modelsCacheMaximumSize && it.hasNext(); ) {
+      Long modelSize = this.loadedModelSizes.get(it.next());
+      if (modelSize != null) {
+        this.recentlyUsedModelsSize -= modelSize;
+      }
+      it.remove();
+      this.modelsCacheEvictionCount++;
+    }
+  }
+
+  /**
+   * Returns an estimation of the size in bytes of the geometries and the textures of the given node.
+   */
+  private long getModelSize(Node node, Map<Object, Object> countedObjects) {
+    long size = 0;
+    if (node instanceof Group) {
+      for (Enumeration<?> enumeration = ((Group)node).getAllChildren(); enumeration.hasMoreElements(); ) {
+        size += getModelSize((Node)enumeration.nextElement(), countedObjects);
+      }
+    } else if (node instanceof Link) {
+      SharedGroup sharedGroup = ((Link)node).getSharedGroup();
+      if (sharedGroup != null
+          && countedObjects.put(sharedGroup, sharedGroup) == null) {
+        size += getModelSize(sharedGroup, countedObjects);
+      }
+    } else if (node instanceof Shape3D) {
+      Shape3D shape = (Shape3D)node;
+      for (int i = 0, n = shape.numGeometries(); i < n; i++) {
+        Geometry geometry = shape.getGeometry(i);
+        if (geometry instanceof GeometryArray
+            && countedObjects.put(geometry, geometry) == null) {
+          GeometryArray geometryArray = (GeometryArray)geometry;
+          int vertexFormat = geometryArray.getVertexFormat();
+          int attributeCount = 1;
+          int vertexFloatCount = 3;
+          if ((vertexFormat & GeometryArray.NORMALS) != 0) {
+            attributeCount++;
+            vertexFloatCount += 3;
+          }
+          if ((vertexFormat & GeometryArray.COLOR_4) == GeometryArray.COLOR_4) {
+            attributeCount++;
+            vertexFloatCount += 4;
+          } else if ((vertexFormat & GeometryArray.COLOR_3) != 0) {
+            attributeCount++;
+            vertexFloatCount += 3;
+          }
+          if ((vertexFormat & GeometryArray.TEXTURE_COORDINATE_4) == GeometryArray.TEXTURE_COORDINATE_4) {
+            attributeCount++;
+            vertexFloatCount += 4 * geometryArray.getTexCoordSetCount();
+          } else if ((vertexFormat & GeometryArray.TEXTURE_COORDINATE_3) != 0) {
+            attributeCount++;
+            vertexFloatCount += 3 * geometryArray.getTexCoordSetCount();
+          } else if ((vertexFormat & GeometryArray.TEXTURE_COORDINATE_2) != 0) {
+            attributeCount++;
+            vertexFloatCount += 2 * geometryArray.getTexCoordSetCount();
+          }
+          size += 4L * vertexFloatCount * geometryArray.getVertexCount();
+          if (geometryArray instanceof IndexedGeometryArray) {
+            size += 4L * attributeCount * ((IndexedGeometryArray)geometryArray).getIndexCount();
+          }
+        }
+      }
+      Appearance appearance = shape.getAppearance();
+      if (appearance != null) {
+        Texture texture = appearance.getTexture();
+        if (texture != null) {
+          ImageComponent image = texture.getImage(0);
+          if (image != null
+              && countedObjects.put(image, image) == null) {
+            size += 4L * image.getWidth() * image.getHeight();
+          }
+        }
+      }
+    }
+    return size;
+  }
+
   /**
    * Returns the minimum size of a model.
    */
@@ -742,25 +1023,57 @@ public class ModelManager {
    * @throws IllegalStateException if synchronous is <code>false</code> and the current thread isn't
    *    the Event Dispatch Thread.
    */
+  public void loadModel(Content content,
+                        boolean synchronous,
+                        ModelObserver modelObserver) {
+    loadModel(content, synchronous, false, modelObserver);
+  }
+
+  /**
+   * Reads a 3D node from <code>content</code> with supported loaders
+   * and notifies the loaded model to the given <code>modelObserver</code> once available.
+   * @param content an object containing a model
+   * @param synchronous if <code>true</code>, this method will return only once model content is loaded
+   * @param shareAppearanceComponents if <code>true</code>, the model notified to the observer
+   *    will share the appearance components of the cached model that aren't modified
+   *    in place by the 3D view, as described in {@link #cloneNode(Node, boolean)}
+   * @param modelObserver the observer that will be notified once the model is available
+   *    or if an error happens. When the model is loaded synchronously, the observer will be notified
+   *    in the same thread as the caller, otherwise the observer will be notified in the Event
+   *    Dispatch Thread and this method must be called in Event Dispatch Thread too.
+   * @throws IllegalStateException if synchronous is <code>false</code> and the current thread isn't
+   *    the Event Dispatch Thread.
+   * @since 7.3
+   */
   public void loadModel(final Content content,
                         boolean synchronous,
+                        boolean shareAppearanceComponents,
                         ModelObserver modelObserver) {
     BranchGroup modelRoot;
     synchronized (this.loadedModelNodes) {
       modelRoot = this.loadedModelNodes.get(content);
+      if (modelRoot != null) {
+        this.modelsCacheHitCount++;
+        updateRecentlyUsedModel(content, modelRoot);
+      } else if (synchronous
+                 || !this.loadingModelObservers.containsKey(content)) {
+        this.modelsCacheMissCount++;
+      } else {
+        // Model already being loaded
+        this.modelsCacheHitCount++;
+      }
     }
     if (modelRoot != null) {
       // Notify cached model to observer with a clone of the model
-      modelObserver.modelUpdated((BranchGroup)cloneNode(modelRoot));
+      modelObserver.modelUpdated((BranchGroup)cloneNode(modelRoot, shareAppearanceComponents));
     } else if (synchronous) {
       try {
         modelRoot = loadModel(content);
         synchronized (this.loadedModelNodes) {
           // Store in cache model node for future copies
-          this.loadedModelNodes.put(content, (BranchGroup)modelRoot);
-          this.transformedModelNodeBounds.put(content, new WeakHashMap<Transform3D, BoundingBox>());
+          storeLoadedModel(content, modelRoot);
         }
-        modelObserver.modelUpdated((BranchGroup)cloneNode(modelRoot));
+        modelObserver.modelUpdated((BranchGroup)cloneNode(modelRoot, shareAppearanceComponents));
       } catch (IOException ex) {
         modelObserver.modelError(ex);
       }
@@ -770,6 +1083,9 @@ public class ModelManager {
       if (this.modelsLoader == null) {
         this.modelsLoader = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
       }
+      if (shareAppearanceComponents) {
+        modelObserver = new SharedAppearanceComponentsModelObserver(modelObserver);
+      }
       List<ModelObserver> observers = this.loadingModelObservers.get(content);
       if (observers != null) {
         // If observers list exists, content model is already being loaded
@@ -788,15 +1104,15 @@ public class ModelManager {
               final BranchGroup loadedModel = loadModel(content);
               synchronized (loadedModelNodes) {
                 // Update loaded models cache and notify registered observers
-                loadedModelNodes.put(content, loadedModel);
-                transformedModelNodeBounds.put(content, new WeakHashMap<Transform3D, BoundingBox>());
+                storeLoadedModel(content, loadedModel);
               }
               EventQueue.invokeLater(new Runnable() {
                   public void run() {
                     List<ModelObserver> observers = loadingModelObservers.remove(content);
                     if (observers != null) {
                       for (final ModelObserver observer : observers) {
-                        observer.modelUpdated((BranchGroup)cloneNode(loadedModel));
+                        observer.modelUpdated((BranchGroup)cloneNode(loadedModel,
+                            observer instanceof SharedAppearanceComponentsModelObserver));
                       }
                     }
                   }
@@ -825,13 +1141,53 @@ public class ModelManager {
    * and the texture images of shapes.
    */
   public Node cloneNode(Node node) {
-    // Clone node in a synchronized block because cloneNodeComponent is not thread safe
-    synchronized (this.loadedModelNodes) {
-      return cloneNode(node, new HashMap<SharedGroup, SharedGroup>());
+    return cloneNode(node, false);
+  }
+
+  /**
+   * Returns a clone of the given <code>node</code>.
+   * All the children and the attributes of the given node are duplicated except the geometries
+   * and the texture images of shapes. If <code>shareAppearanceComponents</code> is <code>true</code>,
+   * the appearances of the cloned shapes will also share the material, the coloring, transparency,
+   * line, point and texture attributes and the texture coordinates generation of the original
+   * appearances, and only their polygon and rendering attributes will be duplicated.
+   * Shared components should be replaced by other ones rather than modified.
+   * @since 7.3
+   */
+  public Node cloneNode(Node node, boolean shareAppearanceComponents) {
+    // Clone node with a lock specific to that node because cloneNodeComponent is not thread safe,
+    // letting other threads clone other models at the same time
+    Lock lock = getClonedNodeLock(node);
+    this.clonedNodesCount.incrementAndGet();
+    if (!lock.tryLock()) {
+      this.clonedNodesContentionCount.incrementAndGet();
+      long waitStart = System.nanoTime();
+      lock.lock();
+      this.clonedNodesWaitTime.addAndGet(System.nanoTime() - waitStart);
+    }
+    try {
+      return cloneNode(node, shareAppearanceComponents, new HashMap<SharedGroup, SharedGroup>());
+    } finally {
+      lock.unlock();
     }
   }
 
-  private Node cloneNode(Node node, Map<SharedGroup, SharedGroup> clonedSharedGroups) {
+  /**
+   * Returns the lock used to clone the given <code>node</code>.
+   */
+  private Lock getClonedNodeLock(Node node) {
+    synchronized (this.clonedNodeLocks) {
+      Lock lock = this.clonedNodeLocks.get(node);
+      if (lock == null) {
+        lock = new ReentrantLock();
+        this.clonedNodeLocks.put(node, lock);
+      }
+      return lock;
+    }
+  }
+
+  private Node cloneNode(Node node, boolean shareAppearanceComponents,
+                         Map<SharedGroup, SharedGroup> clonedSharedGroups) {
     if (node instanceof Shape3D) {
       Shape3D shape = (Shape3D)node;
       Shape3D clonedShape = (Shape3D)shape.cloneNode(false);
@@ -841,16 +1197,23 @@ public class ModelManager {
         Appearance clonedAppearance = (Appearance)appearance.cloneNodeComponent(false);
         Material material = appearance.getMaterial();
         if (material != null) {
-          clonedAppearance.setMaterial((Material)material.cloneNodeComponent(true));
+          if (!shareAppearanceComponents) {
+            clonedAppearance.setMaterial((Material)material.cloneNodeComponent(true));
+          } else if (!material.isLive()
+                     && !material.isCompiled()) {
+            // Allow material reading while it's not live yet, as it can't be changed once shared
+            material.setCapability(Material.ALLOW_COMPONENT_READ);
+          }
         }
         ColoringAttributes coloringAttributes = appearance.getColoringAttributes();
-        if (coloringAttributes != null) {
+        if (coloringAttributes != null && !shareAppearanceComponents) {
           clonedAppearance.setColoringAttributes((ColoringAttributes)coloringAttributes.cloneNodeComponent(true));
         }
         TransparencyAttributes transparencyAttributes = appearance.getTransparencyAttributes();
-        if (transparencyAttributes != null) {
+        if (transparencyAttributes != null && !shareAppearanceComponents) {
           clonedAppearance.setTransparencyAttributes((TransparencyAttributes)transparencyAttributes.cloneNodeComponent(true));
         }
+        // Always duplicate rendering and polygon attributes which are modified in place by the 3D view
         RenderingAttributes renderingAttributes = appearance.getRenderingAttributes();
         if (renderingAttributes != null) {
           clonedAppearance.setRenderingAttributes((RenderingAttributes)renderingAttributes.cloneNodeComponent(true));
@@ -860,19 +1223,19 @@ public class ModelManager {
           clonedAppearance.setPolygonAttributes((PolygonAttributes)polygonAttributes.cloneNodeComponent(true));
         }
         LineAttributes lineAttributes = appearance.getLineAttributes();
-        if (lineAttributes != null) {
+        if (lineAttributes != null && !shareAppearanceComponents) {
           clonedAppearance.setLineAttributes((LineAttributes)lineAttributes.cloneNodeComponent(true));
         }
         PointAttributes pointAttributes = appearance.getPointAttributes();
-        if (pointAttributes != null) {
+        if (pointAttributes != null && !shareAppearanceComponents) {
           clonedAppearance.setPointAttributes((PointAttributes)pointAttributes.cloneNodeComponent(true));
         }
         TextureAttributes textureAttributes = appearance.getTextureAttributes();
-        if (textureAttributes != null) {
+        if (textureAttributes != null && !shareAppearanceComponents) {
           clonedAppearance.setTextureAttributes((TextureAttributes)textureAttributes.cloneNodeComponent(true));
         }
         TexCoordGeneration texCoordGeneration = appearance.getTexCoordGeneration();
-        if (texCoordGeneration != null) {
+        if (texCoordGeneration != null && !shareAppearanceComponents) {
           clonedAppearance.setTexCoordGeneration((TexCoordGeneration)texCoordGeneration.cloneNodeComponent(true));
         }
 
@@ -886,7 +1249,7 @@ public class ModelManager {
       if (sharedGroup != null) {
         SharedGroup clonedSharedGroup = clonedSharedGroups.get(sharedGroup);
         if (clonedSharedGroup == null) {
-          clonedSharedGroup = (SharedGroup)cloneNode(sharedGroup, clonedSharedGroups);
+          clonedSharedGroup = (SharedGroup)cloneNode(sharedGroup, shareAppearanceComponents, clonedSharedGroups);
           clonedSharedGroups.put(sharedGroup, clonedSharedGroup);
         }
         clonedLink.setSharedGroup(clonedSharedGroup);
@@ -898,7 +1261,7 @@ public class ModelManager {
         Group group = (Group)node;
         Group clonedGroup = (Group)clonedNode;
         for (int i = 0, n = group.numChildren(); i < n; i++) {
-          Node clonedChild = cloneNode(group.getChild(i), clonedSharedGroups);
+          Node clonedChild = cloneNode(group.getChild(i), shareAppearanceComponents, clonedSharedGroups);
           clonedGroup.addChild(clonedChild);
         }
       }
@@ -919,6 +1282,13 @@ public class ModelManager {
     } else {
       urlContent = TemporaryURLContent.copyToTemporaryURLContent(content);
     }
+    if (this.modelsFileCache != null) {
+      BranchGroup modelNode = this.modelsFileCache.readModel(urlContent);
+      if (modelNode != null) {
+        modelNode.setUserData(content);
+        return modelNode;
+      }
+    }
     Loader []  defaultLoaders = new Loader [] {new OBJLoader(),
                                                new DAELoader(),
                                                new Max3DSLoader(),
@@ -998,6 +1368,9 @@ public class ModelManager {
         updateDeformableModelHierarchy(modelNode);
         checkAppearancesName(modelNode);
         replaceMultipleSharedShapes(modelNode);
+        if (this.modelsFileCache != null) {
+          this.modelsFileCache.writeModel(urlContent, modelNode);
+        }
         modelNode.setUserData(content);
         return modelNode;
       } catch (IllegalArgumentException ex) {
@@ -2631,4 +3004,23 @@ public class ModelManager {
 
     public void modelError(Exception ex);
   }
+
+  /**
+   * An observer wrapper used to notify models sharing appearance components.
+   */
+  private static class SharedAppearanceComponentsModelObserver implements ModelObserver {
+    private final ModelObserver modelObserver;
+
+    public SharedAppearanceComponentsModelObserver(ModelObserver modelObserver) {
+      this.modelObserver = modelObserver;
+    }
+
+    public void modelUpdated(BranchGroup modelRoot) {
+      this.modelObserver.modelUpdated(modelRoot);
+    }
+
+    public void modelError(Exception ex) {
+      this.modelObserver.modelError(ex);
+    }
+  }
 }
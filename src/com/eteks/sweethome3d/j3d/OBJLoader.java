@@ -20,26 +20,42 @@
 package com.eteks.sweethome3d.j3d;
 
 import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
 import java.io.Reader;
+import java.io.SequenceInputStream;
 import java.io.StreamTokenizer;
 import java.io.StringReader;
-import java.io.UnsupportedEncodingException;
 import java.net.MalformedURLException;
+import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.ArrayList;
 import java.util.ConcurrentModificationException;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 
 import javax.imageio.ImageIO;
 import javax.media.j3d.Appearance;
@@ -54,10 +70,8 @@ import javax.media.j3d.TexCoordGeneration;
 import javax.media.j3d.Texture;
 import javax.media.j3d.TransparencyAttributes;
 import javax.vecmath.Color3f;
-import javax.vecmath.Point3f;
-import javax.vecmath.TexCoord2f;
-import javax.vecmath.Vector3f;
 
+import com.eteks.sweethome3d.tools.OperatingSystem;
 import com.sun.j3d.loaders.IncorrectFormatException;
 import com.sun.j3d.loaders.Loader;
 import com.sun.j3d.loaders.LoaderBase;
@@ -82,6 +96,10 @@ import com.sun.j3d.utils.image.TextureLoader;
  * @author Emmanuel Puybaret
  */
 public class OBJLoader extends LoaderBase implements Loader {
+  // Version of the parser stored with the models cached by BinaryModelCache,
+  // to increment each time this loader builds different scenes
+  static final int VERSION = 3;
+
   /**
    * Description of the default Java 3D materials at MTL format
    * (copied from com.sun.j3d.loaders.objectfile.DefaultMaterials class with inverse d transparency factor)
@@ -995,15 +1013,31 @@ public class OBJLoader extends LoaderBase implements Loader {
     }
   }
 
+  // Default size above which an OBJ stream is split in chunks parsed in parallel
+  private static final long   DEFAULT_PARALLEL_PARSING_MINIMUM_SIZE = 8 * 1024 * 1024;
+  private static final int    PARALLEL_PARSING_MINIMUM_CHUNK_SIZE = 1024 * 1024;
+  private static final String PARALLEL_PARSING_MINIMUM_SIZE = "com.eteks.sweethome3d.j3d.OBJLoader.parallelParsingMinimumSize";
+
+  private static ExecutorService  chunksParsingExecutor;
+
   private Boolean                 useCaches;
-  private List<Point3f>           vertices;
-  private List<TexCoord2f>        textureCoordinates;
-  private List<Vector3f>          normals;
+  private Long                    parallelParsingMinimumSize;
+  private FloatList               vertices;
+  private FloatList               textureCoordinates;
+  private FloatList               normals;
   private Map<String, Group>      groups;
   private Group                   currentGroup;
   private String                  currentMaterial;
   private boolean                 currentSmooth;
   private Map<String, Appearance> appearances;
+  // Parsing state of a chunk parsed in parallel
+  private int                     vertexOffset;
+  private int                     textureCoordinateOffset;
+  private int                     normalOffset;
+  private boolean                 relativeIndices;
+  private Group                   inheritedGroup;
+  private boolean                 smoothInherited;
+  private List<Face>              inheritedSmoothFaces;
 
 
   /**
@@ -1016,6 +1050,35 @@ public class OBJLoader extends LoaderBase implements Loader {
     this.useCaches = Boolean.valueOf(useCaches);
   }
 
+  /**
+   * Sets the size in bytes above which OBJ files are split in chunks parsed in parallel.
+   * @param parallelParsingMinimumSize a size in bytes, <code>Long.MAX_VALUE</code> to parse
+   *    files sequentially, or <code>null</code> to use the value of the
+   *    <code>com.eteks.sweethome3d.j3d.OBJLoader.parallelParsingMinimumSize</code> System property,
+   *    equal to 8 MB by default. In that last case, files are always parsed sequentially
+   *    when only one processor is available.
+   */
+  public void setParallelParsingMinimumSize(Long parallelParsingMinimumSize) {
+    this.parallelParsingMinimumSize = parallelParsingMinimumSize;
+  }
+
+  /**
+   * Returns the size in bytes above which OBJ files are split in chunks parsed in parallel.
+   */
+  private long getParallelParsingMinimumSize() {
+    if (this.parallelParsingMinimumSize != null) {
+      return this.parallelParsingMinimumSize;
+    } else if (Runtime.getRuntime().availableProcessors() == 1) {
+      return Long.MAX_VALUE;
+    } else {
+      try {
+        return Long.getLong(PARALLEL_PARSING_MINIMUM_SIZE, DEFAULT_PARALLEL_PARSING_MINIMUM_SIZE);
+      } catch (SecurityException ex) {
+        return DEFAULT_PARALLEL_PARSING_MINIMUM_SIZE;
+      }
+    }
+  }
+
   /**
    * Returns the scene described in the given OBJ file.
    */
@@ -1030,12 +1093,7 @@ public class OBJLoader extends LoaderBase implements Loader {
     } catch (MalformedURLException ex) {
       throw new FileNotFoundException(file);
     }
-    try {
-      return load(new InputStreamReader(new FileInputStream(file), "ISO-8859-1"), baseUrl);
-    } catch (UnsupportedEncodingException ex) {
-      // Shouldn't happen
-      return load(new InputStreamReader(new FileInputStream(file)));
-    }
+    return load(new File(file), baseUrl);
   }
 
   /**
@@ -1046,18 +1104,32 @@ public class OBJLoader extends LoaderBase implements Loader {
     if (this.baseUrl == null) {
       baseUrl = url;
     }
+    if ("file".equals(url.getProtocol())) {
+      try {
+        File file = new File(url.toURI());
+        if (file.isFile()) {
+          // Read local files directly to be able to parse them by chunks
+          return load(file, baseUrl);
+        }
+      } catch (URISyntaxException ex) {
+        // Read the URL as an other one
+      } catch (IllegalArgumentException ex) {
+        // Read the URL as an other one
+      }
+    }
     InputStream in;
+    int length;
     try {
-      in = openStream(url, this.useCaches);
+      URLConnection connection = url.openConnection();
+      if (this.useCaches != null) {
+        connection.setUseCaches(this.useCaches.booleanValue());
+      }
+      in = connection.getInputStream();
+      length = connection.getContentLength();
     } catch (IOException ex) {
       throw new FileNotFoundException("Can't read " + url);
     }
-    try {
-      return load(new InputStreamReader(in, "ISO-8859-1"), baseUrl);
-    } catch (UnsupportedEncodingException ex) {
-      // Shouldn't happen
-      return load(new InputStreamReader(in));
-    }
+    return load(in, length, baseUrl);
   }
 
   /**
@@ -1099,19 +1171,80 @@ public class OBJLoader extends LoaderBase implements Loader {
   }
 
   /**
-   * Returns the scene parsed from a stream.
+   * Returns the scene described in the given local OBJ file.
    */
-  private Scene parseObjectStream(Reader reader,
-                                  URL baseUrl) throws IOException {
-    this.vertices = new ArrayList<Point3f>();
-    this.textureCoordinates = new ArrayList<TexCoord2f>();
-    this.normals = new ArrayList<Vector3f>();
+  private Scene load(File file, URL baseUrl) throws FileNotFoundException {
+    long length = file.length();
+    if (length < getParallelParsingMinimumSize()) {
+      return load(new FileInputStream(file), length, baseUrl);
+    }
+    ObjectBytes bytes = new FileObjectBytes(file, false);
+    try {
+      return parseObjectBytes(bytes, baseUrl);
+    } catch (IOException ex) {
+      throw new ParsingErrorException(ex.getMessage());
+    } finally {
+      try {
+        bytes.close();
+      } catch (IOException ex) {
+        throw new ParsingErrorException(ex.getMessage());
+      }
+    }
+  }
+
+  /**
+   * Returns the scene described in the given OBJ file stream, parsed byte per byte.
+   * @param length the length of the stream or -1 if it's unknown
+   */
+  private Scene load(InputStream in, long length, URL baseUrl) throws FileNotFoundException {
+    try {
+      return parseObjectStream(in, length, baseUrl);
+    } catch (IOException ex) {
+      throw new ParsingErrorException(ex.getMessage());
+    } finally {
+      try {
+        in.close();
+      } catch (IOException ex) {
+        throw new ParsingErrorException(ex.getMessage());
+      }
+    }
+  }
+
+  /**
+   * Initializes the objects filled during parsing.
+   */
+  private void startParsing() {
+    this.vertices = new FloatList();
+    this.textureCoordinates = new FloatList();
+    this.normals = new FloatList();
     this.groups = new LinkedHashMap<String, Group>();
     this.currentGroup = new Group("default");
     this.groups.put("default", this.currentGroup);
     this.currentMaterial = "default";
     this.appearances = new HashMap<String, Appearance>(DEFAULT_APPEARANCES);
+  }
+
+  /**
+   * Returns the scene created from parsed objects and releases them.
+   */
+  private Scene endParsing() {
+    try {
+      return createScene();
+    } finally {
+      this.vertices = null;
+      this.textureCoordinates = null;
+      this.normals = null;
+      this.groups = null;
+      this.appearances = null;
+    }
+  }
 
+  /**
+   * Returns the scene parsed from a stream.
+   */
+  private Scene parseObjectStream(Reader reader,
+                                  URL baseUrl) throws IOException {
+    startParsing();
     StreamTokenizer tokenizer = createTokenizer(reader);
     while (tokenizer.nextToken() != StreamTokenizer.TT_EOF) {
       switch (tokenizer.ttype) {
@@ -1125,15 +1258,364 @@ public class OBJLoader extends LoaderBase implements Loader {
               + " at row " + tokenizer.lineno());
       }
     }
+    return endParsing();
+  }
+
+  /**
+   * Returns the scene parsed from a stream, scanning directly its bytes
+   * to avoid the cost of a tokenizer working on characters and strings.
+   * Large streams are split in chunks parsed in parallel. Their bytes are read in an array
+   * of the given <code>length</code>, or copied to a temporary file if their length is unknown.
+   * @param length the length of the stream or -1 if it's unknown
+   */
+  private Scene parseObjectStream(InputStream in,
+                                  long length,
+                                  URL baseUrl) throws IOException {
+    long parallelParsingMinimumSize = getParallelParsingMinimumSize();
+    if (length >= parallelParsingMinimumSize
+        && length <= Integer.MAX_VALUE) {
+      byte [] bytes = new byte [(int)length];
+      int readLength = readFully(in, bytes, 0);
+      int nextByte = readLength == bytes.length
+          ? in.read()
+          : -1;
+      if (nextByte != -1) {
+        // Stream longer than expected
+        return parseObjectBytes(bytes, readLength,
+            new SequenceInputStream(new ByteArrayInputStream(new byte [] {(byte)nextByte}), in), baseUrl);
+      } else if (readLength >= parallelParsingMinimumSize) {
+        return parseObjectBytes(new ByteArrayObjectBytes(bytes, readLength), baseUrl);
+      } else {
+        in = new ByteArrayInputStream(bytes, 0, readLength);
+      }
+    } else if (length < 0
+               && parallelParsingMinimumSize <= Integer.MAX_VALUE) {
+      // Read the beginning of the stream to check whether it's large enough to be parsed in parallel
+      byte [] start = new byte [(int)Math.min(parallelParsingMinimumSize, 65536)];
+      int startLength = 0;
+      while (startLength < parallelParsingMinimumSize) {
+        if (startLength == start.length) {
+          byte [] largerStart = new byte [(int)Math.min(parallelParsingMinimumSize, start.length * 2L)];
+          System.arraycopy(start, 0, largerStart, 0, startLength);
+          start = largerStart;
+        }
+        int readLength = readFully(in, start, startLength);
+        if (readLength == startLength) {
+          break;
+        }
+        startLength = readLength;
+      }
+      if (startLength >= parallelParsingMinimumSize) {
+        return parseObjectBytes(start, startLength, in, baseUrl);
+      } else {
+        in = new ByteArrayInputStream(start, 0, startLength);
+      }
+    }
+    startParsing();
+    parseObjectLines(in, baseUrl);
+    return endParsing();
+  }
+
+  /**
+   * Reads <code>in</code> in <code>bytes</code> from the given <code>offset</code>
+   * until the array is full or the end of the stream is reached, and returns the count of bytes in the array.
+   */
+  private static int readFully(InputStream in, byte [] bytes, int offset) throws IOException {
+    int size;
+    while (offset < bytes.length
+        && (size = in.read(bytes, offset, bytes.length - offset)) != -1) {
+      offset += size;
+    }
+    return offset;
+  }
 
+  /**
+   * Returns the scene parsed from the given first bytes followed by the bytes of <code>in</code>,
+   * once they're all copied to a temporary file to be parsed in chunks.
+   */
+  private Scene parseObjectBytes(byte [] start, int startLength,
+                                 InputStream in, URL baseUrl) throws IOException {
+    File temporaryFile = OperatingSystem.createTemporaryFile("model", ".obj");
+    OutputStream out = new FileOutputStream(temporaryFile);
     try {
-      return createScene();
+      out.write(start, 0, startLength);
+      byte [] buffer = new byte [65536];
+      int size;
+      while ((size = in.read(buffer)) != -1) {
+        out.write(buffer, 0, size);
+      }
+    } catch (IOException ex) {
+      out.close();
+      temporaryFile.delete();
+      throw ex;
+    }
+    out.close();
+    ObjectBytes bytes = new FileObjectBytes(temporaryFile, true);
+    try {
+      return parseObjectBytes(bytes, baseUrl);
     } finally {
-      this.vertices = null;
-      this.textureCoordinates = null;
-      this.normals = null;
-      this.groups = null;
-      this.appearances = null;
+      bytes.close();
+    }
+  }
+
+  /**
+   * Returns the scene parsed from the given bytes, split at line boundaries in chunks
+   * parsed in parallel then merged in their order to get the same result as sequential parsing.
+   */
+  private Scene parseObjectBytes(ObjectBytes bytes,
+                                 URL baseUrl) throws IOException {
+    long length = bytes.getLength();
+    int chunkCount = (int)Math.min(Math.max(2, Runtime.getRuntime().availableProcessors()),
+        Math.max(2, length / PARALLEL_PARSING_MINIMUM_CHUNK_SIZE));
+    long [] chunkStarts = new long [chunkCount + 1];
+    int validChunkCount = 0;
+    for (int i = 1; i < chunkCount; i++) {
+      long chunkStart = getNextChunkStart(bytes, length * i / chunkCount);
+      if (chunkStart > chunkStarts [validChunkCount]
+          && chunkStart < length) {
+        chunkStarts [++validChunkCount] = chunkStart;
+      }
+    }
+    chunkStarts [++validChunkCount] = length;
+
+    if (validChunkCount > 1) {
+      ExecutorService executor = getChunksParsingExecutor();
+      try {
+        // Parse chunks in parallel ignoring the items parsed in previous chunks
+        List<Future<OBJLoader>> chunkParsings = new ArrayList<Future<OBJLoader>>(validChunkCount);
+        for (int i = 0; i < validChunkCount; i++) {
+          chunkParsings.add(executor.submit(new ChunkParsingTask(bytes, chunkStarts [i], chunkStarts [i + 1], baseUrl, 0, 0, 0)));
+        }
+        OBJLoader [] chunkLoaders = new OBJLoader [validChunkCount];
+        for (int i = 0; i < validChunkCount; i++) {
+          chunkLoaders [i] = chunkParsings.get(i).get();
+        }
+
+        // Parse again chunks using negative indices once the count of items parsed in previous chunks is known
+        int vertexOffset = 0;
+        int textureCoordinateOffset = 0;
+        int normalOffset = 0;
+        chunkParsings.clear();
+        for (int i = 0; i < validChunkCount; i++) {
+          if (i > 0 && chunkLoaders [i].relativeIndices) {
+            chunkParsings.add(executor.submit(new ChunkParsingTask(bytes, chunkStarts [i], chunkStarts [i + 1], baseUrl,
+                vertexOffset, textureCoordinateOffset, normalOffset)));
+          } else {
+            chunkParsings.add(null);
+          }
+          vertexOffset += chunkLoaders [i].vertices.size() / 3;
+          textureCoordinateOffset += chunkLoaders [i].textureCoordinates.size() / 2;
+          normalOffset += chunkLoaders [i].normals.size() / 3;
+        }
+        for (int i = 0; i < validChunkCount; i++) {
+          if (chunkParsings.get(i) != null) {
+            chunkLoaders [i] = chunkParsings.get(i).get();
+          }
+        }
+        return mergeObjectChunks(chunkLoaders);
+      } catch (InterruptedException ex) {
+        throw new InterruptedIOException("Parsing interrupted");
+      } catch (ExecutionException ex) {
+        // Parse bytes sequentially to report error at the right line
+      }
+    }
+
+    startParsing();
+    parseObjectLines(bytes.getInputStream(0, length), baseUrl);
+    return endParsing();
+  }
+
+  /**
+   * Returns the index following the end of the line containing the given index,
+   * or the length of <code>bytes</code> if there's no other line.
+   * Lines continued with a back slash are not split.
+   */
+  private static long getNextChunkStart(ObjectBytes bytes, long index) throws IOException {
+    final int lineStart = -1;
+    final int unknownByte = -2;
+    long length = bytes.getLength();
+    InputStream in = new BufferedInputStream(bytes.getInputStream(index, length), 8192);
+    try {
+      // Bytes of the current line: last byte which isn't a space or a tab, and the byte preceding it
+      int lastByte = index == 0 ? lineStart : unknownByte;
+      int lastNonWhitespaceByte = lastByte;
+      int byteBeforeLastNonWhitespaceByte = lastByte;
+      boolean continuedLine = false;
+      boolean carriageReturn = false;
+      int b;
+      while ((b = in.read()) != -1) {
+        index++;
+        if (b == '\n' || b == '\r') {
+          // Accept \n, \r and \r\n line separators like LineScanner
+          if (b == '\r' || !carriageReturn) {
+            if (lastNonWhitespaceByte == '\\') {
+              continuedLine = byteBeforeLastNonWhitespaceByte == lineStart
+                  || byteBeforeLastNonWhitespaceByte == ' '
+                  || byteBeforeLastNonWhitespaceByte == '\t'
+                  // Consider the line is continued if its start wasn't read
+                  || byteBeforeLastNonWhitespaceByte == unknownByte;
+            } else {
+              continuedLine = lastNonWhitespaceByte == unknownByte;
+            }
+          }
+          if (b == '\n' && !continuedLine) {
+            return index;
+          }
+          carriageReturn = b == '\r';
+          lastByte = lineStart;
+          lastNonWhitespaceByte = lineStart;
+          byteBeforeLastNonWhitespaceByte = lineStart;
+        } else {
+          carriageReturn = false;
+          if (b != ' ' && b != '\t') {
+            byteBeforeLastNonWhitespaceByte = lastByte;
+            lastNonWhitespaceByte = b;
+          }
+          lastByte = b;
+        }
+      }
+      return length;
+    } finally {
+      in.close();
+    }
+  }
+
+  /**
+   * Returns the executor used to parse chunks in parallel.
+   */
+  private static synchronized ExecutorService getChunksParsingExecutor() {
+    if (chunksParsingExecutor == null) {
+      chunksParsingExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+          new ThreadFactory() {
+            public Thread newThread(Runnable runnable) {
+              Thread thread = new Thread(runnable, "OBJ chunks parser");
+              thread.setDaemon(true);
+              return thread;
+            }
+          });
+    }
+    return chunksParsingExecutor;
+  }
+
+  /**
+   * A task parsing a chunk of OBJ bytes in a new loader.
+   */
+  private class ChunkParsingTask implements Callable<OBJLoader> {
+    private final ObjectBytes bytes;
+    private final long        start;
+    private final long        end;
+    private final URL         baseUrl;
+    private final int         vertexOffset;
+    private final int         textureCoordinateOffset;
+    private final int         normalOffset;
+
+    public ChunkParsingTask(ObjectBytes bytes, long start, long end, URL baseUrl,
+                            int vertexOffset, int textureCoordinateOffset, int normalOffset) {
+      this.bytes = bytes;
+      this.start = start;
+      this.end = end;
+      this.baseUrl = baseUrl;
+      this.vertexOffset = vertexOffset;
+      this.textureCoordinateOffset = textureCoordinateOffset;
+      this.normalOffset = normalOffset;
+    }
+
+    public OBJLoader call() throws IOException {
+      OBJLoader chunkLoader = new OBJLoader();
+      chunkLoader.useCaches = useCaches;
+      chunkLoader.vertices = new FloatList();
+      chunkLoader.textureCoordinates = new FloatList();
+      chunkLoader.normals = new FloatList();
+      chunkLoader.groups = new LinkedHashMap<String, Group>();
+      // Geometries placed in the group, with the material and the smoothing
+      // current at chunk start are resolved at merge time
+      chunkLoader.inheritedGroup = new Group(null);
+      chunkLoader.currentGroup = chunkLoader.inheritedGroup;
+      chunkLoader.currentMaterial = null;
+      chunkLoader.smoothInherited = true;
+      chunkLoader.inheritedSmoothFaces = new ArrayList<Face>();
+      chunkLoader.appearances = new HashMap<String, Appearance>();
+      chunkLoader.vertexOffset = this.vertexOffset;
+      chunkLoader.textureCoordinateOffset = this.textureCoordinateOffset;
+      chunkLoader.normalOffset = this.normalOffset;
+      InputStream in = this.bytes.getInputStream(this.start, this.end);
+      try {
+        chunkLoader.parseObjectLines(in, this.baseUrl);
+      } finally {
+        in.close();
+      }
+      return chunkLoader;
+    }
+  }
+
+  /**
+   * Returns the scene built from the objects parsed in the given chunks, merged in their order.
+   */
+  private Scene mergeObjectChunks(OBJLoader [] chunkLoaders) {
+    startParsing();
+    for (OBJLoader chunkLoader : chunkLoaders) {
+      this.vertices.addAll(chunkLoader.vertices);
+      this.textureCoordinates.addAll(chunkLoader.textureCoordinates);
+      this.normals.addAll(chunkLoader.normals);
+      List<Geometry> chunkGeometries = new ArrayList<Geometry>(chunkLoader.inheritedGroup.getGeometries());
+      for (Geometry geometry : chunkLoader.inheritedGroup.getGeometries()) {
+        this.currentGroup.addGeometry(geometry);
+      }
+      for (Group chunkGroup : chunkLoader.groups.values()) {
+        Group group = getGroup(chunkGroup.getName());
+        for (Geometry geometry : chunkGroup.getGeometries()) {
+          group.addGeometry(geometry);
+          chunkGeometries.add(geometry);
+        }
+      }
+      for (Geometry geometry : chunkGeometries) {
+        if (geometry.getMaterial() == null) {
+          geometry.setMaterial(this.currentMaterial);
+        }
+      }
+      for (Face face : chunkLoader.inheritedSmoothFaces) {
+        face.setSmooth(this.currentSmooth);
+      }
+
+      if (chunkLoader.currentGroup != chunkLoader.inheritedGroup) {
+        this.currentGroup = getGroup(chunkLoader.currentGroup.getName());
+      }
+      if (chunkLoader.currentMaterial != null) {
+        this.currentMaterial = chunkLoader.currentMaterial;
+      }
+      if (!chunkLoader.smoothInherited) {
+        this.currentSmooth = chunkLoader.currentSmooth;
+      }
+      this.appearances.putAll(chunkLoader.appearances);
+    }
+    return endParsing();
+  }
+
+  /**
+   * Returns the group with the given name, created if it doesn't exist yet.
+   */
+  private Group getGroup(String name) {
+    Group group = this.groups.get(name);
+    if (group == null) {
+      group = new Group(name);
+      this.groups.put(name, group);
+    }
+    return group;
+  }
+
+  /**
+   * Parses the lines of the given stream.
+   */
+  private void parseObjectLines(InputStream in,
+                                URL baseUrl) throws IOException {
+    LineScanner scanner = new LineScanner(in);
+    IntList vertexIndices = new IntList();
+    IntList textureCoordinateIndices = new IntList();
+    IntList normalIndices = new IntList();
+    while (scanner.readLine()) {
+      if (scanner.nextToken()) {
+        parseObjectLine(scanner, vertexIndices, textureCoordinateIndices, normalIndices, baseUrl);
+      }
     }
   }
 
@@ -1141,10 +1623,9 @@ public class OBJLoader extends LoaderBase implements Loader {
    * Returns a new scene created from the parsed objects.
    */
   private SceneBase createScene() {
-    Point3f [] vertices = this.vertices.toArray(new Point3f [this.vertices.size()]);
-    TexCoord2f [] textureCoordinates =
-        this.textureCoordinates.toArray(new TexCoord2f [this.textureCoordinates.size()]);
-    Vector3f [] normals = this.normals.toArray(new Vector3f [this.normals.size()]);
+    float [] vertices = this.vertices.toArray();
+    float [] textureCoordinates = this.textureCoordinates.toArray();
+    float [] normals = this.normals.toArray();
 
     SceneBase scene = new SceneBase();
     BranchGroup sceneRoot = new BranchGroup();
@@ -1241,13 +1722,17 @@ public class OBJLoader extends LoaderBase implements Loader {
 
             // Use non indexed line array to avoid referencing the whole vertices
             geometryArray = new LineStripArray(coordinatesIndices.length, format, stripCounts);
+            float [] lineCoordinates = new float [coordinatesIndices.length * 3];
             for (int j = 0; j < coordinatesIndices.length; j++) {
-              geometryArray.setCoordinate(j, vertices [coordinatesIndices [j]]);
+              System.arraycopy(vertices, coordinatesIndices [j] * 3, lineCoordinates, j * 3, 3);
             }
+            geometryArray.setCoordinates(0, lineCoordinates);
             if (firstGeometryHasTextureCoordinateIndices) {
+              float [] lineTextureCoordinates = new float [coordinatesIndices.length * 2];
               for (int j = 0; j < coordinatesIndices.length; j++) {
-                geometryArray.setTextureCoordinate(0, j, textureCoordinates [textureCoordinateIndices [j]]);
+                System.arraycopy(textureCoordinates, textureCoordinateIndices [j] * 2, lineTextureCoordinates, j * 2, 2);
               }
+              geometryArray.setTextureCoordinates(0, 0, lineTextureCoordinates);
             }
           }
 
@@ -1298,7 +1783,9 @@ public class OBJLoader extends LoaderBase implements Loader {
       float y = parseNumber(tokenizer);
       skipBackSlash(tokenizer);
       float z = parseNumber(tokenizer);
-      this.vertices.add(new Point3f(x, y, z));
+      this.vertices.add(x);
+      this.vertices.add(y);
+      this.vertices.add(z);
       // Skip next number if it exists
       if (tokenizer.nextToken() == StreamTokenizer.TT_EOL) {
         tokenizer.pushBack();
@@ -1310,14 +1797,17 @@ public class OBJLoader extends LoaderBase implements Loader {
       float y = parseNumber(tokenizer);
       skipBackSlash(tokenizer);
       float z = parseNumber(tokenizer);
-      this.normals.add(new Vector3f(x, y, z));
+      this.normals.add(x);
+      this.normals.add(y);
+      this.normals.add(z);
     } else if ("vt".equals(tokenizer.sval)) {
       // Read texture coordinate vt x y
       //                       or vt x y z
       float x = parseNumber(tokenizer);
       skipBackSlash(tokenizer);
       float y = parseNumber(tokenizer);
-      this.textureCoordinates.add(new TexCoord2f(x, y));
+      this.textureCoordinates.add(x);
+      this.textureCoordinates.add(y);
       // Skip next number if it exists
       if (tokenizer.nextToken() == StreamTokenizer.TT_EOL) {
         tokenizer.pushBack();
@@ -1326,8 +1816,8 @@ public class OBJLoader extends LoaderBase implements Loader {
       tokenizer.ordinaryChar('/');
       // Read line l v       v       v       ...
       //        or l v/vt    v/vt    v/vt    ...
-      List<Integer> vertexIndices = new ArrayList<Integer>(2);
-      List<Integer> textureCoordinateIndices = new ArrayList<Integer>(2);
+      IntList vertexIndices = new IntList();
+      IntList textureCoordinateIndices = new IntList();
       boolean first = true;
       while (true) {
         if (first) {
@@ -1343,7 +1833,7 @@ public class OBJLoader extends LoaderBase implements Loader {
         // Read vertex index
         int vertexIndex = parseInteger(tokenizer) - 1;
         if (vertexIndex < 0) {
-          vertexIndex += this.vertices.size() + 1;
+          vertexIndex += this.vertices.size() / 3 + 1;
         }
         vertexIndices.add(vertexIndex);
 
@@ -1354,7 +1844,7 @@ public class OBJLoader extends LoaderBase implements Loader {
           // l v/vt : read texture coordinate index
           int textureCoordinateIndex = parseInteger(tokenizer) - 1;
           if (textureCoordinateIndex < 0) {
-            textureCoordinateIndex += this.textureCoordinates.size() + 1;
+            textureCoordinateIndex += this.textureCoordinates.size() / 2 + 1;
           }
           textureCoordinateIndices.add(textureCoordinateIndex);
         }
@@ -1376,9 +1866,9 @@ public class OBJLoader extends LoaderBase implements Loader {
       //        or f v//vn   v//vn   v//vn   ...
       //        or f v/vt    v/vt    v/vt    ...
       //        or f v/vt/vn v/vt/vn v/vt/vn ...
-      List<Integer> vertexIndices = new ArrayList<Integer>(4);
-      List<Integer> textureCoordinateIndices = new ArrayList<Integer>(4);
-      List<Integer> normalIndices = new ArrayList<Integer>(4);
+      IntList vertexIndices = new IntList();
+      IntList textureCoordinateIndices = new IntList();
+      IntList normalIndices = new IntList();
       boolean first = true;
       while (true) {
         if (first) {
@@ -1394,7 +1884,7 @@ public class OBJLoader extends LoaderBase implements Loader {
         // Read vertex index
         int vertexIndex = parseInteger(tokenizer) - 1;
         if (vertexIndex < 0) {
-          vertexIndex += this.vertices.size() + 1;
+          vertexIndex += this.vertices.size() / 3 + 1;
         }
         vertexIndices.add(vertexIndex);
 
@@ -1407,7 +1897,7 @@ public class OBJLoader extends LoaderBase implements Loader {
             tokenizer.pushBack();
             int textureCoordinateIndex = parseInteger(tokenizer) - 1;
             if (textureCoordinateIndex < 0) {
-              textureCoordinateIndex += this.textureCoordinates.size() + 1;
+              textureCoordinateIndex += this.textureCoordinates.size() / 2 + 1;
             }
             textureCoordinateIndices.add(textureCoordinateIndex);
             tokenizer.nextToken();
@@ -1417,7 +1907,7 @@ public class OBJLoader extends LoaderBase implements Loader {
             // or f v/vt/vn : read normal index
             int normalIndex = parseInteger(tokenizer) - 1;
             if (normalIndex < 0) {
-              normalIndex += this.normals.size() + 1;
+              normalIndex += this.normals.size() / 3 + 1;
             }
             normalIndices.add(normalIndex);
           } else {
@@ -1517,6 +2007,187 @@ public class OBJLoader extends LoaderBase implements Loader {
     }
   }
 
+  /**
+   * Parses the line starting with the current token of the given <code>scanner</code>.
+   * The given lists are used as buffers to store face or line indices.
+   */
+  private void parseObjectLine(LineScanner scanner,
+                               IntList vertexIndices,
+                               IntList textureCoordinateIndices,
+                               IntList normalIndices,
+                               URL baseUrl) throws IOException {
+    if (scanner.isToken("v")) {
+      // Read vertex v x y z
+      scanner.appendContinuationLines();
+      this.vertices.add(scanner.parseNumber());
+      this.vertices.add(scanner.parseNumber());
+      this.vertices.add(scanner.parseNumber());
+      // Skip next number if it exists
+      scanner.nextToken();
+    } else if (scanner.isToken("vn")) {
+      // Read normal vn x y z
+      scanner.appendContinuationLines();
+      this.normals.add(scanner.parseNumber());
+      this.normals.add(scanner.parseNumber());
+      this.normals.add(scanner.parseNumber());
+    } else if (scanner.isToken("vt")) {
+      // Read texture coordinate vt x y
+      //                       or vt x y z
+      scanner.appendContinuationLines();
+      this.textureCoordinates.add(scanner.parseNumber());
+      this.textureCoordinates.add(scanner.parseNumber());
+      // Skip next number if it exists
+      scanner.nextToken();
+    } else if (scanner.isToken("l")) {
+      // Read line l v       v       v       ...
+      //        or l v/vt    v/vt    v/vt    ...
+      scanner.appendContinuationLines();
+      vertexIndices.clear();
+      textureCoordinateIndices.clear();
+      while (scanner.skipWhitespaces()) {
+        int vertexIndex = scanner.parseInteger() - 1;
+        if (vertexIndex < 0) {
+          vertexIndex += this.vertexOffset + this.vertices.size() / 3 + 1;
+          this.relativeIndices = true;
+        }
+        vertexIndices.add(vertexIndex);
+        if (scanner.skipSlash()) {
+          // l v/vt : read texture coordinate index
+          int textureCoordinateIndex = scanner.parseInteger() - 1;
+          if (textureCoordinateIndex < 0) {
+            textureCoordinateIndex += this.textureCoordinateOffset + this.textureCoordinates.size() / 2 + 1;
+            this.relativeIndices = true;
+          }
+          textureCoordinateIndices.add(textureCoordinateIndex);
+        }
+      }
+      if (textureCoordinateIndices.size() != 0
+          && textureCoordinateIndices.size() != vertexIndices.size()) {
+        // Ignore unconsistent texture coordinate
+        textureCoordinateIndices.clear();
+      }
+      if (vertexIndices.size() > 1) {
+        this.currentGroup.addGeometry(new Line(vertexIndices, textureCoordinateIndices,
+            this.currentMaterial));
+      }
+    } else if (scanner.isToken("f")) {
+      // Read face f v       v       v       ...
+      //        or f v//vn   v//vn   v//vn   ...
+      //        or f v/vt    v/vt    v/vt    ...
+      //        or f v/vt/vn v/vt/vn v/vt/vn ...
+      scanner.appendContinuationLines();
+      vertexIndices.clear();
+      textureCoordinateIndices.clear();
+      normalIndices.clear();
+      while (scanner.skipWhitespaces()) {
+        int vertexIndex = scanner.parseInteger() - 1;
+        if (vertexIndex < 0) {
+          vertexIndex += this.vertexOffset + this.vertices.size() / 3 + 1;
+          this.relativeIndices = true;
+        }
+        vertexIndices.add(vertexIndex);
+        if (scanner.skipSlash()) {
+          boolean normalIndexFollows = scanner.skipSlash();
+          if (!normalIndexFollows) {
+            // f v/vt : read texture coordinate index
+            int textureCoordinateIndex = scanner.parseInteger() - 1;
+            if (textureCoordinateIndex < 0) {
+              textureCoordinateIndex += this.textureCoordinateOffset + this.textureCoordinates.size() / 2 + 1;
+              this.relativeIndices = true;
+            }
+            textureCoordinateIndices.add(textureCoordinateIndex);
+            normalIndexFollows = scanner.skipSlash();
+          }
+          if (normalIndexFollows) {
+            //    f v//vn
+            // or f v/vt/vn : read normal index
+            int normalIndex = scanner.parseInteger() - 1;
+            if (normalIndex < 0) {
+              normalIndex += this.normalOffset + this.normals.size() / 3 + 1;
+              this.relativeIndices = true;
+            }
+            normalIndices.add(normalIndex);
+          }
+        }
+      }
+      if (textureCoordinateIndices.size() != 0
+          && textureCoordinateIndices.size() != vertexIndices.size()) {
+        // Ignore unconsistent texture coordinate
+        textureCoordinateIndices.clear();
+      }
+      if (normalIndices.size() != 0
+          && normalIndices.size() != vertexIndices.size()) {
+        // Ignore unconsistent normals
+        normalIndices.clear();
+      }
+      if (vertexIndices.size() > 2) {
+        Face face = new Face(vertexIndices, textureCoordinateIndices, normalIndices,
+            this.currentSmooth, this.currentMaterial);
+        this.currentGroup.addGeometry(face);
+        if (this.smoothInherited) {
+          this.inheritedSmoothFaces.add(face);
+        }
+      }
+    } else if (scanner.isToken("g")
+               || scanner.isToken("o")) {
+      // Read group name g name
+      //  or object name o name
+      if (scanner.nextToken()) {
+        this.currentGroup = getGroup(scanner.getToken());
+      } else {
+        // Use default group
+        this.currentGroup = getGroup("default");
+      }
+      // Skip other names
+      while (scanner.nextToken()) {
+      }
+    } else if (scanner.isToken("s")) {
+      // Read smoothing group s n
+      //                   or s off
+      if (scanner.nextToken()) {
+        this.currentSmooth = !scanner.isToken("off");
+        this.smoothInherited = false;
+      } else {
+        throw new IncorrectFormatException("Expected smoothing group or off at line " + scanner.getLineNumber());
+      }
+    } else if (scanner.isToken("usemtl")) {
+      // Read the material name usemtl name (tolerating space in the name)
+      String material = scanner.nextSpacedToken();
+      if (material != null) {
+        this.currentMaterial = material;
+      } else {
+        throw new IncorrectFormatException("Expected material name at line " + scanner.getLineNumber());
+      }
+    } else if (scanner.isToken("mtllib")) {
+      // Read characters following mtllib in case they contain a file name with spaces
+      String mtllibString = scanner.nextSpacedToken();
+      if (mtllibString != null) {
+        // First try to parse space separated library files
+        int validLibCount = 0;
+        String [] libs = mtllibString.split(" ");
+        for (String lib : libs) {
+          if (parseMaterial(lib, baseUrl)) {
+            validLibCount++;
+          }
+        }
+        if (libs.length > 1 && validLibCount == 0) {
+          // Even if not in format specifications, give a chance to file names with spaces
+          parseMaterial(mtllibString, baseUrl);
+        }
+      } else {
+        throw new IncorrectFormatException("Expected material library at line " + scanner.getLineNumber());
+      }
+    } else {
+      // Skip other lines (including comment lines starting by #)
+      while (scanner.nextToken()) {
+      }
+    }
+
+    if (scanner.nextToken()) {
+      throw new IncorrectFormatException("Expected end of line at line " + scanner.getLineNumber());
+    }
+  }
+
   /**
    * Returns a new tokenizer for an OBJ or MTL stream.
    */
@@ -1875,18 +2546,12 @@ public class OBJLoader extends LoaderBase implements Loader {
     private int [] textureCoordinateIndices;
     private String material;
 
-    public Geometry(List<Integer> vertexIndices,
-                    List<Integer> textureCoordinateIndices,
-                    String        material) {
-      this.vertexIndices = new int [vertexIndices.size()];
-      for (int i = 0; i < this.vertexIndices.length; i++) {
-        this.vertexIndices [i] = vertexIndices.get(i);
-      }
+    public Geometry(IntList vertexIndices,
+                    IntList textureCoordinateIndices,
+                    String  material) {
+      this.vertexIndices = vertexIndices.toArray();
       if (textureCoordinateIndices.size() != 0) {
-        this.textureCoordinateIndices = new int [textureCoordinateIndices.size()];
-        for (int i = 0; i < this.textureCoordinateIndices.length; i++) {
-          this.textureCoordinateIndices [i] = textureCoordinateIndices.get(i);
-        }
+        this.textureCoordinateIndices = textureCoordinateIndices.toArray();
       }
       this.material = material;
     }
@@ -1907,15 +2572,19 @@ public class OBJLoader extends LoaderBase implements Loader {
     public String getMaterial() {
       return this.material;
     }
+
+    public void setMaterial(String material) {
+      this.material = material;
+    }
   }
 
   /**
    * The coordinates indices of a line.
    */
   private static class Line extends Geometry {
-    public Line(List<Integer> vertexIndices,
-                List<Integer> textureCoordinateIndices,
-                String        material) {
+    public Line(IntList vertexIndices,
+                IntList textureCoordinateIndices,
+                String  material) {
       super(vertexIndices, textureCoordinateIndices, material);
     }
   }
@@ -1927,18 +2596,15 @@ public class OBJLoader extends LoaderBase implements Loader {
     private int []  normalIndices;
     private boolean smooth;
 
-    public Face(List<Integer> vertexIndices,
-                List<Integer> textureCoordinateIndices,
-                List<Integer> normalIndices,
-                boolean       smooth,
-                String        material) {
+    public Face(IntList vertexIndices,
+                IntList textureCoordinateIndices,
+                IntList normalIndices,
+                boolean smooth,
+                String  material) {
       super(vertexIndices, textureCoordinateIndices, material);
       this.smooth = smooth;
       if (normalIndices.size() != 0) {
-        this.normalIndices = new int [normalIndices.size()];
-        for (int i = 0; i < this.normalIndices.length; i++) {
-          this.normalIndices [i] = normalIndices.get(i);
-        }
+        this.normalIndices = normalIndices.toArray();
       }
     }
 
@@ -1946,6 +2612,10 @@ public class OBJLoader extends LoaderBase implements Loader {
       return this.smooth;
     }
 
+    public void setSmooth(boolean smooth) {
+      this.smooth = smooth;
+    }
+
     public int [] getNormalIndices() {
       return this.normalIndices;
     }
@@ -1980,4 +2650,426 @@ public class OBJLoader extends LoaderBase implements Loader {
       return this.geometries;
     }
   }
+
+  /**
+   * A growable array of floats.
+   */
+  private static class FloatList {
+    private float [] values = new float [3 * 1024];
+    private int      size;
+
+    public void add(float value) {
+      if (this.size == this.values.length) {
+        float [] values = new float [this.size * 2];
+        System.arraycopy(this.values, 0, values, 0, this.size);
+        this.values = values;
+      }
+      this.values [this.size++] = value;
+    }
+
+    public void addAll(FloatList list) {
+      if (this.size + list.size > this.values.length) {
+        float [] values = new float [Math.max(this.size + list.size, this.size * 2)];
+        System.arraycopy(this.values, 0, values, 0, this.size);
+        this.values = values;
+      }
+      System.arraycopy(list.values, 0, this.values, this.size, list.size);
+      this.size += list.size;
+    }
+
+    public int size() {
+      return this.size;
+    }
+
+    public float [] toArray() {
+      float [] values = new float [this.size];
+      System.arraycopy(this.values, 0, values, 0, this.size);
+      return values;
+    }
+  }
+
+  /**
+   * A growable array of integers.
+   */
+  private static class IntList {
+    private int [] values = new int [8];
+    private int    size;
+
+    public void add(int value) {
+      if (this.size == this.values.length) {
+        int [] values = new int [this.size * 2];
+        System.arraycopy(this.values, 0, values, 0, this.size);
+        this.values = values;
+      }
+      this.values [this.size++] = value;
+    }
+
+    public void clear() {
+      this.size = 0;
+    }
+
+    public int size() {
+      return this.size;
+    }
+
+    public int [] toArray() {
+      int [] values = new int [this.size];
+      System.arraycopy(this.values, 0, values, 0, this.size);
+      return values;
+    }
+  }
+
+  /**
+   * The bytes of an OBJ file read by ranges to be parsed in chunks.
+   */
+  private static abstract class ObjectBytes implements Closeable {
+    public abstract long getLength();
+
+    /**
+     * Returns a stream able to read the bytes between <code>start</code> and <code>end</code>.
+     * This method may be called from concurrent threads.
+     */
+    public abstract InputStream getInputStream(long start, long end) throws IOException;
+
+    public void close() throws IOException {
+    }
+  }
+
+  /**
+   * The bytes of an OBJ stream read in an array.
+   */
+  private static class ByteArrayObjectBytes extends ObjectBytes {
+    private final byte [] bytes;
+    private final int     length;
+
+    public ByteArrayObjectBytes(byte [] bytes, int length) {
+      this.bytes = bytes;
+      this.length = length;
+    }
+
+    @Override
+    public long getLength() {
+      return this.length;
+    }
+
+    @Override
+    public InputStream getInputStream(long start, long end) {
+      return new ByteArrayInputStream(this.bytes, (int)start, (int)(end - start));
+    }
+  }
+
+  /**
+   * The bytes of an OBJ file, read with positional reads which don't need the whole file in memory.
+   */
+  private static class FileObjectBytes extends ObjectBytes {
+    private final File        file;
+    private final boolean     temporary;
+    private final FileChannel channel;
+
+    public FileObjectBytes(File file, boolean temporary) throws FileNotFoundException {
+      this.file = file;
+      this.temporary = temporary;
+      this.channel = new RandomAccessFile(file, "r").getChannel();
+    }
+
+    @Override
+    public long getLength() {
+      try {
+        return this.channel.size();
+      } catch (IOException ex) {
+        return this.file.length();
+      }
+    }
+
+    @Override
+    public InputStream getInputStream(final long start, final long end) {
+      return new InputStream() {
+          private long position = start;
+
+          @Override
+          public int read() throws IOException {
+            byte [] b = new byte [1];
+            return read(b, 0, 1) == 1
+                ? b [0] & 0xFF
+                : -1;
+          }
+
+          @Override
+          public int read(byte [] b, int offset, int length) throws IOException {
+            if (length == 0) {
+              return 0;
+            } else if (this.position >= end) {
+              return -1;
+            }
+            length = (int)Math.min(length, end - this.position);
+            int size = channel.read(ByteBuffer.wrap(b, offset, length), this.position);
+            if (size > 0) {
+              this.position += size;
+            }
+            return size;
+          }
+        };
+    }
+
+    @Override
+    public void close() throws IOException {
+      this.channel.close();
+      if (this.temporary) {
+        this.file.delete();
+      }
+    }
+  }
+
+  /**
+   * A scanner reading an OBJ stream line per line and parsing the tokens
+   * of the current line directly from its bytes.
+   */
+  private static class LineScanner {
+    private final InputStream in;
+    private final byte []     buffer = new byte [65536];
+    private int               bufferLength;
+    private int               bufferIndex;
+    private boolean           skipLineFeed;
+    private byte []           line = new byte [256];
+    private int               lineLength;
+    private int               lineNumber;
+    private int               index;
+    private int               tokenStart;
+    private int               tokenEnd;
+    private char []           numberChars = new char [32];
+
+    public LineScanner(InputStream in) {
+      this.in = in;
+    }
+
+    public int getLineNumber() {
+      return this.lineNumber;
+    }
+
+    /**
+     * Reads the next line and returns <code>false</code> if the end of the stream is reached.
+     */
+    public boolean readLine() throws IOException {
+      this.lineLength = 0;
+      this.index = 0;
+      return appendLine();
+    }
+
+    /**
+     * Appends the next line to the current line.
+     */
+    private boolean appendLine() throws IOException {
+      boolean read = false;
+      while (true) {
+        if (this.bufferIndex == this.bufferLength) {
+          this.bufferLength = this.in.read(this.buffer);
+          this.bufferIndex = 0;
+          if (this.bufferLength <= 0) {
+            this.bufferLength = 0;
+            if (read) {
+              this.lineNumber++;
+            }
+            return read;
+          }
+        }
+        byte b = this.buffer [this.bufferIndex++];
+        if (this.skipLineFeed) {
+          this.skipLineFeed = false;
+          if (b == '\n') {
+            continue;
+          }
+        }
+        read = true;
+        if (b == '\n' || b == '\r') {
+          // Accept \n, \r and \r\n line separators
+          this.skipLineFeed = b == '\r';
+          this.lineNumber++;
+          return true;
+        }
+        if (this.lineLength == this.line.length) {
+          byte [] line = new byte [this.lineLength * 2];
+          System.arraycopy(this.line, 0, line, 0, this.lineLength);
+          this.line = line;
+        }
+        this.line [this.lineLength++] = b;
+      }
+    }
+
+    /**
+     * Appends to the current line the next lines if it ends by a back slash token.
+     */
+    public void appendContinuationLines() throws IOException {
+      while (true) {
+        int end = this.lineLength;
+        while (end > 0 && isWhitespace(this.line [end - 1])) {
+          end--;
+        }
+        if (end > 0
+            && this.line [end - 1] == '\\'
+            && (end == 1 || isWhitespace(this.line [end - 2]))) {
+          this.line [end - 1] = ' ';
+          if (!appendLine()) {
+            return;
+          }
+        } else {
+          return;
+        }
+      }
+    }
+
+    private boolean isWhitespace(byte b) {
+      return b == ' ' || b == '\t';
+    }
+
+    /**
+     * Skips white spaces and returns <code>false</code> if the end of line is reached.
+     */
+    public boolean skipWhitespaces() {
+      while (this.index < this.lineLength && isWhitespace(this.line [this.index])) {
+        this.index++;
+      }
+      return this.index < this.lineLength;
+    }
+
+    /**
+     * Reads the next token and returns <code>false</code> if the end of line is reached.
+     */
+    public boolean nextToken() {
+      if (skipWhitespaces()) {
+        this.tokenStart = this.index;
+        while (this.index < this.lineLength && !isWhitespace(this.line [this.index])) {
+          this.index++;
+        }
+        this.tokenEnd = this.index;
+        return true;
+      } else {
+        return false;
+      }
+    }
+
+    /**
+     * Returns <code>true</code> if the current token is equal to the given ASCII string.
+     */
+    public boolean isToken(String token) {
+      if (this.tokenEnd - this.tokenStart != token.length()) {
+        return false;
+      }
+      for (int i = 0; i < token.length(); i++) {
+        if (this.line [this.tokenStart + i] != token.charAt(i)) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    /**
+     * Returns the current token decoded as ISO-8859-1 characters.
+     */
+    public String getToken() {
+      return getString(this.tokenStart, this.tokenEnd);
+    }
+
+    private String getString(int start, int end) {
+      char [] chars = new char [end - start];
+      for (int i = start; i < end; i++) {
+        chars [i - start] = (char)(this.line [i] & 0xFF);
+      }
+      return new String(chars);
+    }
+
+    /**
+     * Returns the trimmed characters up to the next tab or the end of line,
+     * or <code>null</code> if the end of line is reached.
+     */
+    public String nextSpacedToken() {
+      if (skipWhitespaces()) {
+        int start = this.index;
+        while (this.index < this.lineLength && this.line [this.index] != '\t') {
+          this.index++;
+        }
+        return getString(start, this.index).trim();
+      } else {
+        return null;
+      }
+    }
+
+    /**
+     * Returns <code>true</code> and skips the current character if it's a slash.
+     */
+    public boolean skipSlash() {
+      if (this.index < this.lineLength && this.line [this.index] == '/') {
+        this.index++;
+        return true;
+      } else {
+        return false;
+      }
+    }
+
+    /**
+     * Returns the integer starting at current index and ending before a slash, a space or the end of line.
+     */
+    public int parseInteger() {
+      int start = this.index;
+      while (this.index < this.lineLength
+          && this.line [this.index] != '/'
+          && !isWhitespace(this.line [this.index])) {
+        this.index++;
+      }
+      if (start == this.index) {
+        throw new IncorrectFormatException("Expected an integer at line " + this.lineNumber);
+      }
+      int i = start;
+      boolean negative = this.line [i] == '-';
+      if (negative || this.line [i] == '+') {
+        i++;
+      }
+      if (i < this.index && this.index - i <= 9) {
+        int value = 0;
+        for ( ; i < this.index; i++) {
+          int digit = this.line [i] - '0';
+          if (digit < 0 || digit > 9) {
+            break;
+          }
+          value = value * 10 + digit;
+        }
+        if (i == this.index) {
+          return negative ? -value : value;
+        }
+      }
+      String token = getString(start, this.index);
+      try {
+        return Integer.parseInt(token);
+      } catch (NumberFormatException ex) {
+        throw new IncorrectFormatException("Found " + token +
+            " instead of an integer at line " + this.lineNumber);
+      }
+    }
+
+    /**
+     * Returns the number contained in the next token.
+     */
+    public float parseNumber() {
+      if (!nextToken()) {
+        throw new IncorrectFormatException("Expected a number at line " + this.lineNumber);
+      }
+      int tokenLength = this.tokenEnd - this.tokenStart;
+      if (tokenLength > this.numberChars.length) {
+        this.numberChars = new char [tokenLength * 2];
+      }
+      for (int i = 0; i < tokenLength; i++) {
+        this.numberChars [i] = (char)(this.line [this.tokenStart + i] & 0xFF);
+      }
+      float value = FloatParser.parseFloat(this.numberChars, 0, tokenLength);
+      if (!Float.isNaN(value)) {
+        return value;
+      }
+      String token = getToken();
+      try {
+        return Float.parseFloat(token);
+      } catch (NumberFormatException ex) {
+        throw new IncorrectFormatException("Found " + token +
+            " instead of a number at line " + this.lineNumber);
+      }
+    }
+  }
 }
@@ -153,6 +153,21 @@ public abstract class Object3DBranch extends BranchGroup {
    */
   public abstract void update();
 
+  /**
+   * Computes the data required to update this branch without modifying the scene and returns
+   * a task that will apply them, or returns <code>null</code> if this branch can't be updated in two steps.
+   * Contrary to {@link #update()}, this method may be called in a worker thread,
+   * and that's why it must read only the given snapshots, never the item and the home of this branch
+   * which may be modified in the mean time. The returned task must be run in the thread that updates the scene.
+   * @param homeSnapshot  a clone of the home of this branch, created with {@link Home#clone()}
+   *                      in the thread that modifies the home
+   * @param itemSnapshot  the clone of the item of this branch in <code>homeSnapshot</code>
+   * @since 7.3
+   */
+  public Runnable prepareUpdate(Home homeSnapshot, Object itemSnapshot) {
+    return null;
+  }
+
   /**
    * Returns a cloned instance of texture shared per <code>home</code> or
    * the texture itself if <code>home</code> is <code>null</code>.
@@ -170,18 +170,53 @@ public class Room3D extends Object3DBranch {
     return roomShape;
   }
 
+  /**
+   * Creates a room branch without any shape, used only to compute the geometries
+   * of the given room snapshot.
+   */
+  private Room3D(Room roomSnapshot, Home homeSnapshot, UserPreferences preferences, Object context) {
+    super(roomSnapshot, homeSnapshot, preferences, context);
+  }
+
   @Override
   public void update() {
     updateRoomGeometry();
     updateRoomAppearance(false);
   }
 
+  /**
+   * Computes the geometries of the given room snapshot and returns a task that will set them
+   * to this room and update its appearance.
+   * @since 7.3
+   */
+  @Override
+  public Runnable prepareUpdate(Home homeSnapshot, Object itemSnapshot) {
+    Room roomSnapshot = (Room)itemSnapshot;
+    Room3D roomSnapshot3D = new Room3D(roomSnapshot, homeSnapshot, getUserPreferences(), getContext());
+    final Geometry [] floorGeometries = roomSnapshot3D.createVisibleRoomGeometries(FLOOR_PART, roomSnapshot.getFloorTexture());
+    final Geometry floorSelectionGeometry = roomSnapshot3D.createRoomSelectionGeometry();
+    final Geometry [] ceilingGeometries = roomSnapshot3D.createVisibleRoomGeometries(CEILING_PART, roomSnapshot.getCeilingTexture());
+    final Geometry ceilingSelectionGeometry = roomSnapshot3D.createRoomSelectionGeometry();
+    return new Runnable() {
+        public void run() {
+          updateRoomPartGeometry(FLOOR_PART, floorGeometries, floorSelectionGeometry);
+          updateRoomPartGeometry(CEILING_PART, ceilingGeometries, ceilingSelectionGeometry);
+          updateRoomPickability();
+          updateRoomAppearance(false);
+        }
+      };
+  }
+
   /**
    * Sets the 3D geometry of this room shapes that matches its 2D geometry.
    */
   private void updateRoomGeometry() {
     updateRoomPartGeometry(FLOOR_PART, ((Room)getUserData()).getFloorTexture());
     updateRoomPartGeometry(CEILING_PART, ((Room)getUserData()).getCeilingTexture());
+    updateRoomPickability();
+  }
+
+  private void updateRoomPickability() {
     Room room = (Room)getUserData();
     setPickable(getHome().getEnvironment().getWallsAlpha() == 0
         || room.getLevel() == null
@@ -189,19 +224,36 @@ public class Room3D extends Object3DBranch {
   }
 
   private void updateRoomPartGeometry(int roomPart, HomeTexture texture) {
+    updateRoomPartGeometry(roomPart, createVisibleRoomGeometries(roomPart, texture), createRoomSelectionGeometry());
+  }
+
+  /**
+   * Returns the geometries of the given room part if the room is visible, or an empty array.
+   * This method doesn't modify the scene.
+   */
+  private Geometry [] createVisibleRoomGeometries(int roomPart, HomeTexture texture) {
+    Room room = (Room)getUserData();
+    if (room.getLevel() == null || room.getLevel().isViewableAndVisible()) {
+      return createRoomGeometries(roomPart, texture);
+    } else {
+      return new Geometry [0];
+    }
+  }
+
+  /**
+   * Replaces the geometries of the given room part and the selection geometry of this room.
+   */
+  private void updateRoomPartGeometry(int roomPart, Geometry [] roomGeometries, Geometry selectionGeometry) {
     Group roomPartGroup = (Group)getChild(roomPart);
     Shape3D roomFilledShape = (Shape3D)roomPartGroup.getChild(0);
     Shape3D roomOutlineShape = roomPartGroup.numChildren() > 1
         ? (Shape3D)roomPartGroup.getChild(1)
         : null;
     int currentGeometriesCount = roomFilledShape.numGeometries();
-    Room room = (Room)getUserData();
-    if (room.getLevel() == null || room.getLevel().isViewableAndVisible()) {
-      for (Geometry roomGeometry : createRoomGeometries(roomPart, texture)) {
-        roomFilledShape.addGeometry(roomGeometry);
-        if (roomOutlineShape != null) {
-          roomOutlineShape.addGeometry(roomGeometry);
-        }
+    for (Geometry roomGeometry : roomGeometries) {
+      roomFilledShape.addGeometry(roomGeometry);
+      if (roomOutlineShape != null) {
+        roomOutlineShape.addGeometry(roomGeometry);
       }
     }
     for (int i = currentGeometriesCount - 1; i >= 0; i--) {
@@ -212,7 +264,7 @@ public class Room3D extends Object3DBranch {
     }
 
     Shape3D roomSelectionShape = (Shape3D)getChild(2);
-    roomSelectionShape.addGeometry(createRoomSelectionGeometry());
+    roomSelectionShape.addGeometry(selectionGeometry);
     roomSelectionShape.removeGeometry(0);
   }
 
@@ -742,17 +794,18 @@ public class Room3D extends Object3DBranch {
       } else {
         // Search the closest wall point to x, y at last level
         Wall closestWall = null;
-        float [][] closestWallPoints = null;
+        int closestWallPointCount = 0;
         int closestIndex = -1;
         for (Wall wall : home.getWalls()) {
           if ((wall.getLevel() == null || wall.getLevel().isViewable())
               && wall.isAtLevel(roomLevel)) {
-            float [][] points = wall.getPoints();
-            for (int i = 0; i < points.length; i++) {
-              double distanceToWallPoint = Point2D.distanceSq(points [i][0], points [i][1], x, y);
+            // Read wall points without copying them
+            int pointCount = wall.getPointCount();
+            for (int i = 0; i < pointCount; i++) {
+              double distanceToWallPoint = Point2D.distanceSq(wall.getPointX(i), wall.getPointY(i), x, y);
               if (distanceToWallPoint < smallestDistance) {
                 closestWall = wall;
-                closestWallPoints = points;
+                closestWallPointCount = pointCount;
                 closestIndex = i;
                 smallestDistance = distanceToWallPoint;
               }
@@ -763,7 +816,7 @@ public class Room3D extends Object3DBranch {
         if (closestWall != null) {
           roomHeight = closestWall.getLevel() == null ? 0 : closestWall.getLevel().getElevation();
           Float wallHeightAtStart = closestWall.getHeight();
-          if (closestIndex == 0 || closestIndex == closestWallPoints.length - 1) { // Wall start
+          if (closestIndex == 0 || closestIndex == closestWallPointCount - 1) { // Wall start
             roomHeight += wallHeightAtStart != null
                 ? wallHeightAtStart
                 : home.getWallHeight();
@@ -772,16 +825,16 @@ public class Room3D extends Object3DBranch {
               Float arcExtent = closestWall.getArcExtent();
               if (arcExtent == null
                   || arcExtent.floatValue() == 0
-                  || closestIndex == closestWallPoints.length / 2
-                  || closestIndex == closestWallPoints.length / 2 - 1) {
+                  || closestIndex == closestWallPointCount / 2
+                  || closestIndex == closestWallPointCount / 2 - 1) {
                 roomHeight += closestWall.getHeightAtEnd();
               } else {
                 // Compute the angle between start point and the current point of the wall
                 // to get the relative height at that point
                 float xArcCircleCenter = closestWall.getXArcCircleCenter();
                 float yArcCircleCenter = closestWall.getYArcCircleCenter();
-                float xClosestPoint = closestWallPoints [closestIndex][0];
-                float yClosestPoint = closestWallPoints [closestIndex][1];
+                float xClosestPoint = closestWall.getPointX(closestIndex);
+                float yClosestPoint = closestWall.getPointY(closestIndex);
                 double centerToClosestPointDistance = Point2D.distance(xArcCircleCenter, yArcCircleCenter, xClosestPoint, yClosestPoint);
                 float xStart = closestWall.getXStart();
                 float yStart = closestWall.getYStart();
@@ -26,6 +26,7 @@ import java.awt.geom.AffineTransform;
 import java.awt.geom.CubicCurve2D;
 import java.awt.geom.GeneralPath;
 import java.awt.geom.Rectangle2D;
+import java.util.Collections;
 import java.util.Map;
 import java.util.WeakHashMap;
 
@@ -41,7 +42,7 @@ import com.eteks.sweethome3d.model.Polyline;
  */
 public class ShapeTools {
   // SVG path Shapes
-  private static final Map<String, Shape> parsedShapes = new WeakHashMap<String, Shape>();
+  private static final Map<String, Shape> parsedShapes = Collections.synchronizedMap(new WeakHashMap<String, Shape>());
 
   private ShapeTools() {
     // This class contains only tools
@@ -78,8 +78,11 @@ public class Wall3D extends Object3DBranch {
   private static final int WALL_LEFT_SIDE  = 0;
   private static final int WALL_RIGHT_SIDE = 1;
 
-  private static Map<HomePieceOfFurniture, ModelRotationTuple> doorOrWindowRotatedModels = new WeakHashMap<HomePieceOfFurniture, ModelRotationTuple>();
-  private static Map<ModelRotationTuple, Area>                 rotatedModelsFrontAreas   = new WeakHashMap<ModelRotationTuple, Area>();
+  // Synchronized maps because wall geometry may be computed in parallel
+  private static Map<HomePieceOfFurniture, ModelRotationTuple> doorOrWindowRotatedModels =
+      Collections.synchronizedMap(new WeakHashMap<HomePieceOfFurniture, ModelRotationTuple>());
+  private static Map<ModelRotationTuple, Area>                 rotatedModelsFrontAreas   =
+      Collections.synchronizedMap(new WeakHashMap<ModelRotationTuple, Area>());
 
   /**
    * Creates the 3D wall matching the given home <code>wall</code>.
@@ -171,37 +174,111 @@ public class Wall3D extends Object3DBranch {
     return wallShape;
   }
 
+  /**
+   * Creates a wall branch without any shape, used only to compute the geometries
+   * of the given wall snapshot.
+   */
+  private Wall3D(Wall wallSnapshot, Home homeSnapshot, UserPreferences preferences, Object context) {
+    super(wallSnapshot, homeSnapshot, preferences, context);
+  }
+
   @Override
   public void update() {
     updateWallGeometry(false);
     updateWallAppearance(false);
   }
 
+  /**
+   * Computes the geometries of the given wall snapshot and returns a task that will set them
+   * to this wall and update its appearance. As this method may be called in a worker thread,
+   * the models of the doors and windows in this wall are loaded synchronously if needed.
+   * @since 7.3
+   */
+  @Override
+  public Runnable prepareUpdate(Home homeSnapshot, Object itemSnapshot) {
+    Wall3D wallSnapshot3D = new Wall3D((Wall)itemSnapshot, homeSnapshot, getUserPreferences(), getContext());
+    final List<List<Geometry>> leftSideGeometries = wallSnapshot3D.createWallSideGeometries(WALL_LEFT_SIDE, true);
+    final List<List<Geometry>> rightSideGeometries = wallSnapshot3D.createWallSideGeometries(WALL_RIGHT_SIDE, true);
+    final Geometry selectionGeometry = wallSnapshot3D.createWallSelectionGeometry();
+    return new Runnable() {
+        public void run() {
+          updateWallSideGeometry(WALL_LEFT_SIDE, leftSideGeometries);
+          updateWallSideGeometry(WALL_RIGHT_SIDE, rightSideGeometries);
+          updateWallSelectionGeometry(selectionGeometry);
+          updateWallAppearance(false);
+        }
+      };
+  }
+
   /**
    * Sets the 3D geometry of this wall shapes that matches its 2D geometry.
    */
   private void updateWallGeometry(boolean waitDoorOrWindowModelsLoadingEnd) {
     updateWallSideGeometry(WALL_LEFT_SIDE, waitDoorOrWindowModelsLoadingEnd);
     updateWallSideGeometry(WALL_RIGHT_SIDE, waitDoorOrWindowModelsLoadingEnd);
+    updateWallSelectionGeometry(createWallSelectionGeometry());
+  }
+
+  /**
+   * Sets the selection geometry of this wall and updates its pickability.
+   */
+  private void updateWallSelectionGeometry(Geometry selectionGeometry) {
     setPickable(getHome().getEnvironment().getWallsAlpha() == 0);
 
     Shape3D wallSelectionShape = (Shape3D)getChild(8);
-    wallSelectionShape.addGeometry(createWallSelectionGeometry());
+    wallSelectionShape.addGeometry(selectionGeometry);
     wallSelectionShape.removeGeometry(0);
   }
 
   private void updateWallSideGeometry(int wallSide,
                                       boolean waitDoorOrWindowModelsLoadingEnd) {
+    updateWallSideGeometry(wallSide, createWallSideGeometries(wallSide, waitDoorOrWindowModelsLoadingEnd));
+  }
+
+  /**
+   * Returns the geometries of the bottom, baseboard, main and top parts of the given wall side,
+   * or <code>null</code> if the wall isn't visible. This method doesn't modify the scene.
+   */
+  private List<List<Geometry>> createWallSideGeometries(int wallSide,
+                                                        boolean waitDoorOrWindowModelsLoadingEnd) {
     Wall wall = (Wall)getUserData();
-    HomeTexture wallTexture;
-    Baseboard baseboard;
-    if (wallSide == WALL_LEFT_SIDE) {
-      wallTexture = wall.getLeftSideTexture();
-      baseboard = wall.getLeftSideBaseboard();
+    if (wall.getLevel() == null || wall.getLevel().isViewableAndVisible()) {
+      HomeTexture wallTexture;
+      Baseboard baseboard;
+      if (wallSide == WALL_LEFT_SIDE) {
+        wallTexture = wall.getLeftSideTexture();
+        baseboard = wall.getLeftSideBaseboard();
+      } else {
+        wallTexture = wall.getRightSideTexture();
+        baseboard = wall.getRightSideBaseboard();
+      }
+      List<List<Geometry>> wallGeometries = new ArrayList<List<Geometry>>(4);
+      for (int i = 0; i < 4; i++) {
+        wallGeometries.add(new ArrayList<Geometry>());
+      }
+      // Create geometries of the wall side
+      createWallGeometries(wallGeometries.get(0), wallGeometries.get(2), wallGeometries.get(3), wallSide,
+          null, wallTexture, waitDoorOrWindowModelsLoadingEnd);
+      if (baseboard != null) {
+        HomeTexture baseboardTexture = baseboard.getTexture();
+        if (baseboardTexture == null
+            && baseboard.getColor() == null) {
+          baseboardTexture = wallTexture;
+        }
+        // Create geometries of its baseboard
+        createWallGeometries(wallGeometries.get(1), wallGeometries.get(1), wallGeometries.get(1), wallSide,
+            baseboard, baseboardTexture, waitDoorOrWindowModelsLoadingEnd);
+      }
+      return wallGeometries;
     } else {
-      wallTexture = wall.getRightSideTexture();
-      baseboard = wall.getRightSideBaseboard();
+      return null;
     }
+  }
+
+  /**
+   * Replaces the geometries of the given wall side by <code>wallGeometries</code>.
+   */
+  private void updateWallSideGeometry(int wallSide, List<List<Geometry>> wallGeometries) {
     Group [] wallSideGroups = {(Group)getChild(wallSide),      // Bottom group    (0 or 1)
                                (Group)getChild(wallSide + 2),  // Baseboard group (2 or 3)
                                (Group)getChild(wallSide + 4),  // Main group      (4 or 5)
@@ -216,26 +293,9 @@ public class Wall3D extends Object3DBranch {
           : null;
       currentGeometriesCounts [i] = wallFilledShapes [i].numGeometries();
     }
-    if (wall.getLevel() == null || wall.getLevel().isViewableAndVisible()) {
-      List [] wallGeometries = {new ArrayList<Geometry>(),
-                                new ArrayList<Geometry>(),
-                                new ArrayList<Geometry>(),
-                                new ArrayList<Geometry>()};
-      // Create geometries of the wall side
-      createWallGeometries(wallGeometries [0], wallGeometries [2], wallGeometries [3], wallSide,
-          null, wallTexture, waitDoorOrWindowModelsLoadingEnd);
-      if (baseboard != null) {
-        HomeTexture baseboardTexture = baseboard.getTexture();
-        if (baseboardTexture == null
-            && baseboard.getColor() == null) {
-          baseboardTexture = wallTexture;
-        }
-        // Create geometries of its baseboard
-        createWallGeometries(wallGeometries [1], wallGeometries [1], wallGeometries [1], wallSide,
-            baseboard, baseboardTexture, waitDoorOrWindowModelsLoadingEnd);
-      }
+    if (wallGeometries != null) {
       for (int i = 0; i < wallSideGroups.length; i++) {
-        for (Geometry wallGeometry : (List<Geometry>)wallGeometries [i]) {
+        for (Geometry wallGeometry : wallGeometries.get(i)) {
           if (wallGeometry != null) {
             wallFilledShapes [i].addGeometry(wallGeometry);
             if (wallOutlineShapes [i] != null) {
@@ -314,7 +374,8 @@ public class Wall3D extends Object3DBranch {
     for (HomePieceOfFurniture piece : getVisibleDoorsAndWindows(getHome().getFurniture())) {
       float pieceElevation = piece.getGroundElevation();
       if (pieceElevation + piece.getHeight() > wallElevation
-          && pieceElevation < maxTopElevation) {
+          && pieceElevation < maxTopElevation
+          && intersectsPieceBounds(wall, piece)) {
         Area pieceArea = new Area(getShape(piece.getPoints()));
         Area intersectionArea = new Area(wallShape);
         intersectionArea.intersect(pieceArea);
@@ -596,10 +657,12 @@ public class Wall3D extends Object3DBranch {
                       // As doorOrWindowRotatedModels and rotatedModelsFrontAreas are both WeakHashMap instances,
                       // use the ModelRotationTuple key that already exists in rotatedModelsFrontAreas
                       // to avoid the deletion of the entry containing the new sibling when doorOrWindow is garbage collected
-                      for (ModelRotationTuple key : rotatedModelsFrontAreas.keySet()) {
-                        if (key.equals(rotatedModel)) {
-                          rotatedModel = key;
-                          break;
+                      synchronized (rotatedModelsFrontAreas) {
+                        for (ModelRotationTuple key : rotatedModelsFrontAreas.keySet()) {
+                          if (key.equals(rotatedModel)) {
+                            rotatedModel = key;
+                            break;
+                          }
                         }
                       }
                     }
@@ -663,6 +726,26 @@ public class Wall3D extends Object3DBranch {
     return visibleDoorsAndWindows;
   }
 
+  /**
+   * Returns <code>true</code> if the given <code>wall</code> intersects the bounding box
+   * of the given <code>piece</code>, to avoid useless area computations.
+   */
+  private static boolean intersectsPieceBounds(Wall wall, HomePieceOfFurniture piece) {
+    float xMin = piece.getPointX(0);
+    float yMin = piece.getPointY(0);
+    float xMax = xMin;
+    float yMax = yMin;
+    for (int i = 1; i < 4; i++) {
+      float x = piece.getPointX(i);
+      float y = piece.getPointY(i);
+      xMin = Math.min(xMin, x);
+      yMin = Math.min(yMin, y);
+      xMax = Math.max(xMax, x);
+      yMax = Math.max(yMax, y);
+    }
+    return wall.intersectsRectangle(xMin, yMin, xMax, yMax);
+  }
+
   /**
    * Returns the points of one of the side of this wall.
    */
@@ -71,17 +71,101 @@ public class CollectionChangeSupport<T> {
    * @param index    the optional index at which the item was added or deleted 
    * @param eventType <code>CollectionEvent.Type.ADD</code> or <code>CollectionEvent.Type.DELETE</code> 
    */
-  @SuppressWarnings("unchecked")
   public void fireCollectionChanged(T item, int index, 
                                     CollectionEvent.Type eventType) {
     if (!this.collectionListeners.isEmpty()) {
-      CollectionEvent<T> event = new CollectionEvent<T>(this.source, item, index, eventType);
+      fireCollectionEvent(new CollectionEvent<T>(this.source, item, index, eventType));
+    }
+  }
+
+  /**
+   * Fires a collection event about <code>items</code> added or deleted together.
+   * {@link BulkCollectionListener Bulk listeners} will receive one event for all the items,
+   * and other listeners one event per item.
+   * @param items     the added ore deleted items 
+   * @param index     the index at which the first item was added or deleted when the other ones follow it,
+   *                  or -1 if unknown 
+   * @param eventType <code>CollectionEvent.Type.ADD</code> or <code>CollectionEvent.Type.DELETE</code> 
+   * @since 7.3
+   */
+  public void fireCollectionChanged(List<? extends T> items, int index, 
+                                    CollectionEvent.Type eventType) {
+    if (!this.collectionListeners.isEmpty()
+        && !items.isEmpty()) {
+      if (items.size() == 1) {
+        fireCollectionEvent(new CollectionEvent<T>(this.source, items.get(0), index, eventType));
+      } else {
+        fireCollectionEvent(new CollectionEvent<T>(this.source, items, index, eventType));
+      }
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private void fireCollectionEvent(CollectionEvent<T> event) {
+    HomeTransaction transaction;
+    if (this.source instanceof Home
+        && (transaction = HomeTransaction.getTransaction(this.source)) != null) {
+      // Defer event until the end of the transaction
+      transaction.fireCollectionChanged(this, event);
+    } else {
       // Work on a copy of collectionListeners to ensure a listener 
       // can modify safely listeners list
-      CollectionListener<T> [] listeners = this.collectionListeners.
-        toArray(new CollectionListener [this.collectionListeners.size()]);
+      CollectionListener<T> [] listeners = (CollectionListener<T> [])this.collectionListeners.
+          toArray(new CollectionListener<?> [this.collectionListeners.size()]);
       for (CollectionListener<T> listener : listeners) {
-        listener.collectionChanged(event);
+        fireCollectionEvent(listener, event);
+      }
+    }
+  }
+
+  /**
+   * Fires the given <code>events</code> to the listeners notified during a transaction
+   * if <code>immediateListeners</code> is <code>true</code>, or to the other ones.
+   * Bulk listeners receive successive events of the same type in one event.
+   */
+  @SuppressWarnings("unchecked")
+  void fireCollectionChanged(List<CollectionEvent<T>> events, boolean immediateListeners) {
+    CollectionEvent<T> mergedEvent = null;
+    CollectionListener<T> [] listeners = (CollectionListener<T> [])this.collectionListeners.
+        toArray(new CollectionListener<?> [this.collectionListeners.size()]);
+    for (CollectionListener<T> listener : listeners) {
+      if ((listener instanceof HomeTransaction.ImmediateCollectionListener) == immediateListeners) {
+        if (listener instanceof BulkCollectionListener
+            && events.size() > 1) {
+          if (mergedEvent == null) {
+            List<T> items = new ArrayList<T>(events.size());
+            for (CollectionEvent<T> event : events) {
+              items.addAll(event.getItems());
+            }
+            mergedEvent = new CollectionEvent<T>(this.source, items, -1, events.get(0).getType());
+          }
+          listener.collectionChanged(mergedEvent);
+        } else {
+          for (CollectionEvent<T> event : events) {
+            fireCollectionEvent(listener, event);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Notifies <code>listener</code> of the given <code>event</code>,
+   * split in one event per item if the listener doesn't support bulk events.
+   */
+  private void fireCollectionEvent(CollectionListener<T> listener, CollectionEvent<T> event) {
+    List<T> items = event.getItems();
+    if (items.size() == 1
+        || listener instanceof BulkCollectionListener) {
+      listener.collectionChanged(event);
+    } else {
+      int index = event.getIndex();
+      for (int i = 0; i < items.size(); i++) {
+        // Following items were added after the first one or deleted at the same index
+        int itemIndex = index == -1 || event.getType() == CollectionEvent.Type.DELETE
+            ? index
+            : index + i;
+        listener.collectionChanged(new CollectionEvent<T>(this.source, items.get(i), itemIndex, event.getType()));
       }
     }
   }
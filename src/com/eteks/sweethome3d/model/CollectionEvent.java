@@ -19,7 +19,10 @@
  */
 package com.eteks.sweethome3d.model;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.EventObject;
+import java.util.List;
 
 /**
  * Type of event notified when an item is added or deleted from a list.
@@ -32,9 +35,10 @@ public class CollectionEvent<T> extends EventObject {
    */
   public enum Type {ADD, DELETE}
 
-  private final T    item;
-  private final int  index;
-  private final Type type;
+  private final T       item;
+  private final List<T> items;
+  private final int     index;
+  private final Type    type;
 
   /**
    * Creates an event for an item that has no index.
@@ -56,19 +60,50 @@ public class CollectionEvent<T> extends EventObject {
   public CollectionEvent(Object source, T item, int index, Type type) {
     super(source);
     this.item = item;
+    this.items = null;
+    this.index = index;
+    this.type =  type;
+  }
+
+  /**
+   * Creates an event for several items added or deleted together.
+   * @param source the object to which items were added or deleted
+   * @param items  the added or deleted items
+   * @param index  the index at which the first item was added or deleted when the other ones follow it,
+   *               or -1 if unknown
+   * @param type   <code>CollectionEvent.Type.ADD</code> or <code>CollectionEvent.Type.DELETE</code>
+   * @since 7.3
+   */
+  public CollectionEvent(Object source, List<? extends T> items, int index, Type type) {
+    super(source);
+    this.items = Collections.unmodifiableList(new ArrayList<T>(items));
+    this.item = this.items.isEmpty() ? null : this.items.get(0);
     this.index = index;
     this.type =  type;
   }
   
   /**
-   * Returns the added or deleted item.
+   * Returns the added or deleted item, or the first one if this event concerns several items.
    */
   public T getItem() {
     return this.item;
   }
 
+  /**
+   * Returns the added or deleted items.
+   * @since 7.3
+   */
+  public List<T> getItems() {
+    if (this.items != null) {
+      return this.items;
+    } else {
+      return Collections.singletonList(this.item);
+    }
+  }
+
   /**
    * Returns the index of the item in collection or -1 if this index is unknown.
+   * If this event concerns several items, the returned index is the one of the first item.
    */
   public int getIndex() {
     return this.index;
@@ -31,8 +31,11 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * The home managed by the application with its furniture and walls.
@@ -73,7 +76,7 @@ public class Home implements Serializable, Cloneable {
   public enum Property {NAME, MODIFIED,
     FURNITURE_SORTED_PROPERTY, FURNITURE_DESCENDING_SORTED, FURNITURE_VISIBLE_PROPERTIES,
     BACKGROUND_IMAGE, CAMERA, PRINT, BASE_PLAN_LOCKED, STORED_CAMERAS, RECOVERED, REPAIRED,
-    SELECTED_LEVEL, ALL_LEVELS_SELECTION, FURNITURE_ADDITIONAL_PROPERTIES};
+    SELECTED_LEVEL, ALL_LEVELS_SELECTION, FURNITURE_ADDITIONAL_PROPERTIES, TRANSACTION_IN_PROGRESS};
 
   private List<HomePieceOfFurniture>                  furniture;
   private transient CollectionChangeSupport<HomePieceOfFurniture> furnitureChangeSupport;
@@ -111,6 +114,14 @@ public class Home implements Serializable, Cloneable {
   private Map<String, Object>                         visualProperties;
   private Map<String, String>                         properties;
   private transient PropertyChangeSupport             propertyChangeSupport;
+  // Identity set of the items whose changes are buffered during transactions, built at first request
+  private transient Map<Object, Object>               transactionItems;
+  private transient LevelItemsIndex<HomePieceOfFurniture> furnitureLevelIndex;
+  private transient LevelItemsIndex<Wall>             wallsLevelIndex;
+  private transient LevelItemsIndex<Room>             roomsLevelIndex;
+  private transient LevelItemsIndex<Polyline>         polylinesLevelIndex;
+  private transient LevelItemsIndex<DimensionLine>    dimensionLinesLevelIndex;
+  private transient LevelItemsIndex<Label>            labelsLevelIndex;
   private long                                        version;
   private boolean                                     basePlanLocked;
   private Compass                                     compass;
@@ -449,19 +460,20 @@ public class Home implements Serializable, Cloneable {
    */
   private void addModelListeners() {
     // Add listeners to levels to maintain its elevation order
-    final PropertyChangeListener levelElevationChangeListener = new PropertyChangeListener() {
+    final PropertyChangeListener levelElevationChangeListener = new HomeTransaction.ImmediatePropertyChangeListener() {
         public void propertyChange(PropertyChangeEvent ev) {
           if (Level.Property.ELEVATION.name().equals(ev.getPropertyName())
               || Level.Property.ELEVATION_INDEX.name().equals(ev.getPropertyName())) {
             Home.this.levels = new ArrayList<Level>(Home.this.levels);
             Collections.sort(Home.this.levels, LEVEL_ELEVATION_COMPARATOR);
+            clearLevelIndices();
           }
         }
       };
     for (Level level : this.levels) {
       level.addPropertyChangeListener(levelElevationChangeListener);
     }
-    addLevelsListener(new CollectionListener<Level>() {
+    addLevelsListener(new HomeTransaction.ImmediateCollectionListener<Level>() {
         public void collectionChanged(CollectionEvent<Level> ev) {
           switch (ev.getType()) {
             case ADD :
@@ -471,8 +483,71 @@ public class Home implements Serializable, Cloneable {
               ev.getItem().removePropertyChangeListener(levelElevationChangeListener);
               break;
           }
+          clearLevelIndices();
         }
       });
+
+    // Add indices of the items at each level updated with the properties used by their isAtLevel method
+    this.furnitureLevelIndex = new LevelItemsIndex<HomePieceOfFurniture>(
+        HomePieceOfFurniture.Property.LEVEL.name(), HomePieceOfFurniture.Property.ELEVATION.name(),
+        HomePieceOfFurniture.Property.HEIGHT_IN_PLAN.name(), HomePieceOfFurniture.Property.STAIRCASE_CUT_OUT_SHAPE.name()) {
+        @Override
+        protected List<HomePieceOfFurniture> getItems() {
+          return Home.this.furniture;
+        }
+      };
+    addFurnitureListener(this.furnitureLevelIndex);
+    this.wallsLevelIndex = new LevelItemsIndex<Wall>(
+        Wall.Property.LEVEL.name(), Wall.Property.HEIGHT.name(), Wall.Property.HEIGHT_AT_END.name()) {
+        @Override
+        protected List<Wall> getItems() {
+          return Home.this.walls;
+        }
+      };
+    addWallsListener(this.wallsLevelIndex);
+    this.roomsLevelIndex = new LevelItemsIndex<Room>(Room.Property.LEVEL.name()) {
+        @Override
+        protected List<Room> getItems() {
+          return Home.this.rooms;
+        }
+      };
+    addRoomsListener(this.roomsLevelIndex);
+    this.polylinesLevelIndex = new LevelItemsIndex<Polyline>(Polyline.Property.LEVEL.name()) {
+        @Override
+        protected List<Polyline> getItems() {
+          return Home.this.polylines;
+        }
+      };
+    addPolylinesListener(this.polylinesLevelIndex);
+    this.dimensionLinesLevelIndex = new LevelItemsIndex<DimensionLine>(
+        DimensionLine.Property.LEVEL.name(), DimensionLine.Property.ELEVATION_START.name(),
+        DimensionLine.Property.ELEVATION_END.name()) {
+        @Override
+        protected List<DimensionLine> getItems() {
+          return Home.this.dimensionLines;
+        }
+      };
+    addDimensionLinesListener(this.dimensionLinesLevelIndex);
+    this.labelsLevelIndex = new LevelItemsIndex<Label>(
+        Label.Property.LEVEL.name(), Label.Property.ELEVATION.name()) {
+        @Override
+        protected List<Label> getItems() {
+          return Home.this.labels;
+        }
+      };
+    addLabelsListener(this.labelsLevelIndex);
+  }
+
+  /**
+   * Clears the items found at each level.
+   */
+  private void clearLevelIndices() {
+    this.furnitureLevelIndex.clear();
+    this.wallsLevelIndex.clear();
+    this.roomsLevelIndex.clear();
+    this.polylinesLevelIndex.clear();
+    this.dimensionLinesLevelIndex.clear();
+    this.labelsLevelIndex.clear();
   }
 
   /**
@@ -747,7 +822,7 @@ public class Home implements Serializable, Cloneable {
     if (selectedLevel != this.selectedLevel) {
       Level oldSelectedLevel = this.selectedLevel;
       this.selectedLevel = selectedLevel;
-      this.propertyChangeSupport.firePropertyChange(Property.SELECTED_LEVEL.name(), oldSelectedLevel, selectedLevel);
+      firePropertyChange(Property.SELECTED_LEVEL.name(), oldSelectedLevel, selectedLevel);
     }
   }
 
@@ -766,7 +841,7 @@ public class Home implements Serializable, Cloneable {
   public void setAllLevelsSelection(boolean selectionAtAllLevels) {
     if (selectionAtAllLevels != this.allLevelsSelection) {
       this.allLevelsSelection = selectionAtAllLevels;
-      this.propertyChangeSupport.firePropertyChange(Property.ALL_LEVELS_SELECTION.name(), !selectionAtAllLevels, selectionAtAllLevels);
+      firePropertyChange(Property.ALL_LEVELS_SELECTION.name(), !selectionAtAllLevels, selectionAtAllLevels);
     }
   }
 
@@ -794,6 +869,16 @@ public class Home implements Serializable, Cloneable {
     return Collections.unmodifiableList(this.furniture);
   }
 
+  /**
+   * Returns an unmodifiable list of the furniture of this home at the given <code>level</code>,
+   * in the same order as in {@link #getFurniture()}. Pieces of this list are the ones for which
+   * {@link HomePieceOfFurniture#isAtLevel(Level) isAtLevel} returns <code>true</code>.
+   * @since 7.3
+   */
+  public List<HomePieceOfFurniture> getFurnitureAtLevel(Level level) {
+    return this.furnitureLevelIndex.getItemsAtLevel(level);
+  }
+
   /**
    * Adds the <code>piece</code> in parameter to this home at the end of the furniture list.
    * Once the <code>piece</code> is added, furniture listeners added to this home will receive a
@@ -821,6 +906,25 @@ public class Home implements Serializable, Cloneable {
     this.furnitureChangeSupport.fireCollectionChanged(piece, index, CollectionEvent.Type.ADD);
   }
 
+  /**
+   * Adds the given <code>furniture</code> at the end of the furniture list of this home.
+   * Once the furniture is added, {@link BulkCollectionListener bulk} furniture listeners added to this home
+   * will receive one {@link CollectionListener#collectionChanged(CollectionEvent) collectionChanged}
+   * notification for all the pieces, and other listeners one notification per piece.
+   * @param furniture  the pieces to add
+   * @since 7.3
+   */
+  public void addFurniture(List<? extends HomePieceOfFurniture> furniture) {
+    int index = this.furniture.size();
+    // Make a copy of the list to avoid conflicts in the list returned by getFurniture
+    this.furniture = new ArrayList<HomePieceOfFurniture>(this.furniture);
+    for (HomePieceOfFurniture piece : furniture) {
+      piece.setLevel(this.selectedLevel);
+    }
+    this.furniture.addAll(furniture);
+    this.furnitureChangeSupport.fireCollectionChanged(furniture, index, CollectionEvent.Type.ADD);
+  }
+
   /**
    * Adds the <code>piece</code> in parameter at the <code>index</code> in the given <code>group</code>.
    * Once the <code>piece</code> is added, furniture listeners added to this home will receive a
@@ -872,6 +976,63 @@ public class Home implements Serializable, Cloneable {
     }
   }
 
+  /**
+   * Deletes the given <code>furniture</code> from this home.
+   * Once the furniture is deleted, {@link BulkCollectionListener bulk} furniture listeners added to this home
+   * will receive one {@link CollectionListener#collectionChanged(CollectionEvent) collectionChanged}
+   * notification for each sequence of contiguous pieces deleted from home furniture list
+   * with an event {@link CollectionEvent#getIndex() index} equal to the index of the first piece
+   * of that sequence once previous sequences are deleted, and other listeners one notification per piece.
+   * Pieces belonging to groups are deleted as with {@link #deletePieceOfFurniture(HomePieceOfFurniture)}.
+   * @param furniture  the pieces to remove
+   * @since 7.3
+   */
+  public void deleteFurniture(List<? extends HomePieceOfFurniture> furniture) {
+    // Ensure selectedItems don't keep a reference to deleted pieces or to their children
+    Set<Selectable> deselectedItems = new HashSet<Selectable>(furniture);
+    for (HomePieceOfFurniture piece : furniture) {
+      if (piece instanceof HomeFurnitureGroup) {
+        deselectedItems.addAll(((HomeFurnitureGroup)piece).getAllFurniture());
+      }
+    }
+    deselectItems(deselectedItems);
+
+    Set<HomePieceOfFurniture> homeFurniture = new HashSet<HomePieceOfFurniture>(this.furniture);
+    for (HomePieceOfFurniture piece : furniture) {
+      if (!homeFurniture.contains(piece)) {
+        deletePieceOfFurniture(piece);
+      }
+    }
+    Set<HomePieceOfFurniture> deletedPieces = new HashSet<HomePieceOfFurniture>(furniture);
+    List<HomePieceOfFurniture> keptFurniture = new ArrayList<HomePieceOfFurniture>(this.furniture.size());
+    // Group deleted pieces in sequences of contiguous pieces, each one stored
+    // with the index it has in furniture list once previous sequences are deleted
+    List<List<HomePieceOfFurniture>> deletedSequences = new ArrayList<List<HomePieceOfFurniture>>();
+    List<Integer> deletedSequenceIndices = new ArrayList<Integer>();
+    List<HomePieceOfFurniture> deletedSequence = null;
+    for (HomePieceOfFurniture piece : this.furniture) {
+      if (deletedPieces.contains(piece)) {
+        piece.setLevel(null);
+        if (deletedSequence == null) {
+          deletedSequence = new ArrayList<HomePieceOfFurniture>();
+          deletedSequences.add(deletedSequence);
+          deletedSequenceIndices.add(keptFurniture.size());
+        }
+        deletedSequence.add(piece);
+      } else {
+        keptFurniture.add(piece);
+        deletedSequence = null;
+      }
+    }
+    if (!deletedSequences.isEmpty()) {
+      this.furniture = keptFurniture;
+      for (int i = 0; i < deletedSequences.size(); i++) {
+        this.furnitureChangeSupport.fireCollectionChanged(deletedSequences.get(i),
+            deletedSequenceIndices.get(i), CollectionEvent.Type.DELETE);
+      }
+    }
+  }
+
   /**
    * Returns the furniture group that contains the given <code>piece</code> or <code>null</code>
    * if it can't be found.
@@ -960,6 +1121,23 @@ public class Home implements Serializable, Cloneable {
     }
   }
 
+  /**
+   * Deselects the given <code>items</code> and notifies listeners selection change once if needed.
+   */
+  private void deselectItems(Set<? extends Selectable> items) {
+    if (!this.selectedItems.isEmpty()) {
+      List<Selectable> selectedItems = new ArrayList<Selectable>(this.selectedItems.size());
+      for (Selectable item : this.selectedItems) {
+        if (!items.contains(item)) {
+          selectedItems.add(item);
+        }
+      }
+      if (selectedItems.size() != this.selectedItems.size()) {
+        setSelectedItems(selectedItems);
+      }
+    }
+  }
+
   /**
    * Adds the room <code>listener</code> in parameter to this home.
    * @param listener the listener to add
@@ -983,6 +1161,15 @@ public class Home implements Serializable, Cloneable {
     return Collections.unmodifiableList(this.rooms);
   }
 
+  /**
+   * Returns an unmodifiable list of the rooms of this home at the given <code>level</code>,
+   * in the same order as in {@link #getRooms()}.
+   * @since 7.3
+   */
+  public List<Room> getRoomsAtLevel(Level level) {
+    return this.roomsLevelIndex.getItemsAtLevel(level);
+  }
+
   /**
    * Adds the given <code>room</code> at the end of the rooms list of this home.
    * Once the <code>room</code> is added, room listeners added to this home will receive a
@@ -1012,6 +1199,25 @@ public class Home implements Serializable, Cloneable {
     this.roomsChangeSupport.fireCollectionChanged(room, index, CollectionEvent.Type.ADD);
   }
 
+  /**
+   * Adds the given <code>rooms</code> at the end of the rooms list of this home.
+   * Once the rooms are added, {@link BulkCollectionListener bulk} room listeners added to this home
+   * will receive one {@link CollectionListener#collectionChanged(CollectionEvent) collectionChanged}
+   * notification for all the rooms, and other listeners one notification per room.
+   * @param rooms  the rooms to add
+   * @since 7.3
+   */
+  public void addRooms(List<? extends Room> rooms) {
+    int index = this.rooms.size();
+    // Make a copy of the list to avoid conflicts in the list returned by getRooms
+    this.rooms = new ArrayList<Room>(this.rooms);
+    this.rooms.addAll(rooms);
+    for (Room room : rooms) {
+      room.setLevel(this.selectedLevel);
+    }
+    this.roomsChangeSupport.fireCollectionChanged(rooms, index, CollectionEvent.Type.ADD);
+  }
+
   /**
    * Removes the given <code>room</code> from the set of rooms of this home.
    * Once the <code>room</code> is removed, room listeners added to this home will receive a
@@ -1033,6 +1239,35 @@ public class Home implements Serializable, Cloneable {
     }
   }
 
+  /**
+   * Removes the given <code>rooms</code> from this home.
+   * Once the rooms are removed, {@link BulkCollectionListener bulk} room listeners added to this home
+   * will receive one {@link CollectionListener#collectionChanged(CollectionEvent) collectionChanged}
+   * notification for all the rooms with an event {@link CollectionEvent#getIndex() index} equal to -1,
+   * and other listeners one notification per room.
+   * @param rooms  the rooms to remove
+   * @since 7.3
+   */
+  public void deleteRooms(List<? extends Room> rooms) {
+    Set<Room> deletedRooms = new HashSet<Room>(rooms);
+    //  Ensure selectedItems don't keep a reference to rooms
+    deselectItems(deletedRooms);
+    List<Room> keptRooms = new ArrayList<Room>(this.rooms.size());
+    List<Room> removedRooms = new ArrayList<Room>(rooms.size());
+    for (Room room : this.rooms) {
+      if (deletedRooms.contains(room)) {
+        room.setLevel(null);
+        removedRooms.add(room);
+      } else {
+        keptRooms.add(room);
+      }
+    }
+    if (!removedRooms.isEmpty()) {
+      this.rooms = keptRooms;
+      this.roomsChangeSupport.fireCollectionChanged(removedRooms, -1, CollectionEvent.Type.DELETE);
+    }
+  }
+
   /**
    * Adds the wall <code>listener</code> in parameter to this home.
    * @param listener the listener to add
@@ -1056,6 +1291,15 @@ public class Home implements Serializable, Cloneable {
     return Collections.unmodifiableCollection(this.walls);
   }
 
+  /**
+   * Returns an unmodifiable list of the walls of this home at the given <code>level</code>,
+   * in the same order as in {@link #getWalls()}.
+   * @since 7.3
+   */
+  public List<Wall> getWallsAtLevel(Level level) {
+    return this.wallsLevelIndex.getItemsAtLevel(level);
+  }
+
   /**
    * Adds the given <code>wall</code> to the set of walls of this home.
    * Once the <code>wall</code> is added, wall listeners added to this home will receive a
@@ -1072,6 +1316,24 @@ public class Home implements Serializable, Cloneable {
     this.wallsChangeSupport.fireCollectionChanged(wall, CollectionEvent.Type.ADD);
   }
 
+  /**
+   * Adds the given <code>walls</code> to the set of walls of this home.
+   * Once the walls are added, {@link BulkCollectionListener bulk} wall listeners added to this home
+   * will receive one {@link CollectionListener#collectionChanged(CollectionEvent) collectionChanged}
+   * notification for all the walls, and other listeners one notification per wall.
+   * @param walls  the walls to add
+   * @since 7.3
+   */
+  public void addWalls(List<? extends Wall> walls) {
+    // Make a copy of the list to avoid conflicts in the list returned by getWalls
+    this.walls = new ArrayList<Wall>(this.walls);
+    this.walls.addAll(walls);
+    for (Wall wall : walls) {
+      wall.setLevel(this.selectedLevel);
+    }
+    this.wallsChangeSupport.fireCollectionChanged(walls, -1, CollectionEvent.Type.ADD);
+  }
+
   /**
    * Removes the given <code>wall</code> from the set of walls of this home.
    * Once the <code>wall</code> is removed, wall listeners added to this home will receive a
@@ -1102,6 +1364,64 @@ public class Home implements Serializable, Cloneable {
     }
   }
 
+  /**
+   * Removes the given <code>walls</code> from the set of walls of this home.
+   * Once the walls are removed, {@link BulkCollectionListener bulk} wall listeners added to this home
+   * will receive one {@link CollectionListener#collectionChanged(CollectionEvent) collectionChanged}
+   * notification for all the walls, and other listeners one notification per wall.
+   * Other walls are detached from the removed walls as if these ones were removed
+   * one after the other with {@link #deleteWall(Wall)}.
+   * @param walls  the walls to remove
+   * @since 7.3
+   */
+  public void deleteWalls(List<? extends Wall> walls) {
+    //  Ensure selectedItems don't keep a reference to walls
+    deselectItems(new HashSet<Wall>(walls));
+    // Detach other walls attached to removed walls, keeping the links of a removed wall
+    // to the walls removed after it
+    Map<Wall, Integer> deletionOrder = new HashMap<Wall, Integer>();
+    for (int i = 0; i < walls.size(); i++) {
+      if (!deletionOrder.containsKey(walls.get(i))) {
+        deletionOrder.put(walls.get(i), i);
+      }
+    }
+    for (Wall otherWall : this.walls) {
+      Integer otherWallOrder = deletionOrder.get(otherWall);
+      Wall wallAtStart = otherWall.getWallAtStart();
+      Integer wallAtStartOrder = wallAtStart != null
+          ? deletionOrder.get(wallAtStart)
+          : null;
+      boolean wallAtStartDetached = wallAtStartOrder != null
+          && (otherWallOrder == null || wallAtStartOrder < otherWallOrder);
+      if (wallAtStartDetached) {
+        otherWall.setWallAtStart(null);
+      }
+      Wall wallAtEnd = otherWall.getWallAtEnd();
+      Integer wallAtEndOrder = wallAtEnd != null
+          ? deletionOrder.get(wallAtEnd)
+          : null;
+      if (wallAtEndOrder != null
+          && (otherWallOrder == null || wallAtEndOrder < otherWallOrder)
+          && !(wallAtStartDetached && wallAtEnd == wallAtStart)) {
+        otherWall.setWallAtEnd(null);
+      }
+    }
+    List<Wall> keptWalls = new ArrayList<Wall>(this.walls.size());
+    List<Wall> removedWalls = new ArrayList<Wall>(walls.size());
+    for (Wall wall : this.walls) {
+      if (deletionOrder.containsKey(wall)) {
+        wall.setLevel(null);
+        removedWalls.add(wall);
+      } else {
+        keptWalls.add(wall);
+      }
+    }
+    if (!removedWalls.isEmpty()) {
+      this.walls = keptWalls;
+      this.wallsChangeSupport.fireCollectionChanged(removedWalls, -1, CollectionEvent.Type.DELETE);
+    }
+  }
+
   /**
    * Adds the polyline <code>listener</code> in parameter to this home.
    * @param listener the listener to add
@@ -1128,6 +1448,15 @@ public class Home implements Serializable, Cloneable {
     return Collections.unmodifiableList(this.polylines);
   }
 
+  /**
+   * Returns an unmodifiable list of the polylines of this home at the given <code>level</code>,
+   * in the same order as in {@link #getPolylines()}.
+   * @since 7.3
+   */
+  public List<Polyline> getPolylinesAtLevel(Level level) {
+    return this.polylinesLevelIndex.getItemsAtLevel(level);
+  }
+
   /**
    * Adds a given <code>polyline</code> at the end of the polylines list of this home.
    * Once the <code>polyline</code> is added, polyline listeners added to this home will receive a
@@ -1204,6 +1533,15 @@ public class Home implements Serializable, Cloneable {
     return Collections.unmodifiableCollection(this.dimensionLines);
   }
 
+  /**
+   * Returns an unmodifiable list of the dimension lines of this home at the given <code>level</code>,
+   * in the same order as in {@link #getDimensionLines()}.
+   * @since 7.3
+   */
+  public List<DimensionLine> getDimensionLinesAtLevel(Level level) {
+    return this.dimensionLinesLevelIndex.getItemsAtLevel(level);
+  }
+
   /**
    * Adds the given dimension line to the set of dimension lines of this home.
    * Once <code>dimensionLine</code> is added, dimension line listeners added
@@ -1266,6 +1604,15 @@ public class Home implements Serializable, Cloneable {
     return Collections.unmodifiableCollection(this.labels);
   }
 
+  /**
+   * Returns an unmodifiable list of the labels of this home at the given <code>level</code>,
+   * in the same order as in {@link #getLabels()}.
+   * @since 7.3
+   */
+  public List<Label> getLabelsAtLevel(Level level) {
+    return this.labelsLevelIndex.getItemsAtLevel(level);
+  }
+
   /**
    * Adds the given label to the set of labels of this home.
    * Once <code>label</code> is added, label listeners added
@@ -1431,7 +1778,7 @@ public class Home implements Serializable, Cloneable {
         && (name == null || !name.equals(this.name))) {
       String oldName = this.name;
       this.name = name;
-      this.propertyChangeSupport.firePropertyChange(Property.NAME.name(), oldName, name);
+      firePropertyChange(Property.NAME.name(), oldName, name);
     }
   }
 
@@ -1448,7 +1795,7 @@ public class Home implements Serializable, Cloneable {
   public void setModified(boolean modified) {
     if (modified != this.modified) {
       this.modified = modified;
-      this.propertyChangeSupport.firePropertyChange(
+      firePropertyChange(
           Property.MODIFIED.name(), !modified, modified);
     }
   }
@@ -1468,7 +1815,7 @@ public class Home implements Serializable, Cloneable {
   public void setRecovered(boolean recovered) {
     if (recovered != this.recovered) {
       this.recovered = recovered;
-      this.propertyChangeSupport.firePropertyChange(
+      firePropertyChange(
           Property.RECOVERED.name(), !recovered, recovered);
     }
   }
@@ -1488,7 +1835,7 @@ public class Home implements Serializable, Cloneable {
   public void setRepaired(boolean repaired) {
     if (repaired != this.repaired) {
       this.repaired = repaired;
-      this.propertyChangeSupport.firePropertyChange(
+      firePropertyChange(
           Property.REPAIRED.name(), !repaired, repaired);
     }
   }
@@ -1520,7 +1867,7 @@ public class Home implements Serializable, Cloneable {
       } catch (IllegalArgumentException ex) {
         this.furnitureSortedProperty = null;
       }
-      this.propertyChangeSupport.firePropertyChange(
+      firePropertyChange(
           Property.FURNITURE_SORTED_PROPERTY.name(),
           oldFurnitureSortedPropertyName, furnitureSortedPropertyName);
     }
@@ -1551,7 +1898,7 @@ public class Home implements Serializable, Cloneable {
       HomePieceOfFurniture.SortableProperty oldFurnitureSortedProperty = this.furnitureSortedProperty;
       this.furnitureSortedProperty = furnitureSortedProperty;
       this.furnitureSortedPropertyName = furnitureSortedProperty != null ? furnitureSortedProperty.name() : null;
-      this.propertyChangeSupport.firePropertyChange(
+      firePropertyChange(
           Property.FURNITURE_SORTED_PROPERTY.name(),
           oldFurnitureSortedProperty, furnitureSortedProperty);
     }
@@ -1571,7 +1918,7 @@ public class Home implements Serializable, Cloneable {
   public void setFurnitureDescendingSorted(boolean furnitureDescendingSorted) {
     if (furnitureDescendingSorted != this.furnitureDescendingSorted) {
       this.furnitureDescendingSorted = furnitureDescendingSorted;
-      this.propertyChangeSupport.firePropertyChange(
+      firePropertyChange(
           Property.FURNITURE_DESCENDING_SORTED.name(),
           !furnitureDescendingSorted, furnitureDescendingSorted);
     }
@@ -1608,7 +1955,7 @@ public class Home implements Serializable, Cloneable {
           // Ignore unknown property
         }
       }
-      this.propertyChangeSupport.firePropertyChange(
+      firePropertyChange(
           Property.FURNITURE_VISIBLE_PROPERTIES.name(),
           Collections.unmodifiableList(oldFurnitureVisiblePropertyNames),
           Collections.unmodifiableList(furnitureVisiblePropertyNames));
@@ -1646,7 +1993,7 @@ public class Home implements Serializable, Cloneable {
       for (HomePieceOfFurniture.SortableProperty property : furnitureVisibleProperties) {
         this.furnitureVisiblePropertyNames.add(property.name());
       }
-      this.propertyChangeSupport.firePropertyChange(
+      firePropertyChange(
           Property.FURNITURE_VISIBLE_PROPERTIES.name(),
           Collections.unmodifiableList(oldFurnitureVisibleProperties),
           Collections.unmodifiableList(furnitureVisibleProperties));
@@ -1688,7 +2035,7 @@ public class Home implements Serializable, Cloneable {
           && !furnitureAdditionalProperties.contains(new ObjectProperty(getFurnitureSortedPropertyName()))) {
         setFurnitureSortedPropertyName(null);
       }
-      this.propertyChangeSupport.firePropertyChange(Property.FURNITURE_ADDITIONAL_PROPERTIES.name(),
+      firePropertyChange(Property.FURNITURE_ADDITIONAL_PROPERTIES.name(),
           Collections.unmodifiableList(oldFurnitureAdditionalProperties),
           Collections.unmodifiableList(furnitureAdditionalProperties));
     }
@@ -1709,7 +2056,7 @@ public class Home implements Serializable, Cloneable {
     if (backgroundImage != this.backgroundImage) {
       BackgroundImage oldBackgroundImage = this.backgroundImage;
       this.backgroundImage = backgroundImage;
-      this.propertyChangeSupport.firePropertyChange(
+      firePropertyChange(
           Property.BACKGROUND_IMAGE.name(), oldBackgroundImage, backgroundImage);
     }
   }
@@ -1736,7 +2083,7 @@ public class Home implements Serializable, Cloneable {
     if (camera != this.camera) {
       Camera oldCamera = this.camera;
       this.camera = camera;
-      this.propertyChangeSupport.firePropertyChange(
+      firePropertyChange(
           Property.CAMERA.name(), oldCamera, camera);
     }
   }
@@ -1766,7 +2113,7 @@ public class Home implements Serializable, Cloneable {
       } else {
         this.storedCameras = new ArrayList<Camera>(storedCameras);
       }
-      this.propertyChangeSupport.firePropertyChange(
+      firePropertyChange(
           Property.STORED_CAMERAS.name(), Collections.unmodifiableList(oldStoredCameras), Collections.unmodifiableList(storedCameras));
     }
   }
@@ -1809,7 +2156,7 @@ public class Home implements Serializable, Cloneable {
     if (print != this.print) {
       HomePrint oldPrint = this.print;
       this.print = print;
-      this.propertyChangeSupport.firePropertyChange(Property.PRINT.name(), oldPrint, print);
+      firePropertyChange(Property.PRINT.name(), oldPrint, print);
     }
     this.print = print;
   }
@@ -1879,12 +2226,12 @@ public class Home implements Serializable, Cloneable {
     if (value == null) {
       if (oldValue != null) {
         this.properties.remove(name);
-        this.propertyChangeSupport.firePropertyChange(name, oldValue, null);
+        firePropertyChange(name, oldValue, null);
       }
     } else {
       this.properties.put(name, value);
       // Event fired only if not null value changed
-      this.propertyChangeSupport.firePropertyChange(name, oldValue, value);
+      firePropertyChange(name, oldValue, value);
     }
   }
 
@@ -1917,6 +2264,139 @@ public class Home implements Serializable, Cloneable {
     this.propertyChangeSupport.removePropertyChangeListener(propertyName, listener);
   }
 
+  /**
+   * Fires a property change to listeners, or buffers it if a transaction is in progress.
+   */
+  private void firePropertyChange(String propertyName, Object oldValue, Object newValue) {
+    HomeTransaction transaction = HomeTransaction.getTransaction(this);
+    if (transaction != null) {
+      transaction.firePropertyChange(this, this.propertyChangeSupport, propertyName, oldValue, newValue);
+    } else {
+      this.propertyChangeSupport.firePropertyChange(propertyName, oldValue, newValue);
+    }
+  }
+
+  /**
+   * Returns the support managing the property listeners of this home.
+   */
+  PropertyChangeSupport getPropertyChangeSupport() {
+    return this.propertyChangeSupport;
+  }
+
+  /**
+   * Starts a transaction during which the property changes of home items and the collection events
+   * of this home fired in the current thread are buffered. Successive changes of a same property
+   * of an item are coalesced in one event, notified with the other buffered events
+   * once the outermost transaction is committed.
+   * Each call to this method must be followed by a call to {@link #commitTransaction()},
+   * typically in a <code>finally</code> block.
+   * @since 7.3
+   */
+  public void beginTransaction() {
+    if (!HomeTransaction.isInProgress(this)) {
+      this.propertyChangeSupport.firePropertyChange(Property.TRANSACTION_IN_PROGRESS.name(), false, true);
+    }
+    HomeTransaction.begin(this);
+  }
+
+  /**
+   * Ends the transaction started with {@link #beginTransaction()} and notifies buffered events
+   * if it's the outermost transaction. Once these events are delivered, a <code>PropertyChangeEvent</code>
+   * is fired for {@link Property#TRANSACTION_IN_PROGRESS} property to let listeners
+   * update their state once for all the changes.
+   * @throws IllegalStateException if no transaction was started on this home
+   * @since 7.3
+   */
+  public void commitTransaction() {
+    if (!HomeTransaction.isInProgress(this)) {
+      throw new IllegalStateException("No transaction in progress");
+    }
+    try {
+      HomeTransaction.commit(this);
+    } finally {
+      if (!HomeTransaction.isInProgress(this)) {
+        this.propertyChangeSupport.firePropertyChange(Property.TRANSACTION_IN_PROGRESS.name(), true, false);
+      }
+    }
+  }
+
+  /**
+   * Returns <code>true</code> if the given <code>object</code> is an item of this home
+   * whose changes are buffered during the transactions of this home.
+   */
+  boolean isTransactionItem(Object object) {
+    if (this.transactionItems == null) {
+      this.transactionItems = new IdentityHashMap<Object, Object>();
+      addTransactionItems(this.furniture);
+      addTransactionItems(this.levels);
+      addTransactionItems(this.walls);
+      addTransactionItems(this.rooms);
+      addTransactionItems(this.polylines);
+      addTransactionItems(this.dimensionLines);
+      addTransactionItems(this.labels);
+      // Keep items up to date
+      addFurnitureListener(new TransactionItemsListener<HomePieceOfFurniture>());
+      addLevelsListener(new TransactionItemsListener<Level>());
+      addWallsListener(new TransactionItemsListener<Wall>());
+      addRoomsListener(new TransactionItemsListener<Room>());
+      addPolylinesListener(new TransactionItemsListener<Polyline>());
+      addDimensionLinesListener(new TransactionItemsListener<DimensionLine>());
+      addLabelsListener(new TransactionItemsListener<Label>());
+    }
+    return this.transactionItems.containsKey(object)
+        || object == this.camera
+        || object == this.observerCamera
+        || object == this.topCamera
+        || object == this.environment
+        || object == this.compass;
+  }
+
+  /**
+   * Adds the given <code>items</code> and the pieces of groups to transaction items.
+   */
+  private void addTransactionItems(Collection<?> items) {
+    for (Object item : items) {
+      this.transactionItems.put(item, item);
+      if (item instanceof HomeFurnitureGroup) {
+        addTransactionItems(((HomeFurnitureGroup)item).getFurniture());
+      }
+    }
+  }
+
+  /**
+   * Removes the given <code>items</code> and the pieces of groups from transaction items.
+   */
+  private void removeTransactionItems(Collection<?> items) {
+    for (Object item : items) {
+      this.transactionItems.remove(item);
+      if (item instanceof HomeFurnitureGroup) {
+        removeTransactionItems(((HomeFurnitureGroup)item).getFurniture());
+      }
+    }
+  }
+
+  /**
+   * A listener updating transaction items when home collections change.
+   */
+  private class TransactionItemsListener<T> implements HomeTransaction.ImmediateCollectionListener<T> {
+    public void collectionChanged(CollectionEvent<T> ev) {
+      if (ev.getType() == CollectionEvent.Type.ADD) {
+        addTransactionItems(ev.getItems());
+      } else {
+        removeTransactionItems(ev.getItems());
+      }
+    }
+  }
+
+  /**
+   * Returns <code>true</code> if a transaction is in progress on this home in the current thread,
+   * including while its buffered events are delivered.
+   * @since 7.3
+   */
+  public boolean isTransactionInProgress() {
+    return HomeTransaction.isInProgress(this);
+  }
+
   /**
    * Returns <code>true</code> if the home objects belonging to the base plan
    * (generally walls, rooms, dimension lines and texts) are locked.
@@ -1934,7 +2414,7 @@ public class Home implements Serializable, Cloneable {
   public void setBasePlanLocked(boolean basePlanLocked) {
     if (basePlanLocked != this.basePlanLocked) {
       this.basePlanLocked = basePlanLocked;
-      this.propertyChangeSupport.firePropertyChange(
+      firePropertyChange(
           Property.BASE_PLAN_LOCKED.name(), !basePlanLocked, basePlanLocked);
     }
   }
@@ -1971,6 +2451,7 @@ public class Home implements Serializable, Cloneable {
       Home clone = (Home)super.clone();
       copyHomeData(this, clone);
       initListenersSupport(clone);
+      clone.transactionItems = null;
       clone.addModelListeners();
       return clone;
     } catch (CloneNotSupportedException ex) {
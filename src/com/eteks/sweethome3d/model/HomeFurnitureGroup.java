@@ -30,8 +30,13 @@ import java.io.ObjectInputStream;
 import java.lang.ref.WeakReference;
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * A group of furniture of furniture.
@@ -41,6 +46,8 @@ import java.util.List;
 public class HomeFurnitureGroup extends HomePieceOfFurniture {
   private static final long serialVersionUID = 1L;
 
+  private static final float BOUNDS_MARGIN = 0.01f;
+
   private List<HomePieceOfFurniture> furniture;
   private boolean                    resizable;
   private boolean                    deformable;
@@ -56,6 +63,15 @@ public class HomeFurnitureGroup extends HomePieceOfFurniture {
   // private List<HomeTexture>       furnitureDefaultTextures;
 
   private transient PropertyChangeListener furnitureListener;
+  // Bounds of each child in the unrotated group, their union and the angle used to compute them
+  private transient Map<HomePieceOfFurniture, Rectangle2D> furnitureBounds;
+  private transient Rectangle2D            unrotatedBoundingRectangle;
+  private transient float                  furnitureBoundsAngle;
+  // Elevation, top and drop on top elevation of each child, and their lowest and highest values
+  private transient Map<HomePieceOfFurniture, float []> furnitureElevations;
+  private transient float []               elevationBounds;
+  // Children changed during the current transaction
+  private transient Set<HomePieceOfFurniture> changedFurniture;
 
   /**
    * Creates a group from the given <code>furniture</code> list.
@@ -175,7 +191,6 @@ public class HomeFurnitureGroup extends HomePieceOfFurniture {
       }
     }
 
-    float elevation = Float.MAX_VALUE;
     if (init) {
       // Search the lowest level elevation among grouped furniture
       Level minLevel = null;
@@ -189,36 +204,137 @@ public class HomeFurnitureGroup extends HomePieceOfFurniture {
       }
       for (HomePieceOfFurniture piece : furniture) {
         if (piece.getLevel() != null) {
-          elevation = Math.min(elevation, piece.getGroundElevation() - minLevel.getElevation());
           // Reset piece level and elevation
           piece.setElevation(piece.getGroundElevation() - minLevel.getElevation());
           piece.setLevel(null);
-        } else {
-          elevation = Math.min(elevation, piece.getElevation());
         }
       }
-    } else {
-      for (HomePieceOfFurniture piece : furniture) {
-        elevation = Math.min(elevation, piece.getElevation());
-      }
     }
 
-    float height = 0;
-    float dropOnTopElevation = -1;
+    // Search the size of the furniture group
+    AffineTransform rotation = AffineTransform.getRotateInstance(-angle);
+    Map<HomePieceOfFurniture, Rectangle2D> furnitureBounds =
+        new IdentityHashMap<HomePieceOfFurniture, Rectangle2D>(furniture.size());
+    Map<HomePieceOfFurniture, float []> furnitureElevations =
+        new IdentityHashMap<HomePieceOfFurniture, float []>(furniture.size());
+    Rectangle2D unrotatedBoundingRectangle = null;
+    float [] elevationBounds = {Float.MAX_VALUE, 0, -1};
     for (HomePieceOfFurniture piece : furniture) {
-      height = Math.max(height, piece.getElevation() + piece.getHeightInPlan());
-      if (piece.getDropOnTopElevation() >= 0) {
-        dropOnTopElevation = Math.max(dropOnTopElevation,
-            piece.getElevation() + piece.getHeightInPlan() * piece.getDropOnTopElevation());
+      Rectangle2D pieceBounds = getUnrotatedBounds(piece, angle, rotation, true);
+      furnitureBounds.put(piece, pieceBounds);
+      if (unrotatedBoundingRectangle == null) {
+        unrotatedBoundingRectangle = (Rectangle2D)pieceBounds.clone();
+      } else {
+        unrotatedBoundingRectangle.add(pieceBounds);
       }
+      float [] pieceElevations = getElevations(piece);
+      furnitureElevations.put(piece, pieceElevations);
+      addElevations(elevationBounds, pieceElevations);
     }
-    height -= elevation;
-    dropOnTopElevation -= elevation;
+    this.furnitureBounds = furnitureBounds;
+    this.furnitureElevations = furnitureElevations;
+    this.furnitureBoundsAngle = angle;
+    updateLocationAndSize(angle, elevationBounds, unrotatedBoundingRectangle);
+  }
 
-    // Search the size of the furniture group
-    AffineTransform rotation = AffineTransform.getRotateInstance(-angle);
-    Rectangle2D unrotatedBoundingRectangle = null;
-    for (HomePieceOfFurniture piece : getFurnitureWithoutGroups(furniture)) {
+  /**
+   * Updates the location and size of this group from the bounds of the given changed
+   * <code>pieces</code> only, or from all its furniture if bounds computed previously aren't valid anymore.
+   */
+  private void updateLocationAndSize(Collection<HomePieceOfFurniture> pieces) {
+    float angle = getAngle();
+    if (this.furnitureBounds == null
+        || this.furnitureBoundsAngle != angle) {
+      updateLocationAndSize(this.furniture, angle, false);
+    } else {
+      AffineTransform rotation = AffineTransform.getRotateInstance(-angle);
+      Rectangle2D unrotatedBoundingRectangle = this.unrotatedBoundingRectangle;
+      float [] elevationBounds = this.elevationBounds.clone();
+      boolean boundsReduced = false;
+      boolean elevationBoundsReduced = false;
+      for (HomePieceOfFurniture piece : pieces) {
+        if (this.furnitureBounds.containsKey(piece)) {
+          Rectangle2D pieceBounds = getUnrotatedBounds(piece, angle, rotation, false);
+          Rectangle2D oldPieceBounds = this.furnitureBounds.put(piece, pieceBounds);
+          // Bounds may be reduced only if the old bounds of the piece were on a side of the group
+          // (compared with a margin to ignore rounding errors of float coordinates)
+          boundsReduced |= !pieceBounds.contains(oldPieceBounds)
+              && (oldPieceBounds.getMinX() <= unrotatedBoundingRectangle.getMinX() + BOUNDS_MARGIN
+                  || oldPieceBounds.getMinY() <= unrotatedBoundingRectangle.getMinY() + BOUNDS_MARGIN
+                  || oldPieceBounds.getMaxX() >= unrotatedBoundingRectangle.getMaxX() - BOUNDS_MARGIN
+                  || oldPieceBounds.getMaxY() >= unrotatedBoundingRectangle.getMaxY() - BOUNDS_MARGIN);
+          unrotatedBoundingRectangle.add(pieceBounds);
+          // Same for elevation, top and drop on top elevation which may be reduced only if the piece was an extreme
+          float [] pieceElevations = getElevations(piece);
+          float [] oldPieceElevations = this.furnitureElevations.put(piece, pieceElevations);
+          elevationBoundsReduced |= oldPieceElevations [0] <= elevationBounds [0] && pieceElevations [0] > oldPieceElevations [0]
+              || oldPieceElevations [1] >= elevationBounds [1] && pieceElevations [1] < oldPieceElevations [1]
+              || oldPieceElevations [2] >= elevationBounds [2] && pieceElevations [2] < oldPieceElevations [2];
+          addElevations(elevationBounds, pieceElevations);
+        }
+      }
+      if (boundsReduced) {
+        unrotatedBoundingRectangle = null;
+        for (Rectangle2D pieceBounds : this.furnitureBounds.values()) {
+          if (unrotatedBoundingRectangle == null) {
+            unrotatedBoundingRectangle = (Rectangle2D)pieceBounds.clone();
+          } else {
+            unrotatedBoundingRectangle.add(pieceBounds);
+          }
+        }
+      }
+      if (elevationBoundsReduced) {
+        elevationBounds = new float [] {Float.MAX_VALUE, 0, -1};
+        for (float [] pieceElevations : this.furnitureElevations.values()) {
+          addElevations(elevationBounds, pieceElevations);
+        }
+      }
+      updateLocationAndSize(angle, elevationBounds, unrotatedBoundingRectangle);
+    }
+  }
+
+  /**
+   * Returns the elevation, the top elevation and the drop on top elevation of the given <code>piece</code>
+   * (or -1 if it doesn't have a drop on top elevation) in this group.
+   */
+  private static float [] getElevations(HomePieceOfFurniture piece) {
+    float elevation = piece.getElevation();
+    float heightInPlan = piece.getHeightInPlan();
+    return new float [] {elevation, elevation + heightInPlan,
+        piece.getDropOnTopElevation() >= 0
+            ? elevation + heightInPlan * piece.getDropOnTopElevation()
+            : -1};
+  }
+
+  /**
+   * Extends the given elevation bounds with the elevations of a piece.
+   */
+  private static void addElevations(float [] elevationBounds, float [] pieceElevations) {
+    elevationBounds [0] = Math.min(elevationBounds [0], pieceElevations [0]);
+    elevationBounds [1] = Math.max(elevationBounds [1], pieceElevations [1]);
+    elevationBounds [2] = Math.max(elevationBounds [2], pieceElevations [2]);
+  }
+
+  /**
+   * Returns the bounds of the given <code>piece</code> once rotated with <code>rotation</code>.
+   * If <code>piece</code> is a group, its bounds are computed from the pieces it contains,
+   * unless <code>exact</code> is <code>false</code> and its angle is equal to <code>angle</code>.
+   */
+  private Rectangle2D getUnrotatedBounds(HomePieceOfFurniture piece, float angle,
+                                         AffineTransform rotation, boolean exact) {
+    if (piece instanceof HomeFurnitureGroup
+        && (exact || piece.getAngle() != angle)) {
+      Rectangle2D bounds = null;
+      for (HomePieceOfFurniture childPiece : ((HomeFurnitureGroup)piece).getFurniture()) {
+        Rectangle2D childBounds = getUnrotatedBounds(childPiece, angle, rotation, exact);
+        if (bounds == null) {
+          bounds = childBounds;
+        } else {
+          bounds.add(childBounds);
+        }
+      }
+      return bounds;
+    } else {
       GeneralPath pieceShape = new GeneralPath();
       float [][] points = piece.getPoints();
       pieceShape.moveTo(points [0][0], points [0][1]);
@@ -226,15 +342,24 @@ public class HomeFurnitureGroup extends HomePieceOfFurniture {
         pieceShape.lineTo(points [i][0], points [i][1]);
       }
       pieceShape.closePath();
-      if (unrotatedBoundingRectangle == null) {
-        unrotatedBoundingRectangle = pieceShape.createTransformedShape(rotation).getBounds2D();
-      } else {
-        unrotatedBoundingRectangle.add(pieceShape.createTransformedShape(rotation).getBounds2D());
-      }
+      return pieceShape.createTransformedShape(rotation).getBounds2D();
     }
+  }
+
+  /**
+   * Updates the location and size of this group from the given elevation bounds and bounding rectangle.
+   */
+  private void updateLocationAndSize(float angle, float [] elevationBounds,
+                                     Rectangle2D unrotatedBoundingRectangle) {
+    this.unrotatedBoundingRectangle = unrotatedBoundingRectangle;
+    this.elevationBounds = elevationBounds;
+    float elevation = elevationBounds [0];
+    float height = elevationBounds [1] - elevation;
+    float dropOnTopElevation = elevationBounds [2] - elevation;
+
     // Search center of the group
     Point2D center = new Point2D.Float((float)unrotatedBoundingRectangle.getCenterX(), (float)unrotatedBoundingRectangle.getCenterY());
-    rotation.setToRotation(angle);
+    AffineTransform rotation = AffineTransform.getRotateInstance(angle);
     rotation.transform(center, center);
 
     if (this.resizable) {
@@ -273,7 +398,7 @@ public class HomeFurnitureGroup extends HomePieceOfFurniture {
    * This listener is bound to this group with a weak reference to avoid a strong link
    * of this group towards the furniture it contains.
    */
-  private static class LocationAndSizeChangeListener implements PropertyChangeListener {
+  private static class LocationAndSizeChangeListener implements HomeTransaction.ImmediatePropertyChangeListener {
     private WeakReference<HomeFurnitureGroup> group;
 
     public LocationAndSizeChangeListener(HomeFurnitureGroup group) {
@@ -292,24 +417,54 @@ public class HomeFurnitureGroup extends HomePieceOfFurniture {
           || HomePieceOfFurniture.Property.WIDTH_IN_PLAN.name().equals(ev.getPropertyName())
           || HomePieceOfFurniture.Property.DEPTH_IN_PLAN.name().equals(ev.getPropertyName())
           || HomePieceOfFurniture.Property.HEIGHT_IN_PLAN.name().equals(ev.getPropertyName())) {
-        group.updateLocationAndSize(group.getFurniture(), group.getAngle(), false);
+        group.pieceOfFurnitureChanged((HomePieceOfFurniture)ev.getSource());
       }
     }
   }
 
   /**
-   * Returns all the pieces of the given <code>furniture</code> list.
+   * Updates the location and size of this group once the given <code>piece</code> changed,
+   * or at the end of the transaction in progress if any.
    */
-  private List<HomePieceOfFurniture> getFurnitureWithoutGroups(List<HomePieceOfFurniture> furniture) {
-    List<HomePieceOfFurniture> pieces = new ArrayList<HomePieceOfFurniture>();
-    for (HomePieceOfFurniture piece : furniture) {
-      if (piece instanceof HomeFurnitureGroup) {
-        pieces.addAll(getFurnitureWithoutGroups(((HomeFurnitureGroup)piece).getFurniture()));
-      } else {
-        pieces.add(piece);
+  private void pieceOfFurnitureChanged(HomePieceOfFurniture piece) {
+    HomeTransaction transaction = HomeTransaction.getTransaction(this);
+    if (transaction == null) {
+      updateLocationAndSize(Collections.singleton(piece));
+    } else {
+      if (this.changedFurniture == null) {
+        this.changedFurniture = new LinkedHashSet<HomePieceOfFurniture>();
+        transaction.invokeBeforeCommit(this, new Runnable() {
+            public void run() {
+              if (HomeFurnitureGroup.this.changedFurniture != null) {
+                Set<HomePieceOfFurniture> pieces = HomeFurnitureGroup.this.changedFurniture;
+                HomeFurnitureGroup.this.changedFurniture = null;
+                updateLocationAndSize(pieces);
+              }
+            }
+          });
       }
+      this.changedFurniture.add(piece);
     }
-    return pieces;
+  }
+
+  /**
+   * Updates the location and size of this group and of the other groups changed in the current transaction,
+   * like the subgroups of this group, before this group is modified. The getters of this group don't call
+   * this method and return the location and size computed before the transaction until it's committed.
+   */
+  private void updateChangedFurnitureLocationAndSize() {
+    HomeTransaction transaction = HomeTransaction.getTransaction(this);
+    if (transaction != null) {
+      transaction.runCommitTasks();
+    }
+  }
+
+  /**
+   * Forgets the bounds of each piece of this group once its furniture is moved with the group.
+   */
+  private void resetFurnitureBounds() {
+    updateChangedFurnitureLocationAndSize();
+    this.furnitureBounds = null;
   }
 
   /**
@@ -922,6 +1077,7 @@ public class HomeFurnitureGroup extends HomePieceOfFurniture {
    */
   @Override
   public void setAngle(float angle) {
+    resetFurnitureBounds();
     if (angle != getAngle()) {
       float angleDelta = angle - getAngle();
       double cosAngleDelta = Math.cos(angleDelta);
@@ -944,6 +1100,7 @@ public class HomeFurnitureGroup extends HomePieceOfFurniture {
    */
   @Override
   public void setX(float x) {
+    resetFurnitureBounds();
     if (x != getX()) {
       float dx = x - getX();
       for (HomePieceOfFurniture piece : this.furniture) {
@@ -960,6 +1117,7 @@ public class HomeFurnitureGroup extends HomePieceOfFurniture {
    */
   @Override
   public void setY(float y) {
+    resetFurnitureBounds();
     if (y != getY()) {
       float dy = y - getY();
       for (HomePieceOfFurniture piece : this.furniture) {
@@ -977,6 +1135,7 @@ public class HomeFurnitureGroup extends HomePieceOfFurniture {
    */
   @Override
   public void setWidth(float width) {
+    resetFurnitureBounds();
     if (width != getWidth()) {
       float widthFactor = width / getWidth();
       float angle = getAngle();
@@ -1009,6 +1168,7 @@ public class HomeFurnitureGroup extends HomePieceOfFurniture {
    */
   @Override
   public void setDepth(float depth) {
+    resetFurnitureBounds();
     if (depth != getDepth()) {
       float depthFactor = depth / getDepth();
       float angle = getAngle();
@@ -1041,6 +1201,7 @@ public class HomeFurnitureGroup extends HomePieceOfFurniture {
    */
   @Override
   public void setHeight(float height) {
+    updateChangedFurnitureLocationAndSize();
     if (height != getHeight()) {
       float heightFactor = height / getHeight();
       for (HomePieceOfFurniture piece : this.furniture) {
@@ -1060,6 +1221,7 @@ public class HomeFurnitureGroup extends HomePieceOfFurniture {
    */
   @Override
   public void scale(float scale) {
+    resetFurnitureBounds();
     float angle = getAngle();
     for (HomePieceOfFurniture piece : this.furniture) {
       piece.removePropertyChangeListener(this.furnitureListener);
@@ -1090,6 +1252,7 @@ public class HomeFurnitureGroup extends HomePieceOfFurniture {
    */
   @Override
   public void setElevation(float elevation) {
+    updateChangedFurnitureLocationAndSize();
     if (elevation != getElevation()) {
       float elevationDelta = elevation - getElevation();
       for (HomePieceOfFurniture piece : this.furniture) {
@@ -1106,6 +1269,7 @@ public class HomeFurnitureGroup extends HomePieceOfFurniture {
    */
   @Override
   public void setModelMirrored(boolean modelMirrored) {
+    resetFurnitureBounds();
     if (modelMirrored != isModelMirrored()) {
       float angle = getAngle();
       for (HomePieceOfFurniture piece : this.furniture) {
@@ -1214,6 +1378,8 @@ public class HomeFurnitureGroup extends HomePieceOfFurniture {
       clone.furniture.add(piece.clone());
     }
     clone.furniture = Collections.unmodifiableList(clone.furniture);
+    clone.furnitureBounds = null;
+    clone.changedFurniture = null;
     clone.addFurnitureListener();
     return clone;
   }
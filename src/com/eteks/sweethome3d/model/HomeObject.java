@@ -159,10 +159,22 @@ public abstract class HomeObject implements Serializable, Cloneable {
    */
   protected void firePropertyChange(String propertyName, Object oldValue, Object newValue) {
     if (this.propertyChangeSupport != null) {
-      this.propertyChangeSupport.firePropertyChange(propertyName, oldValue, newValue);
+      HomeTransaction transaction = HomeTransaction.getTransaction(this);
+      if (transaction != null) {
+        transaction.firePropertyChange(this, this.propertyChangeSupport, propertyName, oldValue, newValue);
+      } else {
+        this.propertyChangeSupport.firePropertyChange(propertyName, oldValue, newValue);
+      }
     }
   }
 
+  /**
+   * Returns the support managing the listeners of this object or <code>null</code>.
+   */
+  PropertyChangeSupport getPropertyChangeSupport() {
+    return this.propertyChangeSupport;
+  }
+
   /**
    * Returns the ID of this object.
    * @return a unique ID
@@ -365,6 +365,10 @@ public class HomePieceOfFurniture extends HomeObject implements PieceOfFurniture
   private Level                  level;
 
   private transient Shape shapeCache;
+  private transient float []   pointsCache;
+  // Incremented each time shape cache is cleared, to avoid caching a shape
+  // computed in an other thread from data modified in the meantime
+  private transient volatile int shapeCacheVersion;
 
 
   /**
@@ -770,7 +774,7 @@ public class HomePieceOfFurniture extends HomeObject implements PieceOfFurniture
       if (depth != this.depth) {
         float oldDepth = this.depth;
         this.depth = depth;
-        this.shapeCache = null;
+        clearShapeCache();
         firePropertyChange(Property.DEPTH.name(), oldDepth, depth);
       }
     } else {
@@ -795,7 +799,7 @@ public class HomePieceOfFurniture extends HomeObject implements PieceOfFurniture
     if (depthInPlan != this.depthInPlan) {
       float oldDepth = this.depthInPlan;
       this.depthInPlan = depthInPlan;
-      this.shapeCache = null;
+      clearShapeCache();
       firePropertyChange(Property.DEPTH_IN_PLAN.name(), oldDepth, depthInPlan);
     }
   }
@@ -862,7 +866,7 @@ public class HomePieceOfFurniture extends HomeObject implements PieceOfFurniture
       if (width != this.width) {
         float oldWidth = this.width;
         this.width = width;
-        this.shapeCache = null;
+        clearShapeCache();
         firePropertyChange(Property.WIDTH.name(), oldWidth, width);
       }
     } else {
@@ -887,7 +891,7 @@ public class HomePieceOfFurniture extends HomeObject implements PieceOfFurniture
     if (widthInPlan != this.widthInPlan) {
       float oldWidth = this.widthInPlan;
       this.widthInPlan = widthInPlan;
-      this.shapeCache = null;
+      clearShapeCache();
       firePropertyChange(Property.WIDTH_IN_PLAN.name(), oldWidth, widthInPlan);
     }
   }
@@ -1333,7 +1337,7 @@ public class HomePieceOfFurniture extends HomeObject implements PieceOfFurniture
     if (x != this.x) {
       float oldX = this.x;
       this.x = x;
-      this.shapeCache = null;
+      clearShapeCache();
       firePropertyChange(Property.X.name(), oldX, x);
     }
   }
@@ -1353,7 +1357,7 @@ public class HomePieceOfFurniture extends HomeObject implements PieceOfFurniture
     if (y != this.y) {
       float oldY = this.y;
       this.y = y;
-      this.shapeCache = null;
+      clearShapeCache();
       firePropertyChange(Property.Y.name(), oldY, y);
     }
   }
@@ -1375,7 +1379,7 @@ public class HomePieceOfFurniture extends HomeObject implements PieceOfFurniture
     if (angle != this.angle) {
       float oldAngle = this.angle;
       this.angle = angle;
-      this.shapeCache = null;
+      clearShapeCache();
       firePropertyChange(Property.ANGLE.name(), oldAngle, angle);
     }
   }
@@ -1400,7 +1404,7 @@ public class HomePieceOfFurniture extends HomeObject implements PieceOfFurniture
       if (pitch != this.pitch) {
         float oldPitch = this.pitch;
         this.pitch = pitch;
-        this.shapeCache = null;
+        clearShapeCache();
         firePropertyChange(Property.PITCH.name(), oldPitch, pitch);
       }
     } else {
@@ -1428,7 +1432,7 @@ public class HomePieceOfFurniture extends HomeObject implements PieceOfFurniture
       if (roll != this.roll) {
         float oldRoll = this.roll;
         this.roll = roll;
-        this.shapeCache = null;
+        clearShapeCache();
         firePropertyChange(Property.ROLL.name(), oldRoll, roll);
       }
     } else {
@@ -1665,13 +1669,71 @@ public class HomePieceOfFurniture extends HomeObject implements PieceOfFurniture
    * @return an array of the 4 (x,y) coordinates of the piece corners.
    */
   public float [][] getPoints() {
-    float [][] piecePoints = new float[4][2];
-    PathIterator it = getShape().getPathIterator(null);
-    for (int i = 0; i < piecePoints.length; i++) {
-      it.currentSegment(piecePoints [i]);
-      it.next();
+    return getPoints(null);
+  }
+
+  /**
+   * Returns the points of each corner of a piece copied in the given <code>points</code> array
+   * if its length is 4, or in a new array otherwise.
+   * This method enables callers to reuse the same array to get points repeatedly.
+   * @since 7.3
+   */
+  public float [][] getPoints(float [][] points) {
+    return PlanGeometry.unpackPoints(getCachedPoints(), points);
+  }
+
+  /**
+   * Returns the abscissa of the corner at the given <code>index</code> of this piece,
+   * without copying its points.
+   * @since 7.3
+   */
+  public float getPointX(int index) {
+    return getCachedPoints() [index * 2];
+  }
+
+  /**
+   * Returns the ordinate of the corner at the given <code>index</code> of this piece,
+   * without copying its points.
+   * @since 7.3
+   */
+  public float getPointY(int index) {
+    return getCachedPoints() [index * 2 + 1];
+  }
+
+  /**
+   * Returns the cached coordinates of the points of this piece packed in an array
+   * (x0, y0, x1, y1...) that must not be modified.
+   */
+  float [] getCachedPoints() {
+    float [] pieceCoordinates = this.pointsCache;
+    if (pieceCoordinates == null) {
+      int cacheVersion = this.shapeCacheVersion;
+      pieceCoordinates = new float [8];
+      float [] point = new float [2];
+      PathIterator it = getShape().getPathIterator(null);
+      for (int i = 0; i < pieceCoordinates.length; i += 2) {
+        it.currentSegment(point);
+        pieceCoordinates [i] = point [0];
+        pieceCoordinates [i + 1] = point [1];
+        it.next();
+      }
+      synchronized (this) {
+        if (cacheVersion == this.shapeCacheVersion) {
+          this.pointsCache = pieceCoordinates;
+        }
+      }
     }
-    return piecePoints;
+    return pieceCoordinates;
+  }
+
+  /**
+   * Clears the shape and the points cached by this piece and increments their version,
+   * as they may be computed in an other thread.
+   */
+  private synchronized void clearShapeCache() {
+    this.shapeCache = null;
+    this.pointsCache = null;
+    this.shapeCacheVersion++;
   }
 
   /**
@@ -1681,9 +1743,7 @@ public class HomePieceOfFurniture extends HomeObject implements PieceOfFurniture
    */
   public boolean intersectsRectangle(float x0, float y0,
                                      float x1, float y1) {
-    Rectangle2D rectangle = new Rectangle2D.Float(x0, y0, 0, 0);
-    rectangle.add(x1, y1);
-    return getShape().intersects(rectangle);
+    return PlanGeometry.intersectsRectangle(getCachedPoints(), 4, x0, y0, x1, y1);
   }
 
   /**
@@ -1692,11 +1752,7 @@ public class HomePieceOfFurniture extends HomeObject implements PieceOfFurniture
    * with a given <code>margin</code>.
    */
   public boolean containsPoint(float x, float y, float margin) {
-    if (margin == 0) {
-      return getShape().contains(x, y);
-    } else {
-      return getShape().intersects(x - margin, y - margin, 2 * margin, 2 * margin);
-    }
+    return PlanGeometry.containsPoint(getCachedPoints(), 4, x, y, margin);
   }
 
   /**
@@ -1704,8 +1760,9 @@ public class HomePieceOfFurniture extends HomeObject implements PieceOfFurniture
    * the point at (<code>x</code>, <code>y</code>) with a given <code>margin</code>.
    */
   public boolean isPointAt(float x, float y, float margin) {
-    for (float [] point : getPoints()) {
-      if (Math.abs(x - point[0]) <= margin && Math.abs(y - point[1]) <= margin) {
+    float [] points = getCachedPoints();
+    for (int i = 0; i < points.length; i += 2) {
+      if (Math.abs(x - points [i]) <= margin && Math.abs(y - points [i + 1]) <= margin) {
         return true;
       }
     }
@@ -1718,11 +1775,11 @@ public class HomePieceOfFurniture extends HomeObject implements PieceOfFurniture
    * and if that point is closer to top left point than to top right and bottom left points.
    */
   public boolean isTopLeftPointAt(float x, float y, float margin) {
-    float [][] points = getPoints();
-    double distanceSquareToTopLeftPoint = Point2D.distanceSq(x, y, points[0][0], points[0][1]);
+    float [] points = getCachedPoints();
+    double distanceSquareToTopLeftPoint = Point2D.distanceSq(x, y, points [0], points [1]);
     return distanceSquareToTopLeftPoint <= margin * margin
-        && distanceSquareToTopLeftPoint < Point2D.distanceSq(x, y, points[1][0], points[1][1])
-        && distanceSquareToTopLeftPoint < Point2D.distanceSq(x, y, points[3][0], points[3][1]);
+        && distanceSquareToTopLeftPoint < Point2D.distanceSq(x, y, points [2], points [3])
+        && distanceSquareToTopLeftPoint < Point2D.distanceSq(x, y, points [6], points [7]);
   }
 
   /**
@@ -1731,11 +1788,11 @@ public class HomePieceOfFurniture extends HomeObject implements PieceOfFurniture
    * and if that point is closer to top right point than to top left and bottom right points.
    */
   public boolean isTopRightPointAt(float x, float y, float margin) {
-    float [][] points = getPoints();
-    double distanceSquareToTopRightPoint = Point2D.distanceSq(x, y, points[1][0], points[1][1]);
+    float [] points = getCachedPoints();
+    double distanceSquareToTopRightPoint = Point2D.distanceSq(x, y, points [2], points [3]);
     return distanceSquareToTopRightPoint <= margin * margin
-        && distanceSquareToTopRightPoint < Point2D.distanceSq(x, y, points[0][0], points[0][1])
-        && distanceSquareToTopRightPoint < Point2D.distanceSq(x, y, points[2][0], points[2][1]);
+        && distanceSquareToTopRightPoint < Point2D.distanceSq(x, y, points [0], points [1])
+        && distanceSquareToTopRightPoint < Point2D.distanceSq(x, y, points [4], points [5]);
   }
 
   /**
@@ -1744,11 +1801,11 @@ public class HomePieceOfFurniture extends HomeObject implements PieceOfFurniture
    * and if that point is closer to bottom left point than to top left and bottom right points.
    */
   public boolean isBottomLeftPointAt(float x, float y, float margin) {
-    float [][] points = getPoints();
-    double distanceSquareToBottomLeftPoint = Point2D.distanceSq(x, y, points[3][0], points[3][1]);
+    float [] points = getCachedPoints();
+    double distanceSquareToBottomLeftPoint = Point2D.distanceSq(x, y, points [6], points [7]);
     return distanceSquareToBottomLeftPoint <= margin * margin
-        && distanceSquareToBottomLeftPoint < Point2D.distanceSq(x, y, points[0][0], points[0][1])
-        && distanceSquareToBottomLeftPoint < Point2D.distanceSq(x, y, points[2][0], points[2][1]);
+        && distanceSquareToBottomLeftPoint < Point2D.distanceSq(x, y, points [0], points [1])
+        && distanceSquareToBottomLeftPoint < Point2D.distanceSq(x, y, points [4], points [5]);
   }
 
   /**
@@ -1757,11 +1814,11 @@ public class HomePieceOfFurniture extends HomeObject implements PieceOfFurniture
    * and if that point is closer to top left point than to top right and bottom left points.
    */
   public boolean isBottomRightPointAt(float x, float y, float margin) {
-    float [][] points = getPoints();
-    double distanceSquareToBottomRightPoint = Point2D.distanceSq(x, y, points[2][0], points[2][1]);
+    float [] points = getCachedPoints();
+    double distanceSquareToBottomRightPoint = Point2D.distanceSq(x, y, points [4], points [5]);
     return distanceSquareToBottomRightPoint <= margin * margin
-        && distanceSquareToBottomRightPoint < Point2D.distanceSq(x, y, points[1][0], points[1][1])
-        && distanceSquareToBottomRightPoint < Point2D.distanceSq(x, y, points[3][0], points[3][1]);
+        && distanceSquareToBottomRightPoint < Point2D.distanceSq(x, y, points [2], points [3])
+        && distanceSquareToBottomRightPoint < Point2D.distanceSq(x, y, points [6], points [7]);
   }
 
   /**
@@ -1805,7 +1862,9 @@ public class HomePieceOfFurniture extends HomeObject implements PieceOfFurniture
    * Returns the shape matching this piece in the horizontal plan.
    */
   private Shape getShape() {
-    if (this.shapeCache == null) {
+    Shape pieceShape = this.shapeCache;
+    if (pieceShape == null) {
+      int cacheVersion = this.shapeCacheVersion;
       // Create the rectangle that matches piece bounds
       Rectangle2D pieceRectangle = new Rectangle2D.Float(
           getX() - getWidthInPlan() / 2,
@@ -1814,12 +1873,17 @@ public class HomePieceOfFurniture extends HomeObject implements PieceOfFurniture
       // Apply rotation to the rectangle
       AffineTransform rotation = AffineTransform.getRotateInstance(getAngle(), getX(), getY());
       PathIterator it = pieceRectangle.getPathIterator(rotation);
-      GeneralPath pieceShape = new GeneralPath();
-      pieceShape.append(it, false);
+      GeneralPath piecePath = new GeneralPath();
+      piecePath.append(it, false);
+      pieceShape = piecePath;
       // Cache shape
-      this.shapeCache = pieceShape;
+      synchronized (this) {
+        if (cacheVersion == this.shapeCacheVersion) {
+          this.shapeCache = pieceShape;
+        }
+      }
     }
-    return this.shapeCache;
+    return pieceShape;
   }
 
   /**
@@ -0,0 +1,309 @@
+/*
+ * HomeTransaction.java 19 oct. 2026
+ *
+ * Sweet Home 3D, Copyright (c) 2024 Space Mushrooms <info@sweethome3d.com>
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package com.eteks.sweethome3d.model;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.beans.PropertyChangeListenerProxy;
+import java.beans.PropertyChangeSupport;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The events of a home and of its items buffered in the current thread between the calls to
+ * {@link Home#beginTransaction()} and {@link Home#commitTransaction()}.
+ * Successive changes of the same property of an object are coalesced in one event
+ * delivered at commit time, in the order of their first occurrence with collection events.
+ * Successive collection events of the same type are notified in one event to
+ * {@link BulkCollectionListener bulk listeners}.
+ * Listeners of the model package implementing {@link ImmediatePropertyChangeListener}
+ * or {@link ImmediateCollectionListener} are still notified immediately to keep model data consistent.
+ * @author Emmanuel Puybaret
+ */
+final class HomeTransaction {
+  private static final ThreadLocal<List<HomeTransaction>> currentTransactions = new ThreadLocal<List<HomeTransaction>>();
+
+  private final Home                                      home;
+  private int                                             depth;
+  private boolean                                         delivering;
+  private final List<Object>                              events = new ArrayList<Object>();
+  private final Map<Object, Map<String, BufferedPropertyChange>> propertyChanges =
+      new IdentityHashMap<Object, Map<String, BufferedPropertyChange>>();
+  private final Map<Object, Runnable>                     commitTasks = new LinkedHashMap<Object, Runnable>();
+
+  private HomeTransaction(Home home) {
+    this.home = home;
+  }
+
+  /**
+   * A property change listener of the model notified even during a transaction.
+   */
+  static interface ImmediatePropertyChangeListener extends PropertyChangeListener {
+  }
+
+  /**
+   * A collection listener of the model notified even during a transaction.
+   */
+  static interface ImmediateCollectionListener<T> extends CollectionListener<T> {
+  }
+
+  /**
+   * Returns the transaction buffering events in the current thread on the given <code>source</code>,
+   * if it's a home or one of its items, or <code>null</code>.
+   */
+  static HomeTransaction getTransaction(Object source) {
+    List<HomeTransaction> transactions = currentTransactions.get();
+    if (transactions != null) {
+      for (HomeTransaction transaction : transactions) {
+        if (!transaction.delivering
+            && (transaction.home == source
+                || transaction.home.isTransactionItem(source))) {
+          return transaction;
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Returns the transaction buffering events on the given <code>home</code> in the current thread or <code>null</code>.
+   */
+  private static HomeTransaction getHomeTransaction(Home home) {
+    List<HomeTransaction> transactions = currentTransactions.get();
+    if (transactions != null) {
+      for (HomeTransaction transaction : transactions) {
+        if (!transaction.delivering
+            && transaction.home == home) {
+          return transaction;
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Returns <code>true</code> if a transaction is in progress on the given <code>home</code>
+   * in the current thread, including while its buffered events are delivered.
+   */
+  static boolean isInProgress(Home home) {
+    List<HomeTransaction> transactions = currentTransactions.get();
+    if (transactions != null) {
+      for (HomeTransaction transaction : transactions) {
+        if (transaction.home == home) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Starts a new transaction on <code>home</code> in the current thread
+   * or nests it in the transaction in progress on this home.
+   */
+  static void begin(Home home) {
+    HomeTransaction transaction = getHomeTransaction(home);
+    if (transaction == null) {
+      List<HomeTransaction> transactions = currentTransactions.get();
+      if (transactions == null) {
+        transactions = new ArrayList<HomeTransaction>(1);
+        currentTransactions.set(transactions);
+      }
+      transaction = new HomeTransaction(home);
+      transactions.add(transaction);
+    }
+    transaction.depth++;
+  }
+
+  /**
+   * Ends the transaction in progress on <code>home</code> and delivers buffered events
+   * if it's the outermost one.
+   */
+  static void commit(Home home) {
+    HomeTransaction transaction = getHomeTransaction(home);
+    if (transaction == null) {
+      throw new IllegalStateException("No transaction in progress");
+    }
+    try {
+      if (transaction.depth == 1) {
+        transaction.runCommitTasks();
+      }
+    } finally {
+      if (--transaction.depth == 0) {
+        // Stop buffering events before delivering them to let listeners modify the model
+        transaction.delivering = true;
+        try {
+          transaction.deliverEvents();
+        } finally {
+          List<HomeTransaction> transactions = currentTransactions.get();
+          transactions.remove(transaction);
+          if (transactions.isEmpty()) {
+            currentTransactions.remove();
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Schedules the given <code>task</code> to be run when the outermost transaction is committed,
+   * before buffered events are delivered. A task is ignored if a task with the same
+   * <code>key</code> is already scheduled.
+   */
+  void invokeBeforeCommit(Object key, Runnable task) {
+    if (!this.commitTasks.containsKey(key)) {
+      this.commitTasks.put(key, task);
+    }
+  }
+
+  /**
+   * Runs scheduled tasks in their order, including the ones scheduled by these tasks.
+   * This method may be called before commit to get objects up to date.
+   */
+  void runCommitTasks() {
+    while (!this.commitTasks.isEmpty()) {
+      Iterator<Runnable> iterator = this.commitTasks.values().iterator();
+      Runnable task = iterator.next();
+      iterator.remove();
+      task.run();
+    }
+  }
+
+  /**
+   * Notifies immediate listeners of <code>support</code> and buffers the change for other listeners.
+   */
+  void firePropertyChange(Object source, PropertyChangeSupport support,
+                          String propertyName, Object oldValue, Object newValue) {
+    if (oldValue != null && oldValue.equals(newValue)) {
+      return;
+    }
+    firePropertyChange(support, new PropertyChangeEvent(source, propertyName, oldValue, newValue), true);
+    Map<String, BufferedPropertyChange> sourceChanges = this.propertyChanges.get(source);
+    if (sourceChanges == null) {
+      sourceChanges = new LinkedHashMap<String, BufferedPropertyChange>(4);
+      this.propertyChanges.put(source, sourceChanges);
+    }
+    BufferedPropertyChange change = sourceChanges.get(propertyName);
+    if (change == null) {
+      change = new BufferedPropertyChange(source, propertyName, oldValue);
+      sourceChanges.put(propertyName, change);
+      this.events.add(change);
+    }
+    change.newValue = newValue;
+  }
+
+  /**
+   * Notifies immediate listeners of <code>support</code> and buffers the event for other listeners.
+   */
+  @SuppressWarnings("unchecked")
+  <T> void fireCollectionChanged(CollectionChangeSupport<T> support, CollectionEvent<T> event) {
+    support.fireCollectionChanged(Collections.singletonList(event), true);
+    Object lastEvent = this.events.isEmpty()
+        ? null
+        : this.events.get(this.events.size() - 1);
+    if (lastEvent instanceof BufferedCollectionEvent
+        && ((BufferedCollectionEvent<?>)lastEvent).support == support
+        && ((BufferedCollectionEvent<?>)lastEvent).events.get(0).getType() == event.getType()) {
+      // Merge with previous event
+      ((BufferedCollectionEvent<T>)lastEvent).events.add(event);
+    } else {
+      this.events.add(new BufferedCollectionEvent<T>(support, event));
+    }
+  }
+
+  private void deliverEvents() {
+    for (Object event : this.events) {
+      if (event instanceof BufferedPropertyChange) {
+        BufferedPropertyChange change = (BufferedPropertyChange)event;
+        if (change.oldValue == null
+            || !change.oldValue.equals(change.newValue)) {
+          PropertyChangeSupport support = change.source instanceof HomeObject
+              ? ((HomeObject)change.source).getPropertyChangeSupport()
+              : ((Home)change.source).getPropertyChangeSupport();
+          if (support != null) {
+            firePropertyChange(support, new PropertyChangeEvent(
+                change.source, change.propertyName, change.oldValue, change.newValue), false);
+          }
+        }
+      } else {
+        ((BufferedCollectionEvent<?>)event).fire();
+      }
+    }
+  }
+
+  /**
+   * Notifies the listeners of <code>support</code> interested by the given event,
+   * either the immediate ones or the others.
+   */
+  static void firePropertyChange(PropertyChangeSupport support, PropertyChangeEvent event,
+                                 boolean immediateListeners) {
+    for (PropertyChangeListener listener : support.getPropertyChangeListeners()) {
+      if (listener instanceof PropertyChangeListenerProxy) {
+        PropertyChangeListenerProxy proxy = (PropertyChangeListenerProxy)listener;
+        if (!proxy.getPropertyName().equals(event.getPropertyName())) {
+          continue;
+        }
+        listener = proxy.getListener();
+      }
+      if ((listener instanceof ImmediatePropertyChangeListener) == immediateListeners) {
+        listener.propertyChange(event);
+      }
+    }
+  }
+
+  /**
+   * A property change buffered during a transaction.
+   */
+  private static class BufferedPropertyChange {
+    private final Object source;
+    private final String propertyName;
+    private final Object oldValue;
+    private Object       newValue;
+
+    public BufferedPropertyChange(Object source, String propertyName, Object oldValue) {
+      this.source = source;
+      this.propertyName = propertyName;
+      this.oldValue = oldValue;
+    }
+  }
+
+  /**
+   * A collection event buffered during a transaction.
+   */
+  private static class BufferedCollectionEvent<T> {
+    private final CollectionChangeSupport<T> support;
+    private final List<CollectionEvent<T>>   events;
+
+    public BufferedCollectionEvent(CollectionChangeSupport<T> support, CollectionEvent<T> event) {
+      this.support = support;
+      this.events = new ArrayList<CollectionEvent<T>>();
+      this.events.add(event);
+    }
+
+    public void fire() {
+      this.support.fireCollectionChanged(this.events, false);
+    }
+  }
+}
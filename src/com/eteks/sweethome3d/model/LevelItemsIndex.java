@@ -0,0 +1,259 @@
+/*
+ * LevelItemsIndex.java 19 oct. 2026
+ *
+ * Sweet Home 3D, Copyright (c) 2024 Space Mushrooms <info@sweethome3d.com>
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package com.eteks.sweethome3d.model;
+
+import java.beans.PropertyChangeEvent;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The items of a home collection at each level, in the order of the collection.
+ * The items at a level are searched once, then each list is updated only when the
+ * level of one of its items changes or when one of its items is added or deleted.
+ * To insert items in the lists without searching them again in home, each item
+ * of the collection is associated to an order key that grows with its index.
+ * @author Emmanuel Puybaret
+ */
+abstract class LevelItemsIndex<T extends HomeObject & Elevatable>
+    implements HomeTransaction.ImmediatePropertyChangeListener, HomeTransaction.ImmediateCollectionListener<T> {
+  private final Set<String>          levelPropertyNames;
+  private final Map<T, Double>       itemOrders;
+  private final Map<Level, LevelItems<T>> itemsAtLevel;
+  private final Comparator<T>        orderComparator;
+
+  /**
+   * Creates an index of the items returned by {@link #getItems()} which listens to the changes
+   * of the given properties of these items.
+   */
+  public LevelItemsIndex(String ... levelPropertyNames) {
+    this.levelPropertyNames = new HashSet<String>(Arrays.asList(levelPropertyNames));
+    this.itemOrders = new IdentityHashMap<T, Double>();
+    this.itemsAtLevel = new HashMap<Level, LevelItems<T>>();
+    this.orderComparator = new Comparator<T>() {
+        public int compare(T item1, T item2) {
+          return Double.compare(itemOrders.get(item1), itemOrders.get(item2));
+        }
+      };
+    for (T item : getItems()) {
+      item.addPropertyChangeListener(this);
+    }
+    updateItemOrders();
+  }
+
+  /**
+   * Returns the current items of the home collection indexed by this object.
+   */
+  protected abstract List<T> getItems();
+
+  /**
+   * Returns the items at the given <code>level</code>.
+   */
+  public synchronized List<T> getItemsAtLevel(Level level) {
+    LevelItems<T> levelItems = this.itemsAtLevel.get(level);
+    if (levelItems == null) {
+      List<T> items = new ArrayList<T>();
+      for (T item : getItems()) {
+        if (item.isAtLevel(level)) {
+          items.add(item);
+        }
+      }
+      levelItems = new LevelItems<T>(items);
+      this.itemsAtLevel.put(level, levelItems);
+    }
+    return levelItems.items;
+  }
+
+  /**
+   * Forgets the items found at each level.
+   */
+  public synchronized void clear() {
+    this.itemsAtLevel.clear();
+  }
+
+  /**
+   * Sets the order key of each item to its index in home collection.
+   */
+  private void updateItemOrders() {
+    this.itemOrders.clear();
+    List<T> items = getItems();
+    for (int i = 0; i < items.size(); i++) {
+      this.itemOrders.put(items.get(i), (double)i);
+    }
+  }
+
+  /**
+   * Sets the order key of the given <code>items</code>, added together at the given <code>index</code>
+   * of home collection, or at an unknown index if <code>index</code> is -1.
+   */
+  private void addItemOrders(List<T> items, int index) {
+    List<T> homeItems = getItems();
+    if (index < 0
+        || index + items.size() > homeItems.size()
+        || homeItems.get(index) != items.get(0)) {
+      // Search items at the end of home collection, then anywhere else
+      index = homeItems.size() - items.size();
+      if (index < 0
+          || homeItems.get(index) != items.get(0)) {
+        index = homeItems.indexOf(items.get(0));
+        if (index < 0) {
+          // Items don't belong to home collection, like the pieces added to groups
+          return;
+        }
+      }
+    }
+    Double previousOrder = index > 0
+        ? this.itemOrders.get(homeItems.get(index - 1))
+        : null;
+    Double nextOrder = index + items.size() < homeItems.size()
+        ? this.itemOrders.get(homeItems.get(index + items.size()))
+        : null;
+    if (index > 0 && previousOrder == null
+        || index + items.size() < homeItems.size() && nextOrder == null) {
+      // Neighbors unknown
+      updateItemOrders();
+      return;
+    }
+    for (int i = 0; i < items.size(); i++) {
+      double order;
+      if (previousOrder == null && nextOrder == null) {
+        order = i;
+      } else if (nextOrder == null) {
+        order = previousOrder + i + 1;
+      } else if (previousOrder == null) {
+        order = nextOrder - items.size() + i;
+      } else {
+        order = previousOrder + (nextOrder - previousOrder) * (i + 1) / (items.size() + 1);
+        if (order <= previousOrder || order >= nextOrder) {
+          // No more room between orders of neighbors
+          updateItemOrders();
+          return;
+        }
+      }
+      this.itemOrders.put(items.get(i), order);
+    }
+  }
+
+  /**
+   * Updates the lists of items at each level once the given <code>items</code>
+   * were added, deleted or changed.
+   */
+  private void updateItemsAtLevel(List<T> items, boolean deleted) {
+    for (Map.Entry<Level, LevelItems<T>> levelItemsEntry : this.itemsAtLevel.entrySet()) {
+      Level level = levelItemsEntry.getKey();
+      LevelItems<T> levelItems = levelItemsEntry.getValue();
+      Map<T, Boolean> removedItems = null;
+      List<T> addedItems = null;
+      for (T item : items) {
+        boolean atLevel = !deleted
+            && this.itemOrders.containsKey(item)
+            && item.isAtLevel(level);
+        boolean indexed = levelItems.itemSet.containsKey(item);
+        if (atLevel && !indexed) {
+          if (addedItems == null) {
+            addedItems = new ArrayList<T>();
+          }
+          addedItems.add(item);
+        } else if (!atLevel && indexed) {
+          if (removedItems == null) {
+            removedItems = new IdentityHashMap<T, Boolean>();
+          }
+          removedItems.put(item, Boolean.TRUE);
+        }
+      }
+      if (removedItems != null || addedItems != null) {
+        // Build a new list to avoid changing the one that may be used by caller
+        List<T> updatedItems = new ArrayList<T>(levelItems.items.size()
+            + (addedItems != null ? addedItems.size() : 0));
+        if (addedItems != null) {
+          Collections.sort(addedItems, this.orderComparator);
+        }
+        int addedItemIndex = 0;
+        for (T item : levelItems.items) {
+          if (removedItems == null || !removedItems.containsKey(item)) {
+            while (addedItems != null
+                && addedItemIndex < addedItems.size()
+                && this.orderComparator.compare(addedItems.get(addedItemIndex), item) < 0) {
+              updatedItems.add(addedItems.get(addedItemIndex++));
+            }
+            updatedItems.add(item);
+          }
+        }
+        if (addedItems != null) {
+          updatedItems.addAll(addedItems.subList(addedItemIndex, addedItems.size()));
+        }
+        levelItemsEntry.setValue(new LevelItems<T>(updatedItems));
+      }
+    }
+  }
+
+  public synchronized void propertyChange(PropertyChangeEvent ev) {
+    if (this.levelPropertyNames.contains(ev.getPropertyName())) {
+      @SuppressWarnings("unchecked")
+      T item = (T)ev.getSource();
+      updateItemsAtLevel(Collections.singletonList(item), false);
+    }
+  }
+
+  public synchronized void collectionChanged(CollectionEvent<T> ev) {
+    List<T> items = ev.getItems();
+    switch (ev.getType()) {
+      case ADD :
+        for (T item : items) {
+          item.addPropertyChangeListener(this);
+        }
+        addItemOrders(items, ev.getIndex());
+        updateItemsAtLevel(items, false);
+        break;
+      case DELETE :
+        for (T item : items) {
+          item.removePropertyChangeListener(this);
+        }
+        updateItemsAtLevel(items, true);
+        for (T item : items) {
+          this.itemOrders.remove(item);
+        }
+        break;
+    }
+  }
+
+  /**
+   * The items at a level in an unmodifiable list, and in a set to check quickly if they belong to it.
+   */
+  private static class LevelItems<T> {
+    private final List<T>         items;
+    private final Map<T, Boolean> itemSet;
+
+    public LevelItems(List<T> items) {
+      this.items = Collections.unmodifiableList(items);
+      this.itemSet = new IdentityHashMap<T, Boolean>(items.size());
+      for (T item : items) {
+        this.itemSet.put(item, Boolean.TRUE);
+      }
+    }
+  }
+}
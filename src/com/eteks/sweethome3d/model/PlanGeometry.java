@@ -0,0 +1,364 @@
+/*
+ * PlanGeometry.java 19 oct. 2026
+ *
+ * Sweet Home 3D, Copyright (c) 2024 Space Mushrooms <info@sweethome3d.com>
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package com.eteks.sweethome3d.model;
+
+/**
+ * Geometry computations on the (x,y) points of plan items,
+ * performed without creating intermediate shapes.
+ * @author Emmanuel Puybaret
+ * @since 7.3
+ */
+public final class PlanGeometry {
+  private PlanGeometry() {
+    // This class contains only tools
+  }
+
+  /**
+   * Returns <code>true</code> if the closed polygon matching the first <code>pointCount</code>
+   * <code>points</code> contains the point at (<code>x</code>, <code>y</code>).
+   * Like <code>GeneralPath</code> default rule, the inside of the polygon is determined
+   * with the non zero winding rule.
+   */
+  public static boolean containsPoint(float [][] points, int pointCount, float x, float y) {
+    if (pointCount < 2) {
+      return false;
+    }
+    int crossings = 0;
+    float [] previousPoint = points [pointCount - 1];
+    for (int i = 0; i < pointCount; i++) {
+      float [] point = points [i];
+      crossings += getPointCrossingsForLine(x, y, previousPoint [0], previousPoint [1], point [0], point [1]);
+      previousPoint = point;
+    }
+    return crossings != 0;
+  }
+
+  /**
+   * Returns <code>true</code> if the closed polygon matching the first <code>pointCount</code>
+   * points stored in the packed <code>coordinates</code> array (x0, y0, x1, y1...)
+   * contains the point at (<code>x</code>, <code>y</code>), with the non zero winding rule.
+   */
+  public static boolean containsPoint(float [] coordinates, int pointCount, float x, float y) {
+    if (pointCount < 2) {
+      return false;
+    }
+    int crossings = 0;
+    int previousIndex = 2 * (pointCount - 1);
+    for (int i = 0; i < 2 * pointCount; i += 2) {
+      crossings += getPointCrossingsForLine(x, y, coordinates [previousIndex], coordinates [previousIndex + 1],
+          coordinates [i], coordinates [i + 1]);
+      previousIndex = i;
+    }
+    return crossings != 0;
+  }
+
+  /**
+   * Returns the crossings of the line (<code>x0</code>, <code>y0</code>), (<code>x1</code>, <code>y1</code>)
+   * with the ray going from the point at (<code>x</code>, <code>y</code>) to positive infinity,
+   * using the same rules as <code>java.awt.geom.Path2D</code>.
+   */
+  private static int getPointCrossingsForLine(double x, double y,
+                                              double x0, double y0,
+                                              double x1, double y1) {
+    if (y < y0 && y < y1
+        || y >= y0 && y >= y1
+        || x >= x0 && x >= x1) {
+      return 0;
+    } else if (x < x0 && x < x1
+               || x < x0 + (y - y0) * (x1 - x0) / (y1 - y0)) {
+      return y0 < y1 ? 1 : -1;
+    } else {
+      return 0;
+    }
+  }
+
+  /**
+   * Returns <code>true</code> if the closed polygon matching the first <code>pointCount</code>
+   * <code>points</code> intersects with the horizontal rectangle which opposite corners are at points
+   * (<code>x0</code>, <code>y0</code>) and (<code>x1</code>, <code>y1</code>).
+   */
+  public static boolean intersectsRectangle(float [][] points, int pointCount,
+                                            float x0, float y0, float x1, float y1) {
+    float xMin = Math.min(x0, x1);
+    float yMin = Math.min(y0, y1);
+    float xMax = Math.max(x0, x1);
+    float yMax = Math.max(y0, y1);
+    if (pointCount == 0) {
+      return false;
+    }
+    float [] previousPoint = points [pointCount - 1];
+    for (int i = 0; i < pointCount; i++) {
+      float [] point = points [i];
+      if (intersectsSegment(xMin, yMin, xMax, yMax,
+          previousPoint [0], previousPoint [1], point [0], point [1])) {
+        return true;
+      }
+      previousPoint = point;
+    }
+    // No side crosses the rectangle: it intersects the polygon only if it's inside it
+    return containsPoint(points, pointCount, (xMin + xMax) / 2, (yMin + yMax) / 2);
+  }
+
+  /**
+   * Returns <code>true</code> if the closed polygon matching the first <code>pointCount</code>
+   * points stored in the packed <code>coordinates</code> array intersects with the horizontal
+   * rectangle which opposite corners are at points (<code>x0</code>, <code>y0</code>) and (<code>x1</code>, <code>y1</code>).
+   */
+  public static boolean intersectsRectangle(float [] coordinates, int pointCount,
+                                            float x0, float y0, float x1, float y1) {
+    float xMin = Math.min(x0, x1);
+    float yMin = Math.min(y0, y1);
+    float xMax = Math.max(x0, x1);
+    float yMax = Math.max(y0, y1);
+    if (pointCount == 0) {
+      return false;
+    }
+    int previousIndex = 2 * (pointCount - 1);
+    for (int i = 0; i < 2 * pointCount; i += 2) {
+      if (intersectsSegment(xMin, yMin, xMax, yMax,
+          coordinates [previousIndex], coordinates [previousIndex + 1], coordinates [i], coordinates [i + 1])) {
+        return true;
+      }
+      previousIndex = i;
+    }
+    return containsPoint(coordinates, pointCount, (xMin + xMax) / 2, (yMin + yMax) / 2);
+  }
+
+  /**
+   * Returns <code>true</code> if the closed polygon matching the first <code>pointCount</code>
+   * <code>points</code> contains the point at (<code>x</code>, <code>y</code>)
+   * with a given <code>margin</code>.
+   */
+  public static boolean containsPoint(float [][] points, int pointCount,
+                                      float x, float y, float margin) {
+    if (margin == 0) {
+      return containsPoint(points, pointCount, x, y);
+    } else {
+      return intersectsRectangle(points, pointCount, x - margin, y - margin, x + margin, y + margin);
+    }
+  }
+
+  /**
+   * Returns <code>true</code> if the closed polygon matching the first <code>pointCount</code>
+   * points stored in the packed <code>coordinates</code> array contains the point
+   * at (<code>x</code>, <code>y</code>) with a given <code>margin</code>.
+   */
+  public static boolean containsPoint(float [] coordinates, int pointCount,
+                                      float x, float y, float margin) {
+    if (margin == 0) {
+      return containsPoint(coordinates, pointCount, x, y);
+    } else {
+      return intersectsRectangle(coordinates, pointCount, x - margin, y - margin, x + margin, y + margin);
+    }
+  }
+
+  /**
+   * Returns <code>true</code> if the segment joining (<code>x1</code>, <code>y1</code>)
+   * and (<code>x2</code>, <code>y2</code>) goes through the square of side 2 * <code>margin</code>
+   * centered at point (<code>x</code>, <code>y</code>).
+   */
+  public static boolean isSegmentAt(float x1, float y1, float x2, float y2,
+                                    float x, float y, float margin) {
+    return margin > 0
+        && intersectsSegment(x - margin, y - margin, x + margin, y + margin, x1, y1, x2, y2);
+  }
+
+  /**
+   * Returns <code>true</code> if the segment joining (<code>x1</code>, <code>y1</code>)
+   * and (<code>x2</code>, <code>y2</code>) intersects the given rectangle, with the clipping
+   * algorithm of Liang-Barsky.
+   */
+  private static boolean intersectsSegment(double xMin, double yMin, double xMax, double yMax,
+                                           double x1, double y1, double x2, double y2) {
+    double dx = x2 - x1;
+    double dy = y2 - y1;
+    double tMin = 0;
+    double tMax = 1;
+    for (int i = 0; i < 4; i++) {
+      double p;
+      double q;
+      switch (i) {
+        case 0 :  p = -dx; q = x1 - xMin; break;
+        case 1 :  p = dx;  q = xMax - x1; break;
+        case 2 :  p = -dy; q = y1 - yMin; break;
+        default : p = dy;  q = yMax - y1; break;
+      }
+      if (p == 0) {
+        if (q < 0) {
+          // Segment parallel to and outside of this rectangle side
+          return false;
+        }
+      } else {
+        double t = q / p;
+        if (p < 0) {
+          if (t > tMax) {
+            return false;
+          } else if (t > tMin) {
+            tMin = t;
+          }
+        } else {
+          if (t < tMin) {
+            return false;
+          } else if (t < tMax) {
+            tMax = t;
+          }
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns the square of the distance between the point at (<code>x</code>, <code>y</code>)
+   * and the segment joining (<code>x1</code>, <code>y1</code>) and (<code>x2</code>, <code>y2</code>).
+   */
+  public static float getSegmentDistanceSq(float x1, float y1, float x2, float y2,
+                                           float x, float y) {
+    float dx = x2 - x1;
+    float dy = y2 - y1;
+    float lengthSq = dx * dx + dy * dy;
+    float t = lengthSq == 0
+        ? 0
+        : ((x - x1) * dx + (y - y1) * dy) / lengthSq;
+    if (t < 0) {
+      t = 0;
+    } else if (t > 1) {
+      t = 1;
+    }
+    float deltaX = x - (x1 + t * dx);
+    float deltaY = y - (y1 + t * dy);
+    return deltaX * deltaX + deltaY * deltaY;
+  }
+
+  /**
+   * Returns <code>true</code> if the closed polygon matching the first <code>pointCount</code>
+   * points stored in the packed <code>coordinates</code> array is simple, i.e. if it has
+   * at least 3 points, no consecutive collinear sides and no sides that intersect or touch each other
+   * except at the point shared by consecutive sides.
+   * As each side is compared with all the other ones, this method should be used
+   * only for polygons with a few points.
+   */
+  public static boolean isSimplePolygon(float [] coordinates, int pointCount) {
+    if (pointCount < 3) {
+      return false;
+    }
+    for (int i = 0; i < pointCount; i++) {
+      int i1 = 2 * i;
+      int i2 = 2 * ((i + 1) % pointCount);
+      int i3 = 2 * ((i + 2) % pointCount);
+      if (getOrientation(coordinates [i1], coordinates [i1 + 1], coordinates [i2], coordinates [i2 + 1],
+            coordinates [i3], coordinates [i3 + 1]) == 0) {
+        // Consecutive collinear sides or duplicated point
+        return false;
+      }
+      // Compare side i with the following sides that aren't adjacent to it
+      for (int j = i + 2; j < pointCount; j++) {
+        if (i == 0 && j == pointCount - 1) {
+          break;
+        }
+        int j1 = 2 * j;
+        int j2 = 2 * ((j + 1) % pointCount);
+        if (intersectsSegments(coordinates [i1], coordinates [i1 + 1], coordinates [i2], coordinates [i2 + 1],
+              coordinates [j1], coordinates [j1 + 1], coordinates [j2], coordinates [j2 + 1])) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns the sign of the cross product of the vectors joining the first point to the two other ones.
+   */
+  private static int getOrientation(double x1, double y1, double x2, double y2, double x3, double y3) {
+    return (int)Math.signum((x2 - x1) * (y3 - y1) - (y2 - y1) * (x3 - x1));
+  }
+
+  /**
+   * Returns <code>true</code> if the segment joining (<code>x1</code>, <code>y1</code>)
+   * and (<code>x2</code>, <code>y2</code>) intersects or touches the segment joining
+   * (<code>x3</code>, <code>y3</code>) and (<code>x4</code>, <code>y4</code>).
+   */
+  private static boolean intersectsSegments(double x1, double y1, double x2, double y2,
+                                            double x3, double y3, double x4, double y4) {
+    if (Math.max(x1, x2) < Math.min(x3, x4)
+        || Math.max(x3, x4) < Math.min(x1, x2)
+        || Math.max(y1, y2) < Math.min(y3, y4)
+        || Math.max(y3, y4) < Math.min(y1, y2)) {
+      return false;
+    }
+    int orientation1 = getOrientation(x1, y1, x2, y2, x3, y3);
+    int orientation2 = getOrientation(x1, y1, x2, y2, x4, y4);
+    int orientation3 = getOrientation(x3, y3, x4, y4, x1, y1);
+    int orientation4 = getOrientation(x3, y3, x4, y4, x2, y2);
+    // Bounding boxes overlap, so collinear segments overlap too
+    return orientation1 * orientation2 <= 0
+        && orientation3 * orientation4 <= 0;
+  }
+
+  /**
+   * Returns the coordinates of <code>points</code> packed in a new array (x0, y0, x1, y1...).
+   */
+  static float [] packPoints(float [][] points) {
+    float [] coordinates = new float [points.length * 2];
+    for (int i = 0, j = 0; i < points.length; i++) {
+      coordinates [j++] = points [i][0];
+      coordinates [j++] = points [i][1];
+    }
+    return coordinates;
+  }
+
+  /**
+   * Returns the points matching the packed <code>coordinates</code>
+   * copied in the given <code>points</code> array if its length matches, or in a new array.
+   */
+  static float [][] unpackPoints(float [] coordinates, float [][] points) {
+    int pointCount = coordinates.length / 2;
+    if (points == null || points.length != pointCount) {
+      points = new float [pointCount][];
+    }
+    for (int i = 0, j = 0; i < pointCount; i++) {
+      if (points [i] == null || points [i].length < 2) {
+        points [i] = new float [2];
+      }
+      points [i][0] = coordinates [j++];
+      points [i][1] = coordinates [j++];
+    }
+    return points;
+  }
+
+  /**
+   * Returns <code>true</code> if the packed <code>coordinates</code> match <code>points</code>.
+   */
+  static boolean equalsPoints(float [] coordinates, float [][] points) {
+    if (points == null || points.length * 2 != coordinates.length) {
+      return false;
+    }
+    for (int i = 0, j = 0; i < points.length; i++) {
+      if (points [i] == null
+          || points [i].length != 2
+          || Float.floatToIntBits(points [i][0]) != Float.floatToIntBits(coordinates [j++])
+          || Float.floatToIntBits(points [i][1]) != Float.floatToIntBits(coordinates [j++])) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -28,6 +28,7 @@ import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
 import java.io.IOException;
 import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.util.Arrays;
 
 /**
@@ -67,6 +68,7 @@ public class Polyline extends HomeObject implements Selectable, Elevatable {
     }
   }
 
+  // Points are stored in packed coordinates, this field is used only for serialization
   private float [][]           points;
   private float                thickness;
   private transient CapStyle   capStyle;
@@ -86,6 +88,7 @@ public class Polyline extends HomeObject implements Selectable, Elevatable {
   private Float                elevation;
   private Level                level;
 
+  private transient float []   coordinates;
   private transient Shape      polylinePathCache;
   private transient Shape      shapeCache;
 
@@ -135,7 +138,7 @@ public class Polyline extends HomeObject implements Selectable, Elevatable {
                   float dashOffset, ArrowStyle startArrowStyle,
                   ArrowStyle endArrowStyle, boolean closedPath, int color) {
     super(id);
-    this.points = deepCopy(points);
+    this.coordinates = PlanGeometry.packPoints(points);
     this.thickness = thickness;
     this.capStyle = capStyle;
     this.joinStyle = joinStyle;
@@ -193,6 +196,21 @@ public class Polyline extends HomeObject implements Selectable, Elevatable {
     } catch (IllegalArgumentException ex) {
       // Ignore malformed enum constant
     }
+    this.coordinates = PlanGeometry.packPoints(this.points);
+    this.points = null;
+  }
+
+  /**
+   * Writes polyline points in their unpacked form to keep the serialized form of polylines
+   * compatible with previous versions.
+   */
+  private synchronized void writeObject(ObjectOutputStream out) throws IOException {
+    this.points = getPoints();
+    try {
+      out.defaultWriteObject();
+    } finally {
+      this.points = null;
+    }
   }
 
   /**
@@ -200,22 +218,32 @@ public class Polyline extends HomeObject implements Selectable, Elevatable {
    * @return an array of the (x,y) coordinates of the polyline points.
    */
   public float [][] getPoints() {
-    return deepCopy(this.points);
+    return PlanGeometry.unpackPoints(this.coordinates, null);
   }
 
   /**
    * Returns the number of points of the polygon matching this polyline.
    */
   public int getPointCount() {
-    return this.points.length;
+    return this.coordinates.length / 2;
   }
 
-  private float [][] deepCopy(float [][] points) {
-    float [][] pointsCopy = new float [points.length][];
-    for (int i = 0; i < points.length; i++) {
-      pointsCopy [i] = points [i].clone();
-    }
-    return pointsCopy;
+  /**
+   * Returns the abscissa of the point at the given <code>index</code> of this polyline,
+   * without copying its points.
+   * @since 7.3
+   */
+  public float getPointX(int index) {
+    return this.coordinates [index * 2];
+  }
+
+  /**
+   * Returns the ordinate of the point at the given <code>index</code> of this polyline,
+   * without copying its points.
+   * @since 7.3
+   */
+  public float getPointY(int index) {
+    return this.coordinates [index * 2 + 1];
   }
 
   /**
@@ -223,7 +251,7 @@ public class Polyline extends HomeObject implements Selectable, Elevatable {
    * is updated, listeners added to this polyline will receive a change notification.
    */
   public void setPoints(float [][] points) {
-    if (!Arrays.deepEquals(this.points, points)) {
+    if (!PlanGeometry.equalsPoints(this.coordinates, points)) {
       updatePoints(points);
     }
   }
@@ -232,8 +260,8 @@ public class Polyline extends HomeObject implements Selectable, Elevatable {
    * Update the points of the polygon matching this polyline.
    */
   private void updatePoints(float [][] points) {
-    float [][] oldPoints = this.points;
-    this.points = deepCopy(points);
+    float [][] oldPoints = getPoints();
+    this.coordinates = PlanGeometry.packPoints(points);
     this.polylinePathCache = null;
     this.shapeCache = null;
     firePropertyChange(Property.POINTS.name(), oldPoints, points);
@@ -243,7 +271,7 @@ public class Polyline extends HomeObject implements Selectable, Elevatable {
    * Adds a point at the end of polyline points.
    */
   public void addPoint(float x, float y) {
-    addPoint(x, y, this.points.length);
+    addPoint(x, y, getPointCount());
   }
 
   /**
@@ -251,20 +279,22 @@ public class Polyline extends HomeObject implements Selectable, Elevatable {
    * @throws IndexOutOfBoundsException if <code>index</code> is negative or > <code>getPointCount()</code>
    */
   public void addPoint(float x, float y, int index) {
-    if (index < 0 || index > this.points.length) {
+    if (index < 0 || index > getPointCount()) {
       throw new IndexOutOfBoundsException("Invalid index " + index);
     }
 
-    float [][] newPoints = new float [this.points.length + 1][];
-    System.arraycopy(this.points, 0, newPoints, 0, index);
-    newPoints [index] = new float [] {x, y};
-    System.arraycopy(this.points, index, newPoints, index + 1, this.points.length - index);
+    // Packed coordinates are never modified once set to be shared with clones
+    float [] newCoordinates = new float [this.coordinates.length + 2];
+    System.arraycopy(this.coordinates, 0, newCoordinates, 0, index * 2);
+    newCoordinates [index * 2] = x;
+    newCoordinates [index * 2 + 1] = y;
+    System.arraycopy(this.coordinates, index * 2, newCoordinates, index * 2 + 2, this.coordinates.length - index * 2);
 
-    float [][] oldPoints = this.points;
-    this.points = newPoints;
+    float [][] oldPoints = getPoints();
+    this.coordinates = newCoordinates;
     this.polylinePathCache = null;
     this.shapeCache = null;
-    firePropertyChange(Property.POINTS.name(), oldPoints, deepCopy(this.points));
+    firePropertyChange(Property.POINTS.name(), oldPoints, getPoints());
   }
 
   /**
@@ -272,18 +302,19 @@ public class Polyline extends HomeObject implements Selectable, Elevatable {
    * @throws IndexOutOfBoundsException if <code>index</code> is negative or >= <code>getPointCount()</code>
    */
   public void setPoint(float x, float y, int index) {
-    if (index < 0 || index >= this.points.length) {
+    if (index < 0 || index >= getPointCount()) {
       throw new IndexOutOfBoundsException("Invalid index " + index);
     }
-    if (this.points [index][0] != x
-        || this.points [index][1] != y) {
-      float [][] oldPoints = this.points;
-      this.points = deepCopy(this.points);
-      this.points [index][0] = x;
-      this.points [index][1] = y;
+    if (this.coordinates [index * 2] != x
+        || this.coordinates [index * 2 + 1] != y) {
+      float [][] oldPoints = getPoints();
+      float [] newCoordinates = this.coordinates.clone();
+      newCoordinates [index * 2] = x;
+      newCoordinates [index * 2 + 1] = y;
+      this.coordinates = newCoordinates;
       this.polylinePathCache = null;
       this.shapeCache = null;
-      firePropertyChange(Property.POINTS.name(), oldPoints, deepCopy(this.points));
+      firePropertyChange(Property.POINTS.name(), oldPoints, getPoints());
     }
   }
 
@@ -292,19 +323,19 @@ public class Polyline extends HomeObject implements Selectable, Elevatable {
    * @throws IndexOutOfBoundsException if <code>index</code> is negative or >= <code>getPointCount()</code>
    */
   public void removePoint(int index) {
-    if (index < 0 || index >= this.points.length) {
+    if (index < 0 || index >= getPointCount()) {
       throw new IndexOutOfBoundsException("Invalid index " + index);
     }
 
-    float [][] newPoints = new float [this.points.length - 1][];
-    System.arraycopy(this.points, 0, newPoints, 0, index);
-    System.arraycopy(this.points, index + 1, newPoints, index, this.points.length - index - 1);
+    float [] newCoordinates = new float [this.coordinates.length - 2];
+    System.arraycopy(this.coordinates, 0, newCoordinates, 0, index * 2);
+    System.arraycopy(this.coordinates, index * 2 + 2, newCoordinates, index * 2, this.coordinates.length - index * 2 - 2);
 
-    float [][] oldPoints = this.points;
-    this.points = newPoints;
+    float [][] oldPoints = getPoints();
+    this.coordinates = newCoordinates;
     this.polylinePathCache = null;
     this.shapeCache = null;
-    firePropertyChange(Property.POINTS.name(), oldPoints, deepCopy(this.points));
+    firePropertyChange(Property.POINTS.name(), oldPoints, getPoints());
   }
 
   /**
@@ -671,8 +702,8 @@ public class Polyline extends HomeObject implements Selectable, Elevatable {
    * @return the index of the first found point or -1.
    */
   public int getPointIndexAt(float x, float y, float margin) {
-    for (int i = 0; i < this.points.length; i++) {
-      if (Math.abs(x - this.points [i][0]) <= margin && Math.abs(y - this.points [i][1]) <= margin) {
+    for (int i = 0, n = getPointCount(); i < n; i++) {
+      if (Math.abs(x - this.coordinates [i * 2]) <= margin && Math.abs(y - this.coordinates [i * 2 + 1]) <= margin) {
         return i;
       }
     }
@@ -698,27 +729,28 @@ public class Polyline extends HomeObject implements Selectable, Elevatable {
   private Shape getPolylinePath() {
     if (this.polylinePathCache == null) {
       GeneralPath polylinePath = new GeneralPath();
+      float [][] points = getPoints();
       if (this.joinStyle == JoinStyle.CURVED) {
-        for (int i = 0, n = this.closedPath ? this.points.length : this.points.length - 1; i < n; i++) {
+        for (int i = 0, n = this.closedPath ? points.length : points.length - 1; i < n; i++) {
           CubicCurve2D.Float curve2D = new CubicCurve2D.Float();
-          float [] previousPoint = this.points [i == 0 ?  this.points.length - 1  : i - 1];
-          float [] point         = this.points [i];
-          float [] nextPoint     = this.points [i == this.points.length - 1 ?  0  : i + 1];
+          float [] previousPoint = points [i == 0 ?  points.length - 1  : i - 1];
+          float [] point         = points [i];
+          float [] nextPoint     = points [i == points.length - 1 ?  0  : i + 1];
           float [] vectorToBisectorPoint = new float [] {nextPoint [0] - previousPoint [0], nextPoint [1] - previousPoint [1]};
-          float [] nextNextPoint     = this.points [(i + 2) % this.points.length];
+          float [] nextNextPoint     = points [(i + 2) % points.length];
           float [] vectorToBisectorNextPoint = new float [] {point[0] - nextNextPoint [0], point[1] - nextNextPoint [1]};
           curve2D.setCurve(point[0], point[1],
               point [0] + (i != 0 || this.closedPath  ? vectorToBisectorPoint [0] / 3.625f  : 0),
               point [1] + (i != 0 || this.closedPath  ? vectorToBisectorPoint [1] / 3.625f  : 0),
-              nextPoint [0] + (i != this.points.length - 2 || this.closedPath  ? vectorToBisectorNextPoint [0] / 3.625f  : 0),
-              nextPoint [1] + (i != this.points.length - 2 || this.closedPath  ? vectorToBisectorNextPoint [1] / 3.625f  : 0),
+              nextPoint [0] + (i != points.length - 2 || this.closedPath  ? vectorToBisectorNextPoint [0] / 3.625f  : 0),
+              nextPoint [1] + (i != points.length - 2 || this.closedPath  ? vectorToBisectorNextPoint [1] / 3.625f  : 0),
               nextPoint [0], nextPoint [1]);
           polylinePath.append(curve2D, true);
         }
       } else {
-        polylinePath.moveTo(this.points [0][0], this.points [0][1]);
-        for (int i = 1; i < this.points.length; i++) {
-          polylinePath.lineTo(this.points [i][0], this.points [i][1]);
+        polylinePath.moveTo(points [0][0], points [0][1]);
+        for (int i = 1; i < points.length; i++) {
+          polylinePath.lineTo(points [i][0], points [i][1]);
         }
         if (this.closedPath) {
           polylinePath.closePath();
@@ -26,8 +26,8 @@ import java.awt.geom.PathIterator;
 import java.awt.geom.Rectangle2D;
 import java.io.IOException;
 import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -47,12 +47,16 @@ public class Room extends HomeObject implements Selectable, Elevatable {
   private static final long serialVersionUID = 1L;
 
   private static final double TWICE_PI = 2 * Math.PI;
+  // Maximum count of points of a room tested as a simple polygon, above which
+  // the quadratic test becomes slower than the computation of an Area it avoids
+  private static final int    SIMPLE_POLYGON_MAXIMUM_POINT_COUNT = 100;
 
   private String              name;
   private float               nameXOffset;
   private float               nameYOffset;
   private TextStyle           nameStyle;
   private float               nameAngle;
+  // Points are stored in packed coordinates, this field is used only for serialization
   private float [][]          points;
   private boolean             areaVisible;
   private float               areaXOffset;
@@ -70,9 +74,14 @@ public class Room extends HomeObject implements Selectable, Elevatable {
   private boolean             ceilingFlat;
   private Level               level;
 
+  private transient float []    coordinates;
   private transient Shape       shapeCache;
   private transient Rectangle2D boundsCache;
   private transient Float       areaCache;
+  private transient Float       signedAreaCache;
+  private transient Boolean     simpleCache;
+  private transient Boolean     singularCache;
+  private transient float []    centerCache;
 
   /**
    * Creates a room from its name and the given coordinates.
@@ -89,7 +98,7 @@ public class Room extends HomeObject implements Selectable, Elevatable {
     if (points.length <= 1) {
       throw new IllegalStateException("Room points must containt at least two points");
     }
-    this.points = deepCopy(points);
+    this.coordinates = PlanGeometry.packPoints(points);
     this.areaVisible = true;
     this.nameYOffset = -40f;
     this.floorVisible = true;
@@ -104,6 +113,21 @@ public class Room extends HomeObject implements Selectable, Elevatable {
   private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
     this.ceilingFlat = false;
     in.defaultReadObject();
+    this.coordinates = PlanGeometry.packPoints(this.points);
+    this.points = null;
+  }
+
+  /**
+   * Writes room points in their unpacked form to keep the serialized form of rooms
+   * compatible with previous versions.
+   */
+  private synchronized void writeObject(ObjectOutputStream out) throws IOException {
+    this.points = getPoints();
+    try {
+      out.defaultWriteObject();
+    } finally {
+      this.points = null;
+    }
   }
 
   /**
@@ -213,7 +237,7 @@ public class Room extends HomeObject implements Selectable, Elevatable {
    * @return an array of the (x,y) coordinates of the room points.
    */
   public float [][] getPoints() {
-    return deepCopy(this.points);
+    return PlanGeometry.unpackPoints(this.coordinates, null);
   }
 
   /**
@@ -221,15 +245,35 @@ public class Room extends HomeObject implements Selectable, Elevatable {
    * @since 2.0
    */
   public int getPointCount() {
-    return this.points.length;
+    return this.coordinates.length / 2;
   }
 
-  private float [][] deepCopy(float [][] points) {
-    float [][] pointsCopy = new float [points.length][];
-    for (int i = 0; i < points.length; i++) {
-      pointsCopy [i] = points [i].clone();
-    }
-    return pointsCopy;
+  /**
+   * Returns the points of the polygon matching this room copied in the given <code>points</code> array
+   * if its length is equal to the count of points, or in a new array otherwise.
+   * This method enables callers to reuse the same array to get points repeatedly.
+   * @since 7.3
+   */
+  public float [][] getPoints(float [][] points) {
+    return PlanGeometry.unpackPoints(this.coordinates, points);
+  }
+
+  /**
+   * Returns the abscissa of the point at the given <code>index</code> of this room,
+   * without copying its points.
+   * @since 7.3
+   */
+  public float getPointX(int index) {
+    return this.coordinates [index * 2];
+  }
+
+  /**
+   * Returns the ordinate of the point at the given <code>index</code> of this room,
+   * without copying its points.
+   * @since 7.3
+   */
+  public float getPointY(int index) {
+    return this.coordinates [index * 2 + 1];
   }
 
   /**
@@ -237,7 +281,7 @@ public class Room extends HomeObject implements Selectable, Elevatable {
    * is updated, listeners added to this room will receive a change notification.
    */
   public void setPoints(float [][] points) {
-    if (!Arrays.deepEquals(this.points, points)) {
+    if (!PlanGeometry.equalsPoints(this.coordinates, points)) {
       updatePoints(points);
     }
   }
@@ -246,12 +290,25 @@ public class Room extends HomeObject implements Selectable, Elevatable {
    * Update the points of the polygon matching this room.
    */
   private void updatePoints(float [][] points) {
-    float [][] oldPoints = this.points;
-    this.points = deepCopy(points);
+    float [][] oldPoints = getPoints();
+    this.coordinates = PlanGeometry.packPoints(points);
+    clearPointsCache();
+    firePropertyChange(Property.POINTS.name(), oldPoints, points);
+  }
+
+  /**
+   * Clears the data computed from the points of this room.
+   * As this data may be computed in an other thread, it's cached only if the coordinates
+   * used to compute it are still the ones of this room, which are replaced at each change.
+   */
+  private synchronized void clearPointsCache() {
     this.shapeCache = null;
     this.boundsCache = null;
-    this.areaCache  = null;
-    firePropertyChange(Property.POINTS.name(), oldPoints, points);
+    this.areaCache = null;
+    this.signedAreaCache = null;
+    this.simpleCache = null;
+    this.singularCache = null;
+    this.centerCache = null;
   }
 
   /**
@@ -259,7 +316,7 @@ public class Room extends HomeObject implements Selectable, Elevatable {
    * @since 2.0
    */
   public void addPoint(float x, float y) {
-    addPoint(x, y, this.points.length);
+    addPoint(x, y, getPointCount());
   }
 
   /**
@@ -268,21 +325,21 @@ public class Room extends HomeObject implements Selectable, Elevatable {
    * @since 2.0
    */
   public void addPoint(float x, float y, int index) {
-    if (index < 0 || index > this.points.length) {
+    if (index < 0 || index > getPointCount()) {
       throw new IndexOutOfBoundsException("Invalid index " + index);
     }
 
-    float [][] newPoints = new float [this.points.length + 1][];
-    System.arraycopy(this.points, 0, newPoints, 0, index);
-    newPoints [index] = new float [] {x, y};
-    System.arraycopy(this.points, index, newPoints, index + 1, this.points.length - index);
+    // Packed coordinates are never modified once set to be shared with clones
+    float [] newCoordinates = new float [this.coordinates.length + 2];
+    System.arraycopy(this.coordinates, 0, newCoordinates, 0, index * 2);
+    newCoordinates [index * 2] = x;
+    newCoordinates [index * 2 + 1] = y;
+    System.arraycopy(this.coordinates, index * 2, newCoordinates, index * 2 + 2, this.coordinates.length - index * 2);
 
-    float [][] oldPoints = this.points;
-    this.points = newPoints;
-    this.shapeCache = null;
-    this.boundsCache = null;
-    this.areaCache  = null;
-    firePropertyChange(Property.POINTS.name(), oldPoints, deepCopy(this.points));
+    float [][] oldPoints = getPoints();
+    this.coordinates = newCoordinates;
+    clearPointsCache();
+    firePropertyChange(Property.POINTS.name(), oldPoints, getPoints());
   }
 
   /**
@@ -291,19 +348,18 @@ public class Room extends HomeObject implements Selectable, Elevatable {
    * @since 2.0
    */
   public void setPoint(float x, float y, int index) {
-    if (index < 0 || index >= this.points.length) {
+    if (index < 0 || index >= getPointCount()) {
       throw new IndexOutOfBoundsException("Invalid index " + index);
     }
-    if (this.points [index][0] != x
-        || this.points [index][1] != y) {
-      float [][] oldPoints = this.points;
-      this.points = deepCopy(this.points);
-      this.points [index][0] = x;
-      this.points [index][1] = y;
-      this.shapeCache = null;
-      this.boundsCache = null;
-      this.areaCache  = null;
-      firePropertyChange(Property.POINTS.name(), oldPoints, deepCopy(this.points));
+    if (this.coordinates [index * 2] != x
+        || this.coordinates [index * 2 + 1] != y) {
+      float [][] oldPoints = getPoints();
+      float [] newCoordinates = this.coordinates.clone();
+      newCoordinates [index * 2] = x;
+      newCoordinates [index * 2 + 1] = y;
+      this.coordinates = newCoordinates;
+      clearPointsCache();
+      firePropertyChange(Property.POINTS.name(), oldPoints, getPoints());
     }
   }
 
@@ -313,22 +369,20 @@ public class Room extends HomeObject implements Selectable, Elevatable {
    * @since 2.0
    */
   public void removePoint(int index) {
-    if (index < 0 || index >= this.points.length) {
+    if (index < 0 || index >= getPointCount()) {
       throw new IndexOutOfBoundsException("Invalid index " + index);
-    } else if (this.points.length <= 1) {
+    } else if (getPointCount() <= 1) {
       throw new IllegalStateException("Room points must containt at least one point");
     }
 
-    float [][] newPoints = new float [this.points.length - 1][];
-    System.arraycopy(this.points, 0, newPoints, 0, index);
-    System.arraycopy(this.points, index + 1, newPoints, index, this.points.length - index - 1);
+    float [] newCoordinates = new float [this.coordinates.length - 2];
+    System.arraycopy(this.coordinates, 0, newCoordinates, 0, index * 2);
+    System.arraycopy(this.coordinates, index * 2 + 2, newCoordinates, index * 2, this.coordinates.length - index * 2 - 2);
 
-    float [][] oldPoints = this.points;
-    this.points = newPoints;
-    this.shapeCache = null;
-    this.boundsCache = null;
-    this.areaCache  = null;
-    firePropertyChange(Property.POINTS.name(), oldPoints, deepCopy(this.points));
+    float [][] oldPoints = getPoints();
+    this.coordinates = newCoordinates;
+    clearPointsCache();
+    firePropertyChange(Property.POINTS.name(), oldPoints, getPoints());
   }
 
   /**
@@ -336,10 +390,8 @@ public class Room extends HomeObject implements Selectable, Elevatable {
    * @since 7.0
    */
   public float[] getBoundsMinimumCoordinates() {
-    if (this.boundsCache == null) {
-      this.boundsCache = getShape().getBounds2D();
-    }
-    return new float [] {(float)this.boundsCache.getMinX(), (float)this.boundsCache.getMinY()};
+    Rectangle2D bounds = getBounds();
+    return new float [] {(float)bounds.getMinX(), (float)bounds.getMinY()};
   }
 
   /**
@@ -347,10 +399,25 @@ public class Room extends HomeObject implements Selectable, Elevatable {
    * @since 7.0
    */
   public float[] getBoundsMaximumCoordinates() {
-    if (this.boundsCache == null) {
-      this.boundsCache = getShape().getBounds2D();
+    Rectangle2D bounds = getBounds();
+    return new float [] {(float)bounds.getMaxX(), (float)bounds.getMaxY()};
+  }
+
+  /**
+   * Returns the rectangle bounding this room.
+   */
+  private Rectangle2D getBounds() {
+    Rectangle2D bounds = this.boundsCache;
+    if (bounds == null) {
+      float [] coordinates = this.coordinates;
+      bounds = getShape().getBounds2D();
+      synchronized (this) {
+        if (coordinates == this.coordinates) {
+          this.boundsCache = bounds;
+        }
+      }
     }
-    return new float [] {(float)this.boundsCache.getMaxX(), (float)this.boundsCache.getMaxY()};
+    return bounds;
   }
 
   /**
@@ -457,26 +524,41 @@ public class Room extends HomeObject implements Selectable, Elevatable {
    * Returns the abscissa of the center point of this room.
    */
   public float getXCenter() {
-    float xMin = this.points [0][0];
-    float xMax = this.points [0][0];
-    for (int i = 1; i < this.points.length; i++) {
-      xMin = Math.min(xMin, this.points [i][0]);
-      xMax = Math.max(xMax, this.points [i][0]);
-    }
-    return (xMin + xMax) / 2;
+    return getCenter() [0];
   }
 
   /**
    * Returns the ordinate of the center point of this room.
    */
   public float getYCenter() {
-    float yMin = this.points [0][1];
-    float yMax = this.points [0][1];
-    for (int i = 1; i < this.points.length; i++) {
-      yMin = Math.min(yMin, this.points [i][1]);
-      yMax = Math.max(yMax, this.points [i][1]);
+    return getCenter() [1];
+  }
+
+  /**
+   * Returns the center point of this room, computed once its points changed.
+   */
+  private float [] getCenter() {
+    float [] center = this.centerCache;
+    if (center == null) {
+      float [] coordinates = this.coordinates;
+      float xMin = coordinates [0];
+      float xMax = coordinates [0];
+      float yMin = coordinates [1];
+      float yMax = coordinates [1];
+      for (int i = 2; i < coordinates.length; i += 2) {
+        xMin = Math.min(xMin, coordinates [i]);
+        xMax = Math.max(xMax, coordinates [i]);
+        yMin = Math.min(yMin, coordinates [i + 1]);
+        yMax = Math.max(yMax, coordinates [i + 1]);
+      }
+      center = new float [] {(xMin + xMax) / 2, (yMin + yMax) / 2};
+      synchronized (this) {
+        if (coordinates == this.coordinates) {
+          this.centerCache = center;
+        }
+      }
     }
-    return (yMin + yMax) / 2;
+    return center;
   }
 
   /**
@@ -696,13 +778,18 @@ public class Room extends HomeObject implements Selectable, Elevatable {
    * Returns the area of this room.
    */
   public float getArea() {
-    if (this.areaCache == null) {
-      Area roomArea = new Area(getShape());
-      if (roomArea.isSingular()) {
-        this.areaCache = Math.abs(getSignedArea(getPoints()));
+    Float area = this.areaCache;
+    if (area == null) {
+      float [] coordinates = this.coordinates;
+      Area roomArea;
+      if (isSimple()) {
+        // No need to build an area for a polygon without intersecting sides
+        area = Math.abs(getSignedArea());
+      } else if ((roomArea = new Area(getShape())).isSingular()) {
+        area = Math.abs(getSignedArea());
       } else {
         // Add the surface of the different polygons of this room
-        float area = 0;
+        float pathsArea = 0;
         List<float []> currentPathPoints = new ArrayList<float[]>();
         for (PathIterator it = roomArea.getPathIterator(null); !it.isDone(); ) {
           float [] roomPoint = new float[2];
@@ -716,16 +803,68 @@ public class Room extends HomeObject implements Selectable, Elevatable {
             case PathIterator.SEG_CLOSE :
               float [][] pathPoints =
                   currentPathPoints.toArray(new float [currentPathPoints.size()][]);
-              area += getSignedArea(pathPoints);
+              pathsArea += getSignedArea(pathPoints);
               currentPathPoints.clear();
               break;
           }
           it.next();
         }
-        this.areaCache = area;
+        area = pathsArea;
+      }
+      synchronized (this) {
+        if (coordinates == this.coordinates) {
+          this.areaCache = area;
+        }
+      }
+    }
+    return area;
+  }
+
+  /**
+   * Returns the signed area of the polygon matching the points of this room.
+   */
+  private float getSignedArea() {
+    Float signedArea = this.signedAreaCache;
+    if (signedArea == null) {
+      // Same computation as getSignedArea(float [][]) applied to packed coordinates
+      float [] coordinates = this.coordinates;
+      double area = 0;
+      int length = coordinates.length;
+      for (int i = 2; i < length; i += 2) {
+        area += (double)coordinates [i] * coordinates [i - 1];
+        area -= (double)coordinates [i + 1] * coordinates [i - 2];
+      }
+      area += (double)coordinates [0] * coordinates [length - 1];
+      area -= (double)coordinates [1] * coordinates [length - 2];
+      signedArea = (float)area / 2;
+      synchronized (this) {
+        if (coordinates == this.coordinates) {
+          this.signedAreaCache = signedArea;
+        }
+      }
+    }
+    return signedArea;
+  }
+
+  /**
+   * Returns <code>true</code> if the polygon matching the points of this room is known to be simple.
+   * Rooms with more than {@link #SIMPLE_POLYGON_MAXIMUM_POINT_COUNT} points aren't tested
+   * and are handled with an <code>Area</code> instance like any other polygon.
+   */
+  private boolean isSimple() {
+    Boolean simple = this.simpleCache;
+    if (simple == null) {
+      float [] coordinates = this.coordinates;
+      int pointCount = coordinates.length / 2;
+      simple = pointCount <= SIMPLE_POLYGON_MAXIMUM_POINT_COUNT
+          && PlanGeometry.isSimplePolygon(coordinates, pointCount);
+      synchronized (this) {
+        if (coordinates == this.coordinates) {
+          this.simpleCache = simple;
+        }
       }
     }
-    return this.areaCache;
+    return simple;
   }
 
   private float getSignedArea(float areaPoints [][]) {
@@ -745,14 +884,24 @@ public class Room extends HomeObject implements Selectable, Elevatable {
    * Returns <code>true</code> if the points of this room are in clockwise order.
    */
   public boolean isClockwise() {
-    return getSignedArea(getPoints()) < 0;
+    return getSignedArea() < 0;
   }
 
   /**
    * Returns <code>true</code> if this room is comprised of only one polygon.
    */
   public boolean isSingular() {
-    return new Area(getShape()).isSingular();
+    Boolean singular = this.singularCache;
+    if (singular == null) {
+      float [] coordinates = this.coordinates;
+      singular = isSimple() || new Area(getShape()).isSingular();
+      synchronized (this) {
+        if (coordinates == this.coordinates) {
+          this.singularCache = singular;
+        }
+      }
+    }
+    return singular;
   }
 
   /**
@@ -761,9 +910,7 @@ public class Room extends HomeObject implements Selectable, Elevatable {
    * (<code>x0</code>, <code>y0</code>) and (<code>x1</code>, <code>y1</code>).
    */
   public boolean intersectsRectangle(float x0, float y0, float x1, float y1) {
-    Rectangle2D rectangle = new Rectangle2D.Float(x0, y0, 0, 0);
-    rectangle.add(x1, y1);
-    return getShape().intersects(rectangle);
+    return PlanGeometry.intersectsRectangle(this.coordinates, getPointCount(), x0, y0, x1, y1);
   }
 
   /**
@@ -771,7 +918,7 @@ public class Room extends HomeObject implements Selectable, Elevatable {
    * the point at (<code>x</code>, <code>y</code>) with a given <code>margin</code>.
    */
   public boolean containsPoint(float x, float y, float margin) {
-    return containsShapeAtWithMargin(getShape(), x, y, margin);
+    return PlanGeometry.containsPoint(this.coordinates, getPointCount(), x, y, margin);
   }
 
   /**
@@ -780,8 +927,8 @@ public class Room extends HomeObject implements Selectable, Elevatable {
    * @return the index of the first found point or -1.
    */
   public int getPointIndexAt(float x, float y, float margin) {
-    for (int i = 0; i < this.points.length; i++) {
-      if (Math.abs(x - this.points [i][0]) <= margin && Math.abs(y - this.points [i][1]) <= margin) {
+    for (int i = 0, n = getPointCount(); i < n; i++) {
+      if (Math.abs(x - this.coordinates [i * 2]) <= margin && Math.abs(y - this.coordinates [i * 2 + 1]) <= margin) {
         return i;
       }
     }
@@ -808,34 +955,28 @@ public class Room extends HomeObject implements Selectable, Elevatable {
         && Math.abs(y - getYCenter() - getAreaYOffset()) <= margin;
   }
 
-  /**
-   * Returns <code>true</code> if <code>shape</code> contains
-   * the point at (<code>x</code>, <code>y</code>)
-   * with a given <code>margin</code>.
-   */
-  private boolean containsShapeAtWithMargin(Shape shape, float x, float y, float margin) {
-    if (margin == 0) {
-      return shape.contains(x, y);
-    } else {
-      return shape.intersects(x - margin, y - margin, 2 * margin, 2 * margin);
-    }
-  }
-
   /**
    * Returns the shape matching this room.
    */
   private Shape getShape() {
-    if (this.shapeCache == null) {
-      GeneralPath roomShape = new GeneralPath();
-      roomShape.moveTo(this.points [0][0], this.points [0][1]);
-      for (int i = 1; i < this.points.length; i++) {
-        roomShape.lineTo(this.points [i][0], this.points [i][1]);
+    Shape roomShape = this.shapeCache;
+    if (roomShape == null) {
+      float [] coordinates = this.coordinates;
+      GeneralPath roomPath = new GeneralPath();
+      roomPath.moveTo(coordinates [0], coordinates [1]);
+      for (int i = 2; i < coordinates.length; i += 2) {
+        roomPath.lineTo(coordinates [i], coordinates [i + 1]);
       }
-      roomShape.closePath();
+      roomPath.closePath();
+      roomShape = roomPath;
       // Cache roomShape
-      this.shapeCache = roomShape;
+      synchronized (this) {
+        if (coordinates == this.coordinates) {
+          this.shapeCache = roomShape;
+        }
+      }
     }
-    return this.shapeCache;
+    return roomShape;
   }
 
   /**
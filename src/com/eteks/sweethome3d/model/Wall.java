@@ -19,11 +19,7 @@
  */
 package com.eteks.sweethome3d.model;
 
-import java.awt.Shape;
-import java.awt.geom.GeneralPath;
-import java.awt.geom.Line2D;
 import java.awt.geom.Point2D;
-import java.awt.geom.Rectangle2D;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -67,10 +63,12 @@ public class Wall extends HomeObject implements Selectable, Elevatable {
   private Integer             topColor;
   private Level               level;
 
-  private transient Shape      shapeCache;
   private transient float []   arcCircleCenterCache;
   private transient float [][] pointsCache;
   private transient float [][] pointsIncludingBaseboardsCache;
+  // Incremented each time cached points are cleared, to avoid caching points
+  // computed in an other thread from data modified in the meantime
+  private transient volatile int pointsCacheVersion;
 
 
   /**
@@ -292,7 +290,9 @@ public class Wall extends HomeObject implements Selectable, Elevatable {
    * Returns the coordinates of the arc circle center of this wall.
    */
   private float [] getArcCircleCenter() {
-    if (this.arcCircleCenterCache == null) {
+    float [] arcCircleCenter = this.arcCircleCenterCache;
+    if (arcCircleCenter == null) {
+      int cacheVersion = this.pointsCacheVersion;
       double startToEndPointsDistance = Point2D.distance(this.xStart, this.yStart, this.xEnd, this.yEnd);
       double wallToStartPointArcCircleCenterAngle = Math.abs(this.arcExtent) > Math.PI
           ? -(Math.PI + this.arcExtent) / 2
@@ -302,11 +302,16 @@ public class Wall extends HomeObject implements Selectable, Elevatable {
       float xMiddlePoint = (this.xStart + this.xEnd) / 2;
       float yMiddlePoint = (this.yStart + this.yEnd) / 2;
       double angle = Math.atan2(this.xStart - this.xEnd, this.yEnd - this.yStart);
-      this.arcCircleCenterCache = new float [] {
+      arcCircleCenter = new float [] {
           (float)(xMiddlePoint + arcCircleCenterToWallDistance * Math.cos(angle)),
           (float)(yMiddlePoint + arcCircleCenterToWallDistance * Math.sin(angle))};
+      synchronized (this) {
+        if (cacheVersion == this.pointsCacheVersion) {
+          this.arcCircleCenterCache = arcCircleCenter;
+        }
+      }
     }
-    return this.arcCircleCenterCache;
+    return arcCircleCenter;
   }
 
   /**
@@ -744,19 +749,25 @@ public class Wall extends HomeObject implements Selectable, Elevatable {
    * Clears the points cache of this wall and of the walls attached to it.
    */
   private void clearPointsCache() {
-    this.shapeCache = null;
-    this.pointsCache = null;
-    this.pointsIncludingBaseboardsCache = null;
+    clearOwnPointsCache();
     if (this.wallAtStart != null ) {
-      this.wallAtStart.pointsCache = null;
-      this.wallAtStart.pointsIncludingBaseboardsCache = null;
+      this.wallAtStart.clearOwnPointsCache();
     }
     if (this.wallAtEnd != null) {
-      this.wallAtEnd.pointsCache = null;
-      this.wallAtEnd.pointsIncludingBaseboardsCache = null;
+      this.wallAtEnd.clearOwnPointsCache();
     }
   }
 
+  /**
+   * Clears the points cache of this wall and increments its version,
+   * as points may be computed in an other thread.
+   */
+  private synchronized void clearOwnPointsCache() {
+    this.pointsCache = null;
+    this.pointsIncludingBaseboardsCache = null;
+    this.pointsCacheVersion++;
+  }
+
   /**
    * Returns the points of each corner of a wall not including its baseboards.
    * @return an array of the (x,y) coordinates of the wall corners.
@@ -772,18 +783,97 @@ public class Wall extends HomeObject implements Selectable, Elevatable {
    * @since 5.0
    */
   public float [][] getPoints(boolean includeBaseboards) {
+    return clonePoints(getCachedPoints(includeBaseboards));
+  }
+
+  /**
+   * Returns the points of each corner of a wall not including its baseboards,
+   * copied in the given <code>points</code> array if its length is equal to the count of points,
+   * or in a new array otherwise.
+   * This method enables callers to reuse the same array to get points repeatedly.
+   * @since 7.3
+   */
+  public float [][] getPoints(float [][] points) {
+    return getPoints(points, false);
+  }
+
+  /**
+   * Returns the points of each corner of a wall possibly including its baseboards,
+   * copied in the given <code>points</code> array if its length is equal to the count of points,
+   * or in a new array otherwise.
+   * @since 7.3
+   */
+  public float [][] getPoints(float [][] points, boolean includeBaseboards) {
+    float [][] cachedPoints = getCachedPoints(includeBaseboards);
+    if (points == null || points.length != cachedPoints.length) {
+      points = new float [cachedPoints.length][];
+    }
+    for (int i = 0; i < cachedPoints.length; i++) {
+      if (points [i] == null || points [i].length < 2) {
+        points [i] = new float [2];
+      }
+      points [i][0] = cachedPoints [i][0];
+      points [i][1] = cachedPoints [i][1];
+    }
+    return points;
+  }
+
+  /**
+   * Returns the count of points of this wall not including its baseboards.
+   * @since 7.3
+   */
+  public int getPointCount() {
+    return getCachedPoints(false).length;
+  }
+
+  /**
+   * Returns the abscissa of the point at the given <code>index</code> of this wall
+   * not including its baseboards, without copying its points.
+   * @since 7.3
+   */
+  public float getPointX(int index) {
+    return getCachedPoints(false) [index][0];
+  }
+
+  /**
+   * Returns the ordinate of the point at the given <code>index</code> of this wall
+   * not including its baseboards, without copying its points.
+   * @since 7.3
+   */
+  public float getPointY(int index) {
+    return getCachedPoints(false) [index][1];
+  }
+
+  /**
+   * Returns the cached points of this wall that must not be modified.
+   */
+  private float [][] getCachedPoints(boolean includeBaseboards) {
     if (includeBaseboards
         && (this.leftSideBaseboard != null
             || this.rightSideBaseboard != null)) {
-      if (this.pointsIncludingBaseboardsCache == null) {
-        this.pointsIncludingBaseboardsCache = getShapePoints(true);
+      float [][] points = this.pointsIncludingBaseboardsCache;
+      if (points == null) {
+        int cacheVersion = this.pointsCacheVersion;
+        points = getShapePoints(true);
+        synchronized (this) {
+          if (cacheVersion == this.pointsCacheVersion) {
+            this.pointsIncludingBaseboardsCache = points;
+          }
+        }
       }
-      return clonePoints(this.pointsIncludingBaseboardsCache);
+      return points;
     } else {
-      if (this.pointsCache == null) {
-        this.pointsCache = getShapePoints(false);
+      float [][] points = this.pointsCache;
+      if (points == null) {
+        int cacheVersion = this.pointsCacheVersion;
+        points = getShapePoints(false);
+        synchronized (this) {
+          if (cacheVersion == this.pointsCacheVersion) {
+            this.pointsCache = points;
+          }
+        }
       }
-      return clonePoints(this.pointsCache);
+      return points;
     }
   }
 
@@ -1085,9 +1175,8 @@ public class Wall extends HomeObject implements Selectable, Elevatable {
    * (<code>x0</code>, <code>y0</code>) and (<code>x1</code>, <code>y1</code>).
    */
   public boolean intersectsRectangle(float x0, float y0, float x1, float y1) {
-    Rectangle2D rectangle = new Rectangle2D.Float(x0, y0, 0, 0);
-    rectangle.add(x1, y1);
-    return getShape(false).intersects(rectangle);
+    float [][] wallPoints = getCachedPoints(false);
+    return PlanGeometry.intersectsRectangle(wallPoints, wallPoints.length, x0, y0, x1, y1);
   }
 
   /**
@@ -1104,7 +1193,8 @@ public class Wall extends HomeObject implements Selectable, Elevatable {
    * @since 5.0
    */
   public boolean containsPoint(float x, float y, boolean includeBaseboards, float margin) {
-    return containsShapeAtWithMargin(getShape(includeBaseboards), x, y, margin);
+    float [][] wallPoints = getCachedPoints(includeBaseboards);
+    return PlanGeometry.containsPoint(wallPoints, wallPoints.length, x, y, margin);
   }
 
   /**
@@ -1112,17 +1202,18 @@ public class Wall extends HomeObject implements Selectable, Elevatable {
    * with a given <code>margin</code>.
    */
   public boolean isMiddlePointAt(float x, float y, float margin) {
-    float [][] wallPoints = getPoints();
+    float [][] wallPoints = getCachedPoints(false);
     int leftSideMiddlePointIndex = wallPoints.length / 4;
     int rightSideMiddlePointIndex = wallPoints.length - 1 - leftSideMiddlePointIndex;
-    Line2D middleLine = wallPoints.length % 4 == 0
-        ? new Line2D.Float((wallPoints [leftSideMiddlePointIndex - 1][0] + wallPoints [leftSideMiddlePointIndex][0]) / 2,
-            (wallPoints [leftSideMiddlePointIndex - 1][1] + wallPoints [leftSideMiddlePointIndex][1]) / 2,
-            (wallPoints [rightSideMiddlePointIndex][0] + wallPoints [rightSideMiddlePointIndex + 1][0]) / 2,
-            (wallPoints [rightSideMiddlePointIndex][1] + wallPoints [rightSideMiddlePointIndex + 1][1]) / 2)
-        : new Line2D.Float(wallPoints [leftSideMiddlePointIndex][0], wallPoints [leftSideMiddlePointIndex][1],
-            wallPoints [rightSideMiddlePointIndex][0], wallPoints [rightSideMiddlePointIndex][1]);
-    return containsShapeAtWithMargin(middleLine, x, y, margin);
+    if (wallPoints.length % 4 == 0) {
+      return PlanGeometry.isSegmentAt((wallPoints [leftSideMiddlePointIndex - 1][0] + wallPoints [leftSideMiddlePointIndex][0]) / 2,
+          (wallPoints [leftSideMiddlePointIndex - 1][1] + wallPoints [leftSideMiddlePointIndex][1]) / 2,
+          (wallPoints [rightSideMiddlePointIndex][0] + wallPoints [rightSideMiddlePointIndex + 1][0]) / 2,
+          (wallPoints [rightSideMiddlePointIndex][1] + wallPoints [rightSideMiddlePointIndex + 1][1]) / 2, x, y, margin);
+    } else {
+      return PlanGeometry.isSegmentAt(wallPoints [leftSideMiddlePointIndex][0], wallPoints [leftSideMiddlePointIndex][1],
+          wallPoints [rightSideMiddlePointIndex][0], wallPoints [rightSideMiddlePointIndex][1], x, y, margin);
+    }
   }
 
   /**
@@ -1131,10 +1222,9 @@ public class Wall extends HomeObject implements Selectable, Elevatable {
    * with a given <code>margin</code> around the wall start line.
    */
   public boolean containsWallStartAt(float x, float y, float margin) {
-    float [][] wallPoints = getPoints();
-    Line2D startLine = new Line2D.Float(wallPoints [0][0], wallPoints [0][1],
-        wallPoints [wallPoints.length - 1][0], wallPoints [wallPoints.length - 1][1]);
-    return containsShapeAtWithMargin(startLine, x, y, margin);
+    float [][] wallPoints = getCachedPoints(false);
+    return PlanGeometry.isSegmentAt(wallPoints [0][0], wallPoints [0][1],
+        wallPoints [wallPoints.length - 1][0], wallPoints [wallPoints.length - 1][1], x, y, margin);
   }
 
   /**
@@ -1143,40 +1233,9 @@ public class Wall extends HomeObject implements Selectable, Elevatable {
    * with a given <code>margin</code> around the wall end line.
    */
   public boolean containsWallEndAt(float x, float y, float margin) {
-    float [][] wallPoints = getPoints();
-    Line2D endLine = new Line2D.Float(wallPoints [wallPoints.length / 2 - 1][0], wallPoints [wallPoints.length / 2 - 1][1],
-        wallPoints [wallPoints.length / 2][0], wallPoints [wallPoints.length / 2][1]);
-    return containsShapeAtWithMargin(endLine, x, y, margin);
-  }
-
-  /**
-   * Returns <code>true</code> if <code>shape</code> contains
-   * the point at (<code>x</code>, <code>y</code>)
-   * with a given <code>margin</code>.
-   */
-  private boolean containsShapeAtWithMargin(Shape shape, float x, float y, float margin) {
-    if (margin == 0) {
-      return shape.contains(x, y);
-    } else {
-      return shape.intersects(x - margin, y - margin, 2 * margin, 2 * margin);
-    }
-  }
-
-  /**
-   * Returns the shape matching this wall.
-   */
-  private Shape getShape(boolean includeBaseboards) {
-    if (this.shapeCache == null) {
-      float [][] wallPoints = getPoints(includeBaseboards);
-      GeneralPath wallPath = new GeneralPath();
-      wallPath.moveTo(wallPoints [0][0], wallPoints [0][1]);
-      for (int i = 1; i < wallPoints.length; i++) {
-        wallPath.lineTo(wallPoints [i][0], wallPoints [i][1]);
-      }
-      wallPath.closePath();
-      this.shapeCache = wallPath;
-    }
-    return this.shapeCache;
+    float [][] wallPoints = getCachedPoints(false);
+    return PlanGeometry.isSegmentAt(wallPoints [wallPoints.length / 2 - 1][0], wallPoints [wallPoints.length / 2 - 1][1],
+        wallPoints [wallPoints.length / 2][0], wallPoints [wallPoints.length / 2][1], x, y, margin);
   }
 
   /**
@@ -1246,7 +1305,6 @@ public class Wall extends HomeObject implements Selectable, Elevatable {
     clone.wallAtStart = null;
     clone.wallAtEnd = null;
     clone.level = null;
-    clone.shapeCache = null;
     clone.pointsCache = null;
     clone.pointsIncludingBaseboardsCache = null;
     return clone;
@@ -116,6 +116,7 @@ import javax.swing.tree.TreeCellRenderer;
 import javax.swing.tree.TreeModel;
 import javax.swing.tree.TreePath;
 
+import com.eteks.sweethome3d.model.BulkCollectionListener;
 import com.eteks.sweethome3d.model.CollectionEvent;
 import com.eteks.sweethome3d.model.CollectionListener;
 import com.eteks.sweethome3d.model.Content;
@@ -151,6 +152,7 @@ public class FurnitureTable extends JTable implements FurnitureView, Printable {
   private int                    furnitureInformationRow;
   private Popup                  furnitureInformationPopup;
   private AWTEventListener       informationPopupRemovalListener;
+  private boolean                furnitureUpdateDeferred;
   private final boolean          reorderingEnabled;
 
   /**
@@ -698,13 +700,29 @@ public class FurnitureTable extends JTable implements FurnitureView, Printable {
     final PropertyChangeListener changeListener =
       new PropertyChangeListener () {
         public void propertyChange(PropertyChangeEvent ev) {
-          // As furniture properties values change may alter sort order and filter, update the whole table
-          ((FurnitureTreeTableModel)getModel()).filterAndSortFurniture();
-          // Update selected rows
-          updateTableSelectedFurniture(home);
-          storeExpandedRows(home, controller);
+          if (home.isTransactionInProgress()) {
+            // Update table once at the end of the transaction
+            furnitureUpdateDeferred = true;
+          } else {
+            // As furniture properties values change may alter sort order and filter, update the whole table
+            ((FurnitureTreeTableModel)getModel()).filterAndSortFurniture();
+            // Update selected rows
+            updateTableSelectedFurniture(home);
+            storeExpandedRows(home, controller);
+          }
         }
       };
+    home.addPropertyChangeListener(Home.Property.TRANSACTION_IN_PROGRESS, new PropertyChangeListener() {
+        public void propertyChange(PropertyChangeEvent ev) {
+          if (!home.isTransactionInProgress()
+              && furnitureUpdateDeferred) {
+            furnitureUpdateDeferred = false;
+            ((FurnitureTreeTableModel)getModel()).filterAndSortFurniture();
+            updateTableSelectedFurniture(home);
+            storeExpandedRows(home, controller);
+          }
+        }
+      });
     for (HomePieceOfFurniture piece : home.getFurniture()) {
       piece.addPropertyChangeListener(changeListener);
       if (piece instanceof HomeFurnitureGroup) {
@@ -2652,8 +2670,16 @@ public class FurnitureTable extends JTable implements FurnitureView, Printable {
     }
 
     private void addHomeListener(final Home home) {
-      home.addFurnitureListener(new CollectionListener<HomePieceOfFurniture>() {
+      home.addFurnitureListener(new BulkCollectionListener<HomePieceOfFurniture>() {
           public void collectionChanged(CollectionEvent<HomePieceOfFurniture> ev) {
+            if (ev.getItems().size() > 1) {
+              // Update the whole table once when several pieces are added or deleted together
+              if (ev.getType() == CollectionEvent.Type.DELETE) {
+                expandedGroups.removeAll(ev.getItems());
+              }
+              filterAndSortFurniture();
+              return;
+            }
             HomePieceOfFurniture piece = ev.getItem();
             int pieceIndex = ev.getIndex();
             switch (ev.getType()) {
@@ -75,12 +75,16 @@ import java.util.Comparator;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 
 import javax.media.j3d.Alpha;
@@ -150,6 +154,7 @@ import com.eteks.sweethome3d.j3d.Object3DBranch;
 import com.eteks.sweethome3d.j3d.Object3DBranchFactory;
 import com.eteks.sweethome3d.j3d.TextureManager;
 import com.eteks.sweethome3d.j3d.Wall3D;
+import com.eteks.sweethome3d.model.BulkCollectionListener;
 import com.eteks.sweethome3d.model.Camera;
 import com.eteks.sweethome3d.model.CollectionEvent;
 import com.eteks.sweethome3d.model.CollectionListener;
@@ -203,6 +208,10 @@ public class HomeComponent3D extends JComponent implements View3D, Printable {
 
   private static final boolean JAVA3D_1_5 = VirtualUniverse.getProperties().get("j3d.version") != null
       && ((String)VirtualUniverse.getProperties().get("j3d.version")).startsWith("1.5");
+  // Minimum count of objects updated at once for which geometry is computed in parallel
+  private static final int     PARALLEL_UPDATE_MINIMUM_COUNT = 16;
+
+  private static ExecutorService geometryUpdateExecutor;
 
   private final Home                               home;
   private UserPreferences                          preferences;
@@ -212,6 +221,8 @@ public class HomeComponent3D extends JComponent implements View3D, Printable {
   private final Map<Selectable, Object3DBranch>    homeObjects = new HashMap<Selectable, Object3DBranch>();
   private Light []                                 sceneLights;
   private Collection<Selectable>                   homeObjectsToUpdate;
+  private final Map<Selectable, Long>              preparedObjectsUpdates = new HashMap<Selectable, Long>();
+  private long                                     preparedUpdatesCount;
   private Collection<Selectable>                   lightScopeObjectsToUpdate;
   private Component                                component3D;
   private SimpleUniverse                           onscreenUniverse;
@@ -234,6 +245,9 @@ public class HomeComponent3D extends JComponent implements View3D, Printable {
   private PropertyChangeListener                   wallChangeListener;
   private CollectionListener<HomePieceOfFurniture> furnitureListener;
   private PropertyChangeListener                   furnitureChangeListener;
+  private PropertyChangeListener                   transactionListener;
+  private Map<HomePieceOfFurniture, HomePieceOfFurniture> transactionModifiedDoorsOrWindows =
+      new HashMap<HomePieceOfFurniture, HomePieceOfFurniture>();
   private CollectionListener<Room>                 roomListener;
   private PropertyChangeListener                   roomChangeListener;
   private CollectionListener<Polyline>             polylineListener;
@@ -936,6 +950,7 @@ public class HomeComponent3D extends JComponent implements View3D, Printable {
       wall.removePropertyChangeListener(this.wallChangeListener);
     }
     this.home.removeFurnitureListener(this.furnitureListener);
+    this.home.removePropertyChangeListener(Home.Property.TRANSACTION_IN_PROGRESS, this.transactionListener);
     for (HomePieceOfFurniture piece : this.home.getFurniture()) {
       removePropertyChangeListener(piece, this.furnitureChangeListener);
     }
@@ -3050,8 +3065,21 @@ public class HomeComponent3D extends JComponent implements View3D, Printable {
           } else if (Level.Property.BACKGROUND_IMAGE.name().equals(ev.getPropertyName())) {
             groundChangeListener.propertyChange(null);
           } else if (Level.Property.FLOOR_THICKNESS.name().equals(ev.getPropertyName())) {
-            updateObjects(home.getWalls());
-            updateObjects(home.getRooms());
+            // Update only walls and rooms with a floor bottom matching the modified level
+            Level level = (Level)ev.getSource();
+            List<Selectable> updatedItems = new ArrayList<Selectable>();
+            for (Wall wall : home.getWallsAtLevel(level)) {
+              if (wall.getLevel() == level) {
+                updatedItems.add(wall);
+              }
+            }
+            for (Room room : home.getRooms()) {
+              if (room.getLevel() != null
+                  && room.getLevel().getElevation() == level.getElevation()) {
+                updatedItems.add(room);
+              }
+            }
+            updateObjects(updatedItems);
           } else if (Level.Property.HEIGHT.name().equals(ev.getPropertyName())) {
             updateObjects(home.getRooms());
           }
@@ -3123,18 +3151,19 @@ public class HomeComponent3D extends JComponent implements View3D, Printable {
     for (Wall wall : this.home.getWalls()) {
       wall.addPropertyChangeListener(this.wallChangeListener);
     }
-    this.wallListener = new CollectionListener<Wall>() {
+    this.wallListener = new BulkCollectionListener<Wall>() {
         public void collectionChanged(CollectionEvent<Wall> ev) {
-          Wall wall = ev.getItem();
-          switch (ev.getType()) {
-            case ADD :
-              addObject(group, wall, true, false);
-              wall.addPropertyChangeListener(wallChangeListener);
-              break;
-            case DELETE :
-              deleteObject(wall);
-              wall.removePropertyChangeListener(wallChangeListener);
-              break;
+          for (Wall wall : ev.getItems()) {
+            switch (ev.getType()) {
+              case ADD :
+                addObject(group, wall, true, false);
+                wall.addPropertyChangeListener(wallChangeListener);
+                break;
+              case DELETE :
+                deleteObject(wall);
+                wall.removePropertyChangeListener(wallChangeListener);
+                break;
+            }
           }
           lightScopeOutsideWallsAreaCache = null;
           updateObjects(home.getRooms());
@@ -3205,9 +3234,21 @@ public class HomeComponent3D extends JComponent implements View3D, Printable {
 
         private void updatePieceOfFurnitureGeometry(HomePieceOfFurniture piece, String propertyName, Float oldValue) {
           updateObjects(Arrays.asList(new HomePieceOfFurniture [] {piece}));
-          if (containsDoorsAndWindows(piece)) {
+          if (containsDoorsAndWindows(piece)
+              || containsStaircases(piece)) {
             if (oldValue != null) {
-              HomePieceOfFurniture oldPiece = piece.clone();
+              HomePieceOfFurniture oldPiece;
+              if (home.isTransactionInProgress()) {
+                // As coalesced events don't give intermediate states, accumulate old values
+                // in a same clone to update walls or rooms at the end of the transaction
+                oldPiece = transactionModifiedDoorsOrWindows.get(piece);
+                if (oldPiece == null) {
+                  oldPiece = piece.clone();
+                  transactionModifiedDoorsOrWindows.put(piece, oldPiece);
+                }
+              } else {
+                oldPiece = piece.clone();
+              }
               // Reset the modified property to its old value
               if (HomePieceOfFurniture.Property.X.name().equals(propertyName)) {
                 oldPiece.setX(oldValue);
@@ -3219,17 +3260,20 @@ public class HomeComponent3D extends JComponent implements View3D, Printable {
                 oldPiece.setWidth(oldValue);
               } else if (HomePieceOfFurniture.Property.DEPTH.name().equals(propertyName)) {
                 oldPiece.setDepth(oldValue);
+              } else if (HomePieceOfFurniture.Property.ROLL.name().equals(propertyName)) {
+                oldPiece.setRoll(oldValue);
+              } else if (HomePieceOfFurniture.Property.PITCH.name().equals(propertyName)) {
+                oldPiece.setPitch(oldValue);
               }
-              // For doors and windows, propertyName can't be equal to ROLL or PITCH
 
-              // Update walls which intersect the piece with its old property value and the one with the new value
-              updateIntersectingWalls(oldPiece, piece);
+              if (!home.isTransactionInProgress()) {
+                // Update walls or rooms which intersect the piece with its old property value and the one with the new value
+                updateIntersectingWallsAndRooms(oldPiece, piece);
+              }
             } else {
-              // Property value change won't influence the walls that intersect the door or window
-              updateIntersectingWalls(piece);
+              // Property value change won't influence the walls or rooms that intersect the piece
+              updateIntersectingWallsAndRooms(piece);
             }
-          } else if (containsStaircases(piece)) {
-            updateObjects(home.getRooms());
           }
           if (piece.getLevel() != null && piece.getLevel().getElevation() < 0) {
             groundChangeListener.propertyChange(null);
@@ -3239,36 +3283,57 @@ public class HomeComponent3D extends JComponent implements View3D, Printable {
     for (HomePieceOfFurniture piece : this.home.getFurniture()) {
       addPropertyChangeListener(piece, this.furnitureChangeListener);
     }
-    this.furnitureListener = new CollectionListener<HomePieceOfFurniture>() {
+    this.furnitureListener = new BulkCollectionListener<HomePieceOfFurniture>() {
         public void collectionChanged(CollectionEvent<HomePieceOfFurniture> ev) {
-          HomePieceOfFurniture piece = (HomePieceOfFurniture)ev.getItem();
-          switch (ev.getType()) {
-            case ADD :
-              addPieceOfFurniture(group, piece, true, false);
-              addPropertyChangeListener(piece, furnitureChangeListener);
-              break;
-            case DELETE :
-              deletePieceOfFurniture(piece);
-              removePropertyChangeListener(piece, furnitureChangeListener);
-              break;
+          List<HomePieceOfFurniture> doorsOrWindows = new ArrayList<HomePieceOfFurniture>();
+          List<HomePieceOfFurniture> staircases = new ArrayList<HomePieceOfFurniture>();
+          for (HomePieceOfFurniture piece : ev.getItems()) {
+            switch (ev.getType()) {
+              case ADD :
+                addPieceOfFurniture(group, piece, true, false);
+                addPropertyChangeListener(piece, furnitureChangeListener);
+                break;
+              case DELETE :
+                deletePieceOfFurniture(piece);
+                removePropertyChangeListener(piece, furnitureChangeListener);
+                break;
+            }
+            if (containsDoorsAndWindows(piece)) {
+              doorsOrWindows.add(piece);
+            } else if (containsStaircases(piece)) {
+              staircases.add(piece);
+            } else {
+              approximateHomeBoundsCache = null;
+              homeHeightCache = null;
+            }
           }
-          // If piece is or contains a door or a window, update walls that intersect with piece
-          if (containsDoorsAndWindows(piece)) {
-            updateIntersectingWalls(piece);
-          } else if (containsStaircases(piece)) {
-            updateObjects(home.getRooms());
-          } else {
-            approximateHomeBoundsCache = null;
-            homeHeightCache = null;
+          // If pieces are or contain doors or windows, update walls that intersect with them
+          if (!doorsOrWindows.isEmpty()) {
+            updateIntersectingWalls(doorsOrWindows.toArray(new HomePieceOfFurniture [doorsOrWindows.size()]));
+          }
+          if (!staircases.isEmpty()) {
+            updateIntersectingRooms(staircases.toArray(new HomePieceOfFurniture [staircases.size()]));
           }
           groundChangeListener.propertyChange(null);
           if (projection != Projection.PERSPECTIVE) {
             cameraChangeListener.propertyChange(null);
           }
-          updateObjectsLightScope(Arrays.asList(new HomePieceOfFurniture [] {piece}));
+          updateObjectsLightScope(ev.getItems());
         }
       };
     this.home.addFurnitureListener(this.furnitureListener);
+    this.transactionListener = new PropertyChangeListener() {
+        public void propertyChange(PropertyChangeEvent ev) {
+          if (!home.isTransactionInProgress()
+              && !transactionModifiedDoorsOrWindows.isEmpty()) {
+            for (Map.Entry<HomePieceOfFurniture, HomePieceOfFurniture> entry : transactionModifiedDoorsOrWindows.entrySet()) {
+              updateIntersectingWallsAndRooms(entry.getValue(), entry.getKey());
+            }
+            transactionModifiedDoorsOrWindows.clear();
+          }
+        }
+      };
+    this.home.addPropertyChangeListener(Home.Property.TRANSACTION_IN_PROGRESS, this.transactionListener);
   }
 
   /**
@@ -3398,27 +3463,30 @@ public class HomeComponent3D extends JComponent implements View3D, Printable {
     for (Room room : this.home.getRooms()) {
       room.addPropertyChangeListener(this.roomChangeListener);
     }
-    this.roomListener = new CollectionListener<Room>() {
+    this.roomListener = new BulkCollectionListener<Room>() {
         public void collectionChanged(CollectionEvent<Room> ev) {
-          Room room = ev.getItem();
-          switch (ev.getType()) {
-            case ADD :
-              // Add room to its group at the index indicated by the event
-              // to ensure the 3D rooms are drawn in the same order as in the plan
-              addObject(group, room, ev.getIndex(), true, false);
-              room.addPropertyChangeListener(roomChangeListener);
-              break;
-            case DELETE :
-              deleteObject(room);
-              room.removePropertyChangeListener(roomChangeListener);
-              break;
+          List<Room> rooms = ev.getItems();
+          for (int i = 0; i < rooms.size(); i++) {
+            Room room = rooms.get(i);
+            switch (ev.getType()) {
+              case ADD :
+                // Add room to its group at the index indicated by the event
+                // to ensure the 3D rooms are drawn in the same order as in the plan
+                addObject(group, room, ev.getIndex() == -1 ? -1 : ev.getIndex() + i, true, false);
+                room.addPropertyChangeListener(roomChangeListener);
+                break;
+              case DELETE :
+                deleteObject(room);
+                room.removePropertyChangeListener(roomChangeListener);
+                break;
+            }
           }
           updateObjects(home.getRooms());
           groundChangeListener.propertyChange(null);
           if (projection != Projection.PERSPECTIVE) {
             cameraChangeListener.propertyChange(null);
           }
-          updateObjectsLightScope(Arrays.asList(new Room [] {room}));
+          updateObjectsLightScope(rooms);
           updateObjectsLightScope(getHomeObjects(HomeLight.class));
         }
       };
@@ -3663,6 +3731,7 @@ public class HomeComponent3D extends JComponent implements View3D, Printable {
   private void deleteObject(Selectable homeObject) {
     this.homeObjects.get(homeObject).detach();
     this.homeObjects.remove(homeObject);
+    this.preparedObjectsUpdates.remove(homeObject);
     if (this.homeObjectsToUpdate != null
         && this.homeObjectsToUpdate.contains(homeObject)) {
       this.homeObjectsToUpdate.remove(homeObject);
@@ -3694,11 +3763,17 @@ public class HomeComponent3D extends JComponent implements View3D, Printable {
       // Invoke later the update of objects of homeObjectsToUpdate
       EventQueue.invokeLater(new Runnable () {
         public void run() {
-          for (Selectable object : homeObjectsToUpdate) {
-            Object3DBranch objectBranch = homeObjects.get(object);
-            // Check object wasn't deleted since updateObjects call
-            if (objectBranch != null) {
-              objectBranch.update();
+          if (homeObjectsToUpdate.size() >= PARALLEL_UPDATE_MINIMUM_COUNT) {
+            prepareObjectsUpdate(homeObjectsToUpdate);
+          } else {
+            for (Selectable object : homeObjectsToUpdate) {
+              Object3DBranch objectBranch = homeObjects.get(object);
+              // Check object wasn't deleted since updateObjects call
+              if (objectBranch != null) {
+                // Ignore update that may be currently prepared for this object
+                preparedObjectsUpdates.remove(object);
+                objectBranch.update();
+              }
             }
           }
           homeObjectsToUpdate = null;
@@ -3711,6 +3786,92 @@ public class HomeComponent3D extends JComponent implements View3D, Printable {
     this.homeHeightCache = null;
   }
 
+  /**
+   * Prepares the update of 3D <code>objects</code> in worker threads, then applies
+   * each prepared update in Event Dispatch Thread, unless the object was deleted
+   * or updated again in the mean time.
+   * As the home may be modified during the computation, workers never read the home and its items
+   * but a clone of the home created here in Event Dispatch Thread, that snapshots its walls and their joins,
+   * its rooms, its levels, its furniture with doors, windows and staircases, and its environment.
+   * Objects other than walls and rooms are updated immediately.
+   */
+  private void prepareObjectsUpdate(Collection<Selectable> objects) {
+    final Long updateId = ++this.preparedUpdatesCount;
+    final Home homeSnapshot = this.home.clone();
+    Map<Selectable, Selectable> itemSnapshots = new IdentityHashMap<Selectable, Selectable>();
+    addItemSnapshots(itemSnapshots, this.home.getWalls(), homeSnapshot.getWalls());
+    addItemSnapshots(itemSnapshots, this.home.getRooms(), homeSnapshot.getRooms());
+    ExecutorService executor = getGeometryUpdateExecutor();
+    for (final Selectable object : objects) {
+      final Object3DBranch objectBranch = this.homeObjects.get(object);
+      final Selectable itemSnapshot = itemSnapshots.get(object);
+      if (objectBranch != null) {
+        if (itemSnapshot == null) {
+          this.preparedObjectsUpdates.remove(object);
+          objectBranch.update();
+          continue;
+        }
+        this.preparedObjectsUpdates.put(object, updateId);
+        executor.execute(new Runnable() {
+            public void run() {
+              Runnable preparedUpdate;
+              try {
+                preparedUpdate = objectBranch.prepareUpdate(homeSnapshot, itemSnapshot);
+              } catch (RuntimeException ex) {
+                // Let update() do the job if computation failed
+                preparedUpdate = null;
+              }
+              final Runnable updateTask = preparedUpdate;
+              EventQueue.invokeLater(new Runnable() {
+                  public void run() {
+                    if (updateId.equals(preparedObjectsUpdates.get(object))) {
+                      preparedObjectsUpdates.remove(object);
+                      if (homeObjects.get(object) == objectBranch) {
+                        if (updateTask != null) {
+                          updateTask.run();
+                        } else {
+                          objectBranch.update();
+                        }
+                      }
+                    }
+                  }
+                });
+            }
+          });
+      }
+    }
+  }
+
+  /**
+   * Maps each item of the given home <code>items</code> to its clone in <code>itemsSnapshot</code>.
+   */
+  private void addItemSnapshots(Map<Selectable, Selectable> itemSnapshots,
+                                Collection<? extends Selectable> items,
+                                Collection<? extends Selectable> itemsSnapshot) {
+    Iterator<? extends Selectable> itemSnapshotIterator = itemsSnapshot.iterator();
+    for (Selectable item : items) {
+      itemSnapshots.put(item, itemSnapshotIterator.next());
+    }
+  }
+
+  /**
+   * Returns the executor used to compute geometries in parallel.
+   */
+  private static synchronized ExecutorService getGeometryUpdateExecutor() {
+    if (geometryUpdateExecutor == null) {
+      geometryUpdateExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+          new ThreadFactory() {
+            public Thread newThread(Runnable runnable) {
+              Thread thread = new Thread(runnable, "Geometry updater");
+              thread.setDaemon(true);
+              thread.setPriority(Thread.MIN_PRIORITY);
+              return thread;
+            }
+          });
+    }
+    return geometryUpdateExecutor;
+  }
+
   /**
    * Updates 3D objects and furniture groups children, if <code>objects</code> contains some groups.
    */
@@ -3739,31 +3900,84 @@ public class HomeComponent3D extends JComponent implements View3D, Printable {
     // Check if some more walls may require an update
     if (wallCount != walls.size()) {
       List<Wall> updatedWalls = new ArrayList<Wall>();
-      Rectangle2D doorOrWindowBounds = null;
-      // Compute the approximate bounds of the doors and windows
-      for (HomePieceOfFurniture doorOrWindow : doorOrWindows) {
-        float [][] points = doorOrWindow.getPoints();
-        if (doorOrWindowBounds == null) {
-          doorOrWindowBounds = new Rectangle2D.Float(points [0][0], points [0][1], 0, 0);
-        } else {
-          doorOrWindowBounds.add(points [0][0], points [0][1]);
-        }
-        for (int i = 1; i < points.length; i++) {
-          doorOrWindowBounds.add(points [i][0], points [i][1]);
-        }
-      }
+      Rectangle2D [] doorOrWindowBounds = getPiecesBounds(doorOrWindows);
       // Search walls that intersect the bounds
       for (Wall wall : walls) {
-        if (wall.intersectsRectangle((float)doorOrWindowBounds.getX(), (float)doorOrWindowBounds.getY(),
-            (float)doorOrWindowBounds.getX() + (float)doorOrWindowBounds.getWidth(),
-            (float)doorOrWindowBounds.getY() + (float)doorOrWindowBounds.getHeight())) {
-          updatedWalls.add(wall);
+        for (Rectangle2D bounds : doorOrWindowBounds) {
+          if (wall.intersectsRectangle((float)bounds.getX(), (float)bounds.getY(),
+              (float)bounds.getMaxX(), (float)bounds.getMaxY())) {
+            updatedWalls.add(wall);
+            break;
+          }
         }
       }
       updateObjects(updatedWalls);
     }
   }
 
+  /**
+   * Updates rooms that may intersect the given staircases.
+   */
+  private void updateIntersectingRooms(HomePieceOfFurniture ... staircases) {
+    List<Room> updatedRooms = new ArrayList<Room>();
+    Rectangle2D [] staircaseBounds = getPiecesBounds(staircases);
+    // Search rooms at any level which bounds intersect staircases bounds,
+    // because a staircase cuts out the floor of upper levels
+    for (Room room : this.home.getRooms()) {
+      float [] roomMinimumCoordinates = room.getBoundsMinimumCoordinates();
+      float [] roomMaximumCoordinates = room.getBoundsMaximumCoordinates();
+      for (Rectangle2D bounds : staircaseBounds) {
+        if (roomMaximumCoordinates [0] >= bounds.getMinX()
+            && roomMinimumCoordinates [0] <= bounds.getMaxX()
+            && roomMaximumCoordinates [1] >= bounds.getMinY()
+            && roomMinimumCoordinates [1] <= bounds.getMaxY()) {
+          updatedRooms.add(room);
+          break;
+        }
+      }
+    }
+    updateObjects(updatedRooms);
+  }
+
+  /**
+   * Updates walls or rooms that may intersect the given pieces,
+   * depending on whether they contain doors or windows, or staircases.
+   */
+  private void updateIntersectingWallsAndRooms(HomePieceOfFurniture ... pieces) {
+    List<HomePieceOfFurniture> doorsOrWindows = new ArrayList<HomePieceOfFurniture>(pieces.length);
+    List<HomePieceOfFurniture> staircases = new ArrayList<HomePieceOfFurniture>(pieces.length);
+    for (HomePieceOfFurniture piece : pieces) {
+      if (containsDoorsAndWindows(piece)) {
+        doorsOrWindows.add(piece);
+      }
+      if (containsStaircases(piece)) {
+        staircases.add(piece);
+      }
+    }
+    if (!doorsOrWindows.isEmpty()) {
+      updateIntersectingWalls(doorsOrWindows.toArray(new HomePieceOfFurniture [doorsOrWindows.size()]));
+    }
+    if (!staircases.isEmpty()) {
+      updateIntersectingRooms(staircases.toArray(new HomePieceOfFurniture [staircases.size()]));
+    }
+  }
+
+  /**
+   * Returns the approximate bounds of each piece.
+   */
+  private Rectangle2D [] getPiecesBounds(HomePieceOfFurniture ... pieces) {
+    Rectangle2D [] piecesBounds = new Rectangle2D [pieces.length];
+    for (int i = 0; i < pieces.length; i++) {
+      float [][] points = pieces [i].getPoints();
+      piecesBounds [i] = new Rectangle2D.Float(points [0][0], points [0][1], 0, 0);
+      for (int j = 1; j < points.length; j++) {
+        piecesBounds [i].add(points [j][0], points [j][1]);
+      }
+    }
+    return piecesBounds;
+  }
+
+
   /**
    * Updates <code>wall</code> geometry and the walls at its end or start.
    */
@@ -47,7 +47,6 @@ import java.awt.RenderingHints;
 import java.awt.Shape;
 import java.awt.Stroke;
 import java.awt.TexturePaint;
-import java.awt.Toolkit;
 import java.awt.Window;
 import java.awt.dnd.DragSource;
 import java.awt.event.ActionEvent;
@@ -71,20 +70,24 @@ import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
 import java.awt.image.BufferedImage;
 import java.awt.image.FilteredImageSource;
-import java.awt.image.MemoryImageSource;
 import java.awt.image.RGBImageFilter;
 import java.awt.print.PageFormat;
 import java.awt.print.Printable;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InterruptedIOException;
 import java.io.OutputStream;
 import java.lang.ref.WeakReference;
 import java.lang.reflect.Method;
+import java.net.URISyntaxException;
 import java.net.URL;
+import java.net.URLDecoder;
 import java.security.AccessControlException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.text.DecimalFormat;
 import java.text.Format;
 import java.text.NumberFormat;
@@ -101,13 +104,22 @@ import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.TreeSet;
 import java.util.WeakHashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 
 import javax.imageio.ImageIO;
 import javax.media.j3d.AmbientLight;
@@ -164,10 +176,6 @@ import javax.vecmath.Point3d;
 import javax.vecmath.Vector3d;
 import javax.vecmath.Vector3f;
 
-import org.freehep.graphicsio.ImageConstants;
-import org.freehep.graphicsio.svg.SVGGraphics2D;
-import org.freehep.util.UserProperties;
-
 import com.eteks.sweethome3d.j3d.Component3DManager;
 import com.eteks.sweethome3d.j3d.ModelManager;
 import com.eteks.sweethome3d.j3d.Object3DBranch;
@@ -175,6 +183,7 @@ import com.eteks.sweethome3d.j3d.Object3DBranchFactory;
 import com.eteks.sweethome3d.j3d.ShapeTools;
 import com.eteks.sweethome3d.j3d.TextureManager;
 import com.eteks.sweethome3d.model.BackgroundImage;
+import com.eteks.sweethome3d.model.BulkCollectionListener;
 import com.eteks.sweethome3d.model.Camera;
 import com.eteks.sweethome3d.model.CollectionEvent;
 import com.eteks.sweethome3d.model.CollectionListener;
@@ -186,6 +195,7 @@ import com.eteks.sweethome3d.model.Home;
 import com.eteks.sweethome3d.model.HomeDoorOrWindow;
 import com.eteks.sweethome3d.model.HomeFurnitureGroup;
 import com.eteks.sweethome3d.model.HomeLight;
+import com.eteks.sweethome3d.model.HomeMaterial;
 import com.eteks.sweethome3d.model.HomePieceOfFurniture;
 import com.eteks.sweethome3d.model.HomeTexture;
 import com.eteks.sweethome3d.model.Label;
@@ -201,9 +211,12 @@ import com.eteks.sweethome3d.model.SelectionEvent;
 import com.eteks.sweethome3d.model.SelectionListener;
 import com.eteks.sweethome3d.model.TextStyle;
 import com.eteks.sweethome3d.model.TextureImage;
+import com.eteks.sweethome3d.model.Transformation;
 import com.eteks.sweethome3d.model.UserPreferences;
 import com.eteks.sweethome3d.model.Wall;
+import com.eteks.sweethome3d.tools.HexEncoder;
 import com.eteks.sweethome3d.tools.OperatingSystem;
+import com.eteks.sweethome3d.tools.URLContent;
 import com.eteks.sweethome3d.viewcontroller.Object3DFactory;
 import com.eteks.sweethome3d.viewcontroller.PlanController;
 import com.eteks.sweethome3d.viewcontroller.PlanView;
@@ -306,8 +319,16 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
 
   private List<HomePieceOfFurniture>        sortedLevelFurniture;
   private List<Room>                        sortedLevelRooms;
-  private Map<TextStyle, Font>              fonts;
-  private Map<TextStyle, FontMetrics>       fontsMetrics;
+  // Caches used during painting are synchronized because plan image may be painted by bands in parallel
+  private final Map<TextStyle, Font>        fonts = Collections.synchronizedMap(new WeakHashMap<TextStyle, Font>());
+  private final Map<TextStyle, FontMetrics> fontsMetrics = Collections.synchronizedMap(new WeakHashMap<TextStyle, FontMetrics>());
+  private final Map<List<Object>, CachedTextLayout> textLayoutsCache = new LinkedHashMap<List<Object>, CachedTextLayout>(256, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<List<Object>, CachedTextLayout> eldest) {
+        return size() > TEXT_LAYOUTS_CACHE_MAXIMUM_SIZE;
+      }
+    };
+  private FontRenderContext                 textBoundsFontRenderContext;
 
   private Rectangle2D                       planBoundsCache;
   private boolean                           planBoundsCacheValid = false;
@@ -322,10 +343,28 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
   private Color                             wallsPatternBackgroundCache;
   private Color                             wallsPatternForegroundCache;
   private Map<Collection<Wall>, Area>       wallAreasCache;
-  private Map<HomeDoorOrWindow, Area>       doorOrWindowWallThicknessAreasCache;
-  private Map<HomeTexture, BufferedImage>   floorTextureImagesCache;
-  private Map<HomePieceOfFurniture, HomePieceOfFurnitureTopViewIconKey> furnitureTopViewIconKeys;
-  private Map<HomePieceOfFurnitureTopViewIconKey, PieceOfFurnitureTopViewIcon> furnitureTopViewIconsCache;
+  private Float                             maxWallThicknessCache;
+  private final Map<HomeDoorOrWindow, Area>     doorOrWindowWallThicknessAreasCache =
+      Collections.synchronizedMap(new WeakHashMap<HomeDoorOrWindow, Area>());
+  private final Map<HomeTexture, BufferedImage> floorTextureImagesCache =
+      Collections.synchronizedMap(new WeakHashMap<HomeTexture, BufferedImage>());
+  private final Map<HomePieceOfFurniture, HomePieceOfFurnitureTopViewIconKey> furnitureTopViewIconKeys =
+      Collections.synchronizedMap(new WeakHashMap<HomePieceOfFurniture, HomePieceOfFurnitureTopViewIconKey>());
+  private final Map<HomePieceOfFurnitureTopViewIconKey, PieceOfFurnitureTopViewIcon> furnitureTopViewIconsCache =
+      Collections.synchronizedMap(new WeakHashMap<HomePieceOfFurnitureTopViewIconKey, PieceOfFurnitureTopViewIcon>());
+  private boolean                           planTilesEnabled = true;
+  private boolean                           parallelPaintingEnabled = true;
+  private PlanTiles                         planTilesCache;
+  private boolean                           planTilesIncomplete;
+  private Map<Selectable, Rectangle2D>      itemBoundsCache;
+  private Set<Selectable>                   invalidItemBounds;
+  private List<Selectable>                  paintedSelectedItems;
+  private Rectangle2D                       invalidItemsArea;
+  private boolean                           invalidItemsRepaintScheduled;
+  private boolean                           planBoundsUpdated;
+  private Rectangle2D                       observerCameraBoundsCache;
+  private Map<HomePieceOfFurniture, HomeFurnitureGroup> furnitureGroupsCache;
+  private Boolean                           viewableAtLevelOverridden;
 
   private static ExecutorService            backgroundImageLoader;
 
@@ -373,6 +412,15 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
   private static final float       BORDER_STROKE_WIDTH = 1f;
   private static final float       ALIGNMENT_LINE_OFFSET = 25f;
 
+  private static final int         TILE_SIZE = 256;
+  private static final int         TILES_BAND_MAXIMUM_PIXEL_COUNT = 4 * 1024 * 1024;
+  private static final float       ITEM_INVALIDATION_PIXEL_MARGIN = 25;
+  private static final int         TEXT_LAYOUTS_CACHE_MAXIMUM_SIZE = 4096;
+  // Sizes in pixels under which details are simplified or ignored in PAINT mode
+  private static final float       MINIMUM_TEXT_PIXEL_SIZE = 3;
+  private static final float       MINIMUM_FURNITURE_ICON_PIXEL_SIZE = 8;
+  private static final float       MINIMUM_ITEM_PIXEL_SIZE = 2;
+
   private static final BufferedImage ERROR_TEXTURE_IMAGE;
   private static final BufferedImage WAIT_TEXTURE_IMAGE;
 
@@ -695,6 +743,8 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
       if (object3dFactory == null && !Boolean.getBoolean("com.eteks.sweethome3d.no3D")) {
         object3dFactory = new Object3DBranchFactory();
       }
+      this.planTilesEnabled = !Boolean.getBoolean("com.eteks.sweethome3d.noPlanTiles");
+      this.parallelPaintingEnabled = !Boolean.getBoolean("com.eteks.sweethome3d.noParallelPlanPainting");
     } catch (AccessControlException ex) {
       // Can't access to properties
     }
@@ -743,8 +793,8 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
     // Add listener to update plan when furniture changes
     final PropertyChangeListener furnitureChangeListener = new PropertyChangeListener() {
         public void propertyChange(final PropertyChangeEvent ev) {
-          if (furnitureTopViewIconKeys != null
-              && (HomePieceOfFurniture.Property.MODEL.name().equals(ev.getPropertyName())
+          invalidateItem((HomePieceOfFurniture)ev.getSource());
+          if (HomePieceOfFurniture.Property.MODEL.name().equals(ev.getPropertyName())
                   || HomePieceOfFurniture.Property.MODEL_ROTATION.name().equals(ev.getPropertyName())
                   || HomePieceOfFurniture.Property.MODEL_FLAGS.name().equals(ev.getPropertyName())
                   || HomePieceOfFurniture.Property.MODEL_TRANSFORMATIONS.name().equals(ev.getPropertyName())
@@ -756,7 +806,7 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
                      && (((HomePieceOfFurniture)ev.getSource()).isHorizontallyRotated()
                          || ((HomePieceOfFurniture)ev.getSource()).getTexture() != null)
                   || HomePieceOfFurniture.Property.MODEL_MIRRORED.name().equals(ev.getPropertyName())
-                     && ((HomePieceOfFurniture)ev.getSource()).getRoll() != 0)) {
+                     && ((HomePieceOfFurniture)ev.getSource()).getRoll() != 0) {
             if (HomePieceOfFurniture.Property.HEIGHT_IN_PLAN.name().equals(ev.getPropertyName())) {
               sortedLevelFurniture = null;
             }
@@ -773,9 +823,9 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
                       public void propertyChange(PropertyChangeEvent ev2) {
                         for (HomePieceOfFurniture piece : invalidFurnitureTopViewIcons) {
                           furnitureTopViewIconKeys.remove(piece);
+                          invalidateItem(piece);
                         }
                         invalidFurnitureTopViewIcons = null;
-                        repaint();
                         controller.removePropertyChangeListener(PlanController.Property.MODIFICATION_STATE, this);
                       }
                     });
@@ -783,28 +833,19 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
                 invalidFurnitureTopViewIcons.add((HomePieceOfFurniture)ev.getSource());
               }
             }
-            revalidate();
-          } else if (furnitureTopViewIconKeys != null
-                      && (HomePieceOfFurniture.Property.PLAN_ICON.name().equals(ev.getPropertyName())
+          } else if (HomePieceOfFurniture.Property.PLAN_ICON.name().equals(ev.getPropertyName())
                           || HomePieceOfFurniture.Property.COLOR.name().equals(ev.getPropertyName())
                           || HomePieceOfFurniture.Property.TEXTURE.name().equals(ev.getPropertyName())
                           || HomePieceOfFurniture.Property.MODEL_MATERIALS.name().equals(ev.getPropertyName())
-                          || HomePieceOfFurniture.Property.SHININESS.name().equals(ev.getPropertyName()))) {
+                          || HomePieceOfFurniture.Property.SHININESS.name().equals(ev.getPropertyName())) {
             // From version 5.2, these changes can happen only for individual pieces because groups
             // can't have their own color, texture, materials and shininess anymore
             furnitureTopViewIconKeys.remove((HomePieceOfFurniture)ev.getSource());
-            repaint();
           } else if (HomePieceOfFurniture.Property.ELEVATION.name().equals(ev.getPropertyName())
                      || HomePieceOfFurniture.Property.LEVEL.name().equals(ev.getPropertyName())
                      || HomePieceOfFurniture.Property.HEIGHT_IN_PLAN.name().equals(ev.getPropertyName())) {
             sortedLevelFurniture = null;
-            repaint();
-          } else if (HomePieceOfFurniture.Property.ICON.name().equals(ev.getPropertyName())
-                     || HomeDoorOrWindow.Property.WALL_CUT_OUT_ON_BOTH_SIDES.name().equals(ev.getPropertyName())) {
-            // Should repaint only if icons rather than plan icons or top views are drawn but this may depends on various criteria
-            repaint();
-          } else if (doorOrWindowWallThicknessAreasCache != null
-                     && (HomePieceOfFurniture.Property.WIDTH.name().equals(ev.getPropertyName())
+          } else if (HomePieceOfFurniture.Property.WIDTH.name().equals(ev.getPropertyName())
                          || HomePieceOfFurniture.Property.DEPTH.name().equals(ev.getPropertyName())
                          || HomePieceOfFurniture.Property.ANGLE.name().equals(ev.getPropertyName())
                          || HomePieceOfFurniture.Property.MODEL_MIRRORED.name().equals(ev.getPropertyName())
@@ -815,11 +856,13 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
                          || HomeDoorOrWindow.Property.WALL_DISTANCE.name().equals(ev.getPropertyName())
                          || HomeDoorOrWindow.Property.WALL_WIDTH.name().equals(ev.getPropertyName())
                          || HomeDoorOrWindow.Property.WALL_LEFT.name().equals(ev.getPropertyName())
-                         || HomeDoorOrWindow.Property.CUT_OUT_SHAPE.name().equals(ev.getPropertyName()))
-                     && doorOrWindowWallThicknessAreasCache.remove(ev.getSource()) != null) {
-            revalidate();
-          } else {
-            revalidate();
+                         || HomeDoorOrWindow.Property.CUT_OUT_SHAPE.name().equals(ev.getPropertyName())) {
+            doorOrWindowWallThicknessAreasCache.remove(ev.getSource());
+          } else if (HomeDoorOrWindow.Property.WALL_CUT_OUT_ON_BOTH_SIDES.name().equals(ev.getPropertyName())) {
+            // Area painted in the thickness of walls appears or disappears
+            doorOrWindowWallThicknessAreasCache.remove(ev.getSource());
+            invalidatePlanTiles();
+            repaint();
           }
         }
       };
@@ -831,26 +874,31 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
         }
       }
     }
-    home.addFurnitureListener(new CollectionListener<HomePieceOfFurniture>() {
+    home.addFurnitureListener(new BulkCollectionListener<HomePieceOfFurniture>() {
         public void collectionChanged(CollectionEvent<HomePieceOfFurniture> ev) {
-          HomePieceOfFurniture piece = ev.getItem();
           if (ev.getType() == CollectionEvent.Type.ADD) {
-            piece.addPropertyChangeListener(furnitureChangeListener);
-            if (piece instanceof HomeFurnitureGroup) {
-              for (HomePieceOfFurniture childPiece : ((HomeFurnitureGroup)piece).getAllFurniture()) {
-                childPiece.addPropertyChangeListener(furnitureChangeListener);
+            furnitureGroupsCache = null;
+            for (HomePieceOfFurniture piece : ev.getItems()) {
+              invalidateItem(piece);
+              piece.addPropertyChangeListener(furnitureChangeListener);
+              if (piece instanceof HomeFurnitureGroup) {
+                for (HomePieceOfFurniture childPiece : ((HomeFurnitureGroup)piece).getAllFurniture()) {
+                  childPiece.addPropertyChangeListener(furnitureChangeListener);
+                }
               }
             }
           } else if (ev.getType() == CollectionEvent.Type.DELETE) {
-            piece.removePropertyChangeListener(furnitureChangeListener);
-            if (piece instanceof HomeFurnitureGroup) {
-              for (HomePieceOfFurniture childPiece : ((HomeFurnitureGroup)piece).getAllFurniture()) {
-                childPiece.removePropertyChangeListener(furnitureChangeListener);
+            invalidateDeletedItems(ev.getItems());
+            for (HomePieceOfFurniture piece : ev.getItems()) {
+              piece.removePropertyChangeListener(furnitureChangeListener);
+              if (piece instanceof HomeFurnitureGroup) {
+                for (HomePieceOfFurniture childPiece : ((HomeFurnitureGroup)piece).getAllFurniture()) {
+                  childPiece.removePropertyChangeListener(furnitureChangeListener);
+                }
               }
             }
           }
           sortedLevelFurniture = null;
-          revalidate();
         }
       });
 
@@ -858,6 +906,7 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
     final PropertyChangeListener wallChangeListener = new PropertyChangeListener() {
         public void propertyChange(PropertyChangeEvent ev) {
           String propertyName = ev.getPropertyName();
+          Wall wall = (Wall)ev.getSource();
           if (Wall.Property.X_START.name().equals(propertyName)
               || Wall.Property.X_END.name().equals(propertyName)
               || Wall.Property.Y_START.name().equals(propertyName)
@@ -872,14 +921,29 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
               otherLevelsWallsCache = null;
             }
             wallAreasCache = null;
-            doorOrWindowWallThicknessAreasCache = null;
-            revalidate();
+            doorOrWindowWallThicknessAreasCache.clear();
+            if (Wall.Property.THICKNESS.name().equals(propertyName)) {
+              maxWallThicknessCache = null;
+            }
+            if (isAtOtherLevelElevation(wall)) {
+              invalidatePlanTiles();
+            }
+            // Joined walls shape depends on the points of this wall
+            invalidateItem(wall);
+            invalidateItem(wall.getWallAtStart());
+            invalidateItem(wall.getWallAtEnd());
+            if (ev.getOldValue() instanceof Wall) {
+              invalidateItem((Wall)ev.getOldValue());
+            }
           } else if (Wall.Property.LEVEL.name().equals(propertyName)
               || Wall.Property.HEIGHT.name().equals(propertyName)
               || Wall.Property.HEIGHT_AT_END.name().equals(propertyName)) {
             otherLevelsWallAreaCache = null;
             otherLevelsWallsCache = null;
             wallAreasCache = null;
+            // Walls displayed at other levels may change
+            invalidatePlanTiles();
+            invalidateItem(wall);
             repaint();
           }
         }
@@ -887,18 +951,35 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
     for (Wall wall : home.getWalls()) {
       wall.addPropertyChangeListener(wallChangeListener);
     }
-    home.addWallsListener(new CollectionListener<Wall> () {
+    home.addWallsListener(new BulkCollectionListener<Wall> () {
         public void collectionChanged(CollectionEvent<Wall> ev) {
+          List<Wall> walls = ev.getItems();
+          for (Wall wall : walls) {
+            if (isAtOtherLevelElevation(wall)) {
+              invalidatePlanTiles();
+              break;
+            }
+          }
           if (ev.getType() == CollectionEvent.Type.ADD) {
-            ev.getItem().addPropertyChangeListener(wallChangeListener);
+            for (Wall wall : walls) {
+              invalidateItem(wall);
+              wall.addPropertyChangeListener(wallChangeListener);
+            }
           } else if (ev.getType() == CollectionEvent.Type.DELETE) {
-            ev.getItem().removePropertyChangeListener(wallChangeListener);
+            invalidateDeletedItems(walls);
+            for (Wall wall : walls) {
+              wall.removePropertyChangeListener(wallChangeListener);
+            }
+          }
+          for (Wall wall : walls) {
+            invalidateItem(wall.getWallAtStart());
+            invalidateItem(wall.getWallAtEnd());
           }
           otherLevelsWallAreaCache = null;
           otherLevelsWallsCache = null;
           wallAreasCache = null;
-          doorOrWindowWallThicknessAreasCache = null;
-          revalidate();
+          maxWallThicknessCache = null;
+          doorOrWindowWallThicknessAreasCache.clear();
         }
       });
 
@@ -906,6 +987,7 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
     final PropertyChangeListener roomChangeListener = new PropertyChangeListener() {
         public void propertyChange(PropertyChangeEvent ev) {
           String propertyName = ev.getPropertyName();
+          Room room = (Room)ev.getSource();
           if (Room.Property.POINTS.name().equals(propertyName)
               || Room.Property.NAME.name().equals(propertyName)
               || Room.Property.NAME_X_OFFSET.name().equals(propertyName)
@@ -922,42 +1004,55 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
             sortedLevelRooms = null;
             otherLevelsRoomAreaCache = null;
             otherLevelsRoomsCache = null;
-            revalidate();
+            invalidateRoom(room);
           } else if (preferences.isRoomFloorColoredOrTextured()
                      && (Room.Property.FLOOR_COLOR.name().equals(propertyName)
                          || Room.Property.FLOOR_TEXTURE.name().equals(propertyName)
                          || Room.Property.FLOOR_VISIBLE.name().equals(propertyName))) {
-            repaint();
+            invalidateRoom(room);
           }
         }
+
+        private void invalidateRoom(Room room) {
+          if (isAtOtherLevelElevation(room)) {
+            invalidatePlanTiles();
+          }
+          invalidateItem(room);
+        }
       };
     for (Room room : home.getRooms()) {
       room.addPropertyChangeListener(roomChangeListener);
     }
-    home.addRoomsListener(new CollectionListener<Room> () {
+    home.addRoomsListener(new BulkCollectionListener<Room> () {
         public void collectionChanged(CollectionEvent<Room> ev) {
+          List<Room> rooms = ev.getItems();
+          for (Room room : rooms) {
+            if (isAtOtherLevelElevation(room)) {
+              invalidatePlanTiles();
+              break;
+            }
+          }
           if (ev.getType() == CollectionEvent.Type.ADD) {
-            ev.getItem().addPropertyChangeListener(roomChangeListener);
+            for (Room room : rooms) {
+              invalidateItem(room);
+              room.addPropertyChangeListener(roomChangeListener);
+            }
           } else if (ev.getType() == CollectionEvent.Type.DELETE) {
-            ev.getItem().removePropertyChangeListener(roomChangeListener);
+            invalidateDeletedItems(rooms);
+            for (Room room : rooms) {
+              room.removePropertyChangeListener(roomChangeListener);
+            }
           }
           sortedLevelRooms = null;
           otherLevelsRoomAreaCache = null;
           otherLevelsRoomsCache = null;
-          revalidate();
         }
       });
 
      // Add listener to update plan when polylines change
      final PropertyChangeListener changeListener = new PropertyChangeListener() {
          public void propertyChange(PropertyChangeEvent ev) {
-           String propertyName = ev.getPropertyName();
-           if (Polyline.Property.COLOR.name().equals(propertyName)
-               || Polyline.Property.DASH_STYLE.name().equals(propertyName)) {
-             repaint();
-           } else {
-             revalidate();
-           }
+           invalidateItem((Polyline)ev.getSource());
          }
        };
      for (Polyline polyline : home.getPolylines()) {
@@ -966,11 +1061,12 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
      home.addPolylinesListener(new CollectionListener<Polyline>() {
         public void collectionChanged(CollectionEvent<Polyline> ev) {
           if (ev.getType() == CollectionEvent.Type.ADD) {
+            invalidateItem(ev.getItem());
             ev.getItem().addPropertyChangeListener(changeListener);
           } else if (ev.getType() == CollectionEvent.Type.DELETE) {
+            invalidateDeletedItem(ev.getItem());
             ev.getItem().removePropertyChangeListener(changeListener);
           }
-          revalidate();
         }
       });
 
@@ -987,10 +1083,9 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
               || DimensionLine.Property.OFFSET.name().equals(propertyName)
               || DimensionLine.Property.END_MARK_SIZE.name().equals(propertyName)
               || DimensionLine.Property.PITCH.name().equals(propertyName)
-              || DimensionLine.Property.LENGTH_STYLE.name().equals(propertyName)) {
-            revalidate();
-          } else if (DimensionLine.Property.COLOR.name().equals(propertyName)) {
-            repaint();
+              || DimensionLine.Property.LENGTH_STYLE.name().equals(propertyName)
+              || DimensionLine.Property.COLOR.name().equals(propertyName)) {
+            invalidateItem((DimensionLine)ev.getSource());
           }
         }
       };
@@ -1000,18 +1095,19 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
     home.addDimensionLinesListener(new CollectionListener<DimensionLine> () {
         public void collectionChanged(CollectionEvent<DimensionLine> ev) {
           if (ev.getType() == CollectionEvent.Type.ADD) {
+            invalidateItem(ev.getItem());
             ev.getItem().addPropertyChangeListener(dimensionLineChangeListener);
           } else if (ev.getType() == CollectionEvent.Type.DELETE) {
+            invalidateDeletedItem(ev.getItem());
             ev.getItem().removePropertyChangeListener(dimensionLineChangeListener);
           }
-          revalidate();
         }
       });
 
     // Add listener to update plan when labels change
     final PropertyChangeListener labelChangeListener = new PropertyChangeListener() {
         public void propertyChange(PropertyChangeEvent ev) {
-          revalidate();
+          invalidateItem((Label)ev.getSource());
         }
       };
     for (Label label : home.getLabels()) {
@@ -1020,17 +1116,19 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
     home.addLabelsListener(new CollectionListener<Label> () {
         public void collectionChanged(CollectionEvent<Label> ev) {
           if (ev.getType() == CollectionEvent.Type.ADD) {
+            invalidateItem(ev.getItem());
             ev.getItem().addPropertyChangeListener(labelChangeListener);
           } else if (ev.getType() == CollectionEvent.Type.DELETE) {
+            invalidateDeletedItem(ev.getItem());
             ev.getItem().removePropertyChangeListener(labelChangeListener);
           }
-          revalidate();
         }
       });
 
     // Add listener to update plan when levels change
     final PropertyChangeListener levelChangeListener = new PropertyChangeListener() {
         public void propertyChange(PropertyChangeEvent ev) {
+          invalidatePlanTiles();
           String propertyName = ev.getPropertyName();
           if (Level.Property.BACKGROUND_IMAGE.name().equals(propertyName)) {
             backgroundImageCache = null;
@@ -1048,6 +1146,7 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
     }
     home.addLevelsListener(new CollectionListener<Level> () {
         public void collectionChanged(CollectionEvent<Level> ev) {
+          invalidatePlanTiles();
           Level level = ev.getItem();
           if (ev.getType() == CollectionEvent.Type.ADD) {
             level.addPropertyChangeListener(levelChangeListener);
@@ -1073,7 +1172,7 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
               || ObserverCamera.Property.WIDTH.name().equals(propertyName)
               || ObserverCamera.Property.DEPTH.name().equals(propertyName)
               || ObserverCamera.Property.HEIGHT.name().equals(propertyName)) {
-            revalidate();
+            invalidateObserverCamera();
           }
         }
       });
@@ -1085,25 +1184,28 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
               || Compass.Property.NORTH_DIRECTION.name().equals(propertyName)
               || Compass.Property.DIAMETER.name().equals(propertyName)
               || Compass.Property.VISIBLE.name().equals(propertyName)) {
-            revalidate();
+            invalidateItem((Compass)ev.getSource());
           }
         }
       });
     home.addSelectionListener(new SelectionListener () {
         public void selectionChanged(SelectionEvent ev) {
-          repaint();
+          // Selected items are painted differently
+          invalidateSelectedItems();
         }
       });
     home.addPropertyChangeListener(Home.Property.BACKGROUND_IMAGE,
       new PropertyChangeListener() {
         public void propertyChange(PropertyChangeEvent ev) {
           backgroundImageCache = null;
+          invalidatePlanTiles();
           repaint();
         }
       });
     home.addPropertyChangeListener(Home.Property.SELECTED_LEVEL, new PropertyChangeListener() {
         public void propertyChange(PropertyChangeEvent ev) {
           clearLevelCache();
+          invalidatePlanTiles();
           repaint();
         }
       });
@@ -1154,27 +1256,34 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
             }
             break;
           case DEFAULT_FONT_NAME :
-            planComponent.fonts = null;
-            planComponent.fontsMetrics = null;
+            planComponent.fonts.clear();
+            planComponent.fontsMetrics.clear();
+            planComponent.clearTextLayoutsCache();
+            planComponent.clearItemBoundsCache();
             planComponent.revalidate();
             break;
           case WALL_PATTERN :
             planComponent.wallAreasCache = null;
             break;
           case FURNITURE_VIEWED_FROM_TOP :
-            if (planComponent.furnitureTopViewIconKeys != null
-                && !preferences.isFurnitureViewedFromTop()) {
-              planComponent.furnitureTopViewIconKeys = null;
-              planComponent.furnitureTopViewIconsCache = null;
+            if (!preferences.isFurnitureViewedFromTop()) {
+              planComponent.furnitureTopViewIconKeys.clear();
+              planComponent.furnitureTopViewIconsCache.clear();
             }
             break;
           case FURNITURE_MODEL_ICON_SIZE :
-            planComponent.furnitureTopViewIconKeys = null;
-            planComponent.furnitureTopViewIconsCache = null;
+            planComponent.furnitureTopViewIconKeys.clear();
+            planComponent.furnitureTopViewIconsCache.clear();
             break;
           default:
             break;
         }
+        if (property == UserPreferences.Property.LANGUAGE
+            || property == UserPreferences.Property.UNIT) {
+          // Texts of room area and dimension line length may change
+          planComponent.clearItemBoundsCache();
+        }
+        planComponent.invalidatePlanTiles();
         planComponent.repaint();
       }
     }
@@ -1190,7 +1299,7 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
     this.otherLevelsRoomAreaCache = null;
     this.otherLevelsRoomsCache = null;
     this.wallAreasCache = null;
-    this.doorOrWindowWallThicknessAreasCache = null;
+    this.doorOrWindowWallThicknessAreasCache.clear();
     this.sortedLevelRooms = null;
     this.sortedLevelFurniture = null;
   }
@@ -1242,6 +1351,8 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
    */
   @Override
   public void validate() {
+    // Take into account pending item modifications in plan bounds
+    getPlanBounds();
     super.validate();
     if (this.invalidPlanBounds != null
         && getParent() instanceof JViewport) {
@@ -1448,6 +1559,7 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
             }
             if (PlanComponent.this.wallsDoorsOrWindowsModification != wallsDoorsOrWindowsModification) {
               PlanComponent.this.wallsDoorsOrWindowsModification = wallsDoorsOrWindowsModification;
+              invalidatePlanTiles();
               repaint();
             }
           }
@@ -1833,6 +1945,11 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
    * Returns the bounds of the plan displayed by this component.
    */
   private Rectangle2D getPlanBounds() {
+    if (this.planBoundsCacheValid
+        && this.invalidItemBounds != null
+        && !this.invalidItemBounds.isEmpty()) {
+      updateInvalidItemBounds();
+    }
     if (!this.planBoundsCacheValid) {
       // Always enlarge plan bounds only when plan component is a child of a scroll pane
       if (this.planBoundsCache == null
@@ -1861,13 +1978,16 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
       if (g != null) {
         setRenderingHints(g);
       }
-      Rectangle2D homeItemsBounds = getItemsBounds(g, getPaintedItems());
-      if (homeItemsBounds != null) {
-        this.planBoundsCache.add(homeItemsBounds);
-      }
-      for (float [] point : this.home.getObserverCamera().getPoints()) {
-        this.planBoundsCache.add(point [0], point [1]);
+      // Compute home items bounds and keep them in cache to update plan incrementally later
+      Map<Selectable, Rectangle2D> itemBounds = new HashMap<Selectable, Rectangle2D>();
+      for (Selectable item : getPaintedItems()) {
+        Rectangle2D bounds = getItemBounds(g, item);
+        itemBounds.put(item, bounds);
+        this.planBoundsCache.add(bounds);
       }
+      updateItemBoundsCache(itemBounds);
+      this.observerCameraBoundsCache = getObserverCameraBounds();
+      this.planBoundsCache.add(this.observerCameraBoundsCache);
       this.planBoundsCacheValid = true;
     }
     return this.planBoundsCache;
@@ -1896,16 +2016,77 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
     return itemsBounds;
   }
 
+  /**
+   * Returns the bounds of the points of the given <code>item</code>,
+   * read without copying them for rooms, walls and pieces.
+   */
+  private static Rectangle2D getPointsBounds(Selectable item) {
+    if (item instanceof HomePieceOfFurniture) {
+      HomePieceOfFurniture piece = (HomePieceOfFurniture)item;
+      Rectangle2D bounds = new Rectangle2D.Float(piece.getPointX(0), piece.getPointY(0), 0, 0);
+      for (int i = 1; i < 4; i++) {
+        bounds.add(piece.getPointX(i), piece.getPointY(i));
+      }
+      return bounds;
+    } else if (item instanceof Room) {
+      Room room = (Room)item;
+      Rectangle2D bounds = new Rectangle2D.Float(room.getPointX(0), room.getPointY(0), 0, 0);
+      for (int i = 1, n = room.getPointCount(); i < n; i++) {
+        bounds.add(room.getPointX(i), room.getPointY(i));
+      }
+      return bounds;
+    } else if (item instanceof Wall) {
+      Wall wall = (Wall)item;
+      Rectangle2D bounds = new Rectangle2D.Float(wall.getPointX(0), wall.getPointY(0), 0, 0);
+      for (int i = 1, n = wall.getPointCount(); i < n; i++) {
+        bounds.add(wall.getPointX(i), wall.getPointY(i));
+      }
+      return bounds;
+    } else {
+      float [][] points = item.getPoints();
+      Rectangle2D bounds = new Rectangle2D.Float(points [0][0], points [0][1], 0, 0);
+      for (int i = 1; i < points.length; i++) {
+        bounds.add(points [i][0], points [i][1]);
+      }
+      return bounds;
+    }
+  }
+
+  /**
+   * Returns the shape of the given <code>room</code>, built from its points read without copying them.
+   */
+  private static Shape getRoomShape(Room room, AffineTransform transform) {
+    GeneralPath roomShape = new GeneralPath();
+    roomShape.moveTo(room.getPointX(0), room.getPointY(0));
+    for (int i = 1, n = room.getPointCount(); i < n; i++) {
+      roomShape.lineTo(room.getPointX(i), room.getPointY(i));
+    }
+    roomShape.closePath();
+    if (transform != null) {
+      roomShape.transform(transform);
+    }
+    return roomShape;
+  }
+
+  /**
+   * Returns the shape of the given <code>piece</code>, built from its points read without copying them.
+   */
+  private static Shape getPieceOfFurnitureShape(HomePieceOfFurniture piece) {
+    GeneralPath pieceShape = new GeneralPath();
+    pieceShape.moveTo(piece.getPointX(0), piece.getPointY(0));
+    for (int i = 1; i < 4; i++) {
+      pieceShape.lineTo(piece.getPointX(i), piece.getPointY(i));
+    }
+    pieceShape.closePath();
+    return pieceShape;
+  }
+
   /**
    * Returns the bounds of the given <code>item</code>.
    */
   protected Rectangle2D getItemBounds(Graphics g, Selectable item) {
     // Add to bounds all the visible items
-    float [][] points = item.getPoints();
-    Rectangle2D itemBounds = new Rectangle2D.Float(points [0][0], points [0][1], 0, 0);
-    for (int i = 1; i < points.length; i++) {
-      itemBounds.add(points [i][0], points [i][1]);
-    }
+    Rectangle2D itemBounds = getPointsBounds(item);
 
     // Retrieve used font
     Font componentFont;
@@ -2048,20 +2229,9 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
    */
   public float [][] getTextBounds(String text, TextStyle style,
                                   float x, float y, float angle) {
-    FontMetrics fontMetrics = getFontMetrics(getFont(), style);
-    Rectangle2D textBounds = null;
-    String [] lines = text.split("\n");
-    Graphics2D g = (Graphics2D)getGraphics();
-    if (g != null) {
-      setRenderingHints(g);
-    }
-    for (int i = 0; i < lines.length; i++) {
-      Rectangle2D lineBounds = fontMetrics.getStringBounds(lines [i], g);
-      if (textBounds == null
-          || textBounds.getWidth() < lineBounds.getWidth()) {
-        textBounds = lineBounds;
-      }
-    }
+    CachedTextLayout textLayout = getTextLayout(text, getFont(getFont(), style), getTextBoundsFontRenderContext());
+    Rectangle2D textBounds = textLayout.getWidestLineBounds();
+    int lineCount = textLayout.getLineCount();
     float textWidth = (float)textBounds.getWidth();
     float shiftX;
     if (style.getAlignment() == TextStyle.Alignment.LEFT) {
@@ -2074,14 +2244,14 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
     if (angle == 0) {
       float minY = (float)(y + textBounds.getY());
       float maxY = (float)(minY + textBounds.getHeight());
-      minY -= (float)(textBounds.getHeight() * (lines.length - 1));
+      minY -= (float)(textBounds.getHeight() * (lineCount - 1));
       return new float [][] {
           {x + shiftX, minY},
           {x + shiftX + textWidth, minY},
           {x + shiftX + textWidth, maxY},
           {x + shiftX, maxY}};
     } else {
-      textBounds.add(textBounds.getX(), textBounds.getY() - textBounds.getHeight() * (lines.length - 1));
+      textBounds.add(textBounds.getX(), textBounds.getY() - textBounds.getHeight() * (lineCount - 1));
       // Transform text bounding rectangle corners to their real location
       AffineTransform transform = new AffineTransform();
       transform.translate(x, y);
@@ -2103,9 +2273,6 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
    * Returns the AWT font matching a given text style.
    */
   protected Font getFont(Font defaultFont, TextStyle textStyle) {
-    if (this.fonts == null) {
-      this.fonts = new WeakHashMap<TextStyle, Font>();
-    }
     Font font = this.fonts.get(textStyle);
     if (font == null) {
       int fontStyle = Font.PLAIN;
@@ -2134,9 +2301,6 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
    * Returns the font metrics matching a given text style.
    */
   protected FontMetrics getFontMetrics(Font defaultFont, TextStyle textStyle) {
-    if (this.fontsMetrics == null) {
-      this.fontsMetrics = new WeakHashMap<TextStyle, FontMetrics>();
-    }
     FontMetrics fontMetrics = this.fontsMetrics.get(textStyle);
     if (fontMetrics == null) {
       fontMetrics = getFontMetrics(getFont(defaultFont, textStyle));
@@ -2145,6 +2309,60 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
     return fontMetrics;
   }
 
+  /**
+   * Returns the lines of <code>text</code> and their bounds laid out with the given
+   * <code>font</code> and <code>fontRenderContext</code>.
+   */
+  private CachedTextLayout getTextLayout(String text, Font font, FontRenderContext fontRenderContext) {
+    List<Object> key = Arrays.asList(new Object [] {text, font, fontRenderContext});
+    CachedTextLayout textLayout;
+    // Text layouts may be requested by the threads painting plan bands
+    synchronized (this.textLayoutsCache) {
+      textLayout = this.textLayoutsCache.get(key);
+    }
+    if (textLayout == null) {
+      textLayout = new CachedTextLayout(text, font, fontRenderContext);
+      synchronized (this.textLayoutsCache) {
+        this.textLayoutsCache.put(key, textLayout);
+      }
+    }
+    return textLayout;
+  }
+
+  /**
+   * Returns the font render context used to compute text bounds.
+   */
+  private FontRenderContext getTextBoundsFontRenderContext() {
+    if (this.textBoundsFontRenderContext == null) {
+      Graphics2D g = (Graphics2D)getGraphics();
+      if (g == null) {
+        // Use the same context as FontMetrics#getStringBounds when graphics isn't available
+        return new FontRenderContext(null, false, false);
+      }
+      setRenderingHints(g);
+      this.textBoundsFontRenderContext = g.getFontRenderContext();
+      g.dispose();
+    }
+    return this.textBoundsFontRenderContext;
+  }
+
+  /**
+   * Empties the cache of text layouts.
+   */
+  private void clearTextLayoutsCache() {
+    synchronized (this.textLayoutsCache) {
+      this.textLayoutsCache.clear();
+    }
+    this.textBoundsFontRenderContext = null;
+  }
+
+  @Override
+  public void addNotify() {
+    super.addNotify();
+    // Font render context may change with the graphics configuration
+    clearTextLayoutsCache();
+  }
+
   /**
    * Sets whether plan's background should be painted or not.
    * Background may include grid and an image.
@@ -2186,6 +2404,7 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
   @Override
   protected void paintComponent(Graphics g) {
     Graphics2D g2D = (Graphics2D)g.create();
+    AffineTransform componentTransform = g2D.getTransform();
     if (this.backgroundPainted) {
       paintBackground(g2D, getBackgroundColor(PaintMode.PAINT));
     }
@@ -2202,13 +2421,532 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
     g2D.scale(scale, scale);
     setRenderingHints(g2D);
     try {
-      paintContent(g2D, this.home.getSelectedLevel(), getScale(), PaintMode.PAINT);
+      Level selectedLevel = this.home.getSelectedLevel();
+      if (!paintContentWithTiles(g2D, componentTransform, selectedLevel)) {
+        paintContent(g2D, selectedLevel, getScale(), PaintMode.PAINT);
+      }
     } catch (InterruptedIOException ex) {
       // Ignore exception because it may happen only in EXPORT paint mode
     }
     g2D.dispose();
   }
 
+  /**
+   * Paints the background and the home items at the given <code>level</code> with the images
+   * of the cached tiles that intersect the clip of <code>g2D</code>, then paints camera and feedback over them.
+   * Missing tiles are computed in bands of adjacent tiles to limit the count of times home items are browsed.
+   * @return <code>false</code> if tiles can't be used to paint this component with <code>g2D</code>.
+   */
+  private boolean paintContentWithTiles(Graphics2D g2D, AffineTransform componentTransform,
+                                        Level level) throws InterruptedIOException {
+    AffineTransform planTransform = g2D.getTransform();
+    // Update plan bounds and the bounds of modified items used to invalidate tiles
+    getPlanBounds();
+    if (!this.planTilesEnabled
+        || this.itemBoundsCache == null
+        || !isOpaque()
+        || !this.backgroundPainted
+        || (planTransform.getType() & ~(AffineTransform.TYPE_TRANSLATION | AffineTransform.TYPE_MASK_SCALE)) != 0
+        || planTransform.getScaleX() <= 0
+        || planTransform.getScaleY() <= 0
+        || componentTransform.getTranslateX() != Math.rint(componentTransform.getTranslateX())
+        || componentTransform.getTranslateY() != Math.rint(componentTransform.getTranslateY())) {
+      this.planTilesCache = null;
+      return false;
+    }
+
+    float planScale = getScale();
+    Color backgroundColor = getBackgroundColor(PaintMode.PAINT);
+    Color foregroundColor = getForegroundColor(PaintMode.PAINT);
+    // Tiles are stored in the device space of this component
+    AffineTransform deviceTransform = AffineTransform.getTranslateInstance(
+        componentTransform.getTranslateX(), componentTransform.getTranslateY());
+    AffineTransform tilesTransform = AffineTransform.getTranslateInstance(
+        -componentTransform.getTranslateX(), -componentTransform.getTranslateY());
+    tilesTransform.concatenate(planTransform);
+    List<Object> tilesAttributes = Arrays.asList(new Object [] {
+        tilesTransform.getScaleX(), tilesTransform.getScaleY(),
+        tilesTransform.getTranslateX(), tilesTransform.getTranslateY(),
+        level, backgroundColor, foregroundColor, getSelectionColor(), getFurnitureOutlineColor(),
+        g2D.getFont(), this.selectedItemsOutlinePainted});
+    if (this.planTilesCache == null
+        || !this.planTilesCache.isCompatible(tilesAttributes)) {
+      this.planTilesCache = new PlanTiles(tilesAttributes, tilesTransform,
+          ITEM_INVALIDATION_PIXEL_MARGIN * this.resolutionScale * (float)componentTransform.getScaleX());
+    }
+    PlanTiles tiles = this.planTilesCache;
+
+    Graphics2D deviceG2D = (Graphics2D)g2D.create();
+    deviceG2D.setTransform(deviceTransform);
+    Rectangle clipBounds = deviceG2D.getClipBounds();
+    if (clipBounds == null) {
+      clipBounds = new Rectangle(0, 0,
+          (int)Math.ceil(getWidth() * componentTransform.getScaleX()),
+          (int)Math.ceil(getHeight() * componentTransform.getScaleY()));
+    }
+    int minColumn = (int)Math.floor((double)clipBounds.x / TILE_SIZE);
+    int maxColumn = (int)Math.floor((double)(clipBounds.x + clipBounds.width - 1) / TILE_SIZE);
+    int minRow = (int)Math.floor((double)clipBounds.y / TILE_SIZE);
+    int maxRow = (int)Math.floor((double)(clipBounds.y + clipBounds.height - 1) / TILE_SIZE);
+    int columnCount = maxColumn - minColumn + 1;
+    tiles.setMaximumTileCount(Math.max(64, 2 * columnCount * (maxRow - minRow + 1)));
+    // Paint tiles by bands of rows small enough to keep band image memory reasonable
+    int bandRowCount = Math.max(1, TILES_BAND_MAXIMUM_PIXEL_COUNT / (columnCount * TILE_SIZE * TILE_SIZE));
+    for (int bandMinRow = minRow; bandMinRow <= maxRow; bandMinRow += bandRowCount) {
+      int bandMaxRow = Math.min(maxRow, bandMinRow + bandRowCount - 1);
+      int bandMinColumn = Integer.MAX_VALUE;
+      int bandMaxColumn = Integer.MIN_VALUE;
+      for (int row = bandMinRow; row <= bandMaxRow; row++) {
+        for (int column = minColumn; column <= maxColumn; column++) {
+          if (tiles.getTile(column, row) == null) {
+            bandMinColumn = Math.min(bandMinColumn, column);
+            bandMaxColumn = Math.max(bandMaxColumn, column);
+          }
+        }
+      }
+
+      BufferedImage bandImage = null;
+      if (bandMinColumn <= bandMaxColumn) {
+        // Paint missing tiles of the band in one pass
+        bandImage = g2D.getDeviceConfiguration().createCompatibleImage(
+            (bandMaxColumn - bandMinColumn + 1) * TILE_SIZE, (bandMaxRow - bandMinRow + 1) * TILE_SIZE);
+        Graphics2D bandG2D = (Graphics2D)bandImage.getGraphics();
+        bandG2D.setColor(backgroundColor);
+        bandG2D.fillRect(0, 0, bandImage.getWidth(), bandImage.getHeight());
+        bandG2D.translate(-bandMinColumn * TILE_SIZE, -bandMinRow * TILE_SIZE);
+        bandG2D.transform(tilesTransform);
+        bandG2D.setFont(g2D.getFont());
+        setRenderingHints(bandG2D);
+        this.planTilesIncomplete = false;
+        paintBackgroundAndHomeItems(bandG2D, level, planScale, backgroundColor, foregroundColor, PaintMode.PAINT);
+        bandG2D.dispose();
+        if (this.planTilesIncomplete) {
+          // Don't keep tiles in cache if some images were still loading
+          deviceG2D.drawImage(bandImage, bandMinColumn * TILE_SIZE, bandMinRow * TILE_SIZE, null);
+        } else {
+          for (int row = bandMinRow; row <= bandMaxRow; row++) {
+            for (int column = bandMinColumn; column <= bandMaxColumn; column++) {
+              if (tiles.getTile(column, row) == null) {
+                BufferedImage tile = g2D.getDeviceConfiguration().createCompatibleImage(TILE_SIZE, TILE_SIZE);
+                Graphics tileGraphics = tile.getGraphics();
+                tileGraphics.drawImage(bandImage,
+                    (bandMinColumn - column) * TILE_SIZE, (bandMinRow - row) * TILE_SIZE, null);
+                tileGraphics.dispose();
+                tiles.putTile(column, row, tile);
+              }
+            }
+          }
+          bandImage = null;
+        }
+      }
+
+      for (int row = bandMinRow; row <= bandMaxRow; row++) {
+        for (int column = minColumn; column <= maxColumn; column++) {
+          if (bandImage == null
+              || column < bandMinColumn
+              || column > bandMaxColumn) {
+            BufferedImage tile = tiles.getTile(column, row);
+            if (tile != null) {
+              deviceG2D.drawImage(tile, column * TILE_SIZE, row * TILE_SIZE, null);
+            }
+          }
+        }
+      }
+    }
+    deviceG2D.dispose();
+
+    paintCameraAndFeedback(g2D, level, planScale, backgroundColor, foregroundColor);
+    return true;
+  }
+
+  /**
+   * Updates the bounds of the items modified since last update, the tiles and the area
+   * of this component that should be repainted, and plan bounds if needed.
+   */
+  private void updateInvalidItemBounds() {
+    Graphics2D g = (Graphics2D)getGraphics();
+    if (g != null) {
+      setRenderingHints(g);
+    }
+    float maxWallThickness = getMaxWallThickness();
+    for (Selectable item : this.invalidItemBounds) {
+      Rectangle2D oldItemBounds = this.itemBoundsCache.remove(item);
+      Rectangle2D newItemBounds = null;
+      if (isViewableItem(item)) {
+        newItemBounds = getItemBounds(g, item);
+        this.itemBoundsCache.put(item, newItemBounds);
+      }
+      updatePlanBounds(oldItemBounds, newItemBounds);
+      invalidateItemArea(item, oldItemBounds, maxWallThickness, true);
+      invalidateItemArea(item, newItemBounds, maxWallThickness, true);
+    }
+    this.invalidItemBounds.clear();
+    if (g != null) {
+      g.dispose();
+    }
+  }
+
+  /**
+   * Updates the cached bounds of the given painted <code>items</code> after a full computation
+   * of plan bounds, and invalidates the tiles of the items with different bounds.
+   */
+  private void updateItemBoundsCache(Map<Selectable, Rectangle2D> itemBounds) {
+    if (this.itemBoundsCache == null) {
+      this.planTilesCache = null;
+      this.paintedSelectedItems = new ArrayList<Selectable>(this.home.getSelectedItems());
+    } else if (this.planTilesCache != null) {
+      float maxWallThickness = getMaxWallThickness();
+      for (Map.Entry<Selectable, Rectangle2D> entry : itemBounds.entrySet()) {
+        Rectangle2D oldItemBounds = this.itemBoundsCache.remove(entry.getKey());
+        if (!entry.getValue().equals(oldItemBounds)) {
+          invalidateItemArea(entry.getKey(), oldItemBounds, maxWallThickness, false);
+          invalidateItemArea(entry.getKey(), entry.getValue(), maxWallThickness, false);
+        }
+      }
+      // Invalidate tiles of items that aren't painted anymore
+      for (Map.Entry<Selectable, Rectangle2D> entry : this.itemBoundsCache.entrySet()) {
+        invalidateItemArea(entry.getKey(), entry.getValue(), maxWallThickness, false);
+      }
+    }
+    this.itemBoundsCache = itemBounds;
+    this.invalidItemBounds = new HashSet<Selectable>();
+  }
+
+  /**
+   * Returns <code>true</code> if the given <code>item</code> is viewable in this component.
+   */
+  private boolean isViewableItem(Selectable item) {
+    if (item instanceof HomePieceOfFurniture
+        && !((HomePieceOfFurniture)item).isVisible()
+        || item instanceof Compass
+           && !((Compass)item).isVisible()) {
+      return false;
+    } else {
+      return !(item instanceof Elevatable)
+          || ((Elevatable)item).getLevel() == null
+          || ((Elevatable)item).getLevel().isViewable();
+    }
+  }
+
+  /**
+   * Returns the thickness of the thickest wall in home, computed again only once walls changed.
+   */
+  private float getMaxWallThickness() {
+    if (this.maxWallThicknessCache == null) {
+      float maxWallThickness = 0;
+      for (Wall wall : this.home.getWalls()) {
+        maxWallThickness = Math.max(maxWallThickness, wall.getThickness());
+      }
+      this.maxWallThicknessCache = maxWallThickness;
+    }
+    return this.maxWallThicknessCache;
+  }
+
+  /**
+   * Invalidates the tiles intersecting the area where the given <code>item</code> may be painted
+   * within <code>itemBounds</code>, and adds this area to the one that should be repainted
+   * if <code>repaint</code> is <code>true</code>.
+   */
+  private void invalidateItemArea(Selectable item, Rectangle2D itemBounds,
+                                  float maxWallThickness, boolean repaint) {
+    if (itemBounds != null) {
+      Rectangle2D itemArea = itemBounds.getBounds2D();
+      if (item instanceof HomeDoorOrWindow
+             && ((HomeDoorOrWindow)item).isWallCutOutOnBothSides()
+          || item instanceof HomeFurnitureGroup
+             && containsWallCutOutDoorOrWindow((HomeFurnitureGroup)item)) {
+        // Add the area that may be painted in the thickness of the walls around a door or window
+        float margin = (float)Math.max(itemArea.getWidth(), itemArea.getHeight()) + 4 * maxWallThickness;
+        itemArea.add(itemArea.getMinX() - margin, itemArea.getMinY() - margin);
+        itemArea.add(itemArea.getMaxX() + margin, itemArea.getMaxY() + margin);
+      }
+      if (this.planTilesCache != null) {
+        this.planTilesCache.invalidate(itemArea);
+      }
+      if (repaint) {
+        addInvalidItemsArea(itemArea);
+      }
+    }
+  }
+
+  /**
+   * Returns <code>true</code> if the given <code>group</code> contains at least a door or a window
+   * cutting out both sides of walls.
+   */
+  private boolean containsWallCutOutDoorOrWindow(HomeFurnitureGroup group) {
+    for (HomePieceOfFurniture piece : group.getFurniture()) {
+      if (piece instanceof HomeDoorOrWindow
+             && ((HomeDoorOrWindow)piece).isWallCutOutOnBothSides()
+          || piece instanceof HomeFurnitureGroup
+             && containsWallCutOutDoorOrWindow((HomeFurnitureGroup)piece)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Adds the given rectangle to the area that should be repainted.
+   */
+  private void addInvalidItemsArea(Rectangle2D area) {
+    if (this.invalidItemsArea == null) {
+      this.invalidItemsArea = area;
+    } else {
+      this.invalidItemsArea.add(area);
+    }
+  }
+
+  /**
+   * Returns the bounds of the observer camera points.
+   */
+  private Rectangle2D getObserverCameraBounds() {
+    float [][] points = this.home.getObserverCamera().getPoints();
+    Rectangle2D cameraBounds = new Rectangle2D.Float(points [0][0], points [0][1], 0, 0);
+    for (int i = 1; i < points.length; i++) {
+      cameraBounds.add(points [i][0], points [i][1]);
+    }
+    return cameraBounds;
+  }
+
+  /**
+   * Returns the area where a camera with the given bounds is painted with its field of view.
+   */
+  private Rectangle2D getCameraPaintedArea(Rectangle2D cameraBounds) {
+    float margin = 2.2f * (float)Math.max(cameraBounds.getWidth(), cameraBounds.getHeight());
+    return new Rectangle2D.Double(cameraBounds.getMinX() - margin, cameraBounds.getMinY() - margin,
+        cameraBounds.getWidth() + 2 * margin, cameraBounds.getHeight() + 2 * margin);
+  }
+
+  /**
+   * Schedules the repaint of the observer camera at its previous and new location,
+   * and the update of plan bounds if it moves outside of them.
+   */
+  private void invalidateObserverCamera() {
+    if (this.observerCameraBoundsCache == null
+        || !this.planBoundsCacheValid) {
+      revalidate();
+    } else {
+      Rectangle2D cameraBounds = getObserverCameraBounds();
+      updatePlanBounds(this.observerCameraBoundsCache, cameraBounds);
+      addInvalidItemsArea(getCameraPaintedArea(this.observerCameraBoundsCache));
+      addInvalidItemsArea(getCameraPaintedArea(cameraBounds));
+      this.observerCameraBoundsCache = cameraBounds;
+      scheduleInvalidItemsRepaint();
+    }
+  }
+
+  /**
+   * Updates plan bounds cache to take into account the new bounds of an item.
+   */
+  private void updatePlanBounds(Rectangle2D oldItemBounds, Rectangle2D newItemBounds) {
+    if (this.planBoundsCacheValid) {
+      if (!(getParent() instanceof JViewport)
+          && oldItemBounds != null
+          && (oldItemBounds.getMinX() <= this.planBoundsCache.getMinX()
+              || oldItemBounds.getMinY() <= this.planBoundsCache.getMinY()
+              || oldItemBounds.getMaxX() >= this.planBoundsCache.getMaxX()
+              || oldItemBounds.getMaxY() >= this.planBoundsCache.getMaxY())) {
+        // Plan bounds may shrink and need to be computed again
+        if (this.invalidPlanBounds == null) {
+          this.invalidPlanBounds = this.planBoundsCache.getBounds2D();
+        }
+        this.planBoundsCacheValid = false;
+        this.planBoundsUpdated = true;
+      } else if (newItemBounds != null
+                 && !this.planBoundsCache.contains(newItemBounds)) {
+        // Enlarge plan bounds without computing again the bounds of other items
+        if (this.invalidPlanBounds == null) {
+          this.invalidPlanBounds = this.planBoundsCache.getBounds2D();
+        }
+        this.planBoundsCache.add(newItemBounds);
+        this.planBoundsUpdated = true;
+      }
+    }
+  }
+
+  /**
+   * Schedules the update of this component once the modifications of items are done,
+   * to repaint only the area of modified items or revalidate it if plan bounds changed.
+   */
+  private void scheduleInvalidItemsRepaint() {
+    if (!this.invalidItemsRepaintScheduled) {
+      this.invalidItemsRepaintScheduled = true;
+      EventQueue.invokeLater(new Runnable() {
+          public void run() {
+            invalidItemsRepaintScheduled = false;
+            // Update bounds of invalid items
+            getPlanBounds();
+            if (planBoundsUpdated) {
+              planBoundsUpdated = false;
+              invalidItemsArea = null;
+              // Revalidate plan without computing again plan bounds
+              invalidate(false);
+              revalidate();
+            } else if (invalidItemsArea != null) {
+              int pixelMargin = Math.round(ITEM_INVALIDATION_PIXEL_MARGIN * resolutionScale);
+              int xMin = convertXModelToPixel((float)invalidItemsArea.getMinX()) - pixelMargin;
+              int yMin = convertYModelToPixel((float)invalidItemsArea.getMinY()) - pixelMargin;
+              int xMax = convertXModelToPixel((float)invalidItemsArea.getMaxX()) + pixelMargin;
+              int yMax = convertYModelToPixel((float)invalidItemsArea.getMaxY()) + pixelMargin;
+              invalidItemsArea = null;
+              repaint(xMin, yMin, xMax - xMin + 1, yMax - yMin + 1);
+            }
+          }
+        });
+    }
+  }
+
+  /**
+   * Returns <code>true</code> if the given item belongs to a level at a different elevation
+   * from the selected level, and may be painted among the walls and rooms of other levels.
+   */
+  private boolean isAtOtherLevelElevation(Elevatable item) {
+    Level selectedLevel = this.home.getSelectedLevel();
+    return item.getLevel() != null
+        && selectedLevel != null
+        && item.getLevel().getElevation() != selectedLevel.getElevation();
+  }
+
+  /**
+   * Voids the cached bounds of items, that will be computed again with plan bounds.
+   */
+  private void clearItemBoundsCache() {
+    this.itemBoundsCache = null;
+    this.invalidItemBounds = null;
+    invalidatePlanTiles();
+  }
+
+  /**
+   * Voids all the cached tiles of this component.
+   */
+  private void invalidatePlanTiles() {
+    this.planTilesCache = null;
+    this.planTilesIncomplete = true;
+  }
+
+  /**
+   * Schedules the repaint of the area of the given <code>item</code> at its current
+   * and next location, and the update of plan bounds if it grows outside of them.
+   */
+  private void invalidateItem(Selectable item) {
+    if (item != null
+        && !(item instanceof Camera)) {
+      if (this.itemBoundsCache == null) {
+        invalidatePlanTiles();
+        revalidate();
+      } else {
+        if (item instanceof HomePieceOfFurniture
+            && !this.itemBoundsCache.containsKey(item)) {
+          // Invalidate the group that contains the piece, if it belongs to a group
+          HomeFurnitureGroup group = getPieceOfFurnitureGroup((HomePieceOfFurniture)item);
+          if (group != null) {
+            item = group;
+          }
+        }
+        this.invalidItemBounds.add(item);
+        scheduleInvalidItemsRepaint();
+      }
+    }
+  }
+
+  /**
+   * Schedules the repaint of the area of the given deleted <code>item</code>.
+   */
+  private void invalidateDeletedItem(Selectable item) {
+    invalidateDeletedItems(Collections.singletonList(item));
+  }
+
+  /**
+   * Schedules the repaint of the area of the given deleted <code>items</code>.
+   */
+  private void invalidateDeletedItems(List<? extends Selectable> items) {
+    for (Selectable item : items) {
+      if (item instanceof HomePieceOfFurniture) {
+        this.furnitureGroupsCache = null;
+        break;
+      }
+    }
+    if (this.itemBoundsCache == null) {
+      invalidatePlanTiles();
+      revalidate();
+    } else {
+      float maxWallThickness = getMaxWallThickness();
+      Graphics2D g = null;
+      boolean graphicsRetrieved = false;
+      for (Selectable item : items) {
+        this.invalidItemBounds.remove(item);
+        Rectangle2D itemBounds = this.itemBoundsCache.remove(item);
+        if (itemBounds == null) {
+          // Item may be a piece removed from a group
+          if (!graphicsRetrieved) {
+            g = (Graphics2D)getGraphics();
+            if (g != null) {
+              setRenderingHints(g);
+            }
+            graphicsRetrieved = true;
+          }
+          itemBounds = getItemBounds(g, item);
+        }
+        updatePlanBounds(itemBounds, null);
+        invalidateItemArea(item, itemBounds, maxWallThickness, true);
+      }
+      if (g != null) {
+        g.dispose();
+      }
+      scheduleInvalidItemsRepaint();
+    }
+  }
+
+  /**
+   * Schedules the repaint of previously and currently selected items.
+   */
+  private void invalidateSelectedItems() {
+    if (this.itemBoundsCache == null) {
+      invalidatePlanTiles();
+      repaint();
+    } else {
+      List<Selectable> selectedItems = this.home.getSelectedItems();
+      for (Selectable item : this.paintedSelectedItems) {
+        invalidateSelectedItem(item);
+      }
+      for (Selectable item : selectedItems) {
+        invalidateSelectedItem(item);
+      }
+      this.paintedSelectedItems = new ArrayList<Selectable>(selectedItems);
+    }
+  }
+
+  private void invalidateSelectedItem(Selectable item) {
+    if (item instanceof Camera) {
+      // Camera isn't cached in item bounds but its indicators should be repainted
+      addInvalidItemsArea(getCameraPaintedArea(getItemBounds(null, item)));
+      scheduleInvalidItemsRepaint();
+    } else {
+      invalidateItem(item);
+    }
+  }
+
+  /**
+   * Returns the group at the top of home furniture hierarchy which contains the given <code>piece</code>,
+   * or <code>null</code> if it doesn't belong to a group.
+   */
+  private HomeFurnitureGroup getPieceOfFurnitureGroup(HomePieceOfFurniture piece) {
+    Map<HomePieceOfFurniture, HomeFurnitureGroup> furnitureGroups = this.furnitureGroupsCache;
+    if (furnitureGroups == null) {
+      // Fill a new map before caching it, as this method may be called by threads painting plan bands
+      furnitureGroups = new HashMap<HomePieceOfFurniture, HomeFurnitureGroup>();
+      for (HomePieceOfFurniture homePiece : this.home.getFurniture()) {
+        if (homePiece instanceof HomeFurnitureGroup) {
+          for (HomePieceOfFurniture childPiece : ((HomeFurnitureGroup)homePiece).getAllFurniture()) {
+            furnitureGroups.put(childPiece, (HomeFurnitureGroup)homePiece);
+          }
+        }
+      }
+      this.furnitureGroupsCache = furnitureGroups;
+    }
+    return furnitureGroups.get(piece);
+  }
+
   /**
    * Returns the print preferred scale of the plan drawn in this component
    * to make it fill <code>pageFormat</code> imageable size.
@@ -2403,27 +3141,116 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
       float extraMargin = getStrokeWidthExtraMargin(this.home.getSelectedItems(), PaintMode.CLIPBOARD);
       BufferedImage image = new BufferedImage((int)Math.ceil(selectionBounds.getWidth() * clipboardScale + 2 * extraMargin),
               (int)Math.ceil(selectionBounds.getHeight() * clipboardScale + 2 * extraMargin), BufferedImage.TYPE_INT_RGB);
-      Graphics2D g2D = (Graphics2D)image.getGraphics();
-      // Paint background in white
-      g2D.setColor(Color.WHITE);
-      g2D.fillRect(0, 0, image.getWidth(), image.getHeight());
       // Change component coordinates system to plan system
-      g2D.scale(clipboardScale, clipboardScale);
-      g2D.translate(-selectionBounds.getMinX() + extraMargin,
+      AffineTransform planTransform = AffineTransform.getScaleInstance(clipboardScale, clipboardScale);
+      planTransform.translate(-selectionBounds.getMinX() + extraMargin,
           -selectionBounds.getMinY() + extraMargin);
-      setRenderingHints(g2D);
       try {
         // Paint component contents
-        paintContent(g2D, this.home.getSelectedLevel(), clipboardScale, PaintMode.CLIPBOARD);
+        paintContentInBands(image, planTransform, this.home.getSelectedLevel(), clipboardScale, PaintMode.CLIPBOARD);
       } catch (InterruptedIOException ex) {
         // Ignore exception because it may happen only in EXPORT paint mode
         return null;
       }
-      g2D.dispose();
       return image;
     }
   }
 
+  /**
+   * Paints plan items at the given <code>level</code> in <code>image</code> with a white background.
+   * When more than one processor is available, the image is painted by horizontal bands
+   * shared among threads, each thread using its own band image copied to <code>image</code>
+   * once painted, to keep extra memory bounded whatever the size of <code>image</code>.
+   */
+  private void paintContentInBands(final BufferedImage image, final AffineTransform planTransform,
+                                   final Level level, final float planScale,
+                                   final PaintMode paintMode) throws InterruptedIOException {
+    int threadCount = this.parallelPaintingEnabled
+        ? Math.min(Runtime.getRuntime().availableProcessors(), image.getHeight() / 2)
+        : 1;
+    if (threadCount <= 1) {
+      Graphics2D g2D = image.createGraphics();
+      try {
+        paintContentBand(g2D, 0, image.getWidth(), image.getHeight(), planTransform, level, planScale, paintMode);
+      } finally {
+        g2D.dispose();
+      }
+    } else {
+      // Use at least two bands per thread to balance work
+      final int bandHeight = Math.max(1, Math.min((image.getHeight() + 2 * threadCount - 1) / (2 * threadCount),
+          TILES_BAND_MAXIMUM_PIXEL_COUNT / image.getWidth()));
+      final int bandCount = (image.getHeight() + bandHeight - 1) / bandHeight;
+      // Paint first band in current thread to build the caches bound to the painted level
+      // before sharing them with other threads
+      paintContentBand(image, 0, bandHeight, planTransform, level, planScale, paintMode);
+      final AtomicInteger nextBand = new AtomicInteger(1);
+      ExecutorService bandsExecutor = Executors.newFixedThreadPool(threadCount);
+      List<Future<Object>> bandsPainting = new ArrayList<Future<Object>>(threadCount);
+      for (int i = 0; i < threadCount; i++) {
+        bandsPainting.add(bandsExecutor.submit(new Callable<Object>() {
+            public Object call() throws InterruptedIOException {
+              for (int band = nextBand.getAndIncrement(); band < bandCount; band = nextBand.getAndIncrement()) {
+                paintContentBand(image, band * bandHeight, bandHeight, planTransform, level, planScale, paintMode);
+              }
+              return null;
+            }
+          }));
+      }
+      try {
+        for (Future<Object> bandPainting : bandsPainting) {
+          bandPainting.get();
+        }
+      } catch (InterruptedException ex) {
+        throw new InterruptedIOException("Plan painting interrupted");
+      } catch (ExecutionException ex) {
+        if (ex.getCause() instanceof InterruptedIOException) {
+          throw (InterruptedIOException)ex.getCause();
+        } else if (ex.getCause() instanceof RuntimeException) {
+          throw (RuntimeException)ex.getCause();
+        } else {
+          throw (Error)ex.getCause();
+        }
+      } finally {
+        bandsExecutor.shutdownNow();
+      }
+    }
+  }
+
+  /**
+   * Paints the band of <code>image</code> starting at <code>y</code> in a separate image,
+   * then copies it in <code>image</code>.
+   */
+  private void paintContentBand(BufferedImage image, int y, int bandHeight,
+                                AffineTransform planTransform, Level level, float planScale,
+                                PaintMode paintMode) throws InterruptedIOException {
+    int height = Math.min(bandHeight, image.getHeight() - y);
+    BufferedImage bandImage = new BufferedImage(image.getWidth(), height, image.getType());
+    Graphics2D bandG2D = bandImage.createGraphics();
+    try {
+      paintContentBand(bandG2D, y, image.getWidth(), height, planTransform, level, planScale, paintMode);
+    } finally {
+      bandG2D.dispose();
+    }
+    // Bands don't overlap and may be copied concurrently
+    image.getRaster().setRect(0, y, bandImage.getRaster());
+  }
+
+  /**
+   * Paints with <code>g2D</code> the band starting at <code>y</code> of a plan image
+   * drawn with <code>planTransform</code>.
+   */
+  private void paintContentBand(Graphics2D g2D, int y, int width, int height,
+                                AffineTransform planTransform, Level level, float planScale,
+                                PaintMode paintMode) throws InterruptedIOException {
+    // Paint background in white
+    g2D.setColor(Color.WHITE);
+    g2D.fillRect(0, 0, width, height);
+    g2D.translate(0, -y);
+    g2D.transform(planTransform);
+    setRenderingHints(g2D);
+    paintContent(g2D, level, planScale, paintMode);
+  }
+
   /**
    * Returns <code>true</code> if the given format is SVG.
    */
@@ -2446,54 +3273,28 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
    * Writes this plan in the given output stream at SVG (Scalable Vector Graphics) format.
    */
   public void exportToSVG(OutputStream out) throws IOException {
-    SVGSupport.exportToSVG(out, this);
-  }
-
-  /**
-   * Separate static class to be able to exclude FreeHEP library from classpath
-   * in case the application doesn't use export to SVG format.
-   */
-  private static class SVGSupport {
-    public static void exportToSVG(OutputStream out,
-                                   PlanComponent planComponent) throws IOException {
-      List<Selectable> homeItems = planComponent.getPaintedItems();
-      Rectangle2D svgItemBounds = planComponent.getItemsBounds(null, homeItems);
-      if (svgItemBounds == null) {
-        svgItemBounds = new Rectangle2D.Float();
-      }
+    List<Selectable> homeItems = getPaintedItems();
+    Rectangle2D svgItemBounds = getItemsBounds(null, homeItems);
+    if (svgItemBounds == null) {
+      svgItemBounds = new Rectangle2D.Float();
+    }
 
-      float svgScale = 1f;
-      float extraMargin = planComponent.getStrokeWidthExtraMargin(homeItems, PaintMode.EXPORT);
-      Dimension imageSize = new Dimension((int)Math.ceil(svgItemBounds.getWidth() * svgScale + 2 * extraMargin),
-          (int)Math.ceil(svgItemBounds.getHeight() * svgScale + 2 * extraMargin));
+    float svgScale = 1f;
+    float extraMargin = getStrokeWidthExtraMargin(homeItems, PaintMode.EXPORT);
+    Dimension imageSize = new Dimension((int)Math.ceil(svgItemBounds.getWidth() * svgScale + 2 * extraMargin),
+        (int)Math.ceil(svgItemBounds.getHeight() * svgScale + 2 * extraMargin));
 
-      SVGGraphics2D exportG2D = new SVGGraphics2D(out, imageSize) {
-          @Override
-          public void writeHeader() throws IOException {
-            // Use English locale to avoid wrong encoding when localized dates contain accentuated letters
-            Locale defaultLocale = Locale.getDefault();
-            Locale.setDefault(Locale.ENGLISH);
-            super.writeHeader();
-            Locale.setDefault(defaultLocale);
-          }
-        };
-      UserProperties properties = new UserProperties();
-      properties.setProperty(SVGGraphics2D.STYLABLE, true);
-      properties.setProperty(SVGGraphics2D.WRITE_IMAGES_AS, ImageConstants.PNG);
-      properties.setProperty(SVGGraphics2D.TITLE,
-          planComponent.home.getName() != null
-              ? planComponent.home.getName()
-              : "" );
-      properties.setProperty(SVGGraphics2D.FOR, System.getProperty("user.name", ""));
-      exportG2D.setProperties(properties);
-      exportG2D.startExport();
-      exportG2D.translate(-svgItemBounds.getMinX() + extraMargin,
-          -svgItemBounds.getMinY() + extraMargin);
+    // Write SVG elements as soon as they're painted
+    StreamingSVGGraphics2D exportG2D = new StreamingSVGGraphics2D(out, imageSize,
+        this.home.getName() != null
+            ? this.home.getName()
+            : "");
+    exportG2D.translate(-svgItemBounds.getMinX() + extraMargin,
+        -svgItemBounds.getMinY() + extraMargin);
 
-      planComponent.checkCurrentThreadIsntInterrupted(PaintMode.EXPORT);
-      planComponent.paintContent(exportG2D, planComponent.home.getSelectedLevel(), svgScale, PaintMode.EXPORT);
-      exportG2D.endExport();
-    }
+    checkCurrentThreadIsntInterrupted(PaintMode.EXPORT);
+    paintContent(exportG2D, this.home.getSelectedLevel(), svgScale, PaintMode.EXPORT);
+    exportG2D.endExport();
   }
 
   /**
@@ -2555,6 +3356,7 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
       // paint images correctly with alpha, and Java 7 blocks for some images
       final boolean prepareBackgroundImageWithAlphaInMemory = OperatingSystem.isMacOSX();
       if (this.backgroundImageCache == null && paintMode == PaintMode.PAINT) {
+        this.planTilesIncomplete = true;
         // Load background image in an executor
         if (backgroundImageLoader == null) {
           backgroundImageLoader = Executors.newSingleThreadExecutor();
@@ -2783,7 +3585,15 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
     float xMax;
     float yMax;
     Rectangle2D planBounds = getPlanBounds();
-    if (getParent() instanceof JViewport) {
+    Rectangle2D clipBounds = g2D.getClipBounds();
+    if (clipBounds != null
+        && this.planTilesEnabled) {
+      // Paint grid in clip only, that may be larger than view rectangle when tiles are painted
+      xMin = (float)clipBounds.getMinX() - 1 / gridScale;
+      yMin = (float)clipBounds.getMinY() - 1 / gridScale;
+      xMax = (float)clipBounds.getMaxX();
+      yMax = (float)clipBounds.getMaxY();
+    } else if (getParent() instanceof JViewport) {
       Rectangle viewRectangle = ((JViewport)getParent()).getViewRect();
       xMin = convertXPixelToModel(viewRectangle.x - 1);
       yMin = convertYPixelToModel(viewRectangle.y - 1);
@@ -2908,6 +3718,18 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
   private void paintContent(Graphics2D g2D, Level level, float planScale, PaintMode paintMode) throws InterruptedIOException {
     Color backgroundColor = getBackgroundColor(paintMode);
     Color foregroundColor = getForegroundColor(paintMode);
+    paintBackgroundAndHomeItems(g2D, level, planScale, backgroundColor, foregroundColor, paintMode);
+    if (paintMode == PaintMode.PAINT) {
+      paintCameraAndFeedback(g2D, level, planScale, backgroundColor, foregroundColor);
+    }
+  }
+
+  /**
+   * Paints background image, other levels, grid and home items at the given <code>level</code>.
+   */
+  private void paintBackgroundAndHomeItems(Graphics2D g2D, Level level, float planScale,
+                                           Color backgroundColor, Color foregroundColor,
+                                           PaintMode paintMode) throws InterruptedIOException {
     if (this.backgroundPainted) {
       paintBackgroundImage(g2D, level, paintMode);
       if (paintMode == PaintMode.PAINT) {
@@ -2924,75 +3746,81 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
     } else {
       paintHomeItems(g2D, level, planScale, backgroundColor, foregroundColor, paintMode);
     }
+  }
 
-    if (paintMode == PaintMode.PAINT) {
-      List<Selectable> selectedItems = this.home.getSelectedItems();
-
-      Color selectionColor = getSelectionColor();
-      Color furnitureOutlineColor = getFurnitureOutlineColor();
-      Paint selectionOutlinePaint = new Color(selectionColor.getRed(), selectionColor.getGreen(),
-          selectionColor.getBlue(), 128);
-      Stroke selectionOutlineStroke = new BasicStroke(6 / planScale,
-          BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND);
-      Stroke dimensionLinesSelectionOutlineStroke = new BasicStroke(4 / planScale,
-          BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND);
-      Stroke locationFeedbackStroke = new BasicStroke(
-          1 / planScale, BasicStroke.CAP_SQUARE, BasicStroke.JOIN_BEVEL, 0,
-          new float [] {20 / planScale, 5 / planScale, 5 / planScale, 5 / planScale}, 4 / planScale);
-
-      paintCamera(g2D, selectedItems, selectionOutlinePaint, selectionOutlineStroke, selectionColor,
-          planScale, backgroundColor, foregroundColor);
-
-      // Paint alignment feedback depending on aligned object class
-      if (this.alignedObjectClass != null) {
-        if (Wall.class.isAssignableFrom(this.alignedObjectClass)) {
-          paintWallAlignmentFeedback(g2D, (Wall)this.alignedObjectFeedback, level, this.locationFeeback, this.showPointFeedback,
-              selectionColor, locationFeedbackStroke, planScale,
-              selectionOutlinePaint, selectionOutlineStroke);
-        } else if (Room.class.isAssignableFrom(this.alignedObjectClass)) {
-          paintRoomAlignmentFeedback(g2D, (Room)this.alignedObjectFeedback, level, this.locationFeeback, this.showPointFeedback,
-              selectionColor, locationFeedbackStroke, planScale,
-              selectionOutlinePaint, selectionOutlineStroke);
-        } else if (Polyline.class.isAssignableFrom(this.alignedObjectClass)) {
-          if (this.showPointFeedback) {
-            paintPointFeedback(g2D, this.locationFeeback, selectionColor, planScale, selectionOutlinePaint, selectionOutlineStroke);
-          }
-        } else if (DimensionLine.class.isAssignableFrom(this.alignedObjectClass)) {
-          paintDimensionLineAlignmentFeedback(g2D, (DimensionLine)this.alignedObjectFeedback, level, this.locationFeeback, this.showPointFeedback,
-              selectionColor, locationFeedbackStroke, planScale,
-              selectionOutlinePaint, selectionOutlineStroke);
-        }
-      }
-      if (this.centerAngleFeedback != null) {
-       paintAngleFeedback(g2D, this.centerAngleFeedback, this.point1AngleFeedback, this.point2AngleFeedback,
-           planScale, selectionColor);
-      }
-      if (this.dimensionLinesFeedback != null) {
-        List<Selectable> emptySelection = Collections.emptyList();
-        paintDimensionLines(g2D, this.dimensionLinesFeedback, emptySelection, level,
-            null, null, null, locationFeedbackStroke, planScale,
-            backgroundColor, selectionColor, paintMode, true);
-      }
+  /**
+   * Paints the camera and the feedback displayed during user interactions
+   * on top of home items.
+   */
+  private void paintCameraAndFeedback(Graphics2D g2D, Level level, float planScale,
+                                      Color backgroundColor, Color foregroundColor) {
+    PaintMode paintMode = PaintMode.PAINT;
+    List<Selectable> selectedItems = this.home.getSelectedItems();
 
-      if (this.draggedItemsFeedback != null) {
-        paintDimensionLines(g2D, Home.getDimensionLinesSubList(this.draggedItemsFeedback), this.draggedItemsFeedback, level,
-            selectionOutlinePaint, dimensionLinesSelectionOutlineStroke, null,
-            locationFeedbackStroke, planScale, backgroundColor, foregroundColor, paintMode, false);
-        paintLabels(g2D, Home.getLabelsSubList(this.draggedItemsFeedback), this.draggedItemsFeedback, level,
-            selectionOutlinePaint, dimensionLinesSelectionOutlineStroke, null,
-            planScale, foregroundColor, paintMode);
-        paintRoomsOutline(g2D, this.draggedItemsFeedback, level, selectionOutlinePaint, selectionOutlineStroke, null,
-            planScale, foregroundColor);
-        paintWallsOutline(g2D, this.draggedItemsFeedback, level, selectionOutlinePaint, selectionOutlineStroke, null,
-            planScale, foregroundColor);
-        paintFurniture(g2D, Home.getFurnitureSubList(this.draggedItemsFeedback), selectedItems, level, planScale, null,
-            foregroundColor, furnitureOutlineColor, paintMode, false);
-        paintFurnitureOutline(g2D, this.draggedItemsFeedback, level, selectionOutlinePaint, selectionOutlineStroke, null,
-            planScale, foregroundColor);
-      }
+    Color selectionColor = getSelectionColor();
+    Color furnitureOutlineColor = getFurnitureOutlineColor();
+    Paint selectionOutlinePaint = new Color(selectionColor.getRed(), selectionColor.getGreen(),
+        selectionColor.getBlue(), 128);
+    Stroke selectionOutlineStroke = new BasicStroke(6 / planScale,
+        BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND);
+    Stroke dimensionLinesSelectionOutlineStroke = new BasicStroke(4 / planScale,
+        BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND);
+    Stroke locationFeedbackStroke = new BasicStroke(
+        1 / planScale, BasicStroke.CAP_SQUARE, BasicStroke.JOIN_BEVEL, 0,
+        new float [] {20 / planScale, 5 / planScale, 5 / planScale, 5 / planScale}, 4 / planScale);
 
-      paintRectangleFeedback(g2D, selectionColor, planScale);
+    paintCamera(g2D, selectedItems, selectionOutlinePaint, selectionOutlineStroke, selectionColor,
+        planScale, backgroundColor, foregroundColor);
+
+    // Paint alignment feedback depending on aligned object class
+    if (this.alignedObjectClass != null) {
+      if (Wall.class.isAssignableFrom(this.alignedObjectClass)) {
+        paintWallAlignmentFeedback(g2D, (Wall)this.alignedObjectFeedback, level, this.locationFeeback, this.showPointFeedback,
+            selectionColor, locationFeedbackStroke, planScale,
+            selectionOutlinePaint, selectionOutlineStroke);
+      } else if (Room.class.isAssignableFrom(this.alignedObjectClass)) {
+        paintRoomAlignmentFeedback(g2D, (Room)this.alignedObjectFeedback, level, this.locationFeeback, this.showPointFeedback,
+            selectionColor, locationFeedbackStroke, planScale,
+            selectionOutlinePaint, selectionOutlineStroke);
+      } else if (Polyline.class.isAssignableFrom(this.alignedObjectClass)) {
+        if (this.showPointFeedback) {
+          paintPointFeedback(g2D, this.locationFeeback, selectionColor, planScale, selectionOutlinePaint, selectionOutlineStroke);
+        }
+      } else if (DimensionLine.class.isAssignableFrom(this.alignedObjectClass)) {
+        paintDimensionLineAlignmentFeedback(g2D, (DimensionLine)this.alignedObjectFeedback, level, this.locationFeeback, this.showPointFeedback,
+            selectionColor, locationFeedbackStroke, planScale,
+            selectionOutlinePaint, selectionOutlineStroke);
+      }
+    }
+    if (this.centerAngleFeedback != null) {
+     paintAngleFeedback(g2D, this.centerAngleFeedback, this.point1AngleFeedback, this.point2AngleFeedback,
+         planScale, selectionColor);
+    }
+    if (this.dimensionLinesFeedback != null) {
+      List<Selectable> emptySelection = Collections.emptyList();
+      paintDimensionLines(g2D, this.dimensionLinesFeedback, emptySelection, level,
+          null, null, null, locationFeedbackStroke, planScale,
+          backgroundColor, selectionColor, paintMode, true);
+    }
+
+    if (this.draggedItemsFeedback != null) {
+      paintDimensionLines(g2D, Home.getDimensionLinesSubList(this.draggedItemsFeedback), this.draggedItemsFeedback, level,
+          selectionOutlinePaint, dimensionLinesSelectionOutlineStroke, null,
+          locationFeedbackStroke, planScale, backgroundColor, foregroundColor, paintMode, false);
+      paintLabels(g2D, Home.getLabelsSubList(this.draggedItemsFeedback), this.draggedItemsFeedback, level,
+          selectionOutlinePaint, dimensionLinesSelectionOutlineStroke, null,
+          planScale, foregroundColor, paintMode);
+      paintRoomsOutline(g2D, this.draggedItemsFeedback, level, selectionOutlinePaint, selectionOutlineStroke, null,
+          planScale, foregroundColor);
+      paintWallsOutline(g2D, this.draggedItemsFeedback, level, selectionOutlinePaint, selectionOutlineStroke, null,
+          planScale, foregroundColor);
+      paintFurniture(g2D, Home.getFurnitureSubList(this.draggedItemsFeedback), selectedItems, level, planScale, null,
+          foregroundColor, furnitureOutlineColor, paintMode, false);
+      paintFurnitureOutline(g2D, this.draggedItemsFeedback, level, selectionOutlinePaint, selectionOutlineStroke, null,
+          planScale, foregroundColor);
     }
+
+    paintRectangleFeedback(g2D, selectionColor, planScale);
   }
 
   /**
@@ -3015,18 +3843,19 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
     List<Selectable> selectedItems = this.home.getSelectedItems();
     if (this.sortedLevelFurniture == null) {
       // Sort home furniture in elevation order
-      this.sortedLevelFurniture = new ArrayList<HomePieceOfFurniture>();
-      for (HomePieceOfFurniture piece : this.home.getFurniture()) {
+      List<HomePieceOfFurniture> sortedLevelFurniture = new ArrayList<HomePieceOfFurniture>();
+      for (HomePieceOfFurniture piece : getFurnitureAtLevel(level)) {
         if (isViewableAtLevel(piece, level)) {
-          this.sortedLevelFurniture.add(piece);
+          sortedLevelFurniture.add(piece);
         }
       }
-      Collections.sort(this.sortedLevelFurniture,
+      Collections.sort(sortedLevelFurniture,
           new Comparator<HomePieceOfFurniture>() {
             public int compare(HomePieceOfFurniture piece1, HomePieceOfFurniture piece2) {
               return Float.compare(piece1.getGroundElevation(), piece2.getGroundElevation());
             }
           });
+      this.sortedLevelFurniture = sortedLevelFurniture;
     }
 
     Color selectionColor = getSelectionColor();
@@ -3053,11 +3882,11 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
         planScale, backgroundColor, foregroundColor, getFurnitureOutlineColor(), paintMode, true);
 
     checkCurrentThreadIsntInterrupted(paintMode);
-    paintPolylines(g2D, this.home.getPolylines(), selectedItems, level,
+    paintPolylines(g2D, getPolylinesAtLevel(level), selectedItems, level,
         selectionOutlinePaint, selectionColor, planScale, foregroundColor, paintMode);
 
     checkCurrentThreadIsntInterrupted(paintMode);
-    paintDimensionLines(g2D, this.home.getDimensionLines(), selectedItems, level,
+    paintDimensionLines(g2D, getDimensionLinesAtLevel(level), selectedItems, level,
         selectionOutlinePaint, dimensionLinesSelectionOutlineStroke, selectionColor,
         locationFeedbackStroke, planScale, backgroundColor, foregroundColor, paintMode, false);
 
@@ -3069,7 +3898,7 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
     paintFurnitureName(g2D, this.sortedLevelFurniture, selectedItems, planScale, foregroundColor, paintMode);
 
     checkCurrentThreadIsntInterrupted(paintMode);
-    paintLabels(g2D, this.home.getLabels(), selectedItems, level,
+    paintLabels(g2D, getLabelsAtLevel(level), selectedItems, level,
         selectionOutlinePaint, dimensionLinesSelectionOutlineStroke,
         selectionColor, planScale, foregroundColor, paintMode);
 
@@ -3134,13 +3963,13 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
                           Color foregroundColor, PaintMode paintMode) {
     if (this.sortedLevelRooms == null) {
       // Sort home rooms in floor / floor-ceiling / ceiling order
-      this.sortedLevelRooms = new ArrayList<Room>();
-      for (Room room : this.home.getRooms()) {
+      List<Room> sortedLevelRooms = new ArrayList<Room>();
+      for (Room room : getRoomsAtLevel(level)) {
         if (isViewableAtLevel(room, level)) {
-          this.sortedLevelRooms.add(room);
+          sortedLevelRooms.add(room);
         }
       }
-      Collections.sort(this.sortedLevelRooms,
+      Collections.sort(sortedLevelRooms,
           new Comparator<Room>() {
             public int compare(Room room1, Room room2) {
               if (room1.isFloorVisible() == room2.isFloorVisible()
@@ -3154,6 +3983,7 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
               }
             }
           });
+      this.sortedLevelRooms = sortedLevelRooms;
     }
 
     Color defaultFillPaint = paintMode == PaintMode.PRINT
@@ -3176,9 +4006,6 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
           } else {
             final HomeTexture floorTexture = room.getFloorTexture();
             if (floorTexture != null) {
-              if (this.floorTextureImagesCache == null) {
-                this.floorTextureImagesCache = new WeakHashMap<HomeTexture, BufferedImage>();
-              }
               BufferedImage textureImage = this.floorTextureImagesCache.get(floorTexture);
               if (textureImage == null
                   || textureImage == WAIT_TEXTURE_IMAGE) {
@@ -3196,6 +4023,7 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
                           floorTextureImagesCache.put(floorTexture,
                               ((ImageComponent2D)texture.getImage(0)).getImage());
                           if (!waitForTexture) {
+                            invalidatePlanTiles();
                             repaint();
                           }
                         }
@@ -3218,6 +4046,9 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
                   }
                 }
                 textureImage = this.floorTextureImagesCache.get(floorTexture);
+                if (!waitForTexture) {
+                  this.planTilesIncomplete = true;
+                }
               }
 
               if (room.getFloorTexture().isFittingArea()) {
@@ -3255,7 +4086,7 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
         AffineTransform rotation = textureAngle != 0
             ? AffineTransform.getRotateInstance(-textureAngle, 0, 0)
             : null;
-        Shape roomShape = ShapeTools.getShape(room.getPoints(), true, rotation);
+        Shape roomShape = getRoomShape(room, rotation);
         fillShape(g2D, roomShape, paintMode);
         g2D.setComposite(oldComposite);
 
@@ -3334,7 +4165,8 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
         float xRoomCenter = room.getXCenter();
         float yRoomCenter = room.getYCenter();
         String name = room.getName();
-        if (name != null) {
+        if (name != null
+            && !isTextTooSmall(room.getClass(), room.getNameStyle(), planScale, paintMode)) {
           name = name.trim();
           if (name.length() > 0) {
             paintText(g2D, room.getClass(), name, room.getNameStyle(), null,
@@ -3343,7 +4175,8 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
                 room.getNameAngle(), previousFont);
           }
         }
-        if (room.isAreaVisible()) {
+        if (room.isAreaVisible()
+            && !isTextTooSmall(room.getClass(), room.getAreaStyle(), planScale, paintMode)) {
           float area = room.getArea();
           if (area > 0.01f) {
             // Draw room area
@@ -3359,6 +4192,22 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
     g2D.setFont(previousFont);
   }
 
+  /**
+   * Returns <code>true</code> if a text drawn with the given <code>style</code> would be
+   * too small to be readable at the given scale in <code>PAINT</code> mode.
+   */
+  private boolean isTextTooSmall(Class<? extends Selectable> selectableClass, TextStyle style,
+                                 float planScale, PaintMode paintMode) {
+    if (paintMode != PaintMode.PAINT) {
+      return false;
+    } else {
+      if (style == null) {
+        style = this.preferences.getDefaultTextStyle(selectableClass);
+      }
+      return style.getFontSize() * planScale < MINIMUM_TEXT_PIXEL_SIZE;
+    }
+  }
+
   /**
    * Paints the given <code>text</code> centered at the point (<code>x</code>,<code>y</code>).
    */
@@ -3374,34 +4223,32 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
       style = this.preferences.getDefaultTextStyle(selectableClass);
     }
     FontMetrics fontMetrics = getFontMetrics(defaultFont, style);
-    String [] lines = text.split("\n");
-    float [] lineWidths = new float [lines.length];
-    float textWidth = -Float.MAX_VALUE;
-    for (int i = 0; i < lines.length; i++) {
-      lineWidths [i] = (float)fontMetrics.getStringBounds(lines [i], g2D).getWidth();
-      textWidth = Math.max(lineWidths [i], textWidth);
-    }
+    FontRenderContext fontRenderContext = g2D.getFontRenderContext();
+    CachedTextLayout textLayout = getTextLayout(text, getFont(defaultFont, style), fontRenderContext);
     BasicStroke stroke = null;
     Font font;
+    CachedTextLayout outlineTextLayout = null;
     if (outlineColor != null) {
       stroke = new BasicStroke(style.getFontSize() * 0.05f);
       TextStyle outlineStyle = style.deriveStyle(style.getFontSize() - stroke.getLineWidth());
       font = getFont(defaultFont, outlineStyle);
+      outlineTextLayout = getTextLayout(text, font, fontRenderContext);
       g2D.setStroke(stroke);
     } else {
       font = getFont(defaultFont, style);
     }
     g2D.setFont(font);
 
-    for (int i = lines.length - 1; i >= 0; i--) {
-      String line = lines [i];
+    for (int i = textLayout.getLineCount() - 1; i >= 0; i--) {
+      String line = textLayout.getLine(i);
+      float lineWidth = (float)textLayout.getLineBounds(i).getWidth();
       float translationX;
       if (style.getAlignment() == TextStyle.Alignment.LEFT) {
         translationX = 0;
       } else if (style.getAlignment() == TextStyle.Alignment.RIGHT) {
-        translationX = -lineWidths [i];
+        translationX = -lineWidth;
       } else { // CENTER
-        translationX = -lineWidths [i] / 2;
+        translationX = -lineWidth / 2;
       }
       if (outlineColor != null) {
         translationX += stroke.getLineWidth() / 2;
@@ -3411,8 +4258,7 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
         // Draw text outline
         Color defaultColor = g2D.getColor();
         g2D.setColor(new Color(outlineColor));
-        TextLayout textLayout = new TextLayout(line, font, g2D.getFontRenderContext());
-        g2D.draw(textLayout.getOutline(null));
+        g2D.draw(outlineTextLayout.getLineOutline(i));
         g2D.setColor(defaultColor);
       }
       // Draw text
@@ -3437,13 +4283,13 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
       if (isViewableAtLevel(room, level)) {
         g2D.setPaint(selectionOutlinePaint);
         g2D.setStroke(selectionOutlineStroke);
-        g2D.draw(ShapeTools.getShape(room.getPoints(), true, null));
+        g2D.draw(getRoomShape(room, null));
 
         if (indicatorPaint != null) {
           g2D.setPaint(indicatorPaint);
           // Draw points of the room
-          for (float [] point : room.getPoints()) {
-            g2D.translate(point [0], point [1]);
+          for (int i = 0, n = room.getPointCount(); i < n; i++) {
+            g2D.translate(room.getPointX(i), room.getPointY(i));
             g2D.scale(scaleInverse, scaleInverse);
             g2D.setStroke(POINT_STROKE);
             g2D.fill(WALL_POINT);
@@ -3838,14 +4684,86 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
     }
   }
 
-  /**
-   * Returns <code>true</code> if the given item can be viewed in the plan at a level.
-   */
-  protected boolean isViewableAtLevel(Elevatable item, Level level) {
-    Level itemLevel = item.getLevel();
-    return itemLevel == null
-        || (itemLevel.isViewable()
-            && item.isAtLevel(level));
+  /**
+   * Returns <code>true</code> if the given item can be viewed in the plan at a level.
+   */
+  protected boolean isViewableAtLevel(Elevatable item, Level level) {
+    Level itemLevel = item.getLevel();
+    return itemLevel == null
+        || (itemLevel.isViewable()
+            && item.isAtLevel(level));
+  }
+
+  /**
+   * Returns <code>true</code> if the items viewable at a level may be searched only among
+   * the items at that level indexed by home, i.e. among the items for which
+   * {@link Elevatable#isAtLevel(Level) isAtLevel} returns <code>true</code>.
+   * By default, returns <code>false</code> if {@link #isViewableAtLevel(Elevatable, Level) isViewableAtLevel}
+   * is overridden, to let subclasses view other items at a level. Subclasses which override
+   * <code>isViewableAtLevel</code> only to view fewer items may override this method to return <code>true</code>.
+   * @since 7.3
+   */
+  protected boolean isLevelItemsIndexUsed() {
+    if (this.viewableAtLevelOverridden == null) {
+      this.viewableAtLevelOverridden = Boolean.FALSE;
+      for (Class<?> componentClass = getClass(); componentClass != PlanComponent.class; componentClass = componentClass.getSuperclass()) {
+        try {
+          componentClass.getDeclaredMethod("isViewableAtLevel", Elevatable.class, Level.class);
+          this.viewableAtLevelOverridden = Boolean.TRUE;
+          break;
+        } catch (NoSuchMethodException ex) {
+          // Search in super class
+        }
+      }
+    }
+    return !this.viewableAtLevelOverridden;
+  }
+
+  /**
+   * Returns the items among which the items viewable at the given <code>level</code> are searched,
+   * i.e. the items at that level indexed by home, or all the <code>homeItems</code> if
+   * the index isn't used or if some items don't belong to a level.
+   */
+  private <T extends Elevatable> Collection<T> getItemsAtLevel(Collection<T> homeItems,
+                                                              List<T> itemsAtLevel,
+                                                              List<T> itemsWithoutLevel,
+                                                              Level level) {
+    if (!isLevelItemsIndexUsed()
+        || level != null && !itemsWithoutLevel.isEmpty()) {
+      return homeItems;
+    } else {
+      return itemsAtLevel;
+    }
+  }
+
+  private Collection<HomePieceOfFurniture> getFurnitureAtLevel(Level level) {
+    return getItemsAtLevel(this.home.getFurniture(), this.home.getFurnitureAtLevel(level),
+        this.home.getFurnitureAtLevel(null), level);
+  }
+
+  private Collection<Wall> getWallsAtLevel(Level level) {
+    return getItemsAtLevel(this.home.getWalls(), this.home.getWallsAtLevel(level),
+        this.home.getWallsAtLevel(null), level);
+  }
+
+  private Collection<Room> getRoomsAtLevel(Level level) {
+    return getItemsAtLevel(this.home.getRooms(), this.home.getRoomsAtLevel(level),
+        this.home.getRoomsAtLevel(null), level);
+  }
+
+  private Collection<Polyline> getPolylinesAtLevel(Level level) {
+    return getItemsAtLevel(this.home.getPolylines(), this.home.getPolylinesAtLevel(level),
+        this.home.getPolylinesAtLevel(null), level);
+  }
+
+  private Collection<DimensionLine> getDimensionLinesAtLevel(Level level) {
+    return getItemsAtLevel(this.home.getDimensionLines(), this.home.getDimensionLinesAtLevel(level),
+        this.home.getDimensionLinesAtLevel(null), level);
+  }
+
+  private Collection<Label> getLabelsAtLevel(Level level) {
+    return getItemsAtLevel(this.home.getLabels(), this.home.getLabelsAtLevel(level),
+        this.home.getLabelsAtLevel(null), level);
   }
 
   /**
@@ -3923,7 +4841,7 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
    */
   private Map<Collection<Wall>, Area> getWallAreasAtLevel(Level level) {
     if (this.wallAreasCache == null) {
-      this.wallAreasCache = getWallAreas(getDrawableWallsAtLevel(this.home.getWalls(), level));
+      this.wallAreasCache = getWallAreas(getDrawableWallsAtLevel(getWallsAtLevel(level), level));
     }
     return this.wallAreasCache;
   }
@@ -3997,14 +4915,17 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
    * Returns the <code>Paint</code> object used to fill walls.
    */
   private Paint getWallPaint(float planScale, Color backgroundColor, Color foregroundColor, TextureImage wallPattern) {
-    BufferedImage patternImage = this.patternImagesCache.get(wallPattern);
-    if (patternImage == null
-        || !backgroundColor.equals(this.wallsPatternBackgroundCache)
-        || !foregroundColor.equals(this.wallsPatternForegroundCache)) {
-      patternImage = SwingTools.getPatternImage(wallPattern, backgroundColor, foregroundColor);
-      this.patternImagesCache.put(wallPattern, patternImage);
-      this.wallsPatternBackgroundCache = backgroundColor;
-      this.wallsPatternForegroundCache = foregroundColor;
+    BufferedImage patternImage;
+    synchronized (this.patternImagesCache) {
+      patternImage = this.patternImagesCache.get(wallPattern);
+      if (patternImage == null
+          || !backgroundColor.equals(this.wallsPatternBackgroundCache)
+          || !foregroundColor.equals(this.wallsPatternForegroundCache)) {
+        patternImage = SwingTools.getPatternImage(wallPattern, backgroundColor, foregroundColor);
+        this.patternImagesCache.put(wallPattern, patternImage);
+        this.wallsPatternBackgroundCache = backgroundColor;
+        this.wallsPatternForegroundCache = foregroundColor;
+      }
     }
     return new TexturePaint(patternImage,
         new Rectangle2D.Float(0, 0, 10 / planScale, 10 / planScale));
@@ -4021,6 +4942,8 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
     if (!furniture.isEmpty()) {
       BasicStroke pieceBorderStroke = new BasicStroke(getStrokeWidth(HomePieceOfFurniture.class, paintMode) / planScale);
       Boolean allFurnitureViewedFromTop = null;
+      GeneralPath tinyFurniturePath = null;
+      Set<Long> tinyFurniturePixels = null;
       // Draw furniture
       for (HomePieceOfFurniture piece : furniture) {
         if (piece.isVisible()) {
@@ -4037,7 +4960,36 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
           } else if (paintMode != PaintMode.CLIPBOARD
                     || selectedPiece) {
             // In clipboard paint mode, paint piece only if it is selected
-            Shape pieceShape = ShapeTools.getShape(piece.getPoints(), true, null);
+            // Simplify the drawing of pieces too small to show their details at this scale
+            float piecePixelSize = paintMode == PaintMode.PAINT
+                ? Math.max(piece.getWidthInPlan(), piece.getDepthInPlan()) * planScale
+                : Float.MAX_VALUE;
+            if (paintIcon
+                && piecePixelSize < MINIMUM_ITEM_PIXEL_SIZE
+                && !(piece instanceof HomeDoorOrWindow)) {
+              // Gather tiny pieces in a path filled once with a pixel square for each covered pixel
+              if (tinyFurniturePath == null) {
+                tinyFurniturePath = new GeneralPath();
+                tinyFurniturePixels = new HashSet<Long>();
+              }
+              int xPixel = (int)Math.floor(piece.getX() * planScale);
+              int yPixel = (int)Math.floor(piece.getY() * planScale);
+              // Scramble y with an odd multiplier to spread keys hash codes
+              if (tinyFurniturePixels.add(((long)xPixel << 32) | ((yPixel * 0x9E3779B9) & 0xFFFFFFFFL))) {
+                float x = xPixel / planScale;
+                float y = yPixel / planScale;
+                float pixelSize = 1 / planScale;
+                tinyFurniturePath.moveTo(x, y);
+                tinyFurniturePath.lineTo(x + pixelSize, y);
+                tinyFurniturePath.lineTo(x + pixelSize, y + pixelSize);
+                tinyFurniturePath.lineTo(x, y + pixelSize);
+                tinyFurniturePath.closePath();
+              }
+              continue;
+            }
+            Shape pieceShape = getPieceOfFurnitureShape(piece);
+            boolean pieceIconReduced = paintIcon
+                && piecePixelSize < MINIMUM_FURNITURE_ICON_PIXEL_SIZE;
             Shape pieceShape2D;
             if (piece instanceof HomeDoorOrWindow) {
               HomeDoorOrWindow doorOrWindow = (HomeDoorOrWindow)piece;
@@ -4046,7 +4998,9 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
                   || !this.draggedItemsFeedback.contains(piece)) {
                 paintDoorOrWindowWallThicknessArea(g2D, doorOrWindow, planScale, backgroundColor, foregroundColor, paintMode);
               }
-              paintDoorOrWindowSashes(g2D, doorOrWindow, planScale, foregroundColor, paintMode);
+              if (piecePixelSize >= MINIMUM_ITEM_PIXEL_SIZE) {
+                paintDoorOrWindowSashes(g2D, doorOrWindow, planScale, foregroundColor, paintMode);
+              }
             } else {
               pieceShape2D = pieceShape;
             }
@@ -4074,7 +5028,8 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
               viewedFromTop = false;
             }
             if (paintIcon
-                && viewedFromTop) {
+                && viewedFromTop
+                && !pieceIconReduced) {
               if (piece instanceof HomeDoorOrWindow) {
                 // Draw doors and windows border
                 g2D.setPaint(backgroundColor);
@@ -4093,7 +5048,11 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
                 g2D.draw(pieceShape);
               }
             } else {
-              if (paintIcon) {
+              if (pieceIconReduced) {
+                // Fill piece area without its icon
+                g2D.setPaint(backgroundColor);
+                g2D.fill(pieceShape2D);
+              } else if (paintIcon) {
                 // Draw its icon
                 paintPieceOfFurnitureIcon(g2D, piece, pieceShape2D, planScale,
                     backgroundColor, paintMode);
@@ -4112,6 +5071,10 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
           }
         }
       }
+      if (tinyFurniturePath != null) {
+        g2D.setPaint(foregroundColor);
+        g2D.fill(tinyFurniturePath);
+      }
     }
   }
 
@@ -4167,10 +5130,7 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
   private void paintDoorOrWindowWallThicknessArea(Graphics2D g2D, HomeDoorOrWindow doorOrWindow, float planScale,
                                                   Color backgroundColor, Color foregroundColor, PaintMode paintMode) {
     if (doorOrWindow.isWallCutOutOnBothSides()) {
-      Area doorOrWindowWallArea = null;
-      if (this.doorOrWindowWallThicknessAreasCache != null) {
-        doorOrWindowWallArea = this.doorOrWindowWallThicknessAreasCache.get(doorOrWindow);
-      }
+      Area doorOrWindowWallArea = this.doorOrWindowWallThicknessAreasCache.get(doorOrWindow);
 
       if (doorOrWindowWallArea == null) {
         Rectangle2D doorOrWindowRectangle = getDoorOrWindowRectangle(doorOrWindow, false);
@@ -4183,9 +5143,13 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
         Area doorOrWindowWallPartArea = new Area(doorOrWindowWallPartShape);
 
         doorOrWindowWallArea = new Area();
+        Rectangle2D doorOrWindowWallPartBounds = doorOrWindowWallPartShape.getBounds2D();
         for (Wall wall : home.getWalls()) {
           if (wall.isAtLevel(doorOrWindow.getLevel())
-              && doorOrWindow.isParallelToWall(wall)) {
+              && doorOrWindow.isParallelToWall(wall)
+              // Avoid area computations with walls far from the door or window
+              && wall.intersectsRectangle((float)doorOrWindowWallPartBounds.getMinX(), (float)doorOrWindowWallPartBounds.getMinY(),
+                  (float)doorOrWindowWallPartBounds.getMaxX(), (float)doorOrWindowWallPartBounds.getMaxY())) {
             Shape wallShape = ShapeTools.getShape(wall.getPoints(), true, null);
             Area wallArea = new Area(wallShape);
             wallArea.intersect(doorOrWindowWallPartArea);
@@ -4206,9 +5170,6 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
         }
       }
 
-      if (this.doorOrWindowWallThicknessAreasCache == null) {
-        this.doorOrWindowWallThicknessAreasCache = new WeakHashMap<HomeDoorOrWindow, Area>();
-      }
       this.doorOrWindowWallThicknessAreasCache.put(doorOrWindow, doorOrWindowWallArea);
 
       g2D.setPaint(backgroundColor);
@@ -4283,7 +5244,8 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
         }
         if (piece.isNameVisible()
             && (paintMode != PaintMode.CLIPBOARD
-                || selectedPiece)) {
+                || selectedPiece)
+            && !isTextTooSmall(piece.getClass(), piece.getNameStyle(), planScale, paintMode)) {
           // In clipboard paint mode, paint piece only if it is selected
           String name = piece.getName().trim();
           if (name.length() > 0) {
@@ -4330,7 +5292,7 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
             // Enlarge group area
             groupArea.add(new Area(furnitureGroupsStroke.createStrokedShape(groupShape)));
           }
-          Area pieceArea = new Area(ShapeTools.getShape(piece.getPoints(), true, null));
+          Area pieceArea = new Area(getPieceOfFurnitureShape(piece));
           if (furnitureGroupsArea == null) {
             furnitureGroupsArea = groupArea;
             furnitureInGroupsArea = pieceArea;
@@ -4407,6 +5369,9 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
     // Get piece icon
     Icon icon = IconManager.getInstance().getIcon(piece.getIcon(), 128,
         paintMode == PaintMode.PAINT ? this : null);
+    if (IconManager.getInstance().isWaitIcon(icon)) {
+      this.planTilesIncomplete = true;
+    }
     paintPieceOfFurnitureIcon(g2D, piece, icon, pieceShape2D, planScale, backgroundColor);
   }
 
@@ -4454,10 +5419,6 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
                                         float planScale,
                                         Color backgroundColor, Color foregroundColor,
                                         PaintMode paintMode) {
-    if (this.furnitureTopViewIconKeys == null) {
-      this.furnitureTopViewIconKeys = new WeakHashMap<HomePieceOfFurniture, HomePieceOfFurnitureTopViewIconKey>();
-      this.furnitureTopViewIconsCache = new WeakHashMap<HomePieceOfFurnitureTopViewIconKey, PieceOfFurnitureTopViewIcon>();
-    }
     HomePieceOfFurnitureTopViewIconKey topViewIconKey = this.furnitureTopViewIconKeys.get(piece);
     PieceOfFurnitureTopViewIcon icon;
     if (topViewIconKey == null) {
@@ -4478,10 +5439,12 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
         // As furnitureTopViewIconKeys and furnitureTopViewIconsCache are both WeakHashMap instances,
         // use the HomePieceOfFurnitureTopViewIconKey instance that already exists in furnitureTopViewIconsCache
         // to avoid the deletion of the entry containing the new sibling when a piece is garbage collected
-        for (HomePieceOfFurnitureTopViewIconKey key : furnitureTopViewIconsCache.keySet()) {
-          if (key.equals(topViewIconKey)) {
-            topViewIconKey = key;
-            break;
+        synchronized (this.furnitureTopViewIconsCache) {
+          for (HomePieceOfFurnitureTopViewIconKey key : this.furnitureTopViewIconsCache.keySet()) {
+            if (key.equals(topViewIconKey)) {
+              topViewIconKey = key;
+              break;
+            }
           }
         }
       }
@@ -4491,6 +5454,14 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
     }
 
     if (icon.isWaitIcon() || icon.isErrorIcon()) {
+      if (icon.isWaitIcon()) {
+        this.planTilesIncomplete = true;
+        if (icon instanceof PieceOfFurnitureModelIcon
+            && paintMode == PaintMode.PAINT) {
+          // Generate first the icons of visible pieces
+          ((PieceOfFurnitureModelIcon)icon).prioritize();
+        }
+      }
       paintPieceOfFurnitureIcon(g2D, piece, icon, pieceShape2D, planScale, backgroundColor);
       g2D.setPaint(foregroundColor);
       g2D.setStroke(pieceBorderStroke);
@@ -4746,8 +5717,24 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
     // Draw dimension lines
     // Change font size
     Font previousFont = g2D.getFont();
+    GeneralPath tinyDimensionLinesPath = null;
     for (DimensionLine dimensionLine : dimensionLines) {
       if (isViewableAtLevel(dimensionLine, level)) {
+        if (paintMode == PaintMode.PAINT
+            && !feedback
+            && dimensionLine.getColor() == null
+            && Math.max(dimensionLine.getLength(), Math.abs(dimensionLine.getOffset())) * planScale < MINIMUM_ITEM_PIXEL_SIZE
+            && !selectedItems.contains(dimensionLine)) {
+          // Gather dimension lines too small to show their details in a path drawn once
+          if (tinyDimensionLinesPath == null) {
+            tinyDimensionLinesPath = new GeneralPath();
+          }
+          tinyDimensionLinesPath.append(new Line2D.Float(dimensionLine.getXStart(), dimensionLine.getYStart(),
+              dimensionLine.getXEnd(), dimensionLine.getYEnd()), false);
+          continue;
+        }
+        boolean markEndsVisible = paintMode != PaintMode.PAINT
+            || dimensionLine.getEndMarkSize() * planScale >= MINIMUM_ITEM_PIXEL_SIZE;
         Integer dimensionLineColor = dimensionLine.getColor();
         float markEndScale = dimensionLine.getEndMarkSize() / markEndWidth;
         BasicStroke dimensionLineStroke = new BasicStroke(getStrokeWidth(DimensionLine.class, paintMode) / markEndScale / planScale);
@@ -4800,13 +5787,15 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
         // Draw dimension line
         if (horizontalDimensionLine) {
           g2D.draw(new Line2D.Float(0, 0, dimensionLineLength, 0));
-          // Draw dimension line ends
-          g2D.scale(markEndScale, markEndScale);
-          g2D.draw(DIMENSION_LINE_MARK_END);
-          g2D.translate(dimensionLineLength / markEndScale, 0);
-          g2D.draw(DIMENSION_LINE_MARK_END);
-          g2D.scale(1 / markEndScale, 1 / markEndScale);
-          g2D.translate(-dimensionLineLength, 0);
+          if (markEndsVisible) {
+            // Draw dimension line ends
+            g2D.scale(markEndScale, markEndScale);
+            g2D.draw(DIMENSION_LINE_MARK_END);
+            g2D.translate(dimensionLineLength / markEndScale, 0);
+            g2D.draw(DIMENSION_LINE_MARK_END);
+            g2D.scale(1 / markEndScale, 1 / markEndScale);
+            g2D.translate(-dimensionLineLength, 0);
+          }
           // Draw extension lines
           g2D.setStroke(extensionLineStroke);
           g2D.draw(new Line2D.Float(0, -dimensionLineOffset, 0, 0));
@@ -4824,7 +5813,9 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
           }
         }
 
-        if (horizontalDimensionLine
+        if ((horizontalDimensionLine
+              && (feedback
+                  || !isTextTooSmall(dimensionLine.getClass(), dimensionLine.getLengthStyle(), planScale, paintMode)))
             || dimensionLine == selectedDimensionLineWithIndicators) {
           String lengthText = this.preferences.getLengthUnit().getFormat().format(dimensionLineLength);
           TextStyle lengthStyle = dimensionLine.getLengthStyle();
@@ -4839,7 +5830,8 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
           }
           Font font = getFont(previousFont, lengthStyle);
           FontMetrics lengthFontMetrics = getFontMetrics(font, lengthStyle);
-          Rectangle2D lengthTextBounds = lengthFontMetrics.getStringBounds(lengthText, g2D);
+          CachedTextLayout lengthTextLayout = getTextLayout(lengthText, font, g2D.getFontRenderContext());
+          Rectangle2D lengthTextBounds = lengthTextLayout.getLineBounds(0);
           if (!horizontalDimensionLine
               && dimensionLine == selectedDimensionLineWithIndicators) {
             g2D.rotate(angle > Math.PI ? Math.PI / 2 : -Math.PI / 2);
@@ -4865,9 +5857,7 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
             g2D.setPaint(backgroundColor);
             Composite oldComposite = setTransparency(g2D, 0.7f);
             g2D.setStroke(new BasicStroke(4 / planScale, BasicStroke.CAP_SQUARE, BasicStroke.CAP_ROUND));
-            FontRenderContext fontRenderContext = g2D.getFontRenderContext();
-            TextLayout textLayout = new TextLayout(lengthText, font, fontRenderContext);
-            g2D.draw(textLayout.getOutline(new AffineTransform()));
+            g2D.draw(lengthTextLayout.getLineOutline(0));
             g2D.setComposite(oldComposite);
             g2D.setPaint(foregroundColor);
             if (!feedback) {
@@ -4881,6 +5871,11 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
         g2D.setTransform(previousTransform);
       }
     }
+    if (tinyDimensionLinesPath != null) {
+      g2D.setPaint(foregroundColor);
+      g2D.setStroke(new BasicStroke(getStrokeWidth(DimensionLine.class, paintMode) / planScale));
+      g2D.draw(tinyDimensionLinesPath);
+    }
     g2D.setFont(previousFont);
     // Paint resize indicators of selected dimension line
     if (selectedDimensionLineWithIndicators != null) {
@@ -5001,10 +5996,12 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
           if (labelStyle.getFontName() == null && getFont() != null) {
             labelStyle = labelStyle.deriveStyle(getFont().getFontName());
           }
-          Integer color = label.getColor();
-          g2D.setPaint(color != null ?  new Color(color) : foregroundColor);
-          paintText(g2D, label.getClass(), labelText, labelStyle, label.getOutlineColor(),
-              xLabel, yLabel, labelAngle, previousFont);
+          if (!isTextTooSmall(label.getClass(), labelStyle, planScale, paintMode)) {
+            Integer color = label.getColor();
+            g2D.setPaint(color != null ?  new Color(color) : foregroundColor);
+            paintText(g2D, label.getClass(), labelText, labelStyle, label.getOutlineColor(),
+                xLabel, yLabel, labelAngle, previousFont);
+          }
 
           if (paintMode == PaintMode.PAINT && this.selectedItemsOutlinePainted && selectedLabel) {
             // Draw selection border
@@ -5149,7 +6146,7 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
       float y = (float)locationFeedback.getY();
       float deltaXToClosestWall = Float.POSITIVE_INFINITY;
       float deltaYToClosestWall = Float.POSITIVE_INFINITY;
-      for (Wall wall : getViewedItems(this.home.getWalls(), level, this.otherLevelsWallsCache)) {
+      for (Wall wall : getViewedItems(getWallsAtLevel(level), level, this.otherLevelsWallsCache)) {
         if (wall != alignedWall) {
           if (Math.abs(x - wall.getXStart()) < margin
               && (alignedWall == null
@@ -5299,7 +6296,7 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
       float y = (float)locationFeedback.getY();
       float deltaXToClosestObject = Float.POSITIVE_INFINITY;
       float deltaYToClosestObject = Float.POSITIVE_INFINITY;
-      for (Room room : getViewedItems(this.home.getRooms(), level, this.otherLevelsRoomsCache)) {
+      for (Room room : getViewedItems(getRoomsAtLevel(level), level, this.otherLevelsRoomsCache)) {
         float [][] roomPoints = room.getPoints();
         int editedPointIndex = -1;
         if (room == alignedRoom) {
@@ -5325,7 +6322,7 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
         }
       }
       // Search which wall points are at locationFeedback abscissa or ordinate
-      for (Wall wall : getViewedItems(this.home.getWalls(), level, this.otherLevelsWallsCache)) {
+      for (Wall wall : getViewedItems(getWallsAtLevel(level), level, this.otherLevelsWallsCache)) {
         float [][] wallPoints = wall.getPoints();
         // Take into account only points at start and end of the wall
         wallPoints = new float [][] {wallPoints [0], wallPoints [wallPoints.length / 2 - 1],
@@ -5388,7 +6385,7 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
       float y = (float)locationFeedback.getY();
       float deltaXToClosestObject = Float.POSITIVE_INFINITY;
       float deltaYToClosestObject = Float.POSITIVE_INFINITY;
-      for (Room room : getViewedItems(this.home.getRooms(), level, this.otherLevelsRoomsCache)) {
+      for (Room room : getViewedItems(getRoomsAtLevel(level), level, this.otherLevelsRoomsCache)) {
         float [][] roomPoints = room.getPoints();
         for (int i = 0; i < roomPoints.length; i++) {
           if (Math.abs(x - roomPoints [i][0]) < margin
@@ -5403,7 +6400,7 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
       }
       // Search which dimension line start or end point is at locationFeedback abscissa or ordinate
       // ignoring the start and end point of alignedDimensionLine
-      for (DimensionLine dimensionLine : this.home.getDimensionLines()) {
+      for (DimensionLine dimensionLine : getDimensionLinesAtLevel(level)) {
         if (isViewableAtLevel(dimensionLine, level)
             && dimensionLine != alignedDimensionLine) {
           if (Math.abs(x - dimensionLine.getXStart()) < margin
@@ -5439,7 +6436,7 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
         }
       }
       // Search which wall points are at locationFeedback abscissa or ordinate
-      for (Wall wall : getViewedItems(this.home.getWalls(), level, this.otherLevelsWallsCache)) {
+      for (Wall wall : getViewedItems(getWallsAtLevel(level), level, this.otherLevelsWallsCache)) {
         float [][] wallPoints = wall.getPoints();
         // Take into account only points at start and end of the wall
         wallPoints = new float [][] {wallPoints [0], wallPoints [wallPoints.length / 2 - 1],
@@ -5456,7 +6453,7 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
         }
       }
       // Search which piece of furniture points are at locationFeedback abscissa or ordinate
-      for (HomePieceOfFurniture piece : this.home.getFurniture()) {
+      for (HomePieceOfFurniture piece : getFurnitureAtLevel(level)) {
         if (piece.isVisible()
             && isViewableAtLevel(piece, level)) {
           float [][] piecePoints = piece.getPoints();
@@ -6182,6 +7179,11 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
    */
   public void setResizeIndicatorVisible(boolean resizeIndicatorVisible) {
     this.resizeIndicatorVisible = resizeIndicatorVisible;
+    if (this.itemBoundsCache != null) {
+      for (Selectable item : this.home.getSelectedItems()) {
+        invalidateItem(item);
+      }
+    }
     repaint();
   }
 
@@ -6216,10 +7218,28 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
    * initiated from outside of plan view.
    */
   public void setDraggedItemsFeedback(List<Selectable> draggedItems) {
+    invalidateDraggedDoorsOrWindows(this.draggedItemsFeedback);
     this.draggedItemsFeedback = draggedItems;
+    invalidateDraggedDoorsOrWindows(this.draggedItemsFeedback);
     repaint();
   }
 
+  /**
+   * Invalidates the tiles of home doors and windows in <code>draggedItems</code>,
+   * because their wall thickness area isn't painted while they're dragged.
+   */
+  private void invalidateDraggedDoorsOrWindows(List<Selectable> draggedItems) {
+    if (draggedItems != null
+        && this.itemBoundsCache != null) {
+      for (Selectable item : draggedItems) {
+        if (item instanceof HomeDoorOrWindow
+            && this.itemBoundsCache.containsKey(item)) {
+          invalidateItem(item);
+        }
+      }
+    }
+  }
+
   /**
    * Sets the given dimension lines to be drawn as feedback.
    */
@@ -6243,6 +7263,7 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
     this.point1AngleFeedback = null;
     this.point2AngleFeedback = null;
 
+    invalidateDraggedDoorsOrWindows(this.draggedItemsFeedback);
     this.draggedItemsFeedback = null;
 
     this.dimensionLinesFeedback = null;
@@ -6609,6 +7630,145 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
     }
   }
 
+  /**
+   * The lines of a text laid out with a given font, their bounds and their outline.
+   */
+  private static class CachedTextLayout {
+    private final String []      lines;
+    private final Rectangle2D [] linesBounds;
+    private final Font           font;
+    private final FontRenderContext fontRenderContext;
+    private Shape []             linesOutline;
+
+    public CachedTextLayout(String text, Font font, FontRenderContext fontRenderContext) {
+      this.lines = text.split("\n");
+      this.linesBounds = new Rectangle2D [this.lines.length];
+      for (int i = 0; i < this.lines.length; i++) {
+        this.linesBounds [i] = font.getStringBounds(this.lines [i], fontRenderContext);
+      }
+      this.font = font;
+      this.fontRenderContext = fontRenderContext;
+    }
+
+    public int getLineCount() {
+      return this.lines.length;
+    }
+
+    public String getLine(int index) {
+      return this.lines [index];
+    }
+
+    /**
+     * Returns a copy of the bounds of the line at the given <code>index</code>.
+     */
+    public Rectangle2D getLineBounds(int index) {
+      return (Rectangle2D)this.linesBounds [index].clone();
+    }
+
+    /**
+     * Returns a copy of the bounds of the first widest line.
+     */
+    public Rectangle2D getWidestLineBounds() {
+      Rectangle2D widestLineBounds = this.linesBounds [0];
+      for (int i = 1; i < this.linesBounds.length; i++) {
+        if (widestLineBounds.getWidth() < this.linesBounds [i].getWidth()) {
+          widestLineBounds = this.linesBounds [i];
+        }
+      }
+      return (Rectangle2D)widestLineBounds.clone();
+    }
+
+    /**
+     * Returns the outline of the line at the given <code>index</code>.
+     */
+    public synchronized Shape getLineOutline(int index) {
+      if (this.linesOutline == null) {
+        this.linesOutline = new Shape [this.lines.length];
+      }
+      if (this.linesOutline [index] == null) {
+        this.linesOutline [index] = new TextLayout(this.lines [index], this.font, this.fontRenderContext).getOutline(null);
+      }
+      return this.linesOutline [index];
+    }
+  }
+
+  /**
+   * Images of plan tiles painted with the same attributes.
+   */
+  private static class PlanTiles {
+    private final List<Object>             attributes;
+    private final AffineTransform          tilesTransform;
+    private final float                    invalidationMargin;
+    private final Map<Long, BufferedImage> tiles;
+    private int                            maximumTileCount = 64;
+
+    public PlanTiles(List<Object> attributes, AffineTransform tilesTransform, float invalidationMargin) {
+      this.attributes = attributes;
+      this.tilesTransform = tilesTransform;
+      this.invalidationMargin = invalidationMargin;
+      // Keep least recently used tiles first
+      this.tiles = new LinkedHashMap<Long, BufferedImage>(64, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<Long, BufferedImage> eldest) {
+            return size() > maximumTileCount;
+          }
+        };
+    }
+
+    /**
+     * Returns <code>true</code> if tiles painted with the given attributes are the same as these tiles.
+     */
+    public boolean isCompatible(List<Object> attributes) {
+      return this.attributes.equals(attributes);
+    }
+
+    public void setMaximumTileCount(int maximumTileCount) {
+      this.maximumTileCount = maximumTileCount;
+    }
+
+    public BufferedImage getTile(int column, int row) {
+      return this.tiles.get(getTileKey(column, row));
+    }
+
+    public void putTile(int column, int row, BufferedImage tile) {
+      this.tiles.put(getTileKey(column, row), tile);
+    }
+
+    private Long getTileKey(int column, int row) {
+      return ((long)column << 32) | (row & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Removes the tiles intersecting the given rectangle expressed in plan coordinates.
+     */
+    public void invalidate(Rectangle2D planBounds) {
+      if (!this.tiles.isEmpty()) {
+        Rectangle2D bounds = this.tilesTransform.createTransformedShape(planBounds).getBounds2D();
+        int minColumn = (int)Math.floor((bounds.getMinX() - this.invalidationMargin) / TILE_SIZE);
+        int maxColumn = (int)Math.floor((bounds.getMaxX() + this.invalidationMargin) / TILE_SIZE);
+        int minRow = (int)Math.floor((bounds.getMinY() - this.invalidationMargin) / TILE_SIZE);
+        int maxRow = (int)Math.floor((bounds.getMaxY() + this.invalidationMargin) / TILE_SIZE);
+        if ((long)(maxColumn - minColumn + 1) * (maxRow - minRow + 1) > this.tiles.size()) {
+          for (Iterator<Long> it = this.tiles.keySet().iterator(); it.hasNext(); ) {
+            long key = it.next();
+            int column = (int)(key >> 32);
+            int row = (int)key;
+            if (column >= minColumn && column <= maxColumn
+                && row >= minRow && row <= maxRow) {
+              it.remove();
+            }
+          }
+        } else {
+          for (int row = minRow; row <= maxRow; row++) {
+            for (int column = minColumn; column <= maxColumn; column++) {
+              this.tiles.remove(getTileKey(column, row));
+            }
+          }
+        }
+      }
+    }
+  }
+
   /**
    * A proxy for the furniture icon seen from top.
    */
@@ -6762,8 +7922,22 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
    * A proxy for the furniture top view icon generated from its 3D model.
    */
   private static class PieceOfFurnitureModelIcon extends PieceOfFurnitureTopViewIcon {
-    private static BranchGroup     sceneRoot;
-    private static ExecutorService iconsCreationExecutor;
+    private static final String ICONS_CACHE_SUB_FOLDER   = "furnitureTopViews";
+    private static final String ICONS_CACHE_VERSION      = "2";
+    private static final String ICONS_CACHE_MAXIMUM_SIZE = "com.eteks.sweethome3d.furnitureTopViewsCacheMaximumSize";
+    private static final long   REPAINT_DELAY            = 250;
+
+    private static BranchGroup                sceneRoot;
+    private static ThreadPoolExecutor         iconsCreationExecutor;
+    private static long                       iconsCreationTaskCount;
+    private static File                       iconsCacheFolder;
+    private static boolean                    iconsCacheFolderChecked;
+    private static long                       iconsCacheSize = -1;
+    private static final Map<Content, String> contentDigests = new WeakHashMap<Content, String>();
+    private static final Set<Component>       componentsToRepaint = new HashSet<Component>();
+    private static long                       lastRepaintTime;
+
+    private IconCreationTask pendingTask;
 
     /**
      * Creates a top view icon proxy for a <code>piece</code> of furniture.
@@ -6777,40 +7951,71 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
                                      final Component waitingComponent,
                                      final int iconSize) {
       super(IconManager.getInstance().getWaitIcon());
-      ModelManager.getInstance().loadModel(piece.getModel(), waitingComponent == null,
-          new ModelManager.ModelObserver() {
-            public void modelUpdated(final BranchGroup modelNode) {
-              // Now that it's sure that 3D model exists
-              // work on a clone of the piece centered at the origin
-              // with the same size to get a correct texture mapping
-              final HomePieceOfFurniture normalizedPiece = piece.clone();
-              if (normalizedPiece.isResizable()
-                  && piece.getRoll() == 0) {
-                normalizedPiece.setModelMirrored(false);
+      // Work on a clone of the piece centered at the origin
+      // with the same size to get a correct texture mapping
+      final HomePieceOfFurniture normalizedPiece = piece.clone();
+      if (normalizedPiece.isResizable()
+          && piece.getRoll() == 0) {
+        normalizedPiece.setModelMirrored(false);
+      }
+      final float pieceWidth = normalizedPiece.getWidthInPlan();
+      final float pieceDepth = normalizedPiece.getDepthInPlan();
+      final float pieceHeight = normalizedPiece.getHeightInPlan();
+      normalizedPiece.setX(0);
+      normalizedPiece.setY(0);
+      normalizedPiece.setElevation(-pieceHeight / 2);
+      normalizedPiece.setLevel(null);
+      normalizedPiece.setAngle(0);
+      if (waitingComponent != null) {
+        // Search icon in cache and generate it in an other thread
+        // to avoid blocking EDT during offscreen rendering
+        execute(new Runnable() {
+            public void run() {
+              String iconKey = getIconCacheKey(normalizedPiece, pieceWidth, pieceDepth, pieceHeight, iconSize);
+              BufferedImage image = readCachedIcon(iconKey);
+              if (image != null) {
+                setIcon(new ImageIcon(image));
+                repaintLater(waitingComponent);
+              } else {
+                loadModel(normalizedPiece, object3dFactory, waitingComponent,
+                    pieceWidth, pieceDepth, pieceHeight, iconSize, iconKey);
               }
-              final float pieceWidth = normalizedPiece.getWidthInPlan();
-              final float pieceDepth = normalizedPiece.getDepthInPlan();
-              final float pieceHeight = normalizedPiece.getHeightInPlan();
-              normalizedPiece.setX(0);
-              normalizedPiece.setY(0);
-              normalizedPiece.setElevation(-pieceHeight / 2);
-              normalizedPiece.setLevel(null);
-              normalizedPiece.setAngle(0);
+            }
+          });
+      } else {
+        String iconKey = getIconCacheKey(normalizedPiece, pieceWidth, pieceDepth, pieceHeight, iconSize);
+        BufferedImage image = readCachedIcon(iconKey);
+        if (image != null) {
+          setIcon(new ImageIcon(image));
+        } else {
+          loadModel(normalizedPiece, object3dFactory, null,
+              pieceWidth, pieceDepth, pieceHeight, iconSize, iconKey);
+        }
+      }
+    }
+
+    /**
+     * Loads the model of the given normalized piece and creates its icon once it's available.
+     */
+    private void loadModel(final HomePieceOfFurniture normalizedPiece,
+                           final Object3DFactory object3dFactory,
+                           final Component waitingComponent,
+                           final float pieceWidth, final float pieceDepth, final float pieceHeight,
+                           final int iconSize, final String iconKey) {
+      ModelManager.getInstance().loadModel(normalizedPiece.getModel(), waitingComponent == null,
+          new ModelManager.ModelObserver() {
+            public void modelUpdated(BranchGroup modelNode) {
               if (waitingComponent != null) {
-                // Generate icons in an other thread to avoid blocking EDT during offscreen rendering
-                if (iconsCreationExecutor == null) {
-                  iconsCreationExecutor = Executors.newSingleThreadExecutor();
-                }
-                iconsCreationExecutor.execute(new Runnable() {
+                execute(new Runnable() {
                     public void run() {
                       setIcon(createIcon((Object3DBranch)object3dFactory.createObject3D(null, normalizedPiece, true),
-                          pieceWidth, pieceDepth, pieceHeight, iconSize));
-                      waitingComponent.repaint();
+                          pieceWidth, pieceDepth, pieceHeight, iconSize, iconKey));
+                      repaintLater(waitingComponent);
                     }
                   });
               } else {
                 setIcon(createIcon((Object3DBranch)object3dFactory.createObject3D(null, normalizedPiece, true),
-                    pieceWidth, pieceDepth, pieceHeight, iconSize));
+                    pieceWidth, pieceDepth, pieceHeight, iconSize, iconKey));
               }
             }
 
@@ -6818,12 +8023,379 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
               // Too bad, we'll use errorIcon
               setIcon(IconManager.getInstance().getErrorIcon());
               if (waitingComponent != null) {
-                waitingComponent.repaint();
+                repaintLater(waitingComponent);
               }
             }
           });
     }
 
+    /**
+     * Schedules the given step of the creation of this icon in the icons creation thread.
+     */
+    private void execute(Runnable step) {
+      synchronized (PieceOfFurnitureModelIcon.class) {
+        if (iconsCreationExecutor == null) {
+          iconsCreationExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+              new PriorityBlockingQueue<Runnable>());
+        }
+        long priority = this.pendingTask != null
+            ? this.pendingTask.priority
+            : getCurrentPriority();
+        this.pendingTask = new IconCreationTask(this, step, priority, ++iconsCreationTaskCount);
+        iconsCreationExecutor.execute(this.pendingTask);
+      }
+    }
+
+    /**
+     * Moves the pending creation step of this icon before the ones that weren't
+     * requested recently. This method is called each time the icon is painted while it's not ready.
+     */
+    public void prioritize() {
+      synchronized (PieceOfFurnitureModelIcon.class) {
+        long priority = getCurrentPriority();
+        if (this.pendingTask != null
+            && this.pendingTask.priority < priority
+            // Tasks in a priority queue must be removed and added again to be sorted
+            && iconsCreationExecutor.getQueue().remove(this.pendingTask)) {
+          this.pendingTask = new IconCreationTask(this, this.pendingTask.step, priority, this.pendingTask.order);
+          iconsCreationExecutor.execute(this.pendingTask);
+        }
+      }
+    }
+
+    /**
+     * Returns the priority given to icons requested now. Icons requested during
+     * the same period of time keep their request order.
+     */
+    private static long getCurrentPriority() {
+      return System.currentTimeMillis() / 100;
+    }
+
+    /**
+     * Repaints the given component once no more icons are waiting to be created
+     * or after a short delay, to avoid repainting it for each icon.
+     */
+    private static void repaintLater(Component waitingComponent) {
+      synchronized (componentsToRepaint) {
+        componentsToRepaint.add(waitingComponent);
+        long now = System.currentTimeMillis();
+        if (iconsCreationExecutor.getQueue().isEmpty()
+            || now - lastRepaintTime > REPAINT_DELAY) {
+          for (Component component : componentsToRepaint) {
+            component.repaint();
+          }
+          componentsToRepaint.clear();
+          lastRepaintTime = now;
+        }
+      }
+    }
+
+    /**
+     * Returns the folder where icons are cached or <code>null</code> if it's not available.
+     */
+    private static synchronized File getIconsCacheFolder() {
+      if (!iconsCacheFolderChecked) {
+        iconsCacheFolderChecked = true;
+        try {
+          if (!Boolean.getBoolean("com.eteks.sweethome3d.noFurnitureTopViewsCache")) {
+            File folder = new File(OperatingSystem.getApplicationFolder(), ICONS_CACHE_SUB_FOLDER);
+            if (folder.isDirectory() || folder.mkdirs()) {
+              iconsCacheFolder = folder;
+            }
+          }
+        } catch (IOException ex) {
+          // No cache
+        } catch (AccessControlException ex) {
+          // No cache in unsigned applets
+        }
+      }
+      return iconsCacheFolder;
+    }
+
+    /**
+     * Returns the key of the icon of the given normalized piece in the icons cache,
+     * or <code>null</code> if this icon can't be cached.
+     */
+    private static String getIconCacheKey(HomePieceOfFurniture normalizedPiece,
+                                          float pieceWidth, float pieceDepth, float pieceHeight,
+                                          int iconSize) {
+      if (getIconsCacheFolder() == null) {
+        return null;
+      }
+      try {
+        // Gather all the data that may change the top view of the piece
+        StringBuilder key = new StringBuilder(ICONS_CACHE_VERSION);
+        key.append('|').append(getContentDigest(normalizedPiece.getModel()));
+        key.append('|').append(normalizedPiece.getModelSize());
+        key.append('|').append(Arrays.deepToString(normalizedPiece.getModelRotation()));
+        key.append('|').append(normalizedPiece.isModelCenteredAtOrigin());
+        key.append('|').append(normalizedPiece.isBackFaceShown());
+        key.append('|').append(normalizedPiece.getModelFlags());
+        key.append('|').append(normalizedPiece.isModelMirrored());
+        key.append('|').append(normalizedPiece.getPitch());
+        key.append('|').append(normalizedPiece.getRoll());
+        Transformation [] transformations = normalizedPiece.getModelTransformations();
+        if (transformations != null) {
+          for (Transformation transformation : transformations) {
+            key.append('|').append(transformation.getName()).append(Arrays.deepToString(transformation.getMatrix()));
+          }
+        }
+        key.append('|').append(normalizedPiece.getColor());
+        boolean textured = appendTexture(key, normalizedPiece.getTexture());
+        HomeMaterial [] materials = normalizedPiece.getModelMaterials();
+        if (materials != null) {
+          for (HomeMaterial material : materials) {
+            if (material != null) {
+              key.append('|').append(material.getName()).append(',').append(material.getKey())
+                  .append(',').append(material.getColor()).append(',').append(material.getShininess());
+              textured |= appendTexture(key, material.getTexture());
+            } else {
+              key.append("|null");
+            }
+          }
+        }
+        key.append('|').append(normalizedPiece.getShininess());
+        if (textured) {
+          // Texture mapping depends on actual size
+          key.append('|').append(pieceWidth).append(',').append(pieceDepth).append(',').append(pieceHeight);
+        } else {
+          float maxSize = Math.max(pieceWidth, Math.max(pieceDepth, pieceHeight));
+          key.append('|').append(pieceWidth / maxSize).append(',')
+              .append(pieceDepth / maxSize).append(',').append(pieceHeight / maxSize);
+        }
+        key.append('|').append(iconSize);
+        return HexEncoder.encode(MessageDigest.getInstance("SHA-1").digest(key.toString().getBytes("UTF-8")));
+      } catch (IOException ex) {
+        return null;
+      } catch (NoSuchAlgorithmException ex) {
+        return null;
+      }
+    }
+
+    /**
+     * Appends to the given <code>key</code> the data of a texture and returns <code>true</code>
+     * if <code>texture</code> isn't <code>null</code>.
+     */
+    private static boolean appendTexture(StringBuilder key, HomeTexture texture) throws IOException, NoSuchAlgorithmException {
+      if (texture != null) {
+        key.append('|').append(getContentDigest(texture.getImage()))
+            .append(',').append(texture.getWidth()).append(',').append(texture.getHeight())
+            .append(',').append(texture.getXOffset()).append(',').append(texture.getYOffset())
+            .append(',').append(texture.getAngle()).append(',').append(texture.getScale())
+            .append(',').append(texture.isFittingArea()).append(',').append(texture.isLeftToRightOriented());
+        return true;
+      } else {
+        key.append("|null");
+        return false;
+      }
+    }
+
+    /**
+     * Returns the SHA-1 digest of the given content, computed once for each content instance.
+     * The digest of a content stored in a zip sub folder includes the other entries of this folder,
+     * to take into account the MTL files and textures of multi part models.
+     */
+    private static String getContentDigest(Content content) throws IOException, NoSuchAlgorithmException {
+      synchronized (contentDigests) {
+        String digest = contentDigests.get(content);
+        if (digest != null) {
+          return digest;
+        }
+      }
+      MessageDigest messageDigest = MessageDigest.getInstance("SHA-1");
+      InputStream in = null;
+      try {
+        in = content.openStream();
+        byte [] buffer = new byte [8192];
+        int size;
+        while ((size = in.read(buffer)) != -1) {
+          messageDigest.update(buffer, 0, size);
+        }
+      } finally {
+        if (in != null) {
+          in.close();
+        }
+      }
+      if (content instanceof URLContent) {
+        updateMessageDigestWithSiblingEntries(messageDigest, (URLContent)content);
+      }
+      String digest = HexEncoder.encode(messageDigest.digest());
+      synchronized (contentDigests) {
+        contentDigests.put(content, digest);
+      }
+      return digest;
+    }
+
+    /**
+     * Updates <code>messageDigest</code> with the name, the size and the CRC of the entries stored
+     * in the same folder as <code>content</code> if it's an entry of a local zip file stored in a sub folder.
+     */
+    private static void updateMessageDigestWithSiblingEntries(MessageDigest messageDigest,
+                                                              URLContent content) throws IOException {
+      if (content.isJAREntry()) {
+        URL zipUrl = content.getJAREntryURL();
+        String entryName = URLDecoder.decode(content.getJAREntryName().replace("+", "%2B"), "UTF-8");
+        int lastSlashIndex = entryName.lastIndexOf('/');
+        // Ignore entries at zip root like single part models of home files
+        if (lastSlashIndex != -1
+            && "file".equals(zipUrl.getProtocol())) {
+          String entryDirectory = entryName.substring(0, lastSlashIndex + 1);
+          ZipFile zipFile = null;
+          try {
+            zipFile = new ZipFile(new File(zipUrl.toURI()));
+            // Sort entries to get always the same digest
+            TreeSet<String> entriesData = new TreeSet<String>();
+            for (Enumeration<? extends ZipEntry> enumEntries = zipFile.entries(); enumEntries.hasMoreElements(); ) {
+              ZipEntry entry = enumEntries.nextElement();
+              String name = entry.getName();
+              if (!entry.isDirectory()
+                  && name.startsWith(entryDirectory)
+                  && !name.equals(entryName)) {
+                entriesData.add(name + '\u0000' + entry.getSize() + '\u0000' + entry.getCrc());
+              }
+            }
+            for (String entryData : entriesData) {
+              messageDigest.update(entryData.getBytes("UTF-8"));
+            }
+          } catch (URISyntaxException ex) {
+            // Ignore sibling entries of a zip file which isn't accessible as a file
+          } catch (IllegalArgumentException ex) {
+            // Ignore sibling entries of a zip file which isn't accessible as a file
+          } finally {
+            if (zipFile != null) {
+              zipFile.close();
+            }
+          }
+        }
+      }
+    }
+
+    /**
+     * Returns the cached icon image matching <code>iconKey</code> or <code>null</code> if it doesn't exist.
+     */
+    private static BufferedImage readCachedIcon(String iconKey) {
+      if (iconKey != null) {
+        File iconFile = new File(getIconsCacheFolder(), iconKey + ".png");
+        if (iconFile.exists()) {
+          try {
+            BufferedImage image = ImageIO.read(iconFile);
+            // Update file date to keep recently used icons in cache
+            iconFile.setLastModified(System.currentTimeMillis());
+            return image;
+          } catch (IOException ex) {
+            // Ignore damaged files that will be replaced
+          } catch (AccessControlException ex) {
+            // Ignore cache
+          }
+        }
+      }
+      return null;
+    }
+
+    /**
+     * Saves the given icon <code>image</code> in cache.
+     */
+    private static void writeCachedIcon(String iconKey, BufferedImage image) {
+      if (iconKey != null) {
+        File iconsCacheFolder = getIconsCacheFolder();
+        try {
+          // Write to a temporary file renamed once complete to avoid reading incomplete files
+          File temporaryFile = File.createTempFile(iconKey, ".tmp", iconsCacheFolder);
+          if (ImageIO.write(image, "png", temporaryFile)) {
+            File iconFile = new File(iconsCacheFolder, iconKey + ".png");
+            if (!temporaryFile.renameTo(iconFile)) {
+              iconFile.delete();
+              temporaryFile.renameTo(iconFile);
+            }
+            updateIconsCacheSize(iconsCacheFolder, iconFile.length());
+          }
+          temporaryFile.delete();
+        } catch (IOException ex) {
+          // Icon won't be cached
+        } catch (AccessControlException ex) {
+          // Icon won't be cached
+        }
+      }
+    }
+
+    /**
+     * Adds <code>addedSize</code> to the size of the icons cache, then deletes the least recently
+     * used icons if the cache is bigger than its maximum size.
+     */
+    private static synchronized void updateIconsCacheSize(File iconsCacheFolder, long addedSize) {
+      long maximumSize = Long.getLong(ICONS_CACHE_MAXIMUM_SIZE, 50L << 20);
+      if (iconsCacheSize < 0
+          || iconsCacheSize + addedSize > maximumSize) {
+        File [] iconFiles = iconsCacheFolder.listFiles();
+        if (iconFiles == null) {
+          return;
+        }
+        long size = 0;
+        for (File iconFile : iconFiles) {
+          size += iconFile.length();
+        }
+        if (size > maximumSize) {
+          // Delete least recently used icons until cache size is reduced to 3/4 of its maximum size
+          final Map<File, Long> lastModifiedDates = new HashMap<File, Long>();
+          for (File iconFile : iconFiles) {
+            lastModifiedDates.put(iconFile, iconFile.lastModified());
+          }
+          Arrays.sort(iconFiles, new Comparator<File>() {
+              public int compare(File file1, File file2) {
+                return lastModifiedDates.get(file1).compareTo(lastModifiedDates.get(file2));
+              }
+            });
+          for (int i = 0; i < iconFiles.length && size > maximumSize * 3 / 4; i++) {
+            long fileSize = iconFiles [i].length();
+            if (iconFiles [i].getName().endsWith(".png")
+                && iconFiles [i].delete()) {
+              size -= fileSize;
+            }
+          }
+        }
+        iconsCacheSize = size;
+      } else {
+        iconsCacheSize += addedSize;
+      }
+    }
+
+    /**
+     * A step of the creation of an icon, sorted by priority then by request order.
+     */
+    private static class IconCreationTask implements Runnable, Comparable<IconCreationTask> {
+      private final PieceOfFurnitureModelIcon icon;
+      private final Runnable                  step;
+      private final long                      priority;
+      private final long                      order;
+
+      public IconCreationTask(PieceOfFurnitureModelIcon icon, Runnable step, long priority, long order) {
+        this.icon = icon;
+        this.step = step;
+        this.priority = priority;
+        this.order = order;
+      }
+
+      public void run() {
+        synchronized (PieceOfFurnitureModelIcon.class) {
+          if (this.icon.pendingTask == this) {
+            this.icon.pendingTask = null;
+          }
+        }
+        this.step.run();
+      }
+
+      public int compareTo(IconCreationTask task) {
+        if (this.priority != task.priority) {
+          // Most recently requested first
+          return this.priority > task.priority ? -1 : 1;
+        } else if (this.order != task.order) {
+          return this.order < task.order ? -1 : 1;
+        } else {
+          return 0;
+        }
+      }
+    }
+
     /**
      * Returns the branch group bound to a universe and a canvas for the given resolution.
      */
@@ -6881,7 +8453,7 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
      */
     private Icon createIcon(Object3DBranch pieceNode,
                             float pieceWidth, float pieceDepth, float pieceHeight,
-                            int iconSize) {
+                            int iconSize, String iconKey) {
       // Add piece model scene to a normalized transform group
       Transform3D scaleTransform = new Transform3D();
       scaleTransform.setScale(new Vector3d(2 / pieceWidth, 2 / pieceHeight, 2 / pieceDepth));
@@ -6924,9 +8496,12 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
       }
 
       sceneRoot.removeChild(model);
-      return new ImageIcon(Toolkit.getDefaultToolkit().createImage(new MemoryImageSource(
-          imageWithWhiteBackgound.getWidth(), imageWithWhiteBackgound.getHeight(),
-          imageWithWhiteBackgoundPixels, 0, imageWithWhiteBackgound.getWidth())));
+      BufferedImage iconImage = new BufferedImage(imageWithWhiteBackgound.getWidth(),
+          imageWithWhiteBackgound.getHeight(), BufferedImage.TYPE_INT_ARGB);
+      iconImage.setRGB(0, 0, iconImage.getWidth(), iconImage.getHeight(),
+          imageWithWhiteBackgoundPixels, 0, iconImage.getWidth());
+      writeCachedIcon(iconKey, iconImage);
+      return new ImageIcon(iconImage);
     }
 
     /**
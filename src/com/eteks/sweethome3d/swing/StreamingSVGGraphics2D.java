@@ -0,0 +1,1250 @@
+/*
+ * StreamingSVGGraphics2D.java 19 oct. 2026
+ *
+ * Sweet Home 3D, Copyright (c) 2024 Space Mushrooms <info@sweethome3d.com>
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package com.eteks.sweethome3d.swing;
+
+import java.awt.AlphaComposite;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Composite;
+import java.awt.Dimension;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.GradientPaint;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Image;
+import java.awt.Paint;
+import java.awt.Polygon;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.Shape;
+import java.awt.Stroke;
+import java.awt.TexturePaint;
+import java.awt.font.FontRenderContext;
+import java.awt.font.GlyphVector;
+import java.awt.font.TextLayout;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Arc2D;
+import java.awt.geom.Area;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.GeneralPath;
+import java.awt.geom.Line2D;
+import java.awt.geom.NoninvertibleTransformException;
+import java.awt.geom.PathIterator;
+import java.awt.geom.Rectangle2D;
+import java.awt.geom.RoundRectangle2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.BufferedImageOp;
+import java.awt.image.ImageObserver;
+import java.awt.image.RenderedImage;
+import java.awt.image.renderable.RenderableImage;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.AttributedCharacterIterator;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.imageio.ImageIO;
+import javax.swing.ImageIcon;
+
+import com.eteks.sweethome3d.tools.HexEncoder;
+
+/**
+ * A graphics context that writes at SVG format the shapes, texts and images drawn with it.
+ * Elements are written to the output stream as soon as they're drawn. Images are written once
+ * in <code>symbol</code> definitions referenced by <code>use</code> elements, and texture paints
+ * in <code>pattern</code> definitions shared by the shapes filled with the same texture.
+ */
+class StreamingSVGGraphics2D extends Graphics2D {
+  private static final Graphics2D METRICS_GRAPHICS;
+
+  static {
+    METRICS_GRAPHICS = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB).createGraphics();
+    METRICS_GRAPHICS.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+    METRICS_GRAPHICS.setRenderingHint(RenderingHints.KEY_FRACTIONALMETRICS, RenderingHints.VALUE_FRACTIONALMETRICS_ON);
+  }
+
+  private final SVGDocument document;
+  private AffineTransform   transform;
+  private Shape             deviceClip;
+  private Paint             paint;
+  private Color             color;
+  private Color             background;
+  private Stroke            stroke;
+  private Font              font;
+  private Composite         composite;
+  private RenderingHints    hints;
+
+  /**
+   * Creates a graphics context that writes at SVG format to <code>out</code>
+   * an image of the given <code>size</code>.
+   */
+  public StreamingSVGGraphics2D(OutputStream out, Dimension size, String title) throws IOException {
+    this.document = new SVGDocument(out);
+    this.transform = new AffineTransform();
+    this.color = Color.BLACK;
+    this.paint = this.color;
+    this.background = Color.WHITE;
+    this.stroke = new BasicStroke();
+    this.font = new Font("Dialog", Font.PLAIN, 12);
+    this.composite = AlphaComposite.SrcOver;
+    this.hints = new RenderingHints(null);
+    this.document.writeHeader(size, title);
+  }
+
+  private StreamingSVGGraphics2D(StreamingSVGGraphics2D graphics) {
+    this.document = graphics.document;
+    this.transform = new AffineTransform(graphics.transform);
+    this.deviceClip = graphics.deviceClip;
+    this.paint = graphics.paint;
+    this.color = graphics.color;
+    this.background = graphics.background;
+    this.stroke = graphics.stroke;
+    this.font = graphics.font;
+    this.composite = graphics.composite;
+    this.hints = (RenderingHints)graphics.hints.clone();
+  }
+
+  /**
+   * Writes the end of the SVG document and flushes it to the output stream.
+   * @throws IOException if an error occurred while writing the document.
+   */
+  public void endExport() throws IOException {
+    this.document.writeTrailer();
+  }
+
+  @Override
+  public Graphics create() {
+    return new StreamingSVGGraphics2D(this);
+  }
+
+  @Override
+  public void dispose() {
+  }
+
+  @Override
+  public void draw(Shape shape) {
+    if (this.stroke instanceof BasicStroke) {
+      this.document.writeShape(shape, this, true);
+    } else {
+      this.document.writeShape(this.stroke.createStrokedShape(shape), this, false);
+    }
+  }
+
+  @Override
+  public void fill(Shape shape) {
+    this.document.writeShape(shape, this, false);
+  }
+
+  @Override
+  public boolean drawImage(Image image, AffineTransform imageTransform, ImageObserver observer) {
+    if (image != null) {
+      this.document.writeImage(image, imageTransform, this);
+    }
+    return true;
+  }
+
+  @Override
+  public void drawImage(BufferedImage image, BufferedImageOp op, int x, int y) {
+    if (op != null) {
+      image = op.filter(image, null);
+    }
+    drawImage(image, AffineTransform.getTranslateInstance(x, y), null);
+  }
+
+  @Override
+  public void drawRenderedImage(RenderedImage image, AffineTransform imageTransform) {
+    if (image instanceof BufferedImage) {
+      drawImage((BufferedImage)image, imageTransform, null);
+    } else {
+      BufferedImage bufferedImage = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_ARGB);
+      Graphics2D g2D = bufferedImage.createGraphics();
+      g2D.drawRenderedImage(image, new AffineTransform());
+      g2D.dispose();
+      drawImage(bufferedImage, imageTransform, null);
+    }
+  }
+
+  @Override
+  public void drawRenderableImage(RenderableImage image, AffineTransform imageTransform) {
+    drawRenderedImage(image.createDefaultRendering(), imageTransform);
+  }
+
+  @Override
+  public boolean drawImage(Image image, int x, int y, ImageObserver observer) {
+    return drawImage(image, AffineTransform.getTranslateInstance(x, y), observer);
+  }
+
+  @Override
+  public boolean drawImage(Image image, int x, int y, Color backgroundColor, ImageObserver observer) {
+    fillImageBackground(image, x, y, image.getWidth(null), image.getHeight(null), backgroundColor);
+    return drawImage(image, x, y, observer);
+  }
+
+  @Override
+  public boolean drawImage(Image image, int x, int y, int width, int height, ImageObserver observer) {
+    int imageWidth = image.getWidth(null);
+    int imageHeight = image.getHeight(null);
+    if (imageWidth <= 0 || imageHeight <= 0) {
+      // Wait for image loading
+      image = new ImageIcon(image).getImage();
+      imageWidth = image.getWidth(null);
+      imageHeight = image.getHeight(null);
+    }
+    if (imageWidth > 0 && imageHeight > 0) {
+      AffineTransform imageTransform = AffineTransform.getTranslateInstance(x, y);
+      imageTransform.scale((double)width / imageWidth, (double)height / imageHeight);
+      drawImage(image, imageTransform, observer);
+    }
+    return true;
+  }
+
+  @Override
+  public boolean drawImage(Image image, int x, int y, int width, int height,
+                           Color backgroundColor, ImageObserver observer) {
+    fillImageBackground(image, x, y, width, height, backgroundColor);
+    return drawImage(image, x, y, width, height, observer);
+  }
+
+  @Override
+  public boolean drawImage(Image image, int dx1, int dy1, int dx2, int dy2,
+                           int sx1, int sy1, int sx2, int sy2, ImageObserver observer) {
+    BufferedImage bufferedImage = this.document.getBufferedImage(image);
+    if (bufferedImage != null) {
+      int x = Math.max(0, Math.min(sx1, sx2));
+      int y = Math.max(0, Math.min(sy1, sy2));
+      int width = Math.min(bufferedImage.getWidth() - x, Math.abs(sx2 - sx1));
+      int height = Math.min(bufferedImage.getHeight() - y, Math.abs(sy2 - sy1));
+      if (width > 0 && height > 0) {
+        AffineTransform imageTransform = AffineTransform.getTranslateInstance(dx1, dy1);
+        imageTransform.scale((double)(dx2 - dx1) / (sx2 - sx1), (double)(dy2 - dy1) / (sy2 - sy1));
+        if (sx2 < sx1 || sy2 < sy1) {
+          imageTransform.translate(sx2 < sx1 ? -width : 0, sy2 < sy1 ? -height : 0);
+        }
+        drawImage(bufferedImage.getSubimage(x, y, width, height), imageTransform, observer);
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public boolean drawImage(Image image, int dx1, int dy1, int dx2, int dy2,
+                           int sx1, int sy1, int sx2, int sy2,
+                           Color backgroundColor, ImageObserver observer) {
+    fillImageBackground(image, Math.min(dx1, dx2), Math.min(dy1, dy2),
+        Math.abs(dx2 - dx1), Math.abs(dy2 - dy1), backgroundColor);
+    return drawImage(image, dx1, dy1, dx2, dy2, sx1, sy1, sx2, sy2, observer);
+  }
+
+  private void fillImageBackground(Image image, int x, int y, int width, int height, Color backgroundColor) {
+    if (backgroundColor != null) {
+      Paint paint = this.paint;
+      setPaint(backgroundColor);
+      fill(new Rectangle(x, y, width, height));
+      setPaint(paint);
+    }
+  }
+
+  @Override
+  public void drawString(String text, int x, int y) {
+    drawString(text, (float)x, (float)y);
+  }
+
+  @Override
+  public void drawString(String text, float x, float y) {
+    if (text.length() > 0) {
+      this.document.writeText(text, x, y, this);
+    }
+  }
+
+  @Override
+  public void drawString(AttributedCharacterIterator iterator, int x, int y) {
+    drawString(iterator, (float)x, (float)y);
+  }
+
+  @Override
+  public void drawString(AttributedCharacterIterator iterator, float x, float y) {
+    if (iterator.getEndIndex() > iterator.getBeginIndex()) {
+      fill(new TextLayout(iterator, getFontRenderContext()).getOutline(AffineTransform.getTranslateInstance(x, y)));
+    }
+  }
+
+  @Override
+  public void drawGlyphVector(GlyphVector glyphVector, float x, float y) {
+    fill(glyphVector.getOutline(x, y));
+  }
+
+  @Override
+  public boolean hit(Rectangle rectangle, Shape shape, boolean onStroke) {
+    if (onStroke) {
+      shape = this.stroke.createStrokedShape(shape);
+    }
+    return this.transform.createTransformedShape(shape).intersects(rectangle);
+  }
+
+  @Override
+  public GraphicsConfiguration getDeviceConfiguration() {
+    return METRICS_GRAPHICS.getDeviceConfiguration();
+  }
+
+  @Override
+  public void setComposite(Composite composite) {
+    this.composite = composite;
+  }
+
+  @Override
+  public Composite getComposite() {
+    return this.composite;
+  }
+
+  @Override
+  public void setPaint(Paint paint) {
+    if (paint != null) {
+      this.paint = paint;
+      if (paint instanceof Color) {
+        this.color = (Color)paint;
+      }
+    }
+  }
+
+  @Override
+  public Paint getPaint() {
+    return this.paint;
+  }
+
+  @Override
+  public void setColor(Color color) {
+    setPaint(color);
+  }
+
+  @Override
+  public Color getColor() {
+    return this.color;
+  }
+
+  @Override
+  public void setBackground(Color color) {
+    this.background = color;
+  }
+
+  @Override
+  public Color getBackground() {
+    return this.background;
+  }
+
+  @Override
+  public void setStroke(Stroke stroke) {
+    this.stroke = stroke;
+  }
+
+  @Override
+  public Stroke getStroke() {
+    return this.stroke;
+  }
+
+  @Override
+  public void setFont(Font font) {
+    if (font != null) {
+      this.font = font;
+    }
+  }
+
+  @Override
+  public Font getFont() {
+    return this.font;
+  }
+
+  @Override
+  public FontMetrics getFontMetrics(Font font) {
+    synchronized (METRICS_GRAPHICS) {
+      return METRICS_GRAPHICS.getFontMetrics(font);
+    }
+  }
+
+  @Override
+  public FontRenderContext getFontRenderContext() {
+    return new FontRenderContext(new AffineTransform(), true, true);
+  }
+
+  @Override
+  public void setRenderingHint(RenderingHints.Key hintKey, Object hintValue) {
+    this.hints.put(hintKey, hintValue);
+  }
+
+  @Override
+  public Object getRenderingHint(RenderingHints.Key hintKey) {
+    return this.hints.get(hintKey);
+  }
+
+  @Override
+  public void setRenderingHints(Map<?, ?> hints) {
+    this.hints.clear();
+    this.hints.putAll(hints);
+  }
+
+  @Override
+  public void addRenderingHints(Map<?, ?> hints) {
+    this.hints.putAll(hints);
+  }
+
+  @Override
+  public RenderingHints getRenderingHints() {
+    return (RenderingHints)this.hints.clone();
+  }
+
+  @Override
+  public void setPaintMode() {
+  }
+
+  @Override
+  public void setXORMode(Color color) {
+    // XOR mode isn't supported
+  }
+
+  @Override
+  public void translate(int x, int y) {
+    this.transform.translate(x, y);
+  }
+
+  @Override
+  public void translate(double x, double y) {
+    this.transform.translate(x, y);
+  }
+
+  @Override
+  public void rotate(double theta) {
+    this.transform.rotate(theta);
+  }
+
+  @Override
+  public void rotate(double theta, double x, double y) {
+    this.transform.rotate(theta, x, y);
+  }
+
+  @Override
+  public void scale(double sx, double sy) {
+    this.transform.scale(sx, sy);
+  }
+
+  @Override
+  public void shear(double shx, double shy) {
+    this.transform.shear(shx, shy);
+  }
+
+  @Override
+  public void transform(AffineTransform transform) {
+    this.transform.concatenate(transform);
+  }
+
+  @Override
+  public void setTransform(AffineTransform transform) {
+    this.transform = new AffineTransform(transform);
+  }
+
+  @Override
+  public AffineTransform getTransform() {
+    return new AffineTransform(this.transform);
+  }
+
+  @Override
+  public Shape getClip() {
+    if (this.deviceClip == null) {
+      return null;
+    } else {
+      try {
+        return transformShape(this.deviceClip, this.transform.createInverse());
+      } catch (NoninvertibleTransformException ex) {
+        return new Rectangle();
+      }
+    }
+  }
+
+  @Override
+  public Rectangle getClipBounds() {
+    Shape clip = getClip();
+    return clip != null
+        ? clip.getBounds()
+        : null;
+  }
+
+  @Override
+  public void clip(Shape shape) {
+    if (shape == null) {
+      this.deviceClip = null;
+    } else {
+      Shape clip = transformShape(shape, this.transform);
+      if (this.deviceClip == null) {
+        this.deviceClip = clip;
+      } else if (this.deviceClip instanceof Rectangle2D
+          && clip instanceof Rectangle2D) {
+        Rectangle2D intersection = new Rectangle2D.Double();
+        Rectangle2D.intersect((Rectangle2D)this.deviceClip, (Rectangle2D)clip, intersection);
+        this.deviceClip = intersection;
+      } else {
+        Area intersection = new Area(this.deviceClip);
+        intersection.intersect(new Area(clip));
+        this.deviceClip = intersection;
+      }
+    }
+  }
+
+  @Override
+  public void clipRect(int x, int y, int width, int height) {
+    clip(new Rectangle(x, y, width, height));
+  }
+
+  @Override
+  public void setClip(int x, int y, int width, int height) {
+    setClip(new Rectangle(x, y, width, height));
+  }
+
+  @Override
+  public void setClip(Shape shape) {
+    this.deviceClip = shape != null
+        ? transformShape(shape, this.transform)
+        : null;
+  }
+
+  /**
+   * Returns <code>shape</code> transformed by <code>transform</code>, keeping rectangles
+   * as rectangles when possible.
+   */
+  private static Shape transformShape(Shape shape, AffineTransform transform) {
+    if (shape instanceof Rectangle2D
+        && (transform.getType() & ~(AffineTransform.TYPE_TRANSLATION | AffineTransform.TYPE_MASK_SCALE)) == 0) {
+      Rectangle2D rectangle = (Rectangle2D)shape;
+      double [] points = {rectangle.getMinX(), rectangle.getMinY(), rectangle.getMaxX(), rectangle.getMaxY()};
+      transform.transform(points, 0, points, 0, 2);
+      Rectangle2D transformedRectangle = new Rectangle2D.Double();
+      transformedRectangle.setFrameFromDiagonal(points [0], points [1], points [2], points [3]);
+      return transformedRectangle;
+    } else {
+      return transform.createTransformedShape(shape);
+    }
+  }
+
+  @Override
+  public void copyArea(int x, int y, int width, int height, int dx, int dy) {
+    // Copying an area isn't supported
+  }
+
+  @Override
+  public void drawLine(int x1, int y1, int x2, int y2) {
+    draw(new Line2D.Float(x1, y1, x2, y2));
+  }
+
+  @Override
+  public void drawRect(int x, int y, int width, int height) {
+    draw(new Rectangle(x, y, width, height));
+  }
+
+  @Override
+  public void fillRect(int x, int y, int width, int height) {
+    fill(new Rectangle(x, y, width, height));
+  }
+
+  @Override
+  public void clearRect(int x, int y, int width, int height) {
+    Paint paint = this.paint;
+    Composite composite = this.composite;
+    setPaint(this.background);
+    this.composite = AlphaComposite.Src;
+    fillRect(x, y, width, height);
+    this.paint = paint;
+    this.composite = composite;
+  }
+
+  @Override
+  public void drawRoundRect(int x, int y, int width, int height, int arcWidth, int arcHeight) {
+    draw(new RoundRectangle2D.Float(x, y, width, height, arcWidth, arcHeight));
+  }
+
+  @Override
+  public void fillRoundRect(int x, int y, int width, int height, int arcWidth, int arcHeight) {
+    fill(new RoundRectangle2D.Float(x, y, width, height, arcWidth, arcHeight));
+  }
+
+  @Override
+  public void drawOval(int x, int y, int width, int height) {
+    draw(new Ellipse2D.Float(x, y, width, height));
+  }
+
+  @Override
+  public void fillOval(int x, int y, int width, int height) {
+    fill(new Ellipse2D.Float(x, y, width, height));
+  }
+
+  @Override
+  public void drawArc(int x, int y, int width, int height, int startAngle, int arcAngle) {
+    draw(new Arc2D.Float(x, y, width, height, startAngle, arcAngle, Arc2D.OPEN));
+  }
+
+  @Override
+  public void fillArc(int x, int y, int width, int height, int startAngle, int arcAngle) {
+    fill(new Arc2D.Float(x, y, width, height, startAngle, arcAngle, Arc2D.PIE));
+  }
+
+  @Override
+  public void drawPolyline(int [] xPoints, int [] yPoints, int pointCount) {
+    if (pointCount > 0) {
+      GeneralPath path = new GeneralPath();
+      path.moveTo(xPoints [0], yPoints [0]);
+      for (int i = 1; i < pointCount; i++) {
+        path.lineTo(xPoints [i], yPoints [i]);
+      }
+      draw(path);
+    }
+  }
+
+  @Override
+  public void drawPolygon(int [] xPoints, int [] yPoints, int pointCount) {
+    draw(new Polygon(xPoints, yPoints, pointCount));
+  }
+
+  @Override
+  public void fillPolygon(int [] xPoints, int [] yPoints, int pointCount) {
+    fill(new Polygon(xPoints, yPoints, pointCount));
+  }
+
+
+  /**
+   * The SVG document shared by a graphics context and its copies.
+   */
+  private static class SVGDocument {
+    private final Writer                   writer;
+    private final StringBuilder            element = new StringBuilder(256);
+    private IOException                    exception;
+    private int                            definitionCount;
+    private Shape                          groupClip;
+    private final Map<Image, String>       imageSymbols = new IdentityHashMap<Image, String>();
+    private final Map<String, String>      imageDigestSymbols = new HashMap<String, String>();
+    private final Map<Image, Dimension>    imageSizes = new IdentityHashMap<Image, Dimension>();
+    private final Map<List<Object>, String> paintDefinitions = new HashMap<List<Object>, String>();
+    private final Map<Shape, String>       clipDefinitions = new IdentityHashMap<Shape, String>();
+    private final Map<Rectangle2D, String> rectangleClipDefinitions = new HashMap<Rectangle2D, String>();
+
+    public SVGDocument(OutputStream out) throws IOException {
+      this.writer = new BufferedWriter(new OutputStreamWriter(out, "UTF-8"));
+    }
+
+    public void writeHeader(Dimension size, String title) throws IOException {
+      this.writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+      this.element.setLength(0);
+      this.element.append("<svg xmlns=\"http://www.w3.org/2000/svg\" xmlns:xlink=\"http://www.w3.org/1999/xlink\" version=\"1.1\"");
+      this.element.append(" width=\"").append(size.width).append("\" height=\"").append(size.height).append('"');
+      this.element.append(" viewBox=\"0 0 ").append(size.width).append(' ').append(size.height).append("\">\n");
+      if (title != null && title.length() > 0) {
+        this.element.append("<title>");
+        appendEscapedText(this.element, title);
+        this.element.append("</title>\n");
+      }
+      this.writer.write(this.element.toString());
+    }
+
+    public void writeTrailer() throws IOException {
+      if (this.exception == null) {
+        try {
+          if (this.groupClip != null) {
+            this.writer.write("</g>\n");
+            this.groupClip = null;
+          }
+          this.writer.write("</svg>\n");
+          this.writer.flush();
+        } catch (IOException ex) {
+          this.exception = ex;
+        }
+      }
+      if (this.exception != null) {
+        throw this.exception;
+      }
+    }
+
+    /**
+     * Writes a path element matching <code>shape</code> filled or stroked with the attributes
+     * of the given graphics context.
+     */
+    public void writeShape(Shape shape, StreamingSVGGraphics2D graphics, boolean stroked) {
+      if (this.exception != null) {
+        return;
+      }
+      try {
+        String paint = getPaint(graphics.paint, graphics);
+        if (!startElement(graphics)) {
+          return;
+        }
+        StringBuilder element = this.element;
+        element.setLength(0);
+        element.append("<path d=\"");
+        PathIterator it = shape.getPathIterator(null);
+        int decimals = getDecimals(graphics.transform);
+        appendPath(element, it, decimals);
+        element.append('"');
+        if (stroked) {
+          BasicStroke stroke = (BasicStroke)graphics.stroke;
+          element.append(" fill=\"none\" stroke=\"").append(paint).append('"');
+          appendOpacity(element, "stroke-opacity", graphics.paint);
+          element.append(" stroke-width=\"");
+          appendNumber(element, stroke.getLineWidth(), decimals);
+          element.append('"');
+          switch (stroke.getEndCap()) {
+            case BasicStroke.CAP_ROUND :
+              element.append(" stroke-linecap=\"round\"");
+              break;
+            case BasicStroke.CAP_SQUARE :
+              element.append(" stroke-linecap=\"square\"");
+              break;
+          }
+          switch (stroke.getLineJoin()) {
+            case BasicStroke.JOIN_ROUND :
+              element.append(" stroke-linejoin=\"round\"");
+              break;
+            case BasicStroke.JOIN_BEVEL :
+              element.append(" stroke-linejoin=\"bevel\"");
+              break;
+            default :
+              element.append(" stroke-miterlimit=\"");
+              appendNumber(element, Math.max(1, stroke.getMiterLimit()), 3);
+              element.append('"');
+              break;
+          }
+          float [] dashArray = stroke.getDashArray();
+          if (dashArray != null && dashArray.length > 0) {
+            element.append(" stroke-dasharray=\"");
+            for (int i = 0; i < dashArray.length; i++) {
+              if (i > 0) {
+                element.append(',');
+              }
+              appendNumber(element, dashArray [i], decimals);
+            }
+            element.append('"');
+            if (stroke.getDashPhase() != 0) {
+              element.append(" stroke-dashoffset=\"");
+              appendNumber(element, stroke.getDashPhase(), decimals);
+              element.append('"');
+            }
+          }
+        } else {
+          element.append(" fill=\"").append(paint).append('"');
+          appendOpacity(element, "fill-opacity", graphics.paint);
+          if (it.getWindingRule() == PathIterator.WIND_EVEN_ODD) {
+            element.append(" fill-rule=\"evenodd\"");
+          }
+        }
+        appendCommonAttributes(element, graphics.transform, graphics);
+        element.append("/>\n");
+        this.writer.write(element.toString());
+      } catch (IOException ex) {
+        this.exception = ex;
+      }
+    }
+
+    /**
+     * Writes a use element referencing the symbol of the given <code>image</code>.
+     */
+    public void writeImage(Image image, AffineTransform imageTransform, StreamingSVGGraphics2D graphics) {
+      if (this.exception != null) {
+        return;
+      }
+      try {
+        String symbolId = getImageSymbol(image);
+        if (symbolId == null
+            || !startElement(graphics)) {
+          return;
+        }
+        Dimension size = this.imageSizes.get(image);
+        AffineTransform transform = new AffineTransform(graphics.transform);
+        transform.concatenate(imageTransform);
+        StringBuilder element = this.element;
+        element.setLength(0);
+        element.append("<use xlink:href=\"#").append(symbolId).append("\" width=\"").append(size.width)
+            .append("\" height=\"").append(size.height).append('"');
+        appendCommonAttributes(element, transform, graphics);
+        element.append("/>\n");
+        this.writer.write(element.toString());
+      } catch (IOException ex) {
+        this.exception = ex;
+      }
+    }
+
+    /**
+     * Writes a text element.
+     */
+    public void writeText(String text, float x, float y, StreamingSVGGraphics2D graphics) {
+      if (this.exception != null) {
+        return;
+      }
+      try {
+        String paint = getPaint(graphics.paint, graphics);
+        if (!startElement(graphics)) {
+          return;
+        }
+        Font font = graphics.font;
+        AffineTransform transform = graphics.transform;
+        if (!font.getTransform().isIdentity()) {
+          transform = new AffineTransform(transform);
+          transform.translate(x, y);
+          transform.concatenate(font.getTransform());
+          transform.translate(-x, -y);
+        }
+        StringBuilder element = this.element;
+        element.setLength(0);
+        int decimals = getDecimals(transform);
+        element.append("<text x=\"");
+        appendNumber(element, x, decimals);
+        element.append("\" y=\"");
+        appendNumber(element, y, decimals);
+        element.append("\" font-family=\"");
+        String family = font.getFamily();
+        if ("Dialog".equals(family)
+            || "SansSerif".equals(family)) {
+          element.append("sans-serif");
+        } else if ("Serif".equals(family)) {
+          element.append("serif");
+        } else if ("DialogInput".equals(family)
+            || "Monospaced".equals(family)) {
+          element.append("monospace");
+        } else {
+          element.append('\'');
+          appendEscapedText(element, family);
+          element.append("', sans-serif");
+        }
+        element.append("\" font-size=\"");
+        appendNumber(element, font.getSize2D(), decimals);
+        element.append('"');
+        if (font.isBold()) {
+          element.append(" font-weight=\"bold\"");
+        }
+        if (font.isItalic()) {
+          element.append(" font-style=\"italic\"");
+        }
+        element.append(" fill=\"").append(paint).append('"');
+        appendOpacity(element, "fill-opacity", graphics.paint);
+        appendCommonAttributes(element, transform, graphics);
+        element.append(" xml:space=\"preserve\">");
+        appendEscapedText(element, text);
+        element.append("</text>\n");
+        this.writer.write(element.toString());
+      } catch (IOException ex) {
+        this.exception = ex;
+      }
+    }
+
+    /**
+     * Opens a group element clipped by the clip of <code>graphics</code> if it's different
+     * from the one of the current group, and returns <code>false</code> if nothing is visible.
+     */
+    private boolean startElement(StreamingSVGGraphics2D graphics) throws IOException {
+      Shape clip = graphics.deviceClip;
+      if (clip != null
+          && clip.getBounds2D().isEmpty()) {
+        return false;
+      }
+      if (clip != this.groupClip
+          && (clip == null
+              || this.groupClip == null
+              || !(clip instanceof Rectangle2D)
+              || !clip.equals(this.groupClip))) {
+        if (this.groupClip != null) {
+          this.writer.write("</g>\n");
+        }
+        if (clip != null) {
+          String clipId = getClipDefinition(clip);
+          this.writer.write("<g clip-path=\"url(#" + clipId + ")\">\n");
+        }
+        this.groupClip = clip;
+      }
+      return true;
+    }
+
+    private String getClipDefinition(Shape clip) throws IOException {
+      String clipId = clip instanceof Rectangle2D
+          ? this.rectangleClipDefinitions.get(clip)
+          : this.clipDefinitions.get(clip);
+      if (clipId == null) {
+        clipId = "c" + (++this.definitionCount);
+        StringBuilder definition = new StringBuilder("<defs><clipPath id=\"");
+        definition.append(clipId).append("\"><path d=\"");
+        appendPath(definition, clip.getPathIterator(null), 3);
+        definition.append("\"/></clipPath></defs>\n");
+        this.writer.write(definition.toString());
+        if (clip instanceof Rectangle2D) {
+          this.rectangleClipDefinitions.put((Rectangle2D)((Rectangle2D)clip).clone(), clipId);
+        } else {
+          this.clipDefinitions.put(clip, clipId);
+        }
+      }
+      return clipId;
+    }
+
+    /**
+     * Returns the value of a fill or stroke attribute matching <code>paint</code>,
+     * writing its definition first if needed.
+     */
+    private String getPaint(Paint paint, StreamingSVGGraphics2D graphics) throws IOException {
+      if (paint instanceof Color) {
+        return getColor((Color)paint);
+      } else if (paint instanceof TexturePaint) {
+        TexturePaint texturePaint = (TexturePaint)paint;
+        String symbolId = getImageSymbol(texturePaint.getImage());
+        if (symbolId == null) {
+          return "none";
+        }
+        Rectangle2D anchor = texturePaint.getAnchorRect();
+        List<Object> key = new ArrayList<Object>(5);
+        key.add(symbolId);
+        key.add(anchor.getX());
+        key.add(anchor.getY());
+        key.add(anchor.getWidth());
+        key.add(anchor.getHeight());
+        String patternId = this.paintDefinitions.get(key);
+        if (patternId == null) {
+          patternId = "p" + (++this.definitionCount);
+          Dimension size = this.imageSizes.get(texturePaint.getImage());
+          StringBuilder definition = new StringBuilder("<defs><pattern id=\"");
+          definition.append(patternId).append("\" patternUnits=\"userSpaceOnUse\" x=\"");
+          appendNumber(definition, anchor.getX(), 3);
+          definition.append("\" y=\"");
+          appendNumber(definition, anchor.getY(), 3);
+          definition.append("\" width=\"");
+          appendNumber(definition, anchor.getWidth(), 3);
+          definition.append("\" height=\"");
+          appendNumber(definition, anchor.getHeight(), 3);
+          definition.append("\"><use xlink:href=\"#").append(symbolId).append("\" width=\"").append(size.width)
+              .append("\" height=\"").append(size.height).append('"');
+          appendTransform(definition, AffineTransform.getScaleInstance(
+              anchor.getWidth() / size.width, anchor.getHeight() / size.height));
+          definition.append("/></pattern></defs>\n");
+          this.writer.write(definition.toString());
+          this.paintDefinitions.put(key, patternId);
+        }
+        return "url(#" + patternId + ")";
+      } else if (paint instanceof GradientPaint) {
+        GradientPaint gradientPaint = (GradientPaint)paint;
+        List<Object> key = new ArrayList<Object>(7);
+        key.add(gradientPaint.getPoint1());
+        key.add(gradientPaint.getPoint2());
+        key.add(gradientPaint.getColor1());
+        key.add(gradientPaint.getColor2());
+        key.add(gradientPaint.isCyclic());
+        String gradientId = this.paintDefinitions.get(key);
+        if (gradientId == null) {
+          gradientId = "l" + (++this.definitionCount);
+          StringBuilder definition = new StringBuilder("<defs><linearGradient id=\"");
+          definition.append(gradientId).append("\" gradientUnits=\"userSpaceOnUse\" x1=\"");
+          appendNumber(definition, gradientPaint.getPoint1().getX(), 3);
+          definition.append("\" y1=\"");
+          appendNumber(definition, gradientPaint.getPoint1().getY(), 3);
+          definition.append("\" x2=\"");
+          appendNumber(definition, gradientPaint.getPoint2().getX(), 3);
+          definition.append("\" y2=\"");
+          appendNumber(definition, gradientPaint.getPoint2().getY(), 3);
+          definition.append('"');
+          if (gradientPaint.isCyclic()) {
+            definition.append(" spreadMethod=\"reflect\"");
+          }
+          definition.append('>');
+          appendGradientStop(definition, 0, gradientPaint.getColor1());
+          appendGradientStop(definition, 1, gradientPaint.getColor2());
+          definition.append("</linearGradient></defs>\n");
+          this.writer.write(definition.toString());
+          this.paintDefinitions.put(key, gradientId);
+        }
+        return "url(#" + gradientId + ")";
+      } else {
+        return getColor(graphics.color);
+      }
+    }
+
+    private void appendGradientStop(StringBuilder definition, float offset, Color color) {
+      definition.append("<stop offset=\"").append(offset).append("\" stop-color=\"").append(getColor(color)).append('"');
+      if (color.getAlpha() < 255) {
+        definition.append(" stop-opacity=\"");
+        appendNumber(definition, color.getAlpha() / 255., 3);
+        definition.append('"');
+      }
+      definition.append("/>");
+    }
+
+    private static String getColor(Color color) {
+      String hex = Integer.toHexString(0x1000000 | (color.getRGB() & 0xFFFFFF));
+      return "#" + hex.substring(1);
+    }
+
+    private void appendOpacity(StringBuilder element, String attribute, Paint paint) {
+      if (paint instanceof Color
+          && ((Color)paint).getAlpha() < 255) {
+        element.append(' ').append(attribute).append("=\"");
+        appendNumber(element, ((Color)paint).getAlpha() / 255., 3);
+        element.append('"');
+      }
+    }
+
+    private void appendCommonAttributes(StringBuilder element, AffineTransform transform,
+                                        StreamingSVGGraphics2D graphics) {
+      if (graphics.composite instanceof AlphaComposite) {
+        float alpha = ((AlphaComposite)graphics.composite).getAlpha();
+        if (alpha < 1) {
+          element.append(" opacity=\"");
+          appendNumber(element, alpha, 3);
+          element.append('"');
+        }
+      }
+      appendTransform(element, transform);
+    }
+
+    private void appendTransform(StringBuilder element, AffineTransform transform) {
+      if (!transform.isIdentity()) {
+        element.append(" transform=\"matrix(");
+        appendNumber(element, transform.getScaleX(), 6);
+        element.append(' ');
+        appendNumber(element, transform.getShearY(), 6);
+        element.append(' ');
+        appendNumber(element, transform.getShearX(), 6);
+        element.append(' ');
+        appendNumber(element, transform.getScaleY(), 6);
+        element.append(' ');
+        appendNumber(element, transform.getTranslateX(), 3);
+        element.append(' ');
+        appendNumber(element, transform.getTranslateY(), 3);
+        element.append(")\"");
+      }
+    }
+
+    /**
+     * Returns the id of the symbol matching <code>image</code>, writing the symbol
+     * the first time an image with the same pixels is met.
+     */
+    private String getImageSymbol(Image image) throws IOException {
+      if (this.imageSymbols.containsKey(image)) {
+        return this.imageSymbols.get(image);
+      }
+      String symbolId = null;
+      BufferedImage bufferedImage = getBufferedImage(image);
+      if (bufferedImage != null) {
+        ByteArrayOutputStream imageOut = new ByteArrayOutputStream();
+        ImageIO.write(bufferedImage, "png", imageOut);
+        byte [] imageBytes = imageOut.toByteArray();
+        String digest = getDigest(imageBytes);
+        symbolId = digest != null
+            ? this.imageDigestSymbols.get(digest)
+            : null;
+        if (symbolId == null) {
+          symbolId = "i" + (++this.definitionCount);
+          int width = bufferedImage.getWidth();
+          int height = bufferedImage.getHeight();
+          this.writer.write("<defs><symbol id=\"" + symbolId + "\" viewBox=\"0 0 " + width + " " + height + "\">"
+              + "<image width=\"" + width + "\" height=\"" + height + "\" xlink:href=\"data:image/png;base64,");
+          writeBase64(imageBytes);
+          this.writer.write("\"/></symbol></defs>\n");
+          if (digest != null) {
+            this.imageDigestSymbols.put(digest, symbolId);
+          }
+        }
+        this.imageSizes.put(image, new Dimension(bufferedImage.getWidth(), bufferedImage.getHeight()));
+      }
+      this.imageSymbols.put(image, symbolId);
+      return symbolId;
+    }
+
+    /**
+     * Returns a buffered image matching <code>image</code> once it's loaded
+     * or <code>null</code> if it's empty.
+     */
+    public BufferedImage getBufferedImage(Image image) {
+      if (image instanceof BufferedImage) {
+        return (BufferedImage)image;
+      }
+      if (image.getWidth(null) <= 0 || image.getHeight(null) <= 0) {
+        // Wait for image loading
+        image = new ImageIcon(image).getImage();
+      }
+      int width = image.getWidth(null);
+      int height = image.getHeight(null);
+      if (width <= 0 || height <= 0) {
+        return null;
+      }
+      BufferedImage bufferedImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+      Graphics g = bufferedImage.getGraphics();
+      g.drawImage(image, 0, 0, null);
+      g.dispose();
+      return bufferedImage;
+    }
+
+    private static String getDigest(byte [] bytes) {
+      try {
+        return HexEncoder.encode(MessageDigest.getInstance("SHA-1").digest(bytes));
+      } catch (NoSuchAlgorithmException ex) {
+        return null;
+      }
+    }
+
+    private static final char [] BASE64_CHARACTERS =
+        "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".toCharArray();
+
+    /**
+     * Writes the given bytes encoded in Base64.
+     */
+    private void writeBase64(byte [] bytes) throws IOException {
+      char [] buffer = new char [4096];
+      int bufferLength = 0;
+      for (int i = 0; i < bytes.length; i += 3) {
+        int remaining = bytes.length - i;
+        int value = (bytes [i] & 0xFF) << 16
+            | (remaining > 1 ? (bytes [i + 1] & 0xFF) << 8 : 0)
+            | (remaining > 2 ? bytes [i + 2] & 0xFF : 0);
+        buffer [bufferLength++] = BASE64_CHARACTERS [(value >> 18) & 0x3F];
+        buffer [bufferLength++] = BASE64_CHARACTERS [(value >> 12) & 0x3F];
+        buffer [bufferLength++] = remaining > 1 ? BASE64_CHARACTERS [(value >> 6) & 0x3F] : '=';
+        buffer [bufferLength++] = remaining > 2 ? BASE64_CHARACTERS [value & 0x3F] : '=';
+        if (bufferLength == buffer.length) {
+          this.writer.write(buffer, 0, bufferLength);
+          bufferLength = 0;
+        }
+      }
+      this.writer.write(buffer, 0, bufferLength);
+    }
+
+    /**
+     * Returns the count of decimals required to write user space coordinates
+     * with a precision of 1/1000 once transformed.
+     */
+    private static int getDecimals(AffineTransform transform) {
+      double scale = Math.sqrt(Math.abs(transform.getDeterminant()));
+      return scale > 0
+          ? Math.max(1, Math.min(6, 3 + (int)Math.ceil(Math.log10(scale))))
+          : 3;
+    }
+
+    private static void appendPath(StringBuilder path, PathIterator it, int decimals) {
+      double [] coords = new double [6];
+      boolean first = true;
+      for ( ; !it.isDone(); it.next()) {
+        if (!first) {
+          path.append(' ');
+        }
+        first = false;
+        switch (it.currentSegment(coords)) {
+          case PathIterator.SEG_MOVETO :
+            path.append('M');
+            appendPoints(path, coords, 1, decimals);
+            break;
+          case PathIterator.SEG_LINETO :
+            path.append('L');
+            appendPoints(path, coords, 1, decimals);
+            break;
+          case PathIterator.SEG_QUADTO :
+            path.append('Q');
+            appendPoints(path, coords, 2, decimals);
+            break;
+          case PathIterator.SEG_CUBICTO :
+            path.append('C');
+            appendPoints(path, coords, 3, decimals);
+            break;
+          case PathIterator.SEG_CLOSE :
+            path.append('Z');
+            break;
+        }
+      }
+    }
+
+    private static void appendPoints(StringBuilder path, double [] coords, int pointCount, int decimals) {
+      for (int i = 0; i < pointCount * 2; i++) {
+        if (i > 0) {
+          path.append(' ');
+        }
+        appendNumber(path, coords [i], decimals);
+      }
+    }
+
+    private static final long [] POWERS_OF_TEN = {1, 10, 100, 1000, 10000, 100000, 1000000};
+
+    /**
+     * Appends to <code>text</code> the given <code>value</code> rounded to <code>decimals</code>
+     * digits without trailing zeros.
+     */
+    private static void appendNumber(StringBuilder text, double value, int decimals) {
+      if (Double.isNaN(value) || Double.isInfinite(value)) {
+        text.append('0');
+        return;
+      }
+      long factor = POWERS_OF_TEN [decimals];
+      long scaledValue = Math.round(Math.abs(value) * factor);
+      if (scaledValue == 0) {
+        text.append('0');
+        return;
+      }
+      if (value < 0) {
+        text.append('-');
+      }
+      text.append(scaledValue / factor);
+      long fraction = scaledValue % factor;
+      if (fraction != 0) {
+        text.append('.');
+        while (fraction % 10 == 0) {
+          fraction /= 10;
+          decimals--;
+        }
+        String fractionText = Long.toString(fraction);
+        for (int i = fractionText.length(); i < decimals; i++) {
+          text.append('0');
+        }
+        text.append(fractionText);
+      }
+    }
+
+    private static void appendEscapedText(StringBuilder text, String value) {
+      for (int i = 0; i < value.length(); i++) {
+        char c = value.charAt(i);
+        switch (c) {
+          case '&' :
+            text.append("&amp;");
+            break;
+          case '<' :
+            text.append("&lt;");
+            break;
+          case '>' :
+            text.append("&gt;");
+            break;
+          case '"' :
+            text.append("&quot;");
+            break;
+          case '\'' :
+            text.append("&apos;");
+            break;
+          default :
+            if (c >= 0x20 || c == '\t' || c == '\n' || c == '\r') {
+              text.append(c);
+            }
+            break;
+        }
+      }
+    }
+  }
+}
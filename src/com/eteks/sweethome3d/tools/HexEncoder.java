@@ -0,0 +1,43 @@
+/*
+ * HexEncoder.java 19 oct. 2026
+ *
+ * Sweet Home 3D, Copyright (c) 2024 Space Mushrooms <info@sweethome3d.com>
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package com.eteks.sweethome3d.tools;
+
+/**
+ * Encoder of bytes in hexadecimal strings, used to build file names and keys from digests.
+ * @author Emmanuel Puybaret
+ * @since 7.3
+ */
+public final class HexEncoder {
+  private HexEncoder() {
+  }
+
+  /**
+   * Returns the given <code>bytes</code> encoded as a string of lower case hexadecimal digits,
+   * two digits per byte.
+   */
+  public static String encode(byte [] bytes) {
+    StringBuilder hexString = new StringBuilder(bytes.length * 2);
+    for (byte b : bytes) {
+      hexString.append(Character.forDigit((b >> 4) & 0xF, 16));
+      hexString.append(Character.forDigit(b & 0xF, 16));
+    }
+    return hexString.toString();
+  }
+}
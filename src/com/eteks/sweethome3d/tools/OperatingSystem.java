@@ -473,6 +473,20 @@ public class OperatingSystem {
         EDITOR_SUB_FOLDER + File.separator + APPLICATION_SUB_FOLDER);
   }
 
+  /**
+   * Returns the first folder cited in <code>com.eteks.sweethome3d.applicationFolders</code>
+   * System property or the default application folder if this property isn't set.
+   * @since 7.3
+   */
+  public static File getApplicationFolder() throws IOException {
+    String applicationFolders = System.getProperty("com.eteks.sweethome3d.applicationFolders");
+    if (applicationFolders != null) {
+      return new File(applicationFolders.split(File.pathSeparator) [0]);
+    } else {
+      return getDefaultApplicationFolder();
+    }
+  }
+
   /**
    * File manager class that accesses to Mac OS X specifics.
    * Do not invoke methods of this class without checking first if
@@ -21,6 +21,7 @@ package com.eteks.sweethome3d.viewcontroller;
 
 import java.beans.PropertyChangeListener;
 import java.beans.PropertyChangeSupport;
+import java.io.Serializable;
 import java.util.Arrays;
 import java.util.List;
 
@@ -978,7 +979,9 @@ public class DimensionLineController implements Controller {
   /**
    * Stores the current properties values of a modified dimension line.
    */
-  private static final class ModifiedDimensionLine {
+  private static final class ModifiedDimensionLine implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     private final DimensionLine dimensionLine;
     private final float         xStart;
     private final float         yStart;
@@ -314,12 +314,22 @@ public class FurnitureController implements Controller {
                                      Level [] furnitureLevels,
                                      boolean basePlanLocked,
                                      boolean allLevelsSelection) {
+    // Check whether furniture is added at the end of home furniture to add it at once
+    boolean addedAtEnd = furnitureGroups == null;
+    for (int i = 0; addedAtEnd && i < furnitureIndex.length; i++) {
+      addedAtEnd = furnitureIndex [i] == home.getFurniture().size() + i;
+    }
+    if (addedAtEnd) {
+      home.addFurniture(Arrays.asList(furniture));
+    }
     for (int i = 0; i < furnitureIndex.length; i++) {
-      if (furnitureGroups != null && furnitureGroups [i] != null) {
-        home.addPieceOfFurnitureToGroup(furniture [i], furnitureGroups [i], furnitureIndex [i]);
-        furniture [i].setVisible(furnitureGroups [i].isVisible());
-      } else {
-        home.addPieceOfFurniture(furniture [i], furnitureIndex [i]);
+      if (!addedAtEnd) {
+        if (furnitureGroups != null && furnitureGroups [i] != null) {
+          home.addPieceOfFurnitureToGroup(furniture [i], furnitureGroups [i], furnitureIndex [i]);
+          furniture [i].setVisible(furnitureGroups [i].isVisible());
+        } else {
+          home.addPieceOfFurniture(furniture [i], furnitureIndex [i]);
+        }
       }
       furniture [i].setLevel(furnitureLevels != null ? furnitureLevels [i] : furnitureLevel);
     }
@@ -454,9 +464,7 @@ public class FurnitureController implements Controller {
                                         HomePieceOfFurniture [] furniture,
                                         boolean basePlanLocked,
                                         boolean allLevelsSelection) {
-    for (HomePieceOfFurniture piece : furniture) {
-      home.deletePieceOfFurniture(piece);
-    }
+    home.deleteFurniture(Arrays.asList(furniture));
     home.setBasePlanLocked(basePlanLocked);
     home.setAllLevelsSelection(allLevelsSelection);
   }
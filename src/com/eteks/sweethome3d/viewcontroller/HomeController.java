@@ -117,6 +117,7 @@ public class HomeController implements Controller {
   private final ContentManager        contentManager;
   private final UndoableEditSupport   undoSupport;
   private final UndoManager           undoManager;
+  private IOException                 reportedUndoReadException;
   private HomeView                    homeView;
   private List<Controller>            childControllers;
   private FurnitureCatalogController  furnitureCatalogController;
@@ -206,7 +207,7 @@ public class HomeController implements Controller {
           }
         }
       };
-    this.undoManager = new UndoManager();
+    this.undoManager = new MemoryBoundedUndoManager(home);
     this.undoSupport.addUndoableEditListener(this.undoManager);
     this.notUndoableModifications = home.isModified();
 
@@ -1469,6 +1470,17 @@ public class HomeController implements Controller {
     }
     this.saveUndoLevel--;
     this.home.setModified(this.saveUndoLevel != 0 || this.notUndoableModifications);
+    if (!moreUndo
+        && this.undoManager instanceof MemoryBoundedUndoManager) {
+      // Report once older edits saved in a temporary file couldn't be read
+      IOException readException = ((MemoryBoundedUndoManager)this.undoManager).getReadException();
+      if (readException != null
+          && readException != this.reportedUndoReadException) {
+        this.reportedUndoReadException = readException;
+        readException.printStackTrace();
+        view.showError(this.preferences.getLocalizedString(HomeController.class, "undoHistoryReadError"));
+      }
+    }
   }
 
   /**
@@ -2489,6 +2501,8 @@ public class HomeController implements Controller {
         public void run() {
           home.setRecovered(false);
           application.deleteHome(home);
+          // Delete undoable edits saved in temporary files
+          undoManager.discardAllEdits();
           if (postCloseTask != null) {
             postCloseTask.run();
           }
@@ -30,6 +30,7 @@ import java.util.List;
 
 import javax.swing.undo.UndoableEditSupport;
 
+import com.eteks.sweethome3d.model.BulkCollectionListener;
 import com.eteks.sweethome3d.model.Camera;
 import com.eteks.sweethome3d.model.CollectionEvent;
 import com.eteks.sweethome3d.model.CollectionListener;
@@ -833,10 +834,25 @@ public class HomeController3D implements Controller {
     private boolean     aerialViewCenteredOnSelectionEnabled;
     private boolean     previousSelectionEmpty;
     private float       distanceToCenterWithSelection = -1;
+    private boolean     homeBoundsUpdateDeferred;
 
     private PropertyChangeListener objectChangeListener = new PropertyChangeListener() {
         public void propertyChange(PropertyChangeEvent ev) {
-          updateCameraFromHomeBounds(false, false);
+          if (home.isTransactionInProgress()) {
+            // Update camera once at the end of the transaction
+            homeBoundsUpdateDeferred = true;
+          } else {
+            updateCameraFromHomeBounds(false, false);
+          }
+        }
+      };
+    private PropertyChangeListener transactionListener = new PropertyChangeListener() {
+        public void propertyChange(PropertyChangeEvent ev) {
+          if (!home.isTransactionInProgress()
+              && homeBoundsUpdateDeferred) {
+            homeBoundsUpdateDeferred = false;
+            updateCameraFromHomeBounds(false, false);
+          }
         }
       };
     private CollectionListener<Level> levelsListener = new CollectionListener<Level>() {
@@ -849,35 +865,43 @@ public class HomeController3D implements Controller {
           updateCameraFromHomeBounds(false, false);
         }
       };
-    private CollectionListener<Wall> wallsListener = new CollectionListener<Wall>() {
+    private CollectionListener<Wall> wallsListener = new BulkCollectionListener<Wall>() {
         public void collectionChanged(CollectionEvent<Wall> ev) {
-          if (ev.getType() == CollectionEvent.Type.ADD) {
-            ev.getItem().addPropertyChangeListener(objectChangeListener);
-          } else if (ev.getType() == CollectionEvent.Type.DELETE) {
-            ev.getItem().removePropertyChangeListener(objectChangeListener);
+          for (Wall item : ev.getItems()) {
+            if (ev.getType() == CollectionEvent.Type.ADD) {
+              item.addPropertyChangeListener(objectChangeListener);
+            } else if (ev.getType() == CollectionEvent.Type.DELETE) {
+              item.removePropertyChangeListener(objectChangeListener);
+            }
           }
           updateCameraFromHomeBounds(false, false);
         }
       };
-    private CollectionListener<HomePieceOfFurniture> furnitureListener = new CollectionListener<HomePieceOfFurniture>() {
+    private CollectionListener<HomePieceOfFurniture> furnitureListener = new BulkCollectionListener<HomePieceOfFurniture>() {
         public void collectionChanged(CollectionEvent<HomePieceOfFurniture> ev) {
           if (ev.getType() == CollectionEvent.Type.ADD) {
-            addPropertyChangeListener(ev.getItem(), objectChangeListener);
+            for (HomePieceOfFurniture piece : ev.getItems()) {
+              addPropertyChangeListener(piece, objectChangeListener);
+            }
             updateCameraFromHomeBounds(home.getFurniture().size() == 1
                 && home.getWalls().isEmpty()
                 && home.getRooms().isEmpty(), false);
           } else if (ev.getType() == CollectionEvent.Type.DELETE) {
-            removePropertyChangeListener(ev.getItem(), objectChangeListener);
+            for (HomePieceOfFurniture piece : ev.getItems()) {
+              removePropertyChangeListener(piece, objectChangeListener);
+            }
             updateCameraFromHomeBounds(false, false);
           }
         }
       };
-    private CollectionListener<Room> roomsListener = new CollectionListener<Room>() {
+    private CollectionListener<Room> roomsListener = new BulkCollectionListener<Room>() {
         public void collectionChanged(CollectionEvent<Room> ev) {
-          if (ev.getType() == CollectionEvent.Type.ADD) {
-            ev.getItem().addPropertyChangeListener(objectChangeListener);
-          } else if (ev.getType() == CollectionEvent.Type.DELETE) {
-            ev.getItem().removePropertyChangeListener(objectChangeListener);
+          for (Room item : ev.getItems()) {
+            if (ev.getType() == CollectionEvent.Type.ADD) {
+              item.addPropertyChangeListener(objectChangeListener);
+            } else if (ev.getType() == CollectionEvent.Type.DELETE) {
+              item.removePropertyChangeListener(objectChangeListener);
+            }
           }
           updateCameraFromHomeBounds(false, false);
         }
@@ -980,6 +1004,7 @@ public class HomeController3D implements Controller {
       }
       home.addLabelsListener(this.labelsListener);
       home.addSelectionListener(this.selectionListener);
+      home.addPropertyChangeListener(Home.Property.TRANSACTION_IN_PROGRESS, this.transactionListener);
       preferences.addPropertyChangeListener(UserPreferences.Property.AERIAL_VIEW_CENTERED_ON_SELECTION_ENABLED,
           this.userPreferencesChangeListener);
     }
@@ -1056,7 +1081,7 @@ public class HomeController3D implements Controller {
       // Compute plan bounds to include rooms, walls and furniture
       boolean containsVisibleWalls = false;
       for (Wall wall : selectionEmpty
-                           ? home.getWalls()
+                           ? getItemsAtVisibleLevels(Wall.class)
                            : Home.getWallsSubList(selectedItems)) {
         if (isItemAtVisibleLevel(wall)) {
           containsVisibleWalls = true;
@@ -1086,7 +1111,7 @@ public class HomeController3D implements Controller {
       }
 
       for (HomePieceOfFurniture piece : selectionEmpty
-                                            ? home.getFurniture()
+                                            ? getItemsAtVisibleLevels(HomePieceOfFurniture.class)
                                             : Home.getFurnitureSubList(selectedItems)) {
         if (piece.isVisible() && isItemAtVisibleLevel(piece)) {
           float minZ;
@@ -1105,7 +1130,7 @@ public class HomeController3D implements Controller {
       }
 
       for (Room room : selectionEmpty
-                           ? home.getRooms()
+                           ? getItemsAtVisibleLevels(Room.class)
                            : Home.getRoomsSubList(selectedItems)) {
         if (isItemAtVisibleLevel(room)) {
           float minZ = 0;
@@ -1126,7 +1151,7 @@ public class HomeController3D implements Controller {
       }
 
       for (Polyline polyline : selectionEmpty
-                ? home.getPolylines()
+                ? getItemsAtVisibleLevels(Polyline.class)
                 : Home.getPolylinesSubList(selectedItems)) {
         if (polyline.isVisibleIn3D() && isItemAtVisibleLevel(polyline)) {
           float minZ;
@@ -1145,7 +1170,7 @@ public class HomeController3D implements Controller {
       }
 
       for (DimensionLine dimensionLine : selectionEmpty
-                ? home.getDimensionLines()
+                ? getItemsAtVisibleLevels(DimensionLine.class)
                 : Home.getDimensionLinesSubList(selectedItems)) {
         if (dimensionLine.isVisibleIn3D() && isItemAtVisibleLevel(dimensionLine)) {
           float levelElevation = dimensionLine.getLevel() != null ? dimensionLine.getLevel().getElevation() : 0;
@@ -1165,7 +1190,7 @@ public class HomeController3D implements Controller {
       }
 
       for (Label label : selectionEmpty
-                             ? home.getLabels()
+                             ? getItemsAtVisibleLevels(Label.class)
                              : Home.getLabelsSubList(selectedItems)) {
         if (label.getPitch() != null && isItemAtVisibleLevel(label)) {
           float minZ;
@@ -1227,6 +1252,45 @@ public class HomeController3D implements Controller {
       return item.getLevel() == null || item.getLevel().isViewableAndVisible();
     }
 
+    /**
+     * Returns the home items of the given class which belong to no level or to a visible level,
+     * searched in the lists of items at each level of the home.
+     */
+    @SuppressWarnings("unchecked")
+    private <T extends Elevatable> List<T> getItemsAtVisibleLevels(Class<T> itemClass) {
+      List<Level> visibleLevels = new ArrayList<Level>();
+      visibleLevels.add(null);
+      for (Level level : home.getLevels()) {
+        if (level.isViewableAndVisible()) {
+          visibleLevels.add(level);
+        }
+      }
+      List<T> items = new ArrayList<T>();
+      for (Level level : visibleLevels) {
+        List<? extends Elevatable> itemsAtLevel;
+        if (itemClass == Wall.class) {
+          itemsAtLevel = home.getWallsAtLevel(level);
+        } else if (itemClass == HomePieceOfFurniture.class) {
+          itemsAtLevel = home.getFurnitureAtLevel(level);
+        } else if (itemClass == Room.class) {
+          itemsAtLevel = home.getRoomsAtLevel(level);
+        } else if (itemClass == Polyline.class) {
+          itemsAtLevel = home.getPolylinesAtLevel(level);
+        } else if (itemClass == DimensionLine.class) {
+          itemsAtLevel = home.getDimensionLinesAtLevel(level);
+        } else {
+          itemsAtLevel = home.getLabelsAtLevel(level);
+        }
+        for (Elevatable item : itemsAtLevel) {
+          // Keep only items assigned to level to avoid duplicates
+          if (item.getLevel() == level) {
+            items.add((T)item);
+          }
+        }
+      }
+      return items;
+    }
+
     /**
      * Updates the minimum and maximum distances of the camera to the center of the aerial view.
      */
@@ -1349,6 +1413,7 @@ public class HomeController3D implements Controller {
       }
       home.removeLevelsListener(this.levelsListener);
       home.removeSelectionListener(this.selectionListener);
+      home.removePropertyChangeListener(Home.Property.TRANSACTION_IN_PROGRESS, this.transactionListener);
       preferences.removePropertyChangeListener(UserPreferences.Property.AERIAL_VIEW_CENTERED_ON_SELECTION_ENABLED,
           this.userPreferencesChangeListener);
     }
@@ -22,6 +22,7 @@ package com.eteks.sweethome3d.viewcontroller;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.beans.PropertyChangeSupport;
+import java.io.Serializable;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.ArrayList;
@@ -1762,13 +1763,18 @@ public class HomeFurnitureController implements Controller {
           modifiedFurniture [i] = new ModifiedPieceOfFurniture(piece);
         }
       }
-      // Apply modification
-      doModifyFurniture(modifiedFurniture, name, nameVisible, description, additionalProperties,
-          price, removePrice, valueAddedTaxPercentage, removeValueAddedTaxPercentage, currency,
-          x, y, elevation, angle, roll, pitch, horizontalAxis, basePlanItem,
-          width, depth, height, proportional, modelTransformations,
-          this.wallThickness, this.wallDistance, this.wallWidth, this.wallLeft, this.wallHeight, this.wallTop, this.sashes,
-          paint, color, texture, modelMaterials, defaultShininess, shininess, visible, modelMirrored, lightPower);
+      // Apply modification in a transaction to notify views once for all the modified furniture
+      this.home.beginTransaction();
+      try {
+        doModifyFurniture(modifiedFurniture, name, nameVisible, description, additionalProperties,
+            price, removePrice, valueAddedTaxPercentage, removeValueAddedTaxPercentage, currency,
+            x, y, elevation, angle, roll, pitch, horizontalAxis, basePlanItem,
+            width, depth, height, proportional, modelTransformations,
+            this.wallThickness, this.wallDistance, this.wallWidth, this.wallLeft, this.wallHeight, this.wallTop, this.sashes,
+            paint, color, texture, modelMaterials, defaultShininess, shininess, visible, modelMirrored, lightPower);
+      } finally {
+        this.home.commitTransaction();
+      }
       if (this.undoSupport != null) {
         List<Selectable> newSelection = this.home.getSelectedItems();
         this.undoSupport.postEdit(new FurnitureModificationUndoableEdit(this.home, this.preferences,
@@ -1917,22 +1923,32 @@ public class HomeFurnitureController implements Controller {
     @Override
     public void undo() throws CannotUndoException {
       super.undo();
-      undoModifyFurniture(this.modifiedFurniture);
+      this.home.beginTransaction();
+      try {
+        undoModifyFurniture(this.modifiedFurniture);
+      } finally {
+        this.home.commitTransaction();
+      }
       this.home.setSelectedItems(Arrays.asList(this.oldSelection));
     }
 
     @Override
     public void redo() throws CannotRedoException {
       super.redo();
-      doModifyFurniture(this.modifiedFurniture,
-          this.name, this.nameVisible, this.description, this.additionalProperties,
-          this.price, this.removePrice, this.valueAddedTaxPercentage, this.removeValueAddedTaxPercentage, this.currency,
-          this.x, this.y, this.elevation, this.angle, this.roll, this.pitch, this.horizontalAxis, this.basePlanItem,
-          this.width, this.depth, this.height, this.proportional, this.modelTransformations,
-          this.wallThickness, this.wallDistance, this.wallWidth, this.wallLeft, this.wallHeight, this.wallTop, this.sashes,
-          this.paint, this.color, this.texture, this.modelMaterials,
-          this.defaultShininess, this.shininess,
-          this.visible, this.modelMirrored, this.lightPower);
+      this.home.beginTransaction();
+      try {
+        doModifyFurniture(this.modifiedFurniture,
+            this.name, this.nameVisible, this.description, this.additionalProperties,
+            this.price, this.removePrice, this.valueAddedTaxPercentage, this.removeValueAddedTaxPercentage, this.currency,
+            this.x, this.y, this.elevation, this.angle, this.roll, this.pitch, this.horizontalAxis, this.basePlanItem,
+            this.width, this.depth, this.height, this.proportional, this.modelTransformations,
+            this.wallThickness, this.wallDistance, this.wallWidth, this.wallLeft, this.wallHeight, this.wallTop, this.sashes,
+            this.paint, this.color, this.texture, this.modelMaterials,
+            this.defaultShininess, this.shininess,
+            this.visible, this.modelMirrored, this.lightPower);
+      } finally {
+        this.home.commitTransaction();
+      }
       // Force size in plan in case internal size update performed in PlanController can't be done again
       for (int i = 0; i < this.modifiedFurniture.length; i++) {
         HomePieceOfFurniture piece = this.modifiedFurniture[i].getPieceOfFurniture();
@@ -2132,7 +2148,9 @@ public class HomeFurnitureController implements Controller {
   /**
    * Stores the current properties values of a modified piece of furniture.
    */
-  private static class ModifiedPieceOfFurniture {
+  private static class ModifiedPieceOfFurniture implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     private final HomePieceOfFurniture piece;
     private final String               name;
     private final boolean              nameVisible;
@@ -2261,6 +2279,8 @@ public class HomeFurnitureController implements Controller {
    * Stores the current properties values of a modified door or window.
    */
   private static class ModifiedDoorOrWindow extends ModifiedPieceOfFurniture {
+    private static final long serialVersionUID = 1L;
+
     private final boolean boundToWall;
     private final float   wallThickness;
     private final float   wallDistance;
@@ -2300,6 +2320,8 @@ public class HomeFurnitureController implements Controller {
    * Stores the current properties values of a modified light.
    */
   private static class ModifiedLight extends ModifiedPieceOfFurniture {
+    private static final long serialVersionUID = 1L;
+
     private final float power;
 
     public ModifiedLight(HomeLight light) {
@@ -2317,6 +2339,8 @@ public class HomeFurnitureController implements Controller {
    * Stores the current properties values of a modified group.
    */
   private static class ModifiedFurnitureGroup extends ModifiedPieceOfFurniture {
+    private static final long serialVersionUID = 1L;
+
     private final float [] groupFurnitureX;
     private final float [] groupFurnitureY;
     private final float [] groupFurnitureWidth;
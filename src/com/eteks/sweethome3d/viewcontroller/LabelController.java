@@ -21,6 +21,7 @@ package com.eteks.sweethome3d.viewcontroller;
 
 import java.beans.PropertyChangeListener;
 import java.beans.PropertyChangeSupport;
+import java.io.Serializable;
 import java.util.Arrays;
 import java.util.List;
 
@@ -688,7 +689,9 @@ public class LabelController implements Controller {
   /**
    * Stores the current properties values of a modified label.
    */
-  private static final class ModifiedLabel {
+  private static final class ModifiedLabel implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     private final Label     label;
     private final String    text;
     private final TextStyle style;
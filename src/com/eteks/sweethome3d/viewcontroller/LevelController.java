@@ -21,6 +21,7 @@ package com.eteks.sweethome3d.viewcontroller;
 
 import java.beans.PropertyChangeListener;
 import java.beans.PropertyChangeSupport;
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -555,7 +556,9 @@ public class LevelController implements Controller {
   /**
    * Stores the current properties values of a modified level.
    */
-  private static class ModifiedLevel {
+  private static class ModifiedLevel implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     private final Level   level;
     private final String  name;
     private final boolean viewable;
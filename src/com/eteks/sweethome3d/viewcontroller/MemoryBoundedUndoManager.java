@@ -0,0 +1,875 @@
+/*
+ * MemoryBoundedUndoManager.java 19 oct. 2026
+ *
+ * Sweet Home 3D, Copyright (c) 2024 Space Mushrooms <info@sweethome3d.com>
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package com.eteks.sweethome3d.viewcontroller;
+
+import java.awt.Component;
+import java.awt.EventQueue;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidObjectException;
+import java.io.NotSerializableException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import javax.swing.undo.CannotRedoException;
+import javax.swing.undo.CannotUndoException;
+import javax.swing.undo.UndoManager;
+import javax.swing.undo.UndoableEdit;
+import javax.swing.undo.UndoableEditSupport;
+
+import com.eteks.sweethome3d.model.Camera;
+import com.eteks.sweethome3d.model.CollectionEvent;
+import com.eteks.sweethome3d.model.CollectionListener;
+import com.eteks.sweethome3d.model.DimensionLine;
+import com.eteks.sweethome3d.model.Home;
+import com.eteks.sweethome3d.model.HomeFurnitureGroup;
+import com.eteks.sweethome3d.model.HomeObject;
+import com.eteks.sweethome3d.model.HomePieceOfFurniture;
+import com.eteks.sweethome3d.model.Label;
+import com.eteks.sweethome3d.model.Level;
+import com.eteks.sweethome3d.model.Polyline;
+import com.eteks.sweethome3d.model.Room;
+import com.eteks.sweethome3d.model.UserPreferences;
+import com.eteks.sweethome3d.model.Wall;
+import com.eteks.sweethome3d.tools.OperatingSystem;
+
+/**
+ * An undo manager that keeps in memory the most recent edits up to a memory budget.
+ * Older edits that can be undone are serialized in temporary files and read again
+ * once undo reaches them. Home objects still used by the home or by the edits in memory
+ * are saved as references to preserve their identity.
+ * The size of added edits is estimated later in the event dispatch thread,
+ * once for all the edits added in a row, by walking through the objects they reference
+ * without serializing them.
+ * @author Emmanuel Puybaret
+ * @since 7.3
+ */
+public class MemoryBoundedUndoManager extends UndoManager {
+  private static final long serialVersionUID = 1L;
+
+  private static final long DEFAULT_MEMORY_BUDGET = 64 << 20;
+
+  private final Home         home;
+  private final long         memoryBudget;
+  private long               memorySize;
+  private int                savedBatchCount;
+  private int                nextObjectId;
+  private final Map<HomeObject, Integer>              objectIds;
+  private final Map<Integer, WeakReference<HomeObject>> identifiedObjects;
+  private final Map<Object, Object>                   homeObjects;
+  private final List<BoundedEdit>                     unevaluatedEdits;
+  private boolean                                     memorySizeUpdateScheduled;
+  private final List<HomeObjectsListener<?>>          homeObjectsListeners;
+  private final Map<Class<?>, Field []>               walkedFields;
+  private IOException                                 readException;
+
+  /**
+   * Creates an undo manager for <code>home</code> with a memory budget equal to
+   * <code>com.eteks.sweethome3d.undoMemoryBudget</code> system property in bytes,
+   * or to 64 MB if this property isn't set.
+   */
+  public MemoryBoundedUndoManager(Home home) {
+    this(home, Long.getLong("com.eteks.sweethome3d.undoMemoryBudget", DEFAULT_MEMORY_BUDGET));
+  }
+
+  /**
+   * Creates an undo manager for <code>home</code> which keeps in memory
+   * undoable edits up to the approximate given size in bytes.
+   */
+  public MemoryBoundedUndoManager(Home home, long memoryBudget) {
+    this.home = home;
+    this.memoryBudget = memoryBudget;
+    this.objectIds = new WeakHashMap<HomeObject, Integer>();
+    this.identifiedObjects = new HashMap<Integer, WeakReference<HomeObject>>();
+    this.unevaluatedEdits = new ArrayList<BoundedEdit>();
+    this.homeObjects = new IdentityHashMap<Object, Object>();
+    this.homeObjectsListeners = new ArrayList<HomeObjectsListener<?>>();
+    this.walkedFields = new HashMap<Class<?>, Field []>();
+  }
+
+  /**
+   * Adds listeners to home which keep up to date the objects referenced by home,
+   * if they aren't added yet.
+   */
+  private void addHomeObjectsListeners() {
+    if (this.homeObjectsListeners.isEmpty()) {
+      addHomeObjects(this.home.getFurniture());
+      addHomeObjects(this.home.getWalls());
+      addHomeObjects(this.home.getRooms());
+      addHomeObjects(this.home.getPolylines());
+      addHomeObjects(this.home.getDimensionLines());
+      addHomeObjects(this.home.getLabels());
+      addHomeObjects(this.home.getLevels());
+      HomeObjectsListener<HomePieceOfFurniture> furnitureListener = new HomeObjectsListener<HomePieceOfFurniture>();
+      this.home.addFurnitureListener(furnitureListener);
+      HomeObjectsListener<Wall> wallsListener = new HomeObjectsListener<Wall>();
+      this.home.addWallsListener(wallsListener);
+      HomeObjectsListener<Room> roomsListener = new HomeObjectsListener<Room>();
+      this.home.addRoomsListener(roomsListener);
+      HomeObjectsListener<Polyline> polylinesListener = new HomeObjectsListener<Polyline>();
+      this.home.addPolylinesListener(polylinesListener);
+      HomeObjectsListener<DimensionLine> dimensionLinesListener = new HomeObjectsListener<DimensionLine>();
+      this.home.addDimensionLinesListener(dimensionLinesListener);
+      HomeObjectsListener<Label> labelsListener = new HomeObjectsListener<Label>();
+      this.home.addLabelsListener(labelsListener);
+      HomeObjectsListener<Level> levelsListener = new HomeObjectsListener<Level>();
+      this.home.addLevelsListener(levelsListener);
+      this.homeObjectsListeners.add(furnitureListener);
+      this.homeObjectsListeners.add(wallsListener);
+      this.homeObjectsListeners.add(roomsListener);
+      this.homeObjectsListeners.add(polylinesListener);
+      this.homeObjectsListeners.add(dimensionLinesListener);
+      this.homeObjectsListeners.add(labelsListener);
+      this.homeObjectsListeners.add(levelsListener);
+    }
+  }
+
+  /**
+   * Removes the listeners added to home by this manager.
+   */
+  @SuppressWarnings("unchecked")
+  private void removeHomeObjectsListeners() {
+    if (!this.homeObjectsListeners.isEmpty()) {
+      this.home.removeFurnitureListener((HomeObjectsListener<HomePieceOfFurniture>)this.homeObjectsListeners.get(0));
+      this.home.removeWallsListener((HomeObjectsListener<Wall>)this.homeObjectsListeners.get(1));
+      this.home.removeRoomsListener((HomeObjectsListener<Room>)this.homeObjectsListeners.get(2));
+      this.home.removePolylinesListener((HomeObjectsListener<Polyline>)this.homeObjectsListeners.get(3));
+      this.home.removeDimensionLinesListener((HomeObjectsListener<DimensionLine>)this.homeObjectsListeners.get(4));
+      this.home.removeLabelsListener((HomeObjectsListener<Label>)this.homeObjectsListeners.get(5));
+      this.home.removeLevelsListener((HomeObjectsListener<Level>)this.homeObjectsListeners.get(6));
+      this.homeObjectsListeners.clear();
+      this.homeObjects.clear();
+    }
+  }
+
+  /**
+   * Returns the approximate size in bytes of the edits kept in memory,
+   * once their size was evaluated.
+   */
+  public synchronized long getMemorySize() {
+    return this.memorySize;
+  }
+
+  /**
+   * Returns the count of edit batches currently saved in temporary files.
+   */
+  public synchronized int getSavedBatchCount() {
+    return this.savedBatchCount;
+  }
+
+  /**
+   * Returns the exception which occurred during the last unsuccessful read of saved edits,
+   * or <code>null</code> if saved edits were always read successfully.
+   * The edits that couldn't be read and the older ones are kept but can't be undone.
+   */
+  public synchronized IOException getReadException() {
+    return this.readException;
+  }
+
+  /**
+   * Adds the given <code>edit</code> to this manager and schedules the evaluation of its size.
+   */
+  @Override
+  public synchronized boolean addEdit(UndoableEdit edit) {
+    addHomeObjectsListeners();
+    BoundedEdit boundedEdit = new BoundedEdit(edit);
+    if (super.addEdit(boundedEdit)) {
+      this.unevaluatedEdits.add(boundedEdit);
+      if (!this.memorySizeUpdateScheduled) {
+        this.memorySizeUpdateScheduled = true;
+        EventQueue.invokeLater(new Runnable() {
+            public void run() {
+              updateMemorySize();
+            }
+          });
+      }
+      return true;
+    } else {
+      return false;
+    }
+  }
+
+  /**
+   * Discards all the edits of this manager, deletes the temporary files of the saved ones
+   * and removes the listeners added to home until a new edit is added.
+   */
+  @Override
+  public synchronized void discardAllEdits() {
+    super.discardAllEdits();
+    this.unevaluatedEdits.clear();
+    removeHomeObjectsListeners();
+  }
+
+  /**
+   * Estimates the size of the edits added since last call,
+   * then saves older edits in a temporary file if memory budget is exceeded.
+   */
+  private synchronized void updateMemorySize() {
+    this.memorySizeUpdateScheduled = false;
+    for (BoundedEdit edit : this.unevaluatedEdits) {
+      if (edit.edit != null && !edit.dead) {
+        EditObjectsWalker walker = new EditObjectsWalker(this.homeObjects);
+        walker.walk(edit.edit);
+        edit.size = walker.getSize();
+        edit.savable = !walker.isIncomplete();
+        this.memorySize += edit.size;
+      }
+    }
+    this.unevaluatedEdits.clear();
+    if (this.memorySize > this.memoryBudget) {
+      saveOldestEdits();
+    }
+  }
+
+  /**
+   * Returns a copy of the objects referenced by home.
+   */
+  private Map<Object, Object> getHomeObjects() {
+    Map<Object, Object> homeObjects = new IdentityHashMap<Object, Object>(this.homeObjects);
+    for (Camera camera : this.home.getStoredCameras()) {
+      homeObjects.put(camera, camera);
+    }
+    for (Camera camera : new Camera [] {this.home.getTopCamera(), this.home.getObserverCamera()}) {
+      homeObjects.put(camera, camera);
+    }
+    homeObjects.put(this.home.getCompass(), this.home.getCompass());
+    homeObjects.put(this.home.getEnvironment(), this.home.getEnvironment());
+    return homeObjects;
+  }
+
+  private void addHomeObjects(Collection<? extends HomeObject> items) {
+    for (HomeObject item : items) {
+      this.homeObjects.put(item, item);
+      if (item instanceof HomeFurnitureGroup) {
+        addHomeObjects(((HomeFurnitureGroup)item).getFurniture());
+      }
+    }
+  }
+
+  private void removeHomeObjects(Collection<? extends HomeObject> items) {
+    for (HomeObject item : items) {
+      this.homeObjects.remove(item);
+      if (item instanceof HomeFurnitureGroup) {
+        removeHomeObjects(((HomeFurnitureGroup)item).getFurniture());
+      }
+    }
+  }
+
+  /**
+   * A listener which keeps up to date the objects referenced by home.
+   */
+  private class HomeObjectsListener<T extends HomeObject> implements CollectionListener<T> {
+    public void collectionChanged(CollectionEvent<T> ev) {
+      synchronized (MemoryBoundedUndoManager.this) {
+        if (ev.getType() == CollectionEvent.Type.ADD) {
+          addHomeObjects(ev.getItems());
+        } else {
+          removeHomeObjects(ev.getItems());
+        }
+      }
+    }
+  }
+
+  /**
+   * Saves in a temporary file the oldest edits in memory that can be undone,
+   * until memory size gets lower than half of the budget.
+   */
+  private void saveOldestEdits() {
+    int undoneEditIndex = this.edits.indexOf(editToBeUndone());
+    List<BoundedEdit> batchEdits = new ArrayList<BoundedEdit>();
+    long batchSize = 0;
+    for (int i = 0; i <= undoneEditIndex && this.memorySize - batchSize > this.memoryBudget / 2; i++) {
+      BoundedEdit edit = (BoundedEdit)this.edits.get(i);
+      if (edit.edit != null && edit.savable) {
+        batchEdits.add(edit);
+        batchSize += edit.size;
+      }
+    }
+    if (batchEdits.isEmpty()) {
+      return;
+    }
+
+    try {
+      // Search home objects referenced by the home and the edits that stay in memory
+      Map<Object, Object> liveObjects = getHomeObjects();
+      EditObjectsWalker liveObjectsCollector = new EditObjectsWalker(liveObjects);
+      for (Object edit : this.edits) {
+        if (((BoundedEdit)edit).edit != null && !batchEdits.contains(edit)) {
+          liveObjectsCollector.walk(((BoundedEdit)edit).edit);
+        }
+      }
+      for (HomeObject object : liveObjectsCollector.getCopiedObjects()) {
+        liveObjects.put(object, object);
+      }
+
+      EditBatch batch = new EditBatch(batchEdits);
+      batch.write(liveObjects);
+      this.memorySize -= batchSize;
+      this.savedBatchCount++;
+      purgeIdentifiedObjects();
+    } catch (IOException ex) {
+      // Keep edits in memory and don't try to save them again
+      for (BoundedEdit edit : batchEdits) {
+        edit.savable = false;
+      }
+    }
+  }
+
+  /**
+   * Removes the references to garbage collected objects.
+   */
+  private void purgeIdentifiedObjects() {
+    for (Iterator<WeakReference<HomeObject>> it = this.identifiedObjects.values().iterator(); it.hasNext(); ) {
+      if (it.next().get() == null) {
+        it.remove();
+      }
+    }
+  }
+
+  /**
+   * Returns the identifier of the given home object.
+   */
+  private int getObjectId(HomeObject object) {
+    Integer id = this.objectIds.get(object);
+    if (id == null) {
+      id = this.nextObjectId++;
+      setObjectId(object, id);
+    }
+    return id;
+  }
+
+  private void setObjectId(HomeObject object, int id) {
+    this.objectIds.put(object, id);
+    this.identifiedObjects.put(id, new WeakReference<HomeObject>(object));
+  }
+
+  /**
+   * An edit kept in memory or saved in a temporary file.
+   */
+  private class BoundedEdit implements UndoableEdit {
+    private UndoableEdit edit;
+    private long         size;
+    private boolean      savable;
+    private boolean      dead;
+    private EditBatch    batch;
+    private int          batchIndex;
+    private boolean      significant;
+    private String       presentationName;
+    private String       undoPresentationName;
+    private String       redoPresentationName;
+
+    public BoundedEdit(UndoableEdit edit) {
+      this.edit = edit;
+    }
+
+    /**
+     * Reads the batch of this edit if it was saved and returns <code>true</code> if edit is available.
+     */
+    private boolean readEdit() {
+      if (this.edit == null) {
+        this.batch.read();
+      }
+      return this.edit != null;
+    }
+
+    public boolean canUndo() {
+      synchronized (MemoryBoundedUndoManager.this) {
+        return readEdit() && this.edit.canUndo();
+      }
+    }
+
+    public void undo() throws CannotUndoException {
+      synchronized (MemoryBoundedUndoManager.this) {
+        if (!readEdit()) {
+          throw new CannotUndoException();
+        }
+      }
+      this.edit.undo();
+    }
+
+    public boolean canRedo() {
+      synchronized (MemoryBoundedUndoManager.this) {
+        return readEdit() && this.edit.canRedo();
+      }
+    }
+
+    public void redo() throws CannotRedoException {
+      synchronized (MemoryBoundedUndoManager.this) {
+        if (!readEdit()) {
+          throw new CannotRedoException();
+        }
+      }
+      this.edit.redo();
+    }
+
+    public void die() {
+      synchronized (MemoryBoundedUndoManager.this) {
+        this.dead = true;
+        if (this.edit != null) {
+          this.edit.die();
+          memorySize -= this.size;
+        } else {
+          this.batch.release(this);
+        }
+      }
+    }
+
+    public boolean addEdit(UndoableEdit edit) {
+      return false;
+    }
+
+    public boolean replaceEdit(UndoableEdit edit) {
+      return false;
+    }
+
+    public boolean isSignificant() {
+      return this.edit != null
+          ? this.edit.isSignificant()
+          : this.significant;
+    }
+
+    public String getPresentationName() {
+      return this.edit != null
+          ? this.edit.getPresentationName()
+          : this.presentationName;
+    }
+
+    public String getUndoPresentationName() {
+      return this.edit != null
+          ? this.edit.getUndoPresentationName()
+          : this.undoPresentationName;
+    }
+
+    public String getRedoPresentationName() {
+      return this.edit != null
+          ? this.edit.getRedoPresentationName()
+          : this.redoPresentationName;
+    }
+  }
+
+  /**
+   * Edits saved together in a temporary file.
+   */
+  private class EditBatch {
+    private final List<BoundedEdit> edits;
+    private final List<Object>      referencedObjects;
+    private final Map<String, Class<?>> classes;
+    private File                    file;
+
+    public EditBatch(List<BoundedEdit> edits) {
+      this.edits = edits;
+      this.referencedObjects = new ArrayList<Object>();
+      this.classes = new HashMap<String, Class<?>>();
+    }
+
+    /**
+     * Writes the edits of this batch in a temporary file, and releases them from memory.
+     * Home objects belonging to <code>liveObjects</code> are written as references.
+     */
+    public void write(Map<Object, Object> liveObjects) throws IOException {
+      UndoableEdit [] edits = new UndoableEdit [this.edits.size()];
+      for (int i = 0; i < edits.length; i++) {
+        edits [i] = this.edits.get(i).edit;
+      }
+      this.file = OperatingSystem.createTemporaryFile("undo", ".ser");
+      OutputStream fileOutput = new BufferedOutputStream(new FileOutputStream(this.file));
+      try {
+        EditOutputStream out = new EditOutputStream(fileOutput, liveObjects, this);
+        out.writeObject(edits);
+        // Write home objects written by value and their identifier
+        List<HomeObject> copiedObjects = out.getCopiedObjects();
+        int [] copiedObjectIds = new int [copiedObjects.size()];
+        for (int i = 0; i < copiedObjectIds.length; i++) {
+          copiedObjectIds [i] = getObjectId(copiedObjects.get(i));
+        }
+        out.writeObject(copiedObjects.toArray());
+        out.writeObject(copiedObjectIds);
+        out.close();
+      } catch (IOException ex) {
+        fileOutput.close();
+        this.file.delete();
+        throw ex;
+      }
+
+      for (int i = 0; i < edits.length; i++) {
+        BoundedEdit edit = this.edits.get(i);
+        edit.batchIndex = i;
+        edit.significant = edit.edit.isSignificant();
+        edit.presentationName = edit.edit.getPresentationName();
+        edit.undoPresentationName = edit.edit.getUndoPresentationName();
+        edit.redoPresentationName = edit.edit.getRedoPresentationName();
+        edit.batch = this;
+        edit.edit = null;
+      }
+    }
+
+    /**
+     * Reads the edits of this batch still alive. If the batch can't be read, its edits and its file are kept
+     * and the exception is reported by {@link MemoryBoundedUndoManager#getReadException() getReadException}.
+     */
+    public void read() {
+      if (this.file == null) {
+        return;
+      }
+      try {
+        InputStream fileInput = new BufferedInputStream(new FileInputStream(this.file));
+        try {
+          EditInputStream in = new EditInputStream(fileInput, this);
+          UndoableEdit [] edits = (UndoableEdit [])in.readObject();
+          Object [] copiedObjects = (Object [])in.readObject();
+          int [] copiedObjectIds = (int [])in.readObject();
+          // Replace original objects by their copy
+          for (int i = 0; i < copiedObjects.length; i++) {
+            setObjectId((HomeObject)copiedObjects [i], copiedObjectIds [i]);
+          }
+          // Restore each edit from its index in the saved array,
+          // because the edits of this batch that died were removed from its list
+          for (BoundedEdit edit : this.edits) {
+            edit.edit = edits [edit.batchIndex];
+            edit.batch = null;
+            memorySize += edit.size;
+          }
+        } finally {
+          fileInput.close();
+        }
+        delete();
+      } catch (IOException ex) {
+        readException = ex;
+      } catch (ClassNotFoundException ex) {
+        readException = (IOException)new IOException("Can't read saved edits").initCause(ex);
+      } catch (RuntimeException ex) {
+        readException = (IOException)new IOException("Can't read saved edits").initCause(ex);
+      }
+    }
+
+    /**
+     * Releases the given <code>edit</code> and deletes file once all the edits of this batch died.
+     */
+    public void release(BoundedEdit edit) {
+      this.edits.remove(edit);
+      if (this.edits.isEmpty()) {
+        delete();
+      }
+    }
+
+    private void delete() {
+      if (this.file != null) {
+        this.file.delete();
+        this.file = null;
+        this.referencedObjects.clear();
+        savedBatchCount--;
+      }
+    }
+  }
+
+  /**
+   * A reference written in place of an object kept in memory.
+   */
+  private static class ObjectReference implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final int     index;
+    private final boolean homeObject;
+
+    public ObjectReference(int index, boolean homeObject) {
+      this.index = index;
+      this.homeObject = homeObject;
+    }
+  }
+
+  /**
+   * An output stream that writes home objects and the objects shared by edits as references.
+   */
+  private class EditOutputStream extends ObjectOutputStream {
+    private final Map<Object, Object> liveObjects;
+    private final EditBatch           batch;
+    private final List<HomeObject>    copiedObjects;
+
+    public EditOutputStream(OutputStream out, Map<Object, Object> liveObjects, EditBatch batch) throws IOException {
+      super(out);
+      this.liveObjects = liveObjects;
+      this.batch = batch;
+      this.copiedObjects = new ArrayList<HomeObject>();
+      enableReplaceObject(true);
+    }
+
+    @Override
+    protected void annotateClass(Class<?> cl) throws IOException {
+      this.batch.classes.put(cl.getName(), cl);
+    }
+
+    @Override
+    protected Object replaceObject(Object obj) throws IOException {
+      if (obj instanceof HomeObject) {
+        if (!this.liveObjects.containsKey(obj)) {
+          this.copiedObjects.add((HomeObject)obj);
+          return obj;
+        } else {
+          return new ObjectReference(getObjectId((HomeObject)obj), true);
+        }
+      } else if (isApplicationObject(obj)) {
+        // Keep application objects in memory
+        this.batch.referencedObjects.add(obj);
+        return new ObjectReference(this.batch.referencedObjects.size() - 1, false);
+      } else if (!(obj instanceof Serializable)) {
+        throw new NotSerializableException(obj.getClass().getName());
+      } else {
+        return obj;
+      }
+    }
+
+    /**
+     * Returns the home objects written by value in this stream.
+     */
+    public List<HomeObject> getCopiedObjects() {
+      return this.copiedObjects;
+    }
+  }
+
+  /**
+   * Returns <code>true</code> if the given object belongs to the application
+   * and should be kept in memory rather than saved with edits.
+   */
+  private static boolean isApplicationObject(Object obj) {
+    return obj instanceof Home
+        || obj instanceof UserPreferences
+        || obj instanceof Controller
+        || obj instanceof View
+        || obj instanceof ViewFactory
+        || obj instanceof ContentManager
+        || obj instanceof UndoableEditSupport
+        || obj instanceof Component;
+  }
+
+  /**
+   * An input stream that resolves the references written by {@link EditOutputStream}.
+   */
+  private class EditInputStream extends ObjectInputStream {
+    private final EditBatch batch;
+
+    public EditInputStream(InputStream in, EditBatch batch) throws IOException {
+      super(in);
+      this.batch = batch;
+      enableResolveObject(true);
+    }
+
+    @Override
+    protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+      Class<?> cl = this.batch.classes.get(desc.getName());
+      return cl != null
+          ? cl
+          : super.resolveClass(desc);
+    }
+
+    @Override
+    protected Object resolveObject(Object obj) throws IOException {
+      if (obj instanceof ObjectReference) {
+        ObjectReference reference = (ObjectReference)obj;
+        if (reference.homeObject) {
+          WeakReference<HomeObject> object = identifiedObjects.get(reference.index);
+          if (object == null || object.get() == null) {
+            throw new InvalidObjectException("Unknown object " + reference.index);
+          }
+          return object.get();
+        } else {
+          return this.batch.referencedObjects.get(reference.index);
+        }
+      } else {
+        return obj;
+      }
+    }
+  }
+
+  /**
+   * A walker through the objects referenced by edits which estimates the size of the objects
+   * that would be saved with them, and collects the home objects that would be saved by value,
+   * without serializing them. Home objects belonging to <code>liveObjects</code> and application
+   * objects are considered as references, and the content of classes of <code>java</code> and
+   * <code>javax</code> packages is estimated only for strings, arrays, collections and maps.
+   */
+  private class EditObjectsWalker {
+    private static final int OBJECT_SIZE    = 16;
+    private static final int REFERENCE_SIZE = 4;
+
+    private final Map<Object, Object> liveObjects;
+    private final Map<Object, Object> walkedObjects;
+    private final List<HomeObject>    copiedObjects;
+    private long                      size;
+    private boolean                   incomplete;
+
+    public EditObjectsWalker(Map<Object, Object> liveObjects) {
+      this.liveObjects = liveObjects;
+      this.walkedObjects = new IdentityHashMap<Object, Object>();
+      this.copiedObjects = new ArrayList<HomeObject>();
+    }
+
+    /**
+     * Walks through the objects referenced by <code>root</code> not walked yet.
+     */
+    public void walk(Object root) {
+      List<Object> pendingObjects = new ArrayList<Object>();
+      pendingObjects.add(root);
+      while (!pendingObjects.isEmpty()) {
+        Object obj = pendingObjects.remove(pendingObjects.size() - 1);
+        if (obj == null
+            || this.walkedObjects.containsKey(obj)) {
+          continue;
+        }
+        this.walkedObjects.put(obj, obj);
+        if (obj instanceof HomeObject
+            && this.liveObjects.containsKey(obj)
+            || isApplicationObject(obj)) {
+          this.size += REFERENCE_SIZE;
+          continue;
+        } else if (!(obj instanceof Serializable)) {
+          this.incomplete = true;
+          continue;
+        } else if (obj instanceof HomeObject) {
+          this.copiedObjects.add((HomeObject)obj);
+        }
+
+        Class<?> objectClass = obj.getClass();
+        this.size += OBJECT_SIZE;
+        if (obj instanceof String) {
+          this.size += ((String)obj).length() * 2;
+        } else if (objectClass.isArray()) {
+          Class<?> componentType = objectClass.getComponentType();
+          if (componentType.isPrimitive()) {
+            this.size += getPrimitiveArraySize(obj, componentType);
+          } else {
+            Object [] array = (Object [])obj;
+            this.size += array.length * REFERENCE_SIZE;
+            for (Object element : array) {
+              pendingObjects.add(element);
+            }
+          }
+        } else if (objectClass.getName().startsWith("java.")
+            || objectClass.getName().startsWith("javax.")) {
+          if (obj instanceof Collection) {
+            Collection<?> collection = (Collection<?>)obj;
+            this.size += collection.size() * REFERENCE_SIZE;
+            pendingObjects.addAll(collection);
+          } else if (obj instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>)obj;
+            this.size += map.size() * 2 * REFERENCE_SIZE;
+            pendingObjects.addAll(map.keySet());
+            pendingObjects.addAll(map.values());
+          }
+        } else {
+          for (Class<?> cl = objectClass; cl != null && cl != Object.class; cl = cl.getSuperclass()) {
+            for (Field field : getWalkedFields(cl)) {
+              if (field.getType().isPrimitive()) {
+                this.size += 8;
+              } else {
+                this.size += REFERENCE_SIZE;
+                try {
+                  pendingObjects.add(field.get(obj));
+                } catch (IllegalAccessException ex) {
+                  this.incomplete = true;
+                }
+              }
+            }
+          }
+        }
+      }
+    }
+
+    /**
+     * Returns the serialized fields of the given class accessible by reflection,
+     * or an empty array for the classes of <code>java</code> and <code>javax</code> packages.
+     */
+    private Field [] getWalkedFields(Class<?> cl) {
+      Field [] fields = walkedFields.get(cl);
+      if (fields == null) {
+        List<Field> fieldList = new ArrayList<Field>();
+        if (!cl.getName().startsWith("java.")
+            && !cl.getName().startsWith("javax.")) {
+          try {
+            for (Field field : cl.getDeclaredFields()) {
+              if ((field.getModifiers() & (Modifier.STATIC | Modifier.TRANSIENT)) == 0) {
+                field.setAccessible(true);
+                fieldList.add(field);
+              }
+            }
+          } catch (SecurityException ex) {
+            // Ignore fields of this class
+          }
+        }
+        fields = fieldList.toArray(new Field [fieldList.size()]);
+        walkedFields.put(cl, fields);
+      }
+      return fields;
+    }
+
+    private long getPrimitiveArraySize(Object array, Class<?> componentType) {
+      int length = Array.getLength(array);
+      if (componentType == byte.class || componentType == boolean.class) {
+        return length;
+      } else if (componentType == short.class || componentType == char.class) {
+        return length * 2L;
+      } else if (componentType == long.class || componentType == double.class) {
+        return length * 8L;
+      } else {
+        return length * 4L;
+      }
+    }
+
+    /**
+     * Returns the estimated size in bytes of the walked objects.
+     */
+    public long getSize() {
+      return this.size;
+    }
+
+    /**
+     * Returns the home objects that would be saved by value.
+     */
+    public List<HomeObject> getCopiedObjects() {
+      return this.copiedObjects;
+    }
+
+    /**
+     * Returns <code>true</code> if some walked objects can't be saved.
+     */
+    public boolean isIncomplete() {
+      return this.incomplete;
+    }
+  }
+}
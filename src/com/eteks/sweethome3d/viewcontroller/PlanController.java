@@ -30,6 +30,7 @@ import java.awt.geom.Rectangle2D;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.beans.PropertyChangeSupport;
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -2340,19 +2341,35 @@ public class PlanController extends FurnitureController implements Controller {
   private List<Selectable> getVisibleItemsAtSelectedLevel() {
     List<Selectable> selectableItems = new ArrayList<Selectable>();
     Level selectedLevel = this.home.getSelectedLevel();
-    for (Selectable item : this.home.getSelectableViewableItems()) {
-      if (item instanceof HomePieceOfFurniture) {
-        if (isPieceOfFurnitureVisibleAtSelectedLevel((HomePieceOfFurniture)item)) {
-          selectableItems.add(item);
-        }
-      } else if (!(item instanceof Elevatable)
-          || ((Elevatable)item).isAtLevel(selectedLevel)) {
-        selectableItems.add(item);
+    // Search items in the lists of home items at selected level rather than in all items
+    addViewableItems(this.home.getWallsAtLevel(selectedLevel), selectableItems);
+    addViewableItems(this.home.getRoomsAtLevel(selectedLevel), selectableItems);
+    addViewableItems(this.home.getDimensionLinesAtLevel(selectedLevel), selectableItems);
+    addViewableItems(this.home.getPolylinesAtLevel(selectedLevel), selectableItems);
+    addViewableItems(this.home.getLabelsAtLevel(selectedLevel), selectableItems);
+    for (HomePieceOfFurniture piece : this.home.getFurnitureAtLevel(selectedLevel)) {
+      if (isPieceOfFurnitureVisibleAtSelectedLevel(piece)) {
+        selectableItems.add(piece);
       }
     }
+    if (this.home.getCompass().isVisible()) {
+      selectableItems.add(this.home.getCompass());
+    }
     return selectableItems;
   }
 
+  /**
+   * Adds to <code>selectableItems</code> the given items which belong to a viewable level.
+   */
+  private void addViewableItems(List<? extends Selectable> items,
+                                List<Selectable> selectableItems) {
+    for (Selectable item : items) {
+      if (isLevelNullOrViewable(((Elevatable)item).getLevel())) {
+        selectableItems.add(item);
+      }
+    }
+  }
+
   /**
    * Selects all visible items in all levels of home.
    * @since 4.4
@@ -5957,23 +5974,21 @@ public class PlanController extends FurnitureController implements Controller {
    */
   private void doDeleteItems(List<Selectable> items) {
     boolean basePlanLocked = this.home.isBasePlanLocked();
+    // Delete walls, rooms and furniture at once
+    this.home.deleteWalls(Home.getWallsSubList(items));
+    this.home.deleteRooms(Home.getRoomsSubList(items));
     for (Selectable item : items) {
-      if (item instanceof Wall) {
-        home.deleteWall((Wall)item);
-      } else if (item instanceof DimensionLine) {
+      if (item instanceof DimensionLine) {
         home.deleteDimensionLine((DimensionLine)item);
-      } else if (item instanceof Room) {
-        home.deleteRoom((Room)item);
       } else if (item instanceof Polyline) {
         home.deletePolyline((Polyline)item);
       } else if (item instanceof Label) {
         home.deleteLabel((Label)item);
-      } else if (item instanceof HomePieceOfFurniture) {
-        home.deletePieceOfFurniture((HomePieceOfFurniture)item);
       }
       // Unlock base plan if item is a part of it
       basePlanLocked &= !isItemPartOfBasePlan(item);
     }
+    this.home.deleteFurniture(Home.getFurnitureSubList(items));
     this.home.setBasePlanLocked(basePlanLocked);
     this.home.setAllLevelsSelection(false);
   }
@@ -6006,31 +6021,35 @@ public class PlanController extends FurnitureController implements Controller {
    * Moves <code>items</code> of (<code>dx</code>, <code>dy</code>) units.
    */
   public void moveItems(List<? extends Selectable> items, float dx, float dy) {
-    for (Selectable item : items) {
-      if (item instanceof Wall) {
-        Wall wall = (Wall)item;
-        // Remove temporarily listener to avoid side effect
-        wall.removePropertyChangeListener(this.wallChangeListener);
-        moveWallStartPoint(wall,
-            wall.getXStart() + dx, wall.getYStart() + dy,
-            !items.contains(wall.getWallAtStart()));
-        moveWallEndPoint(wall,
-            wall.getXEnd() + dx, wall.getYEnd() + dy,
-            !items.contains(wall.getWallAtEnd()));
-        resetAreaCache();
-        wall.addPropertyChangeListener(this.wallChangeListener);
-      } else {
-        boolean boundToWall = false;
-        if (item instanceof HomeDoorOrWindow) {
-          boundToWall = ((HomeDoorOrWindow)item).isBoundToWall();
-        }
-        item.move(dx, dy);
-        if (boundToWall) {
-          Area itemArea = new Area(getPath(item.getPoints()));
-          itemArea.intersect(getWallsArea(true));
-          ((HomeDoorOrWindow)item).setBoundToWall(!itemArea.isEmpty());
+    // Move items in a transaction to notify listeners once per item property
+    this.home.beginTransaction();
+    try {
+      for (Selectable item : items) {
+        if (item instanceof Wall) {
+          Wall wall = (Wall)item;
+          moveWallStartPoint(wall,
+              wall.getXStart() + dx, wall.getYStart() + dy,
+              !items.contains(wall.getWallAtStart()));
+          moveWallEndPoint(wall,
+              wall.getXEnd() + dx, wall.getYEnd() + dy,
+              !items.contains(wall.getWallAtEnd()));
+          // Reset walls area now as wall change listener will be notified at the end of the transaction
+          resetAreaCache();
+        } else {
+          boolean boundToWall = false;
+          if (item instanceof HomeDoorOrWindow) {
+            boundToWall = ((HomeDoorOrWindow)item).isBoundToWall();
+          }
+          item.move(dx, dy);
+          if (boundToWall) {
+            Area itemArea = new Area(getPath(item.getPoints()));
+            itemArea.intersect(getWallsArea(true));
+            ((HomeDoorOrWindow)item).setBoundToWall(!itemArea.isEmpty());
+          }
         }
       }
+    } finally {
+      this.home.commitTransaction();
     }
   }
 
@@ -6275,9 +6294,7 @@ public class PlanController extends FurnitureController implements Controller {
    * Adds <code>walls</code> to home and post an undoable new wall operation.
    */
   public void addWalls(List<Wall> walls) {
-    for (Wall wall : walls) {
-      this.home.addWall(wall);
-    }
+    this.home.addWalls(walls);
     postCreateWalls(walls, this.home.getSelectedItems(),
         home.isBasePlanLocked(), home.isAllLevelsSelection());
   }
@@ -6355,10 +6372,13 @@ public class PlanController extends FurnitureController implements Controller {
    */
   private void doAddWalls(JoinedWall [] joinedWalls, boolean basePlanLocked) {
     // First add all walls to home
+    List<Wall> walls = new ArrayList<Wall>(joinedWalls.length);
     for (JoinedWall joinedNewWall : joinedWalls) {
-      Wall wall = joinedNewWall.getWall();
-      this.home.addWall(wall);
-      wall.setLevel(joinedNewWall.getLevel());
+      walls.add(joinedNewWall.getWall());
+    }
+    this.home.addWalls(walls);
+    for (JoinedWall joinedNewWall : joinedWalls) {
+      joinedNewWall.getWall().setLevel(joinedNewWall.getLevel());
     }
     this.home.setBasePlanLocked(basePlanLocked);
 
@@ -6391,9 +6411,11 @@ public class PlanController extends FurnitureController implements Controller {
    */
   private void doDeleteWalls(JoinedWall [] joinedDeletedWalls,
                              boolean basePlanLocked) {
+    List<Wall> walls = new ArrayList<Wall>(joinedDeletedWalls.length);
     for (JoinedWall joinedWall : joinedDeletedWalls) {
-      this.home.deleteWall(joinedWall.getWall());
+      walls.add(joinedWall.getWall());
     }
+    this.home.deleteWalls(walls);
     this.home.setBasePlanLocked(basePlanLocked);
   }
 
@@ -6407,8 +6429,8 @@ public class PlanController extends FurnitureController implements Controller {
     int endIndex = home.getRooms().size();
     for (int i = 0; i < roomsIndex.length; i++) {
       roomsIndex [i] = endIndex++;
-      this.home.addRoom(newRooms [i], roomsIndex [i]);
     }
+    this.home.addRooms(rooms);
     postCreateRooms(newRooms, roomsIndex, this.home.getSelectedItems(),
         this.home.isBasePlanLocked(), this.home.isAllLevelsSelection());
   }
@@ -6523,9 +6545,7 @@ public class PlanController extends FurnitureController implements Controller {
    */
   private void doDeleteRooms(Room [] rooms,
                              boolean basePlanLocked) {
-    for (Room room : rooms) {
-      this.home.deleteRoom(room);
-    }
+    this.home.deleteRooms(Arrays.asList(rooms));
     this.home.setBasePlanLocked(basePlanLocked);
   }
 
@@ -7307,9 +7327,8 @@ public class PlanController extends FurnitureController implements Controller {
    */
   private void postRoomResize(final Room room, final float oldX, final float oldY,
                               final int pointIndex) {
-    float [] roomPoint = room.getPoints() [pointIndex];
-    final float newX = roomPoint [0];
-    final float newY = roomPoint [1];
+    final float newX = room.getPointX(pointIndex);
+    final float newY = room.getPointY(pointIndex);
     if (newX != oldX || newY != oldY) {
       UndoableEdit undoableEdit = new RoomResizingUndoableEdit(this, this.preferences,
           oldX, oldY, room, pointIndex, newX, newY);
@@ -8639,7 +8658,9 @@ public class PlanController extends FurnitureController implements Controller {
   /**
    * Stores the size of a resized piece of furniture.
    */
-  private static class ResizedPieceOfFurniture {
+  private static class ResizedPieceOfFurniture implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     private final HomePieceOfFurniture piece;
     private final float                x;
     private final float                y;
@@ -8769,7 +8790,9 @@ public class PlanController extends FurnitureController implements Controller {
    * Stores the walls at start and at end of a given wall. This data are useful
    * to add a collection of walls after an undo/redo delete operation.
    */
-  private static final class JoinedWall {
+  private static final class JoinedWall implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     private final Wall    wall;
     private final Level   level;
     private final float   xStart;
@@ -9101,38 +9124,48 @@ public class PlanController extends FurnitureController implements Controller {
       float xClosestObject = 0;
       float yClosestObject = 0;
       for (Room room : getDetectableRoomsAtSelectedLevel()) {
-        float [][] roomPoints = room.getPoints();
-        for (int i = 0; i < roomPoints.length; i++) {
-          if (editedPointIndex == -1 || (i != editedPointIndex && roomPoints.length > 2)) {
-            if (Math.abs(getX() - roomPoints [i][0]) < margin
-                && Math.abs(deltaYToClosestObject) > Math.abs(getY() - roomPoints [i][1])) {
-              xClosestObject = roomPoints [i][0];
-              deltaYToClosestObject = getY() - roomPoints [i][1];
+        // Read room points without copying them
+        int roomPointCount = room.getPointCount();
+        for (int i = 0; i < roomPointCount; i++) {
+          if (editedPointIndex == -1 || (i != editedPointIndex && roomPointCount > 2)) {
+            float xRoomPoint = room.getPointX(i);
+            float yRoomPoint = room.getPointY(i);
+            if (Math.abs(getX() - xRoomPoint) < margin
+                && Math.abs(deltaYToClosestObject) > Math.abs(getY() - yRoomPoint)) {
+              xClosestObject = xRoomPoint;
+              deltaYToClosestObject = getY() - yRoomPoint;
             }
-            if (Math.abs(getY() - roomPoints [i][1]) < margin
-                && Math.abs(deltaXToClosestObject) > Math.abs(getX() - roomPoints [i][0])) {
-              yClosestObject = roomPoints [i][1];
-              deltaXToClosestObject = getX() - roomPoints [i][0];
+            if (Math.abs(getY() - yRoomPoint) < margin
+                && Math.abs(deltaXToClosestObject) > Math.abs(getX() - xRoomPoint)) {
+              yClosestObject = yRoomPoint;
+              deltaXToClosestObject = getX() - xRoomPoint;
             }
           }
         }
       }
       // Search which wall points are close to (x, y)
       for (Wall wall : getDetectableWallsAtSelectedLevel()) {
-        float [][] wallPoints = wall.getPoints();
-        // Take into account only points at start and end of the wall
-        wallPoints = new float [][] {wallPoints [0], wallPoints [wallPoints.length / 2 - 1],
-                                     wallPoints [wallPoints.length / 2], wallPoints [wallPoints.length - 1]};
-        for (int i = 0; i < wallPoints.length; i++) {
-          if (Math.abs(getX() - wallPoints [i][0]) < margin
-              && Math.abs(deltaYToClosestObject) > Math.abs(getY() - wallPoints [i][1])) {
-            xClosestObject = wallPoints [i][0];
-            deltaYToClosestObject = getY() - wallPoints [i][1];
+        int wallPointCount = wall.getPointCount();
+        for (int i = 0; i < 4; i++) {
+          // Take into account only points at start and end of the wall
+          int pointIndex = i == 0
+              ? 0
+              : (i == 1
+                  ? wallPointCount / 2 - 1
+                  : (i == 2
+                      ? wallPointCount / 2
+                      : wallPointCount - 1));
+          float xWallPoint = wall.getPointX(pointIndex);
+          float yWallPoint = wall.getPointY(pointIndex);
+          if (Math.abs(getX() - xWallPoint) < margin
+              && Math.abs(deltaYToClosestObject) > Math.abs(getY() - yWallPoint)) {
+            xClosestObject = xWallPoint;
+            deltaYToClosestObject = getY() - yWallPoint;
           }
-          if (Math.abs(getY() - wallPoints [i][1]) < margin
-              && Math.abs(deltaXToClosestObject) > Math.abs(getX() - wallPoints [i][0])) {
-            yClosestObject = wallPoints [i][1];
-            deltaXToClosestObject = getX() - wallPoints [i][0];
+          if (Math.abs(getY() - yWallPoint) < margin
+              && Math.abs(deltaXToClosestObject) > Math.abs(getX() - xWallPoint)) {
+            yClosestObject = yWallPoint;
+            deltaXToClosestObject = getX() - xWallPoint;
           }
         }
       }
@@ -11800,8 +11833,7 @@ public class PlanController extends FurnitureController implements Controller {
     public void moveMouse(float x, float y) {
       // Compute the new elevation of the piece
       PlanView planView = getView();
-      float [] topRightPoint = this.selectedPiece.getPoints() [1];
-      float deltaY = y - this.deltaYToElevationPoint - topRightPoint[1];
+      float deltaY = y - this.deltaYToElevationPoint - this.selectedPiece.getPointY(1);
       float newElevation = this.oldElevation - deltaY;
       newElevation = Math.min(Math.max(newElevation, 0f), preferences.getLengthUnit().getMaximumElevation());
       if (this.magnetismEnabled) {
@@ -12228,8 +12260,7 @@ public class PlanController extends FurnitureController implements Controller {
     public void moveMouse(float x, float y) {
       // Compute the new power of the light
       PlanView planView = getView();
-      float [] bottomLeftPoint = this.selectedLight.getPoints() [3];
-      float deltaX = x - this.deltaXToModificationPoint - bottomLeftPoint [0];
+      float deltaX = x - this.deltaXToModificationPoint - this.selectedLight.getPointX(3);
       float newPower = this.oldPower + deltaX / 100f * getScale();
       newPower = Math.min(Math.max(newPower, 0f), 1f);
       // Update light power
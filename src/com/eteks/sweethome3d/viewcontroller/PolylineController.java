@@ -21,6 +21,7 @@ package com.eteks.sweethome3d.viewcontroller;
 
 import java.beans.PropertyChangeListener;
 import java.beans.PropertyChangeSupport;
+import java.io.Serializable;
 import java.util.Arrays;
 import java.util.List;
 
@@ -670,7 +671,9 @@ public class PolylineController implements Controller {
   /**
    * Stores the current properties values of a modified polyline.
    */
-  private static final class ModifiedPolyline {
+  private static final class ModifiedPolyline implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     private final Polyline            polyline;
     private final float               thickness;
     private final Polyline.CapStyle   capStyle;
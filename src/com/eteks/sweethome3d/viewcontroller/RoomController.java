@@ -27,6 +27,7 @@ import java.awt.geom.Point2D;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.beans.PropertyChangeSupport;
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -1684,7 +1685,9 @@ public class RoomController implements Controller {
   /**
    * Stores the current properties values of a modified room.
    */
-  private static final class ModifiedRoom {
+  private static final class ModifiedRoom implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     private final Room        room;
     private final String      name;
     private final boolean     areaVisible;
@@ -1735,7 +1738,9 @@ public class RoomController implements Controller {
   /**
    * A wall side.
    */
-  private static class WallSide {
+  private static class WallSide implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     public static final int LEFT_SIDE = 0;
     public static final int RIGHT_SIDE = 1;
 
@@ -1787,7 +1792,9 @@ public class RoomController implements Controller {
   /**
    * A modified wall.
    */
-  private static class ModifiedWall {
+  private static class ModifiedWall implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     private Wall          wall;
     private final Level   level;
     private final Wall    wallAtStart;
@@ -1839,7 +1846,9 @@ public class RoomController implements Controller {
   /**
    * Stores the current properties values of a modified wall side.
    */
-  private static final class ModifiedWallSide {
+  private static final class ModifiedWallSide implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     private final WallSide    wallSide;
     private final Integer     wallColor;
     private final HomeTexture wallTexture;
@@ -23,6 +23,7 @@ import java.awt.geom.Point2D;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.beans.PropertyChangeSupport;
+import java.io.Serializable;
 import java.util.Arrays;
 import java.util.List;
 
@@ -1786,7 +1787,9 @@ public class WallController implements Controller {
   /**
    * Stores the current properties values of a modified wall.
    */
-  private static final class ModifiedWall {
+  private static final class ModifiedWall implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     private final Wall         wall;
     private final float        xStart;
     private final float        yStart;
@@ -0,0 +1,124 @@
+/*
+ * HomeFurnitureGroupTest.java 19 oct. 2026
+ *
+ * Copyright (c) 2024 Space Mushrooms <info@sweethome3d.com>
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 59 Temple
+ * Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+package com.eteks.sweethome3d.junit;
+
+import java.util.Arrays;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import com.eteks.sweethome3d.model.CatalogPieceOfFurniture;
+import com.eteks.sweethome3d.model.Home;
+import com.eteks.sweethome3d.model.HomeFurnitureGroup;
+import com.eteks.sweethome3d.model.HomePieceOfFurniture;
+
+/**
+ * Tests the location and size of furniture groups updated when their furniture changes.
+ * @author Emmanuel Puybaret
+ */
+public class HomeFurnitureGroupTest extends TestCase {
+  private static final float EPSILON = 1E-3f;
+
+  public void testGroupBoundsInTransaction() {
+    HomePieceOfFurniture piece1 = createPiece(0, 0, 0, 100, 50, 80);
+    HomePieceOfFurniture piece2 = createPiece(200, 100, 0.3f, 60, 60, 120);
+    HomePieceOfFurniture piece3 = createPiece(-50, 300, 0, 40, 20, 70);
+    HomePieceOfFurniture piece4 = createPiece(50, 350, 0, 40, 20, 70);
+    piece4.setElevation(30);
+    HomeFurnitureGroup innerGroup = new HomeFurnitureGroup(
+        Arrays.asList(new HomePieceOfFurniture [] {piece3, piece4}), "Inner group");
+    HomeFurnitureGroup group = new HomeFurnitureGroup(
+        Arrays.asList(new HomePieceOfFurniture [] {piece1, piece2, innerGroup}), "Group");
+    group.setAngle(0.5f);
+    innerGroup.setAngle(1.2f);
+    Home home = new Home();
+    home.addPieceOfFurniture(group);
+
+    float [][] groupPoints = group.getPoints();
+    float groupHeight = group.getHeight();
+    home.beginTransaction();
+    piece1.setX(piece1.getX() - 150);
+    piece1.setWidth(150);
+    piece1.setWidthInPlan(150);
+    piece3.setY(piece3.getY() + 200);
+    piece4.setElevation(0);
+    piece4.setAngle(0.7f);
+    // Check group getters don't update groups during transaction
+    assertTrue("Group points updated in transaction", Arrays.deepEquals(groupPoints, group.getPoints()));
+    assertEquals("Group height updated in transaction", groupHeight, group.getHeight());
+    piece2.setX(piece2.getX() - 100);
+    piece2.setHeight(40);
+    piece2.setHeightInPlan(40);
+    home.commitTransaction();
+    assertGroupBounds(group, innerGroup);
+
+    // Check groups are up to date once their furniture changed out of transactions
+    piece3.setX(piece3.getX() + 20);
+    piece1.setDepth(200);
+    piece1.setDepthInPlan(200);
+    assertGroupBounds(group, innerGroup);
+    // Check elevation and height are updated when the lowest and highest pieces move
+    piece3.setElevation(50);
+    piece4.setElevation(40);
+    assertGroupBounds(group, innerGroup);
+    piece1.setHeightInPlan(10);
+    assertGroupBounds(group, innerGroup);
+  }
+
+  /**
+   * Checks the location and size of the given groups are equal to the ones
+   * of new groups built from a copy of their furniture.
+   */
+  private void assertGroupBounds(HomeFurnitureGroup group, HomeFurnitureGroup innerGroup) {
+    List<HomePieceOfFurniture> innerFurniture = innerGroup.getFurniture();
+    HomeFurnitureGroup expectedInnerGroup = new HomeFurnitureGroup(Arrays.asList(new HomePieceOfFurniture [] {
+        innerFurniture.get(0).clone(), innerFurniture.get(1).clone()}), innerGroup.getAngle(), false, "Inner group");
+    List<HomePieceOfFurniture> furniture = group.getFurniture();
+    HomeFurnitureGroup expectedGroup = new HomeFurnitureGroup(Arrays.asList(new HomePieceOfFurniture [] {
+        furniture.get(0).clone(), furniture.get(1).clone(), expectedInnerGroup}), group.getAngle(), false, "Group");
+    assertSameBounds(expectedInnerGroup, innerGroup);
+    assertSameBounds(expectedGroup, group);
+  }
+
+  private void assertSameBounds(HomeFurnitureGroup expectedGroup, HomeFurnitureGroup group) {
+    assertEquals("Wrong x", expectedGroup.getX(), group.getX(), EPSILON);
+    assertEquals("Wrong y", expectedGroup.getY(), group.getY(), EPSILON);
+    assertEquals("Wrong width", expectedGroup.getWidth(), group.getWidth(), EPSILON);
+    assertEquals("Wrong depth", expectedGroup.getDepth(), group.getDepth(), EPSILON);
+    assertEquals("Wrong height", expectedGroup.getHeight(), group.getHeight(), EPSILON);
+    assertEquals("Wrong elevation", expectedGroup.getElevation(), group.getElevation(), EPSILON);
+    float [][] expectedPoints = expectedGroup.getPoints();
+    float [][] points = group.getPoints();
+    for (int i = 0; i < points.length; i++) {
+      assertEquals("Wrong point x", expectedPoints [i][0], points [i][0], EPSILON);
+      assertEquals("Wrong point y", expectedPoints [i][1], points [i][1], EPSILON);
+    }
+  }
+
+  private HomePieceOfFurniture createPiece(float x, float y, float angle,
+                                           float width, float depth, float height) {
+    HomePieceOfFurniture piece = new HomePieceOfFurniture(
+        new CatalogPieceOfFurniture("Piece", null, null, width, depth, height, true, false));
+    piece.setX(x);
+    piece.setY(y);
+    piece.setAngle(angle);
+    return piece;
+  }
+}
@@ -22,15 +22,22 @@ package com.eteks.sweethome3d.junit;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicReference;
 
+import com.eteks.sweethome3d.model.BulkCollectionListener;
+import com.eteks.sweethome3d.model.CatalogPieceOfFurniture;
 import com.eteks.sweethome3d.model.CollectionEvent;
 import com.eteks.sweethome3d.model.CollectionListener;
 import com.eteks.sweethome3d.model.Home;
+import com.eteks.sweethome3d.model.HomeFurnitureGroup;
 import com.eteks.sweethome3d.model.HomeObject;
+import com.eteks.sweethome3d.model.HomePieceOfFurniture;
 import com.eteks.sweethome3d.model.Label;
+import com.eteks.sweethome3d.model.Level;
+import com.eteks.sweethome3d.model.Polyline;
 import com.eteks.sweethome3d.model.Wall;
 import com.eteks.sweethome3d.tools.URLContent;
 
@@ -187,6 +194,240 @@ public class HomeTest extends TestCase {
     assertEquals("Wrong property property name", "prop", propertyName.get());
   }
 
+  public void testTransactionEventsCoalescing() {
+    Home home = new Home();
+    Label label = new Label("Text", 0, 0);
+    home.addLabel(label);
+    final List<PropertyChangeEvent> labelEvents = new ArrayList<PropertyChangeEvent>();
+    label.addPropertyChangeListener(new PropertyChangeListener() {
+        public void propertyChange(PropertyChangeEvent ev) {
+          labelEvents.add(ev);
+        }
+      });
+    final List<CollectionEvent<Wall>> wallEvents = new ArrayList<CollectionEvent<Wall>>();
+    home.addWallsListener(new BulkCollectionListener<Wall>() {
+        public void collectionChanged(CollectionEvent<Wall> ev) {
+          wallEvents.add(ev);
+        }
+      });
+
+    home.beginTransaction();
+    label.setX(10);
+    label.setX(20);
+    label.setX(30);
+    label.setY(10);
+    label.setY(0);
+    Wall wall1 = new Wall(0, 0, 100, 0, 10, 250);
+    Wall wall2 = new Wall(100, 0, 100, 100, 10, 250);
+    home.addWall(wall1);
+    home.addWall(wall2);
+    assertTrue("Events not buffered", labelEvents.isEmpty() && wallEvents.isEmpty());
+    home.commitTransaction();
+
+    // Check successive changes were coalesced and changes back to initial value ignored
+    assertEquals("Wrong count of label events", 1, labelEvents.size());
+    assertEquals("Wrong property", Label.Property.X.name(), labelEvents.get(0).getPropertyName());
+    assertEquals("Wrong old value", 0f, labelEvents.get(0).getOldValue());
+    assertEquals("Wrong new value", 30f, labelEvents.get(0).getNewValue());
+    // Check added walls were notified in one event
+    assertEquals("Wrong count of wall events", 1, wallEvents.size());
+    assertWallCollectionContains(wallEvents.get(0).getItems(), wall1, wall2);
+  }
+
+  public void testNestedTransactions() {
+    Home home = new Home();
+    Label label = new Label("Text", 0, 0);
+    home.addLabel(label);
+    Home otherHome = new Home();
+    Label otherLabel = new Label("Other text", 0, 0);
+    otherHome.addLabel(otherLabel);
+    final List<Object> changedObjects = new ArrayList<Object>();
+    PropertyChangeListener listener = new PropertyChangeListener() {
+        public void propertyChange(PropertyChangeEvent ev) {
+          changedObjects.add(ev.getSource());
+        }
+      };
+    label.addPropertyChangeListener(listener);
+    otherLabel.addPropertyChangeListener(listener);
+
+    home.beginTransaction();
+    home.beginTransaction();
+    label.setText("Text2");
+    // Check the items of other homes aren't concerned by the transaction
+    otherLabel.setText("Other text2");
+    assertFalse("Transaction in progress in other home", otherHome.isTransactionInProgress());
+    assertEquals("Other home event not delivered", 1, changedObjects.size());
+    assertSame("Wrong changed object", otherLabel, changedObjects.get(0));
+    // Check the transaction is bound to the current thread
+    final boolean [] transactionInOtherThread = {true};
+    final Home transactionHome = home;
+    Thread otherThread = new Thread() {
+        public void run() {
+          transactionInOtherThread [0] = transactionHome.isTransactionInProgress();
+        }
+      };
+    otherThread.start();
+    try {
+      otherThread.join();
+    } catch (InterruptedException ex) {
+      fail(ex.getMessage());
+    }
+    assertFalse("Transaction in progress in other thread", transactionInOtherThread [0]);
+    home.commitTransaction();
+    assertTrue("No transaction in progress", home.isTransactionInProgress());
+    assertEquals("Event delivered before outermost commit", 1, changedObjects.size());
+    home.commitTransaction();
+    assertFalse("Transaction in progress", home.isTransactionInProgress());
+    assertEquals("Event not delivered", 2, changedObjects.size());
+    assertSame("Wrong changed object", label, changedObjects.get(1));
+    try {
+      home.commitTransaction();
+      fail("Commit out of transaction accepted");
+    } catch (IllegalStateException ex) {
+      // Expected exception
+    }
+  }
+
+  public void testImmediateListeners() {
+    Home home = new Home();
+    Level level0 = new Level("Level 0", 0, 12, 250);
+    Level level1 = new Level("Level 1", 250, 12, 250);
+    home.addLevel(level0);
+    home.addLevel(level1);
+    final List<PropertyChangeEvent> levelEvents = new ArrayList<PropertyChangeEvent>();
+    level0.addPropertyChangeListener(new PropertyChangeListener() {
+        public void propertyChange(PropertyChangeEvent ev) {
+          levelEvents.add(ev);
+        }
+      });
+
+    home.beginTransaction();
+    level0.setElevation(500);
+    // Check levels order was updated by the immediate listener of home while other listeners wait
+    assertSame("Levels not sorted during transaction", level1, home.getLevels().get(0));
+    assertTrue("Level event not buffered", levelEvents.isEmpty());
+    home.commitTransaction();
+    assertEquals("Level event not delivered", 1, levelEvents.size());
+  }
+
+  public void testFurnitureDeletionIndices() {
+    Home home = new Home();
+    List<HomePieceOfFurniture> pieces = new ArrayList<HomePieceOfFurniture>();
+    for (int i = 0; i < 6; i++) {
+      HomePieceOfFurniture piece = new HomePieceOfFurniture(
+          new CatalogPieceOfFurniture("Piece " + i, null, null, 10, 10, 10, true, false));
+      home.addPieceOfFurniture(piece);
+      pieces.add(piece);
+    }
+    final List<CollectionEvent<HomePieceOfFurniture>> furnitureEvents =
+        new ArrayList<CollectionEvent<HomePieceOfFurniture>>();
+    home.addFurnitureListener(new BulkCollectionListener<HomePieceOfFurniture>() {
+        public void collectionChanged(CollectionEvent<HomePieceOfFurniture> ev) {
+          furnitureEvents.add(ev);
+        }
+      });
+
+    // Delete one piece
+    home.deleteFurniture(Arrays.asList(pieces.get(1)));
+    assertEquals("Wrong count of events", 1, furnitureEvents.size());
+    assertEquals("Wrong index", 1, furnitureEvents.get(0).getIndex());
+    assertSame("Wrong piece", pieces.get(1), furnitureEvents.get(0).getItem());
+
+    // Delete two sequences of pieces among the 5 remaining pieces
+    furnitureEvents.clear();
+    home.deleteFurniture(Arrays.asList(pieces.get(5), pieces.get(2), pieces.get(3)));
+    assertEquals("Wrong count of events", 2, furnitureEvents.size());
+    assertEquals("Wrong index", 1, furnitureEvents.get(0).getIndex());
+    assertEquals("Wrong count of pieces", 2, furnitureEvents.get(0).getItems().size());
+    assertEquals("Wrong index", 2, furnitureEvents.get(1).getIndex());
+    assertSame("Wrong piece", pieces.get(5), furnitureEvents.get(1).getItem());
+    assertEquals("Wrong furniture", Arrays.asList(pieces.get(0), pieces.get(4)), home.getFurniture());
+  }
+
+  public void testItemsAtLevel() {
+    Home home = new Home();
+    Level level0 = new Level("Level 0", 0, 12, 250);
+    Level level1 = new Level("Level 1", 250, 12, 250);
+    home.addLevel(level0);
+    home.addLevel(level1);
+    Wall wall1 = new Wall(0, 0, 100, 0, 10, 250);
+    Wall wall2 = new Wall(100, 0, 100, 100, 10, 250);
+    Wall wall3 = new Wall(100, 100, 0, 100, 10, 250);
+    // Walls and pieces are added at selected level
+    home.setSelectedLevel(level0);
+    home.addWalls(Arrays.asList(wall1, wall2, wall3));
+    wall3.setLevel(level1);
+    List<Wall> level0Walls = home.getWallsAtLevel(level0);
+    assertEquals("Wrong walls at level 0", Arrays.asList(wall1, wall2), level0Walls);
+    assertEquals("Wrong walls at level 1", Arrays.asList(wall3), home.getWallsAtLevel(level1));
+
+    // Check added items are found at their level in home order
+    Wall wall4 = new Wall(0, 100, 0, 0, 10, 250);
+    home.setSelectedLevel(level1);
+    home.addWall(wall4);
+    home.setSelectedLevel(level0);
+    assertEquals("Wrong walls at level 1", Arrays.asList(wall3, wall4), home.getWallsAtLevel(level1));
+    assertSame("List of level 0 updated", level0Walls, home.getWallsAtLevel(level0));
+    HomePieceOfFurniture piece1 = new HomePieceOfFurniture(
+        new CatalogPieceOfFurniture("Piece 1", null, null, 10, 10, 10, true, false));
+    HomePieceOfFurniture piece2 = new HomePieceOfFurniture(
+        new CatalogPieceOfFurniture("Piece 2", null, null, 10, 10, 10, true, false));
+    home.addPieceOfFurniture(piece1);
+    assertEquals("Wrong furniture at level 0", Arrays.asList(piece1), home.getFurnitureAtLevel(level0));
+    home.addPieceOfFurniture(piece2, 0);
+    assertEquals("Wrong furniture at level 0", Arrays.asList(piece2, piece1), home.getFurnitureAtLevel(level0));
+
+    // Check deleted items are removed from their level without changing returned lists
+    home.deleteWalls(Arrays.asList(wall1, wall3));
+    assertEquals("Wrong walls at level 0", Arrays.asList(wall2), home.getWallsAtLevel(level0));
+    assertEquals("Wrong walls at level 1", Arrays.asList(wall4), home.getWallsAtLevel(level1));
+    assertEquals("Returned list changed", Arrays.asList(wall1, wall2), level0Walls);
+
+    // Check items changing of level are moved
+    wall2.setLevel(level1);
+    assertTrue("Wrong walls at level 0", home.getWallsAtLevel(level0).isEmpty());
+    assertEquals("Wrong walls at level 1", Arrays.asList(wall2, wall4), home.getWallsAtLevel(level1));
+    // Check a piece higher than its level is found at upper level too
+    assertTrue("Wrong furniture at level 1", home.getFurnitureAtLevel(level1).isEmpty());
+    piece1.setHeightInPlan(300);
+    assertEquals("Wrong furniture at level 0", Arrays.asList(piece2, piece1), home.getFurnitureAtLevel(level0));
+    assertEquals("Wrong furniture at level 1", Arrays.asList(piece1), home.getFurnitureAtLevel(level1));
+    piece1.setHeightInPlan(10);
+    assertTrue("Wrong furniture at level 1", home.getFurnitureAtLevel(level1).isEmpty());
+    // Check level elevation changes are taken into account
+    level1.setElevation(5);
+    assertEquals("Wrong furniture at level 1", Arrays.asList(piece2, piece1), home.getFurnitureAtLevel(level1));
+
+    // Check items inserted many times at the same index are kept in home order
+    home.setSelectedLevel(level1);
+    List<HomePieceOfFurniture> furniture = new ArrayList<HomePieceOfFurniture>(home.getFurniture());
+    for (int i = 0; i < 100; i++) {
+      HomePieceOfFurniture piece = new HomePieceOfFurniture(
+          new CatalogPieceOfFurniture("Piece", null, null, 10, 10, 10, true, false));
+      home.addPieceOfFurniture(piece, 1);
+      furniture.add(1, piece);
+      if (i % 10 == 0) {
+        assertEquals("Wrong furniture at level 1", furniture, home.getFurnitureAtLevel(level1));
+      }
+    }
+    assertEquals("Wrong furniture at level 1", furniture, home.getFurnitureAtLevel(level1));
+    // Check pieces added to groups aren't listed
+    HomeFurnitureGroup group = new HomeFurnitureGroup(Arrays.asList(piece2), "Group");
+    home.deletePieceOfFurniture(piece2);
+    home.addPieceOfFurniture(group, 0);
+    HomePieceOfFurniture groupPiece = new HomePieceOfFurniture(
+        new CatalogPieceOfFurniture("Group piece", null, null, 10, 10, 10, true, false));
+    home.addPieceOfFurnitureToGroup(groupPiece, group, 0);
+    assertEquals("Wrong furniture at level 1", home.getFurniture(), home.getFurnitureAtLevel(level1));
+    // Check items inserted at an index not given in events are kept in home order
+    Polyline polyline1 = new Polyline(new float [][] {{0, 0}, {100, 100}});
+    Polyline polyline2 = new Polyline(new float [][] {{0, 100}, {100, 0}});
+    home.addPolyline(polyline1);
+    assertEquals("Wrong polylines at level 1", Arrays.asList(polyline1), home.getPolylinesAtLevel(level1));
+    home.addPolyline(polyline2, 0);
+    assertEquals("Wrong polylines at level 1", Arrays.asList(polyline2, polyline1), home.getPolylinesAtLevel(level1));
+  }
+
   private void assertWallCollectionContains(Collection<Wall> wallCollection, Wall ... walls) {
     assertEquals("Walls incorrect count", walls.length, wallCollection.size());
     for (Wall wall : walls) {
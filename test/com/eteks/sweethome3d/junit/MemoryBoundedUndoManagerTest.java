@@ -0,0 +1,336 @@
+/*
+ * MemoryBoundedUndoManagerTest.java 19 oct. 2026
+ *
+ * Copyright (c) 2024 Space Mushrooms <info@sweethome3d.com>
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 59 Temple
+ * Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+package com.eteks.sweethome3d.junit;
+
+import java.awt.EventQueue;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.swing.undo.AbstractUndoableEdit;
+
+import junit.framework.TestCase;
+
+import com.eteks.sweethome3d.model.Home;
+import com.eteks.sweethome3d.model.Wall;
+import com.eteks.sweethome3d.viewcontroller.MemoryBoundedUndoManager;
+
+/**
+ * Tests the undo manager which saves older edits in temporary files.
+ * @author Emmanuel Puybaret
+ */
+public class MemoryBoundedUndoManagerTest extends TestCase {
+  private Home                     home;
+  private MemoryBoundedUndoManager undoManager;
+  private List<Wall>               walls;
+
+  public void testSavedEdits() throws InterruptedException, InvocationTargetException {
+    // Modify home and add edits in Event Dispatch Thread where their size is evaluated
+    runInEventDispatchThread(new Runnable() {
+        public void run() {
+          home = new Home();
+          // Use a tiny memory budget to save all the edits that can be undone
+          undoManager = new MemoryBoundedUndoManager(home, 1);
+          walls = new ArrayList<Wall>();
+          addWalls(0, 5);
+          // Modify last wall and delete it with an other edit
+          Wall lastWall = walls.get(4);
+          lastWall.setXEnd(600);
+          home.deleteWall(lastWall);
+          undoManager.addEdit(new WallDeletionEdit(home, lastWall));
+        }
+      });
+    // Check edits once their size was evaluated
+    runInEventDispatchThread(new Runnable() {
+        public void run() {
+          assertTrue("No edit saved", undoManager.getSavedBatchCount() > 0);
+
+          // Undo deletion and check the deleted wall is restored
+          // (as it didn't belong to home anymore, it was saved by value)
+          undoManager.undo();
+          assertEquals("Wrong wall count", 5, home.getWalls().size());
+          Wall lastWall = new ArrayList<Wall>(home.getWalls()).get(4);
+          walls.set(4, lastWall);
+          assertEquals("Wrong end point", 600f, lastWall.getXEnd());
+          // Undo all additions
+          for (int i = 4; i >= 0; i--) {
+            undoManager.undo();
+            assertEquals("Wrong wall count", i, home.getWalls().size());
+            assertFalse("Wall not deleted", home.getWalls().contains(walls.get(i)));
+          }
+          assertFalse("Undo still possible", undoManager.canUndo());
+
+          // Redo all edits and check home walls are the ones referenced by saved edits
+          for (int i = 0; i < 5; i++) {
+            undoManager.redo();
+            assertSame("Wrong added wall", walls.get(i), new ArrayList<Wall>(home.getWalls()).get(i));
+          }
+          undoManager.redo();
+          assertEquals("Wrong wall count", 4, home.getWalls().size());
+          assertFalse("Redo still possible", undoManager.canRedo());
+        }
+      });
+  }
+
+  public void testTrimmedEdits() throws InterruptedException, InvocationTargetException {
+    runInEventDispatchThread(new Runnable() {
+        public void run() {
+          home = new Home();
+          undoManager = new MemoryBoundedUndoManager(home, 1);
+          undoManager.setLimit(5);
+          walls = new ArrayList<Wall>();
+          addWalls(0, 5);
+        }
+      });
+    // Add an other edit once the first ones were saved to make the oldest one die
+    runInEventDispatchThread(new Runnable() {
+        public void run() {
+          assertTrue("No edit saved", undoManager.getSavedBatchCount() > 0);
+          addWalls(5, 6);
+        }
+      });
+    runInEventDispatchThread(new Runnable() {
+        public void run() {
+          // Check the edits still alive are undone in the right order
+          for (int i = 5; i >= 1; i--) {
+            assertTrue("Undo impossible", undoManager.canUndo());
+            undoManager.undo();
+            assertEquals("Wrong wall count", i, home.getWalls().size());
+            assertFalse("Wall not deleted", home.getWalls().contains(walls.get(i)));
+          }
+          assertFalse("Undo still possible", undoManager.canUndo());
+          assertTrue("Trimmed edit undone", home.getWalls().contains(walls.get(0)));
+          assertNull("Unexpected read exception", undoManager.getReadException());
+        }
+      });
+  }
+
+  public void testLostEdits() throws InterruptedException, InvocationTargetException {
+    runInEventDispatchThread(new Runnable() {
+        public void run() {
+          home = new Home();
+          undoManager = new MemoryBoundedUndoManager(home, 1);
+          walls = new ArrayList<Wall>();
+          // Add an edit that can be saved but not read
+          undoManager.addEdit(new UnreadableEdit());
+          addWalls(0, 2);
+        }
+      });
+    // Add other edits once the first ones were saved
+    runInEventDispatchThread(new Runnable() {
+        public void run() {
+          assertEquals("Wrong saved batch count", 1, undoManager.getSavedBatchCount());
+          addWalls(2, 4);
+        }
+      });
+    runInEventDispatchThread(new Runnable() {
+        public void run() {
+          assertEquals("Wrong saved batch count", 2, undoManager.getSavedBatchCount());
+          undoManager.undo();
+          undoManager.undo();
+          assertEquals("Wrong wall count", 2, home.getWalls().size());
+          assertNull("Unexpected read exception", undoManager.getReadException());
+          // Check older edits can't be undone once their batch couldn't be read,
+          // but that the failure is reported and the edits are kept
+          assertFalse("Undo still possible", undoManager.canUndo());
+          assertTrue("Read failure not reported", undoManager.getReadException() instanceof InvalidObjectException);
+          assertEquals("Wrong saved batch count", 1, undoManager.getSavedBatchCount());
+          assertTrue("Redo impossible", undoManager.canRedo());
+          undoManager.redo();
+          undoManager.redo();
+          assertEquals("Wrong wall count", 4, home.getWalls().size());
+          assertFalse("Redo still possible", undoManager.canRedo());
+        }
+      });
+  }
+
+  public void testUnsavedEdits() throws InterruptedException, InvocationTargetException {
+    runInEventDispatchThread(new Runnable() {
+        public void run() {
+          home = new Home();
+          undoManager = new MemoryBoundedUndoManager(home, 1);
+          walls = new ArrayList<Wall>();
+          // Add an edit that can't be written
+          undoManager.addEdit(new UnwritableEdit());
+          addWalls(0, 2);
+        }
+      });
+    runInEventDispatchThread(new Runnable() {
+        public void run() {
+          // Check the edits are kept in memory once their batch couldn't be written
+          assertEquals("Wrong saved batch count", 0, undoManager.getSavedBatchCount());
+          assertTrue("Edits not evaluated", undoManager.getMemorySize() > 0);
+          undoManager.undo();
+          undoManager.undo();
+          assertEquals("Wrong wall count", 0, home.getWalls().size());
+          assertTrue("Undo impossible", undoManager.canUndo());
+          undoManager.undo();
+          assertFalse("Undo still possible", undoManager.canUndo());
+        }
+      });
+  }
+
+  public void testDiscardedEdits() throws InterruptedException, InvocationTargetException {
+    runInEventDispatchThread(new Runnable() {
+        public void run() {
+          home = new Home();
+          undoManager = new MemoryBoundedUndoManager(home, 1);
+          walls = new ArrayList<Wall>();
+          addWalls(0, 3);
+        }
+      });
+    runInEventDispatchThread(new Runnable() {
+        public void run() {
+          assertTrue("No edit saved", undoManager.getSavedBatchCount() > 0);
+          List<?> wallsListeners = getWallsListeners(home);
+          // Check edits are deleted and home listeners removed once edits are discarded
+          undoManager.discardAllEdits();
+          assertEquals("Wrong saved batch count", 0, undoManager.getSavedBatchCount());
+          assertEquals("Home listener not removed", wallsListeners.size() - 1, getWallsListeners(home).size());
+          // Check the manager can be used again
+          addWalls(3, 4);
+          assertEquals("Home listener not added", wallsListeners.size(), getWallsListeners(home).size());
+          undoManager.undo();
+          assertEquals("Wrong wall count", 3, home.getWalls().size());
+        }
+      });
+  }
+
+  private List<?> getWallsListeners(Home home) {
+    try {
+      Object wallsChangeSupport = TestUtilities.getField(home, "wallsChangeSupport");
+      return new ArrayList<Object>((List<?>)TestUtilities.getField(wallsChangeSupport, "collectionListeners"));
+    } catch (NoSuchFieldException ex) {
+      throw new RuntimeException(ex);
+    } catch (IllegalAccessException ex) {
+      throw new RuntimeException(ex);
+    }
+  }
+
+  /**
+   * Adds walls to home with their edit.
+   */
+  private void addWalls(int fromIndex, int toIndex) {
+    for (int i = fromIndex; i < toIndex; i++) {
+      Wall wall = new Wall(i * 100, 0, (i + 1) * 100, 0, 10, 250);
+      this.home.addWall(wall);
+      this.undoManager.addEdit(new WallAdditionEdit(this.home, wall));
+      this.walls.add(wall);
+    }
+  }
+
+  /**
+   * Runs the given <code>runnable</code> in Event Dispatch Thread, after the tasks already posted
+   * in its queue like the evaluation of edits size, and rethrows its failures.
+   */
+  private void runInEventDispatchThread(Runnable runnable) throws InterruptedException, InvocationTargetException {
+    try {
+      EventQueue.invokeAndWait(runnable);
+    } catch (InvocationTargetException ex) {
+      if (ex.getCause() instanceof Error) {
+        throw (Error)ex.getCause();
+      } else if (ex.getCause() instanceof RuntimeException) {
+        throw (RuntimeException)ex.getCause();
+      } else {
+        throw ex;
+      }
+    }
+  }
+
+  /**
+   * An edit for a wall added to home.
+   */
+  private static class WallAdditionEdit extends AbstractUndoableEdit {
+    private static final long serialVersionUID = 1L;
+
+    private final Home home;
+    private final Wall wall;
+
+    public WallAdditionEdit(Home home, Wall wall) {
+      this.home = home;
+      this.wall = wall;
+    }
+
+    @Override
+    public void undo() {
+      super.undo();
+      this.home.deleteWall(this.wall);
+    }
+
+    @Override
+    public void redo() {
+      super.redo();
+      this.home.addWall(this.wall);
+    }
+  }
+
+  /**
+   * An edit for a wall deleted from home.
+   */
+  private static class WallDeletionEdit extends AbstractUndoableEdit {
+    private static final long serialVersionUID = 1L;
+
+    private final Home home;
+    private final Wall wall;
+
+    public WallDeletionEdit(Home home, Wall wall) {
+      this.home = home;
+      this.wall = wall;
+    }
+
+    @Override
+    public void undo() {
+      super.undo();
+      this.home.addWall(this.wall);
+    }
+
+    @Override
+    public void redo() {
+      super.redo();
+      this.home.deleteWall(this.wall);
+    }
+  }
+
+  /**
+   * An edit which can't be saved.
+   */
+  private static class UnwritableEdit extends AbstractUndoableEdit {
+    private static final long serialVersionUID = 1L;
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+      throw new InvalidObjectException("Unwritable edit");
+    }
+  }
+
+  /**
+   * An edit which can't be read once saved.
+   */
+  private static class UnreadableEdit extends AbstractUndoableEdit {
+    private static final long serialVersionUID = 1L;
+
+    private void readObject(ObjectInputStream in) throws IOException {
+      throw new InvalidObjectException("Unreadable edit");
+    }
+  }
+}
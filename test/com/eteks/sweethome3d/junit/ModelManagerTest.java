@@ -19,18 +19,63 @@
  */
 package com.eteks.sweethome3d.junit;
 
+import java.awt.image.BufferedImage;
+import java.awt.image.RenderedImage;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLConnection;
+import java.net.URLStreamHandler;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
+import javax.imageio.ImageIO;
+
+import javax.media.j3d.Appearance;
 import javax.media.j3d.BranchGroup;
+import javax.media.j3d.GeometryArray;
 import javax.media.j3d.Group;
+import javax.media.j3d.ImageComponent2D;
+import javax.media.j3d.IndexedGeometryArray;
 import javax.media.j3d.Link;
+import javax.media.j3d.Material;
 import javax.media.j3d.Node;
+import javax.media.j3d.PolygonAttributes;
 import javax.media.j3d.Shape3D;
+import javax.media.j3d.Texture;
+import javax.vecmath.Color3f;
+import javax.vecmath.Point3f;
 
 import junit.framework.TestCase;
 
+import com.eteks.sweethome3d.j3d.DAELoader;
+import com.eteks.sweethome3d.j3d.Max3DSLoader;
 import com.eteks.sweethome3d.j3d.ModelManager;
+import com.eteks.sweethome3d.j3d.OBJLoader;
 import com.eteks.sweethome3d.tools.URLContent;
 
 /**
@@ -44,12 +89,702 @@ public class ModelManagerTest extends TestCase {
     assertTrue("Model shouldn't be empty", getShapesCount(model) > 0);
   }
 
+  /**
+   * Checks the coordinates of a small DAE file written with various number formats.
+   */
+  public void testDAELoaderCoordinates() throws IOException {
+    String [] numbers = {"0.5", "-1.25e1", "3", "+4", "0.001", "-0", "1E2", "7.125", "-.3"};
+    File daeFile = File.createTempFile("triangle", ".dae");
+    daeFile.deleteOnExit();
+    Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(daeFile), "UTF-8"));
+    writer.write("<?xml version='1.0' encoding='utf-8'?>\n"
+        + "<COLLADA xmlns='http://www.collada.org/2005/11/COLLADASchema' version='1.4.1'>\n"
+        + "<asset><up_axis>Y_UP</up_axis></asset>\n"
+        + "<library_geometries><geometry id='triangle'><mesh>\n"
+        + "<source id='triangle-positions'><float_array id='triangle-positions-array' count='9'>\n");
+    for (String number : numbers) {
+      writer.write(number + "\n");
+    }
+    writer.write("</float_array><technique_common><accessor source='#triangle-positions-array' count='3' stride='3'/></technique_common></source>\n"
+        + "<vertices id='triangle-vertices'><input semantic='POSITION' source='#triangle-positions'/></vertices>\n"
+        + "<triangles count='1'><input semantic='VERTEX' source='#triangle-vertices' offset='0'/><p>0 1 2</p></triangles>\n"
+        + "</mesh></geometry></library_geometries>\n"
+        + "<library_visual_scenes><visual_scene id='scene'><node id='node'><instance_geometry url='#triangle'/></node></visual_scene></library_visual_scenes>\n"
+        + "<scene><instance_visual_scene url='#scene'/></scene>\n"
+        + "</COLLADA>\n");
+    writer.close();
+
+    BranchGroup model = new DAELoader().load(daeFile.toURI().toURL()).getSceneGroup();
+    List<Point3f> coordinates = new ArrayList<Point3f>();
+    getCoordinates(model, coordinates);
+    assertEquals("Incorrect vertex count", 3, coordinates.size());
+    for (int i = 0; i < numbers.length; i += 3) {
+      Point3f expectedPoint = new Point3f(Float.parseFloat(numbers [i]),
+          Float.parseFloat(numbers [i + 1]), Float.parseFloat(numbers [i + 2]));
+      assertTrue("Missing point " + expectedPoint, coordinates.contains(expectedPoint));
+    }
+  }
+
   public void testOBJLoader() throws IOException {
     BranchGroup model = ModelManager.getInstance().loadModel(
         new URLContent(ModelManagerTest.class.getResource("resources/test.obj")));
     assertTrue("Model shouldn't be empty", getShapesCount(model) > 0);
   }
-  
+
+  /**
+   * Checks OBJ files parsed from their bytes give the same models as OBJ files parsed
+   * with a tokenizer from a reader.
+   */
+  public void testOBJLoaderScanner() throws IOException {
+    File objFile = File.createTempFile("model", ".obj");
+    objFile.deleteOnExit();
+    Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(objFile), "UTF-8"));
+    writer.write("# Comment line\n"
+        + "v 0 0 0\n"
+        + "v 1.5 0 0\r\n"
+        + "v 1.5e0 2.25E+1 -0.125\n"
+        + "v 0 2.25e1 \\\n"
+        + "  3.0e-2\n"
+        + "v -1.2345678e-3 .5 12345.678\r\n"
+        + "v 1e10 -2.5E-10 0.1\n"
+        + "vt 0 0\nvt 1 0\nvt 1 1\nvt 0.5e0 1\n"
+        + "vn 0 0 1\nvn 0 1e0 0\n"
+        + "\n"
+        + "g first\n"
+        + "usemtl amber\n"
+        + "f 1/1/1 2/2/1 3/3/1 4/4/1\n"
+        + "f 1/1/2 \\ \n"
+        + "  3/3/2 5/4/2\n"
+        + "# Comment between faces\n"
+        + "s 1\n"
+        + "f -3 -2 -1\n"
+        + "g second\n"
+        + "usemtl pale_green\n"
+        + "s off\n"
+        + "f 2//1 3//1 6//1\n"
+        + "f -6/-4 -5/-3 -4/-2\n"
+        + "l 1 2 3\n");
+    writer.close();
+
+    OBJLoader scannerLoader = new OBJLoader();
+    scannerLoader.setParallelParsingMinimumSize(Long.MAX_VALUE);
+    BranchGroup scannedModel = scannerLoader.load(objFile.getPath()).getSceneGroup();
+    assertTrue("Incorrect shapes count", getShapesCount(scannedModel) >= 4);
+    BranchGroup tokenizedModel = new OBJLoader().load(
+        new InputStreamReader(new FileInputStream(objFile), "UTF-8")).getSceneGroup();
+    assertSameShapes(tokenizedModel, scannedModel);
+    List<Point3f> coordinates = new ArrayList<Point3f>();
+    getCoordinates(scannedModel, coordinates);
+    assertTrue("Missing continued vertex", coordinates.contains(new Point3f(0, 22.5f, 0.03f)));
+    assertTrue("Missing exponent vertex", coordinates.contains(new Point3f(1e10f, -2.5E-10f, 0.1f)));
+  }
+
+  /**
+   * Checks OBJ files split in chunks parsed in parallel give the same models as sequential parsing,
+   * when they're read from a file, from a zip entry and from a stream of unknown length.
+   */
+  public void testOBJLoaderParallelParsing() throws IOException {
+    File folder = File.createTempFile("model", "");
+    folder.delete();
+    folder.mkdir();
+    Writer writer = new OutputStreamWriter(new FileOutputStream(new File(folder, "model.mtl")), "UTF-8");
+    writer.write("newmtl mat0\nKd 1 0 0\nnewmtl mat1\nKd 0 1 0\nnewmtl mat2\nKd 0 0 1\nd 0.5\n");
+    writer.close();
+    try {
+      // Split files of different sizes to change where chunks start
+      for (int sectionCount : new int [] {301, 500, 1003}) {
+        final File objFile = new File(folder, "model.obj");
+        writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(objFile), "UTF-8"));
+        writer.write("# Generated model\nmtllib model.mtl\n");
+        for (int i = 0; i < sectionCount; i++) {
+          writer.write("# Section " + i + "\n");
+          if (i % 7 != 3) {
+            writer.write("g group" + (i % 5) + "\n");
+          }
+          if (i % 4 != 1) {
+            writer.write("usemtl mat" + (i % 3) + "\n");
+          }
+          if (i % 3 == 0) {
+            writer.write(i % 2 == 0 ? "s 1\n" : "s off\n");
+          }
+          writer.write("v " + i + " 0 0\nv " + (i + 1) + " 0.5e-1 0\n"
+              + "v " + (i + 1) + " 1 -" + i + "E1\nv " + i + " 1 0\r\n");
+          writer.write("vt 0 0\nvt 1 0\nvt 1 1\nvt 0 1\nvn 0 0 1\n");
+          writer.write("f -4/-4/-1 -3/-3/-1 -2/-2/-1 -1/-1/-1\n");
+          writer.write("f 1/1 \\\n  2/2 \\ \n " + (i * 4 + 3) + "/3\n");
+          writer.write("f -4//-1 -2//-1 -1//-1\n");
+          if (i % 10 == 9) {
+            writer.write("l -4 -3 -2\n");
+          }
+        }
+        writer.close();
+
+        OBJLoader sequentialLoader = new OBJLoader();
+        sequentialLoader.setParallelParsingMinimumSize(Long.MAX_VALUE);
+        BranchGroup sequentialModel = sequentialLoader.load(objFile.getPath()).getSceneGroup();
+        assertTrue("Model shouldn't be empty", getShapesCount(sequentialModel) > 5);
+
+        OBJLoader fileLoader = new OBJLoader();
+        fileLoader.setParallelParsingMinimumSize(0L);
+        assertSameShapes(sequentialModel, fileLoader.load(objFile.getPath()).getSceneGroup());
+
+        File zipFile = new File(folder, "model.zip");
+        ZipOutputStream out = new ZipOutputStream(new FileOutputStream(zipFile));
+        for (String name : new String [] {"model.obj", "model.mtl"}) {
+          out.putNextEntry(new ZipEntry(name));
+          InputStream in = new FileInputStream(new File(folder, name));
+          byte [] buffer = new byte [8192];
+          int size;
+          while ((size = in.read(buffer)) != -1) {
+            out.write(buffer, 0, size);
+          }
+          in.close();
+        }
+        out.close();
+        OBJLoader zipLoader = new OBJLoader();
+        zipLoader.setParallelParsingMinimumSize(0L);
+        zipLoader.setUseCaches(false);
+        assertSameShapes(sequentialModel, zipLoader.load(
+            new URL("jar:" + zipFile.toURI().toURL() + "!/model.obj")).getSceneGroup());
+
+        // Read the file from a URL connection which doesn't give its length
+        URL streamUrl = new URL(null, "stream:model.obj", new URLStreamHandler() {
+            @Override
+            protected URLConnection openConnection(URL url) throws IOException {
+              return new URLConnection(url) {
+                  @Override
+                  public void connect() {
+                  }
+
+                  @Override
+                  public InputStream getInputStream() throws IOException {
+                    return new FileInputStream(objFile);
+                  }
+                };
+            }
+          });
+        OBJLoader streamLoader = new OBJLoader();
+        streamLoader.setParallelParsingMinimumSize(1000L);
+        streamLoader.setBaseUrl(folder.toURI().toURL());
+        assertSameShapes(sequentialModel, streamLoader.load(streamUrl).getSceneGroup());
+      }
+    } finally {
+      for (File file : folder.listFiles()) {
+        file.delete();
+      }
+      folder.delete();
+    }
+  }
+
+  /**
+   * Checks the geometries and materials of a small 3DS file match the ones computed
+   * when the loader read 3DS chunks from a data stream.
+   */
+  public void testMax3DSLoader() throws IOException {
+    File max3dsFile = File.createTempFile("quad", ".3ds");
+    max3dsFile.deleteOnExit();
+    OutputStream out = new FileOutputStream(max3dsFile);
+    out.write(get3DSChunk(0x4D4D, // M3DMAGIC
+        get3DSChunk(0x0002, 3),   // M3D_VERSION
+        get3DSChunk(0x3D3D,       // EDITOR_DATA
+            get3DSChunk(0x3D3E, 3),  // MESH_VERSION
+            get3DSChunk(0x0100, 1f), // MASTER_SCALE
+            get3DSChunk(0xAFFF,      // MATERIAL_ENTRY
+                get3DSChunk(0xA000, "red"),
+                get3DSChunk(0xA010, get3DSChunk(0x0011, new byte [] {51, 0, 0})),
+                get3DSChunk(0xA020, get3DSChunk(0x0011, new byte [] {(byte)255, 0, 0}),
+                    get3DSChunk(0x0012, new byte [] {(byte)204, 0, 0})),
+                get3DSChunk(0xA030, get3DSChunk(0x0010, 0.5f, 0.5f, 0.5f)),
+                get3DSChunk(0xA040, get3DSChunk(0x0030, (short)40)),
+                get3DSChunk(0xA050, get3DSChunk(0x0031, 0.25f)),
+                get3DSChunk(0xA081),
+                get3DSChunk(0xA100, (short)3)),
+            get3DSChunk(0xAFFF,
+                get3DSChunk(0xA000, "blue"),
+                get3DSChunk(0xA020, get3DSChunk(0x0010, 0f, 0f, 1f))),
+            get3DSChunk(0x4000, "quad", // NAMED_OBJECT
+                get3DSChunk(0x4100,     // TRIANGLE_MESH_OBJECT
+                    get3DSChunk(0x4110, (short)5, new float [] {0, 0, 0,  2, 0, 0,  2, 0, 1.5f,  0, 0, 1.5f,  1, -1, 0.75f}),
+                    get3DSChunk(0x4140, (short)5, new float [] {0, 0,  1, 0,  1, 1,  0, 1,  0.5f, 0.5f}),
+                    get3DSChunk(0x4160, new float [] {1, 0, 0,  0, 1, 0,  0, 0, 1,  0, 0, 0}),
+                    get3DSChunk(0x4120, (short)3, new short [] {0, 1, 2, 7,  0, 2, 3, 7,  0, 4, 1, 7},
+                        get3DSChunk(0x4130, "red", (short)2, new short [] {0, 1}),
+                        get3DSChunk(0x4130, "blue", (short)1, new short [] {2}),
+                        get3DSChunk(0x4150, new int [] {1, 1, 2})))))));
+    out.close();
+
+    BranchGroup model = new Max3DSLoader().load(max3dsFile.toURI().toURL()).getSceneGroup();
+    List<Shape3D> shapes = new ArrayList<Shape3D>();
+    getShapes(model, shapes);
+    assertEquals("Incorrect shapes count", 2, shapes.size());
+    Shape3D blueShape = shapes.get(0);
+    Shape3D redShape = shapes.get(1);
+    if ("red".equals(blueShape.getAppearance().getName())) {
+      blueShape = shapes.get(1);
+      redShape = shapes.get(0);
+    }
+    // Expected values computed by the loader reading chunks from a stream
+    assertTrue("Incorrect blue vertices", Arrays.equals(new float [] {
+        0, 0, 0, 0.6f, 0.8f, 0,  0, 0, 0.5f, 0.5f, 0, 0.6f, 0.8000001f, 1, -1, 0.75f,  1, 0, 0, 0.6f, 0.8f, 2, 0, 0},
+        getVertices((GeometryArray)blueShape.getGeometry())));
+    assertTrue("Incorrect red vertices", Arrays.equals(new float [] {
+        0, 0, 0, -1, 0, 0,  0, 0, 1, 0, 0, -1, 0, 2, 0,  0, 1, 1, 0, -1, 0, 2, 0, 1.5f,
+        0, 0, 0, -1, 0, 0,  0, 0, 1, 1, 0, -1, 0, 2, 0, 1.5f,  0, 1, 0, -1, 0, 0, 0, 1.5f},
+        getVertices((GeometryArray)redShape.getGeometry())));
+
+    Appearance blueAppearance = blueShape.getAppearance();
+    assertEquals("Incorrect appearance name", "blue", blueAppearance.getName());
+    Color3f color = new Color3f();
+    blueAppearance.getMaterial().getAmbientColor(color);
+    assertEquals("Incorrect ambient color", new Color3f(0.2f, 0.2f, 0.2f), color);
+    blueAppearance.getMaterial().getDiffuseColor(color);
+    assertEquals("Incorrect diffuse color", new Color3f(0, 0, 1), color);
+    blueAppearance.getMaterial().getSpecularColor(color);
+    assertEquals("Incorrect specular color", new Color3f(1, 1, 1), color);
+    assertEquals("Incorrect shininess", 64f, blueAppearance.getMaterial().getShininess());
+    assertNull("Unexpected transparency", blueAppearance.getTransparencyAttributes());
+    assertNull("Unexpected polygon attributes", blueAppearance.getPolygonAttributes());
+
+    Appearance redAppearance = redShape.getAppearance();
+    assertEquals("Incorrect appearance name", "red", redAppearance.getName());
+    redAppearance.getMaterial().getAmbientColor(color);
+    assertEquals("Incorrect ambient color", new Color3f(0.2f, 0, 0), color);
+    redAppearance.getMaterial().getDiffuseColor(color);
+    assertEquals("Incorrect diffuse color", new Color3f(0.8f, 0, 0), color);
+    redAppearance.getMaterial().getSpecularColor(color);
+    assertEquals("Incorrect specular color", new Color3f(0.2f, 0.2f, 0.2f), color);
+    assertEquals("Incorrect shininess", 30.720001f, redAppearance.getMaterial().getShininess());
+    assertEquals("Incorrect transparency", 0.25f, redAppearance.getTransparencyAttributes().getTransparency());
+    assertEquals("Incorrect cull face", PolygonAttributes.CULL_NONE, redAppearance.getPolygonAttributes().getCullFace());
+  }
+
+  public void testModelsCache() throws IOException {
+    ModelManager modelManager = ModelManager.getInstance();
+    modelManager.clear();
+    long hitCount = modelManager.getModelsCacheHitCount();
+    long missCount = modelManager.getModelsCacheMissCount();
+    long evictionCount = modelManager.getModelsCacheEvictionCount();
+    ModelManager.ModelObserver observer = new ModelManager.ModelObserver() {
+        public void modelUpdated(BranchGroup modelRoot) {
+        }
+
+        public void modelError(Exception ex) {
+          fail(ex.getMessage());
+        }
+      };
+    URLContent model = new URLContent(ModelManagerTest.class.getResource("resources/test.obj"));
+    modelManager.loadModel(model, true, observer);
+    assertEquals("Incorrect miss count", missCount + 1, modelManager.getModelsCacheMissCount());
+    assertTrue("Cache shouldn't be empty", modelManager.getModelsCacheSize() > 0);
+    modelManager.loadModel(model, true, observer);
+    assertEquals("Incorrect hit count", hitCount + 1, modelManager.getModelsCacheHitCount());
+    assertEquals("Incorrect miss count", missCount + 1, modelManager.getModelsCacheMissCount());
+
+    // Check a model used elsewhere stays in cache even once evicted from recently used models
+    long maximumSize = modelManager.getModelsCacheMaximumSize();
+    try {
+      modelManager.setModelsCacheMaximumSize(0);
+      assertEquals("Incorrect eviction count", evictionCount + 1, modelManager.getModelsCacheEvictionCount());
+      modelManager.loadModel(model, true, observer);
+      assertEquals("Incorrect hit count", hitCount + 2, modelManager.getModelsCacheHitCount());
+    } finally {
+      modelManager.setModelsCacheMaximumSize(maximumSize);
+    }
+  }
+
+  /**
+   * Checks models stored in the binary models file cache are read back with the same geometries
+   * and appearances, and that they're invalidated once a resource referenced by a model changes.
+   */
+  public void testBinaryModelCache() throws Exception {
+    File cacheFolder = File.createTempFile("models", "");
+    cacheFolder.delete();
+    cacheFolder.mkdir();
+    URLContent redModel = createZippedModel("1 0 0");
+    URLContent blueModel = createZippedModel("0 0 1");
+
+    ModelManager modelManager = ModelManager.getInstance();
+    Object modelsFileCache = TestUtilities.getField(modelManager, "modelsFileCache");
+    Class<?> cacheClass = Class.forName("com.eteks.sweethome3d.j3d.BinaryModelCache");
+    Constructor<?> cacheConstructor = cacheClass.getDeclaredConstructor(File.class, String.class, long.class);
+    cacheConstructor.setAccessible(true);
+    Object cache = cacheConstructor.newInstance(cacheFolder, "test", 1L << 20);
+    Method readModel = cacheClass.getDeclaredMethod("readModel", URLContent.class);
+    readModel.setAccessible(true);
+    try {
+      TestUtilities.setField(modelManager, "modelsFileCache", cache);
+      assertNull("Model shouldn't be cached", readModel.invoke(cache, redModel));
+      BranchGroup loadedModel = modelManager.loadModel(redModel);
+      assertEquals("Model not cached", 1, cacheFolder.listFiles().length);
+      BranchGroup cachedModel = (BranchGroup)readModel.invoke(cache, redModel);
+      assertNotNull("Cached model not read", cachedModel);
+      assertSameShapes(loadedModel, cachedModel);
+      assertDiffuseColor(cachedModel, new Color3f(1, 0, 0));
+      assertSameShapes(loadedModel, modelManager.loadModel(redModel));
+
+      // Blue model is stored in an other file with the same OBJ entry but a different MTL entry
+      assertNull("Cached model not invalidated", readModel.invoke(cache, blueModel));
+      assertEquals("Invalid cached model not deleted", 0, cacheFolder.listFiles().length);
+      BranchGroup blueLoadedModel = modelManager.loadModel(blueModel);
+      assertDiffuseColor(blueLoadedModel, new Color3f(0, 0, 1));
+      BranchGroup blueCachedModel = (BranchGroup)readModel.invoke(cache, blueModel);
+      assertNotNull("Cached model not read", blueCachedModel);
+      assertSameShapes(blueLoadedModel, blueCachedModel);
+      assertNull("Cached model not invalidated", readModel.invoke(cache, redModel));
+    } finally {
+      TestUtilities.setField(modelManager, "modelsFileCache", modelsFileCache);
+      for (File file : cacheFolder.listFiles()) {
+        file.delete();
+      }
+      cacheFolder.delete();
+    }
+  }
+
+  /**
+   * Returns a 3DS chunk of the given <code>id</code> with <code>contents</code> stored in little endian order,
+   * where contents may be strings, numbers, arrays of numbers or the bytes of other chunks.
+   */
+  private byte [] get3DSChunk(int id, Object ... contents) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    for (Object content : contents) {
+      ByteBuffer buffer;
+      if (content instanceof byte []) {
+        buffer = ByteBuffer.wrap((byte [])content);
+      } else if (content instanceof String) {
+        byte [] bytes = ((String)content).getBytes("ISO-8859-1");
+        buffer = ByteBuffer.allocate(bytes.length + 1).put(bytes).put((byte)0);
+      } else if (content instanceof Short) {
+        buffer = ByteBuffer.allocate(2).order(ByteOrder.LITTLE_ENDIAN).putShort((Short)content);
+      } else if (content instanceof Integer) {
+        buffer = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt((Integer)content);
+      } else if (content instanceof Float) {
+        buffer = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putFloat((Float)content);
+      } else if (content instanceof short []) {
+        short [] values = (short [])content;
+        buffer = ByteBuffer.allocate(values.length * 2).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.asShortBuffer().put(values);
+      } else if (content instanceof float []) {
+        float [] values = (float [])content;
+        buffer = ByteBuffer.allocate(values.length * 4).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.asFloatBuffer().put(values);
+      } else {
+        int [] values = (int [])content;
+        buffer = ByteBuffer.allocate(values.length * 4).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.asIntBuffer().put(values);
+      }
+      out.write(buffer.array());
+    }
+    return ByteBuffer.allocate(6 + out.size()).order(ByteOrder.LITTLE_ENDIAN)
+        .putShort((short)id).putInt(6 + out.size()).put(out.toByteArray()).array();
+  }
+
+  /**
+   * Returns the content of a textured cube stored in a zip file, with a material of the given diffuse color.
+   */
+  private URLContent createZippedModel(String diffuseColor) throws IOException {
+    File zipFile = File.createTempFile("model", ".zip");
+    zipFile.deleteOnExit();
+    ZipOutputStream out = new ZipOutputStream(new FileOutputStream(zipFile));
+    out.putNextEntry(new ZipEntry("model/cube.obj"));
+    StringBuilder obj = new StringBuilder("mtllib cube.mtl\n");
+    for (int i = 0; i < 8; i++) {
+      obj.append("v " + (i & 1) + " " + ((i >> 1) & 1) + " " + ((i >> 2) & 1) + "\n");
+    }
+    obj.append("vt 0 0\nvt 1 0\nvt 1 1\nvt 0 1\n");
+    obj.append("vn 0 0 -1\nvn 0 0 1\nvn 0 -1 0\nvn 0 1 0\nvn -1 0 0\nvn 1 0 0\n");
+    obj.append("g colored\nusemtl color\n");
+    obj.append("f 1/1/1 3/4/1 4/3/1 2/2/1\nf 5/1/2 6/2/2 8/3/2 7/4/2\nf 1/1/3 2/2/3 6/3/3 5/4/3\n");
+    obj.append("g textured\nusemtl texture\n");
+    obj.append("f 3/1/4 7/2/4 8/3/4 4/4/4\nf 1/1/5 5/2/5 7/3/5 3/4/5\nf 2/1/6 4/2/6 8/3/6 6/4/6\n");
+    out.write(obj.toString().getBytes("UTF-8"));
+    out.putNextEntry(new ZipEntry("model/cube.mtl"));
+    out.write(("newmtl color\nKd " + diffuseColor + "\n"
+        + "newmtl texture\nKd 1 1 1\nmap_Kd texture.png\n").getBytes("UTF-8"));
+    out.putNextEntry(new ZipEntry("model/texture.png"));
+    BufferedImage image = new BufferedImage(4, 2, BufferedImage.TYPE_INT_RGB);
+    image.setRGB(1, 1, 0xFF8000);
+    ImageIO.write(image, "png", out);
+    out.close();
+    return new URLContent(new URL("jar:" + zipFile.toURI().toURL() + "!/model/cube.obj"));
+  }
+
+  /**
+   * Asserts the shapes of the given models have the same geometries and appearances.
+   */
+  private void assertSameShapes(Node model1, Node model2) {
+    List<Shape3D> shapes1 = new ArrayList<Shape3D>();
+    getShapes(model1, shapes1);
+    List<Shape3D> shapes2 = new ArrayList<Shape3D>();
+    getShapes(model2, shapes2);
+    assertEquals("Different shapes count", shapes1.size(), shapes2.size());
+    for (int i = 0; i < shapes1.size(); i++) {
+      Shape3D shape1 = shapes1.get(i);
+      Shape3D shape2 = shapes2.get(i);
+      assertEquals("Different shape name", shape1.getName(), shape2.getName());
+      GeometryArray geometry1 = (GeometryArray)shape1.getGeometry();
+      GeometryArray geometry2 = (GeometryArray)shape2.getGeometry();
+      assertSame("Different geometry class", geometry1.getClass(), geometry2.getClass());
+      assertEquals("Different vertex format", geometry1.getVertexFormat(), geometry2.getVertexFormat());
+      assertTrue("Different vertices", Arrays.equals(getVertices(geometry1), getVertices(geometry2)));
+      if (geometry1 instanceof IndexedGeometryArray) {
+        assertTrue("Different indices", Arrays.equals(getIndices((IndexedGeometryArray)geometry1),
+            getIndices((IndexedGeometryArray)geometry2)));
+      }
+
+      Appearance appearance1 = shape1.getAppearance();
+      Appearance appearance2 = shape2.getAppearance();
+      assertEquals("Different appearance name", appearance1.getName(), appearance2.getName());
+      Material material1 = appearance1.getMaterial();
+      Material material2 = appearance2.getMaterial();
+      assertEquals("Different material", material1 != null, material2 != null);
+      if (material1 != null) {
+        Color3f color1 = new Color3f();
+        Color3f color2 = new Color3f();
+        material1.getDiffuseColor(color1);
+        material2.getDiffuseColor(color2);
+        assertEquals("Different diffuse color", color1, color2);
+        material1.getSpecularColor(color1);
+        material2.getSpecularColor(color2);
+        assertEquals("Different specular color", color1, color2);
+        assertEquals("Different shininess", material1.getShininess(), material2.getShininess());
+      }
+      Texture texture1 = appearance1.getTexture();
+      Texture texture2 = appearance2.getTexture();
+      assertEquals("Different texture", texture1 != null, texture2 != null);
+      if (texture1 != null) {
+        assertEquals("Different texture width", texture1.getWidth(), texture2.getWidth());
+        assertEquals("Different texture height", texture1.getHeight(), texture2.getHeight());
+        RenderedImage image1 = ((ImageComponent2D)texture1.getImage(0)).getRenderedImage();
+        RenderedImage image2 = ((ImageComponent2D)texture2.getImage(0)).getRenderedImage();
+        assertEquals("Different texture image", ((BufferedImage)image1).getRGB(1, 1), ((BufferedImage)image2).getRGB(1, 1));
+      }
+      assertEquals("Different transparency", appearance1.getTransparencyAttributes() != null,
+          appearance2.getTransparencyAttributes() != null);
+    }
+  }
+
+  /**
+   * Asserts the first shape of <code>model</code> has the given diffuse color.
+   */
+  private void assertDiffuseColor(Node model, Color3f expectedColor) {
+    List<Shape3D> shapes = new ArrayList<Shape3D>();
+    getShapes(model, shapes);
+    Color3f color = new Color3f();
+    shapes.get(0).getAppearance().getMaterial().getDiffuseColor(color);
+    assertEquals("Incorrect diffuse color", expectedColor, color);
+  }
+
+  /**
+   * Returns the coordinates, normals and texture coordinates of the given <code>geometry</code>.
+   */
+  private float [] getVertices(GeometryArray geometry) {
+    int vertexCount = geometry.getVertexCount();
+    int vertexFormat = geometry.getVertexFormat();
+    if ((vertexFormat & GeometryArray.INTERLEAVED) != 0) {
+      return geometry.getInterleavedVertices();
+    }
+    float [] coordinates;
+    float [] normals = new float [0];
+    float [] textureCoordinates = new float [0];
+    if ((vertexFormat & GeometryArray.BY_REFERENCE) != 0) {
+      coordinates = geometry.getCoordRefFloat();
+      if ((vertexFormat & GeometryArray.NORMALS) != 0) {
+        normals = geometry.getNormalRefFloat();
+      }
+      if ((vertexFormat & GeometryArray.TEXTURE_COORDINATE_2) != 0) {
+        textureCoordinates = geometry.getTexCoordRefFloat(0);
+      }
+    } else {
+      coordinates = new float [vertexCount * 3];
+      geometry.getCoordinates(0, coordinates);
+      if ((vertexFormat & GeometryArray.NORMALS) != 0) {
+        normals = new float [vertexCount * 3];
+        geometry.getNormals(0, normals);
+      }
+      if ((vertexFormat & GeometryArray.TEXTURE_COORDINATE_2) != 0) {
+        textureCoordinates = new float [vertexCount * 2];
+        geometry.getTextureCoordinates(0, 0, textureCoordinates);
+      }
+    }
+    float [] vertices = new float [coordinates.length + normals.length + textureCoordinates.length];
+    System.arraycopy(coordinates, 0, vertices, 0, coordinates.length);
+    System.arraycopy(normals, 0, vertices, coordinates.length, normals.length);
+    System.arraycopy(textureCoordinates, 0, vertices, coordinates.length + normals.length, textureCoordinates.length);
+    return vertices;
+  }
+
+  /**
+   * Returns the coordinate, normal and texture coordinate indices of the given <code>geometry</code>.
+   */
+  private int [] getIndices(IndexedGeometryArray geometry) {
+    int indexCount = geometry.getIndexCount();
+    int vertexFormat = geometry.getVertexFormat();
+    int [] indices = new int [indexCount * 3];
+    if ((vertexFormat & GeometryArray.BY_REFERENCE_INDICES) != 0) {
+      System.arraycopy(geometry.getCoordIndicesRef(), 0, indices, 0, indexCount);
+    } else {
+      int [] coordinateIndices = new int [indexCount];
+      geometry.getCoordinateIndices(0, coordinateIndices);
+      System.arraycopy(coordinateIndices, 0, indices, 0, indexCount);
+    }
+    if ((vertexFormat & GeometryArray.USE_COORD_INDEX_ONLY) == 0) {
+      int [] otherIndices = new int [indexCount];
+      if ((vertexFormat & GeometryArray.NORMALS) != 0) {
+        geometry.getNormalIndices(0, otherIndices);
+        System.arraycopy(otherIndices, 0, indices, indexCount, indexCount);
+      }
+      if ((vertexFormat & GeometryArray.TEXTURE_COORDINATE_2) != 0) {
+        geometry.getTextureCoordinateIndices(0, 0, otherIndices);
+        System.arraycopy(otherIndices, 0, indices, indexCount * 2, indexCount);
+      }
+    }
+    return indices;
+  }
+
+  /**
+   * Loads and clones concurrently different models on all available processors,
+   * and checks the clones are correct and independent from each other.
+   */
+  public void testConcurrentModelsCloning() throws IOException, InterruptedException, ExecutionException {
+    final ModelManager modelManager = ModelManager.getInstance();
+    modelManager.clear();
+    int modelCount = 500;
+    final URLContent [] models = new URLContent [modelCount];
+    for (int i = 0; i < models.length; i++) {
+      File objFile = File.createTempFile("model", ".obj");
+      objFile.deleteOnExit();
+      Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(objFile), "UTF-8"));
+      writer.write("v 0 0 0\nv " + (i + 1) + " 0 0\nv 0 " + (i + 1) + " 0\nv 0 0 " + (i + 1) + "\n"
+          + "f 1 3 2\nf 1 2 4\nf 1 4 3\nf 2 3 4\n");
+      writer.close();
+      models [i] = new URLContent(objFile.toURI().toURL());
+    }
+    long clonedNodesCount = modelManager.getClonedNodesCount();
+
+    ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+    List<Future<BranchGroup []>> clones = new ArrayList<Future<BranchGroup []>>();
+    for (int i = 0; i < models.length; i++) {
+      final URLContent model = models [i];
+      clones.add(executor.submit(new Callable<BranchGroup []>() {
+          public BranchGroup [] call() throws Exception {
+            // Clone also the first model to clone the same model in all threads
+            return new BranchGroup [] {loadModel(modelManager, model, false),
+                                       loadModel(modelManager, models [0], false),
+                                       loadModel(modelManager, models [0], true)};
+          }
+        }));
+    }
+
+    Set<Shape3D> shapes = new HashSet<Shape3D>();
+    Set<Appearance> appearances = new HashSet<Appearance>();
+    Set<Material> materials = new HashSet<Material>();
+    Material sharedMaterial = null;
+    for (int i = 0; i < models.length; i++) {
+      // Future#get rethrows exceptions thrown during loading or cloning
+      BranchGroup [] modelClones = clones.get(i).get();
+      List<Point3f> coordinates = new ArrayList<Point3f>();
+      getCoordinates(modelClones [0], coordinates);
+      assertTrue("Incorrect clone of model " + i, coordinates.contains(new Point3f(i + 1, 0, 0)));
+      for (int j = 0; j < modelClones.length; j++) {
+        List<Shape3D> cloneShapes = new ArrayList<Shape3D>();
+        getShapes(modelClones [j], cloneShapes);
+        assertEquals("Incorrect shapes count", 1, cloneShapes.size());
+        Shape3D shape = cloneShapes.get(0);
+        assertTrue("Shape shared between clones", shapes.add(shape));
+        Appearance appearance = shape.getAppearance();
+        assertTrue("Appearance shared between clones", appearances.add(appearance));
+        Material material = appearance.getMaterial();
+        if (j < 2) {
+          assertTrue("Material shared between clones", materials.add(material));
+        } else if (sharedMaterial == null) {
+          sharedMaterial = material;
+        } else {
+          assertSame("Material not shared between clones", sharedMaterial, material);
+        }
+      }
+    }
+    executor.shutdown();
+    assertFalse("Material shared with a copied material", materials.contains(sharedMaterial));
+    assertEquals("Incorrect cloned nodes count", clonedNodesCount + 3 * modelCount, modelManager.getClonedNodesCount());
+  }
+
+  /**
+   * Returns a clone of the model in <code>content</code> loaded synchronously.
+   */
+  private BranchGroup loadModel(ModelManager modelManager, URLContent content,
+                                boolean shareAppearanceComponents) throws IOException {
+    final BranchGroup [] modelRoot = new BranchGroup [1];
+    final IOException [] modelException = new IOException [1];
+    modelManager.loadModel(content, true, shareAppearanceComponents, new ModelManager.ModelObserver() {
+        public void modelUpdated(BranchGroup root) {
+          modelRoot [0] = root;
+        }
+
+        public void modelError(Exception ex) {
+          modelException [0] = ex instanceof IOException
+              ? (IOException)ex
+              : new IOException(ex.getMessage());
+        }
+      });
+    if (modelException [0] != null) {
+      throw modelException [0];
+    }
+    return modelRoot [0];
+  }
+
+  /**
+   * Adds to <code>shapes</code> the shapes in <code>node</code>.
+   */
+  private void getShapes(Node node, List<Shape3D> shapes) {
+    if (node instanceof Group) {
+      Enumeration<?> enumeration = ((Group)node).getAllChildren();
+      while (enumeration.hasMoreElements ()) {
+        getShapes((Node)enumeration.nextElement(), shapes);
+      }
+    } else if (node instanceof Link) {
+      getShapes(((Link)node).getSharedGroup(), shapes);
+    } else if (node instanceof Shape3D) {
+      shapes.add((Shape3D)node);
+    }
+  }
+
+  /**
+   * Adds to <code>coordinates</code> the vertices of the shapes in <code>node</code>.
+   */
+  private void getCoordinates(Node node, List<Point3f> coordinates) {
+    if (node instanceof Group) {
+      Enumeration<?> enumeration = ((Group)node).getAllChildren();
+      while (enumeration.hasMoreElements ()) {
+        getCoordinates((Node)enumeration.nextElement(), coordinates);
+      }
+    } else if (node instanceof Link) {
+      getCoordinates(((Link)node).getSharedGroup(), coordinates);
+    } else if (node instanceof Shape3D) {
+      GeometryArray geometry = (GeometryArray)((Shape3D)node).getGeometry();
+      int vertexCount = geometry.getVertexCount();
+      if ((geometry.getVertexFormat() & GeometryArray.INTERLEAVED) != 0) {
+        // Coordinates are the last three floats of each interleaved vertex
+        float [] vertices = geometry.getInterleavedVertices();
+        int stride = vertices.length / vertexCount;
+        for (int i = 0; i < vertexCount; i++) {
+          coordinates.add(new Point3f(vertices [(i + 1) * stride - 3],
+              vertices [(i + 1) * stride - 2], vertices [(i + 1) * stride - 1]));
+        }
+      } else if ((geometry.getVertexFormat() & GeometryArray.BY_REFERENCE) != 0) {
+        float [] vertices = geometry.getCoordRefFloat();
+        for (int i = 0; i < vertexCount; i++) {
+          coordinates.add(new Point3f(vertices [i * 3], vertices [i * 3 + 1], vertices [i * 3 + 2]));
+        }
+      } else {
+        for (int i = 0; i < vertexCount; i++) {
+          Point3f point = new Point3f();
+          geometry.getCoordinate(i, point);
+          coordinates.add(point);
+        }
+      }
+    }
+  }
+
   private int getShapesCount(Node node) {
     if (node instanceof Group) {
       int shapesCount = 0;
@@ -105,10 +105,6 @@ public class PackageDependenciesTest extends TestCase {
     // iText for PDF
     JavaPackage iText = constraint.addPackage("com.lowagie.text");
     JavaPackage iTextPdf = constraint.addPackage("com.lowagie.text.pdf");
-    // FreeHEP Vector Graphics for SVG
-    JavaPackage vectorGraphicsUtil = constraint.addPackage("org.freehep.util");
-    JavaPackage vectorGraphics = constraint.addPackage("org.freehep.graphicsio");
-    JavaPackage vectorGraphicsSvg = constraint.addPackage("org.freehep.graphicsio.svg");
     // Batik for SVG path parsing
     JavaPackage orgApacheBatikParser = constraint.addPackage("org.apache.batik.parser");
     // Jeks Parser
@@ -197,9 +193,6 @@ public class PackageDependenciesTest extends TestCase {
     sweetHome3DSwing.dependsUpon(jmfProtocol);
     sweetHome3DSwing.dependsUpon(iText);
     sweetHome3DSwing.dependsUpon(iTextPdf);
-    sweetHome3DSwing.dependsUpon(vectorGraphicsUtil);
-    sweetHome3DSwing.dependsUpon(vectorGraphics);
-    sweetHome3DSwing.dependsUpon(vectorGraphicsSvg);
     sweetHome3DSwing.dependsUpon(jnlp);
 
     sweetHome3DIO.dependsUpon(sweetHome3DModel);
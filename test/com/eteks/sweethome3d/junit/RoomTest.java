@@ -38,6 +38,7 @@ import com.eteks.sweethome3d.io.DefaultUserPreferences;
 import com.eteks.sweethome3d.model.CollectionEvent;
 import com.eteks.sweethome3d.model.CollectionListener;
 import com.eteks.sweethome3d.model.Home;
+import com.eteks.sweethome3d.model.PlanGeometry;
 import com.eteks.sweethome3d.model.RecorderException;
 import com.eteks.sweethome3d.model.Room;
 import com.eteks.sweethome3d.model.Selectable;
@@ -377,6 +378,57 @@ public class RoomTest extends ComponentTestFixture {
     Room room6 = new Room(new float [][] {{0, 0}, {0, 3}, {3, 3}, {3, 0}, {0.5f, 0}, {0.5f, 1}, {2, 1}, {2, 2}, {1, 2}, {1, 0}});
     assertFalse("Shouldn't be singular", room6.isSingular());
     assertEquals("Wrong area", 8.f, room6.getArea());
+    // Room with too many points to be tested as a simple polygon
+    float [][] circlePoints = new float [500][];
+    for (int i = 0; i < circlePoints.length; i++) {
+      double angle = -2 * Math.PI * i / circlePoints.length;
+      circlePoints [i] = new float [] {(float)(100 * Math.cos(angle)), (float)(100 * Math.sin(angle))};
+    }
+    Room room7 = new Room(circlePoints);
+    assertTrue("Should be singular", room7.isSingular());
+    assertEquals("Wrong area", Math.PI * 100 * 100, room7.getArea(), 10);
+  }
+
+  /**
+   * Tests the area, the center and the simplicity of a room are updated once its points changed.
+   */
+  public void testRoomCacheUpdate() {
+    Room room = new Room(new float [][] {{0, 0}, {2, 0}, {2, 2}, {0, 2}});
+    assertRoomGeometry(room, 4, 1, 1, true);
+    // Enlarge room
+    room.setPoint(4, 0, 1);
+    room.setPoint(4, 2, 2);
+    assertRoomGeometry(room, 8, 2, 1, true);
+    // Cross sides to get two triangles
+    room.setPoint(4, 2, 1);
+    room.setPoint(4, 0, 2);
+    assertRoomGeometry(room, 4, 2, 1, false);
+    assertFalse("Shouldn't be singular", room.isSingular());
+    // Restore rectangle and add a notch in its right side
+    room.setPoint(4, 0, 1);
+    room.setPoint(4, 2, 2);
+    room.addPoint(2, 1, 2);
+    assertRoomGeometry(room, 6, 2, 1, true);
+    // Add a point on the left side
+    room.addPoint(-2, 1);
+    assertRoomGeometry(room, 8, 1, 1, true);
+    // Remove the notch
+    room.removePoint(2);
+    assertRoomGeometry(room, 10, 1, 1, true);
+    assertTrue("Should be singular", room.isSingular());
+  }
+
+  private void assertRoomGeometry(Room room, float area, float xCenter, float yCenter, boolean simple) {
+    assertEquals("Wrong area", area, Math.abs(room.getArea()), 1E-5f);
+    assertEquals("Wrong x center", xCenter, room.getXCenter());
+    assertEquals("Wrong y center", yCenter, room.getYCenter());
+    float [][] points = room.getPoints();
+    float [] coordinates = new float [points.length * 2];
+    for (int i = 0; i < points.length; i++) {
+      coordinates [i * 2] = points [i][0];
+      coordinates [i * 2 + 1] = points [i][1];
+    }
+    assertEquals("Wrong simple polygon", simple, PlanGeometry.isSimplePolygon(coordinates, points.length));
   }
 
   public static void main(String [] args) {